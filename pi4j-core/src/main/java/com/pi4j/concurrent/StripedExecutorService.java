@@ -0,0 +1,256 @@
+package com.pi4j.concurrent;
+
+/*-
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  StripedExecutorService.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * <p>
+ * Executor service with a fixed number of worker threads ("stripes"), each consuming its own
+ * bounded task queue.  Tasks implementing {@link StripedRunnable} are assigned to a stripe by their
+ * stripe key, so all tasks with the same key run sequentially and in submission order; other tasks
+ * are distributed round-robin.
+ * </p>
+ *
+ * <p>
+ * When the queue of a stripe is full, {@link #execute(Runnable)} blocks the submitting thread until
+ * the worker has made room; the number of threads and the number of queued tasks are therefore
+ * bounded.  The current and maximum queue depth of each stripe are tracked for monitoring.
+ * </p>
+ */
+public class StripedExecutorService extends AbstractExecutorService {
+
+    private final Worker[] workers;
+    private final int queueCapacity;
+    private final AtomicIntegerArray queueDepth;
+    private final AtomicIntegerArray maxQueueDepth;
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    private volatile boolean shutdown = false;
+
+    /**
+     * @param stripes number of worker threads
+     * @param queueCapacity maximum number of pending tasks per worker thread
+     * @param threadFactory factory used to create the worker threads
+     */
+    public StripedExecutorService(int stripes, int queueCapacity, ThreadFactory threadFactory) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripe count must be greater than 0.");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be greater than 0.");
+        }
+        this.queueCapacity = queueCapacity;
+        this.queueDepth = new AtomicIntegerArray(stripes);
+        this.maxQueueDepth = new AtomicIntegerArray(stripes);
+        this.workers = new Worker[stripes];
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            workers[stripe] = new Worker(stripe, threadFactory);
+        }
+        for (Worker worker : workers) {
+            worker.thread.start();
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        if (shutdown) {
+            throw new RejectedExecutionException("Executor has been shutdown.");
+        }
+
+        int stripe = (command instanceof StripedRunnable)
+                ? getStripe(((StripedRunnable) command).getStripeKey())
+                : getStripe(roundRobin.getAndIncrement());
+
+        // account for the task before it becomes visible to the worker
+        int depth = queueDepth.incrementAndGet(stripe);
+        int max;
+        while (depth > (max = maxQueueDepth.get(stripe)) && !maxQueueDepth.compareAndSet(stripe, max, depth));
+
+        try {
+            // block while the stripe queue is full
+            workers[stripe].queue.put(command);
+        } catch (InterruptedException e) {
+            queueDepth.decrementAndGet(stripe);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting to queue task.", e);
+        }
+    }
+
+    /**
+     * @param key stripe key
+     * @return index of the stripe (worker) handling the given key
+     */
+    public int getStripe(int key) {
+        return Math.floorMod(key, workers.length);
+    }
+
+    public int getStripeCount() {
+        return workers.length;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @param stripe stripe index
+     * @return number of tasks queued or running on the given stripe
+     */
+    public int getQueueDepth(int stripe) {
+        return queueDepth.get(stripe);
+    }
+
+    /**
+     * @param stripe stripe index
+     * @return highest number of tasks queued or running on the given stripe at any time
+     */
+    public int getMaxQueueDepth(int stripe) {
+        return maxQueueDepth.get(stripe);
+    }
+
+    /**
+     * @return number of tasks queued or running on all stripes
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (int stripe = 0; stripe < workers.length; stripe++) {
+            depth += queueDepth.get(stripe);
+        }
+        return depth;
+    }
+
+    /**
+     * Reset the maximum queue depth of all stripes.
+     */
+    public void resetMaxQueueDepth() {
+        for (int stripe = 0; stripe < workers.length; stripe++) {
+            maxQueueDepth.set(stripe, queueDepth.get(stripe));
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        List<Runnable> pending = new ArrayList<>();
+        for (Worker worker : workers) {
+            worker.queue.drainTo(pending);
+            worker.thread.interrupt();
+        }
+        return pending;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        if (!shutdown) {
+            return false;
+        }
+        for (Worker worker : workers) {
+            if (worker.thread.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Worker worker : workers) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return isTerminated();
+            }
+            TimeUnit.NANOSECONDS.timedJoin(worker.thread, remaining);
+        }
+        return isTerminated();
+    }
+
+    private class Worker implements Runnable {
+
+        private final int stripe;
+        private final BlockingQueue<Runnable> queue;
+        private final Thread thread;
+
+        private Worker(int stripe, ThreadFactory threadFactory) {
+            this.stripe = stripe;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = threadFactory.newThread(this);
+        }
+
+        @Override
+        public void run() {
+            while (!(shutdown && queue.isEmpty())) {
+                Runnable task;
+                try {
+                    task = queue.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    if (shutdown) {
+                        return;
+                    }
+                    continue;
+                }
+                if (task == null) {
+                    continue;
+                }
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    // report the failure but keep the worker alive for the next task
+                    Thread.UncaughtExceptionHandler handler = thread.getUncaughtExceptionHandler();
+                    if (handler != null) {
+                        handler.uncaughtException(thread, e);
+                    }
+                } finally {
+                    queueDepth.decrementAndGet(stripe);
+                }
+            }
+        }
+    }
+}
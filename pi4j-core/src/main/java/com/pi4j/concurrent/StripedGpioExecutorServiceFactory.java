@@ -0,0 +1,122 @@
+package com.pi4j.concurrent;
+
+/*-
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  StripedGpioExecutorServiceFactory.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * This {@link ExecutorServiceFactory} extends the {@link DefaultExecutorServiceFactory} but changes the GPIO event
+ * executor to a fixed set of worker threads keyed by pin address.  Events for a pin are always handled by the same
+ * worker thread, so listeners receive them in order; the number of threads and the queue depth per thread are
+ * bounded (a full queue blocks the thread dispatching pin events until the worker catches up).
+ */
+public class StripedGpioExecutorServiceFactory extends DefaultExecutorServiceFactory {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private final int stripes;
+    private final int queueCapacity;
+    private StripedExecutorService executor = null;
+    private ExecutorService executorWrapper = null;
+
+    public StripedGpioExecutorServiceFactory() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param stripes number of GPIO event worker threads
+     * @param queueCapacity maximum number of pending GPIO event tasks per worker thread
+     */
+    public StripedGpioExecutorServiceFactory(int stripes, int queueCapacity) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripe count must be greater than 0.");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be greater than 0.");
+        }
+        this.stripes = stripes;
+        this.queueCapacity = queueCapacity;
+    }
+
+    private synchronized StripedExecutorService getInternalGpioExecutorService() {
+        if (executor == null) {
+            executor = new StripedExecutorService(stripes, queueCapacity, getThreadFactory("pi4j-gpio-event-executor-%d"));
+            executorWrapper = new ShutdownDisabledExecutorWrapper(executor);
+        }
+        return executor;
+    }
+
+    @Override
+    public synchronized ExecutorService getGpioEventExecutorService() {
+        // we return the protected wrapper to prevent any consumers from
+        // being able to shutdown the scheduled executor service
+        getInternalGpioExecutorService();
+        return executorWrapper;
+    }
+
+    public int getStripeCount() {
+        return stripes;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @return number of GPIO event tasks queued or running on all worker threads
+     */
+    public int getQueueDepth() {
+        return getInternalGpioExecutorService().getQueueDepth();
+    }
+
+    /**
+     * @param stripe worker thread index
+     * @return number of GPIO event tasks queued or running on the given worker thread
+     */
+    public int getQueueDepth(int stripe) {
+        return getInternalGpioExecutorService().getQueueDepth(stripe);
+    }
+
+    /**
+     * @param stripe worker thread index
+     * @return highest number of GPIO event tasks queued or running on the given worker thread at any time
+     */
+    public int getMaxQueueDepth(int stripe) {
+        return getInternalGpioExecutorService().getMaxQueueDepth(stripe);
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (this) {
+            if (executor != null) {
+                shutdownExecutor(executor);
+            }
+        }
+        super.shutdown();
+    }
+}
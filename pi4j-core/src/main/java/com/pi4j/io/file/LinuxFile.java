@@ -53,6 +53,9 @@ public class LinuxFile extends RandomAccessFile {
     public static final ThreadLocal<ByteBuffer> localDataBuffer = new ThreadLocal<>();
     public static final ThreadLocal<IntBuffer> localOffsetsBuffer = new ThreadLocal<>();
 
+    // empty pointer offset map for ioctl structures without pointers
+    private static final IntBuffer NO_OFFSETS = ByteBuffer.allocateDirect(4).order(ByteOrder.nativeOrder()).asIntBuffer();
+
     static {
         // Load the platform library
         NativeLibraryLoader.load("libpi4j.so", "pi4j");
@@ -173,6 +176,62 @@ public class LinuxFile extends RandomAccessFile {
         }
     }
 
+    /**
+     * Runs an ioctl on a POSIX file descriptor that is not owned by a LinuxFile, such as a
+     * descriptor the kernel returned in a previous ioctl structure (e.g. a GPIO line request).
+     * The data buffer must be direct and must not contain pointers; the ioctl structure starts at
+     * the current position and the ioctl results are written back in place.
+     *
+     * @param fd POSIX file descriptor
+     * @param command ioctl command
+     * @param data direct buffer holding the ioctl structure
+     * @throws IOException
+     */
+    public static void ioctl(int fd, long command, ByteBuffer data) throws IOException {
+        if(!data.isDirect())
+            throw new IllegalArgumentException("data buffer must be direct!");
+
+        final int response = directIOCTLStructure(fd, command, data, data.position(), NO_OFFSETS, 0, 0);
+
+        if(response < 0)
+            throw new LinuxFileException();
+    }
+
+    /**
+     * Reads from a POSIX file descriptor that is not owned by a LinuxFile into the remaining
+     * space of a direct buffer, waiting at most the given time for data to become available.
+     * The buffer position is advanced by the number of bytes read.
+     *
+     * @param fd POSIX file descriptor
+     * @param data direct buffer to read into
+     * @param timeoutMillis time to wait for data in milliseconds; negative to wait indefinitely
+     * @return number of bytes read; 0 if no data became available before the timeout
+     * @throws IOException
+     */
+    public static int read(int fd, ByteBuffer data, int timeoutMillis) throws IOException {
+        if(!data.isDirect())
+            throw new IllegalArgumentException("data buffer must be direct!");
+
+        final int response = directRead(fd, data, data.position(), data.remaining(), timeoutMillis);
+
+        if(response < 0)
+            throw new LinuxFileException();
+
+        data.position(data.position() + response);
+        return response;
+    }
+
+    /**
+     * Closes a POSIX file descriptor that is not owned by a LinuxFile.
+     *
+     * @param fd POSIX file descriptor
+     * @throws IOException
+     */
+    public static void close(int fd) throws IOException {
+        if(directClose(fd) < 0)
+            throw new LinuxFileException();
+    }
+
     /**
      * Gets the real POSIX file descriptor for use by custom jni calls.
      */
@@ -272,5 +331,9 @@ public class LinuxFile extends RandomAccessFile {
 
     protected static native int directIOCTLStructure(int fd, long command, ByteBuffer data, int dataOffset, IntBuffer offsetMap, int offsetMapOffset, int offsetCapacity);
 
+    protected static native int directRead(int fd, ByteBuffer data, int dataOffset, int length, int timeout);
+
+    protected static native int directClose(int fd);
+
     protected static native int getPosixFD(FileDescriptor fileDescriptor);
 }
@@ -0,0 +1,131 @@
+package com.pi4j.io.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioChipDevice.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Operations of a Linux GPIO character device (<code>/dev/gpiochipN</code>, uAPI v2) used by
+ * {@link GpioChipGpioProvider}.  Lines are identified by their index in the line request, which
+ * is also their bit position in the line value masks.
+ *
+ * @see LinuxGpioChipDevice
+ */
+public interface GpioChipDevice extends Closeable {
+
+    // maximum number of lines in a line request (GPIO_V2_LINES_MAX)
+    int LINES_MAX = 64;
+
+    // size of a line event (struct gpio_v2_line_event)
+    int EVENT_SIZE = 48;
+
+    // byte offsets of the line event fields
+    int EVENT_TIMESTAMP = 0;
+    int EVENT_ID = 8;
+    int EVENT_OFFSET = 12;
+
+    // line event ids (enum gpio_v2_line_event_id)
+    int EVENT_RISING_EDGE = 1;
+    int EVENT_FALLING_EDGE = 2;
+
+    // line flags (enum gpio_v2_line_flag)
+    long FLAG_ACTIVE_LOW = 1L << 1;
+    long FLAG_INPUT = 1L << 2;
+    long FLAG_OUTPUT = 1L << 3;
+    long FLAG_EDGE_RISING = 1L << 4;
+    long FLAG_EDGE_FALLING = 1L << 5;
+    long FLAG_OPEN_DRAIN = 1L << 6;
+    long FLAG_OPEN_SOURCE = 1L << 7;
+    long FLAG_BIAS_PULL_UP = 1L << 8;
+    long FLAG_BIAS_PULL_DOWN = 1L << 9;
+    long FLAG_BIAS_DISABLED = 1L << 10;
+
+    /**
+     * Requests a set of lines for exclusive use.
+     *
+     * @param offsets chip line offsets
+     * @param flags line flags for each line
+     * @param outputValues initial values of the output lines (bit n is the value of line n)
+     * @param consumer consumer label
+     * @return line request handle
+     * @throws IOException
+     */
+    int requestLines(int[] offsets, long[] flags, long outputValues, String consumer) throws IOException;
+
+    /**
+     * Updates the configuration of all lines of a line request.
+     *
+     * @param request line request handle
+     * @param flags line flags for each line
+     * @param outputValues values of the output lines (bit n is the value of line n)
+     * @throws IOException
+     */
+    void setLineConfig(int request, long[] flags, long outputValues) throws IOException;
+
+    /**
+     * Reads the values of the selected lines of a line request with a single operation.
+     *
+     * @param request line request handle
+     * @param mask lines to read (bit n selects line n)
+     * @return line values (bit n is the value of line n)
+     * @throws IOException
+     */
+    long getValues(int request, long mask) throws IOException;
+
+    /**
+     * Sets the values of the selected output lines of a line request with a single operation.
+     *
+     * @param request line request handle
+     * @param mask lines to set (bit n selects line n)
+     * @param values line values (bit n is the value of line n)
+     * @throws IOException
+     */
+    void setValues(int request, long mask, long values) throws IOException;
+
+    /**
+     * Reads the pending edge events of a line request into the buffer (cleared first); each event
+     * occupies {@link #EVENT_SIZE} bytes in native byte order.
+     *
+     * @param request line request handle
+     * @param events direct buffer receiving the events
+     * @param timeoutMillis time to wait for an event; negative to wait indefinitely
+     * @return number of events read; 0 if no event occurred before the timeout
+     * @throws IOException
+     */
+    int readEvents(int request, ByteBuffer events, int timeoutMillis) throws IOException;
+
+    /**
+     * Releases the lines of a line request.
+     *
+     * @param request line request handle
+     * @throws IOException
+     */
+    void releaseLines(int request) throws IOException;
+}
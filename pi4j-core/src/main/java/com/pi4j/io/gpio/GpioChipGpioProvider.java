@@ -0,0 +1,652 @@
+package com.pi4j.io.gpio;
+
+import com.pi4j.io.gpio.event.PinListener;
+import com.pi4j.io.gpio.exception.InvalidPinException;
+import com.pi4j.io.gpio.exception.UnsupportedPinModeException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioChipGpioProvider.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * {@link GpioProvider} implementation on the Linux GPIO character device
+ * (<code>/dev/gpiochipN</code>).  Pin addresses are the line offsets of the GPIO chip, which
+ * on the Raspberry Pi are the Broadcom GPIO numbers; see {@link RaspiBcmPin}.
+ *
+ * All exported pins are held in a single line request, so {@link #setState(Pin[], int, int)}
+ * and {@link #getState(Pin[])} change or read any number of pins atomically with a single
+ * ioctl call.  Mode, pull resistance and listener changes reconfigure the line request in
+ * place; exporting or unexporting a pin re-requests the lines, keeping the output states.
+ *
+ * Input pins with listeners are configured for edge detection on both edges.  A single
+ * daemon thread reads the edge events of all lines from the line request in batches and
+ * dispatches them with the kernel event timestamps, which share the
+ * {@link System#nanoTime()} time base (CLOCK_MONOTONIC).  Edges are queued by the kernel,
+ * so short pulses are reported even if the pin state has changed again when they are read.
+ *
+ * Pin reads and writes do not take the configuration lock: they use the line request that is
+ * current when they start, and re-requesting the lines waits until no read, write or event
+ * poll still uses the file descriptor of the previous request before releasing it.
+ */
+@SuppressWarnings("unused")
+public class GpioChipGpioProvider extends GpioProviderBase implements GpioProvider {
+
+    // on the Raspberry Pi, pins are shared with the (wiringPi based) Raspberry Pi provider
+    public static final String NAME = RaspiGpioProvider.NAME;
+
+    public static final String DEFAULT_CHIP = "/dev/gpiochip0";
+
+    // consumer label of the line request, shown by the kernel as the owner of the lines
+    public static final String CONSUMER = "pi4j";
+
+    // maximum time the event reader keeps a line request in use while waiting for events;
+    // re-requesting the lines waits for the poll in progress to complete
+    private static final int EVENT_POLL_TIMEOUT = 10;
+
+    // maximum number of line events read with a single read call
+    private static final int EVENT_BATCH_SIZE = 16;
+
+    private final String name;
+    private final GpioChipDevice device;
+
+    // serializes line requests, line configuration changes and event reader start/stop
+    private final ReentrantLock lock = new ReentrantLock(true);
+
+    // current line request; replaced (never modified) while holding the lock
+    private volatile LineRequest lineRequest = LineRequest.none();
+    private volatile boolean edgeDetection = false;
+    private Thread eventReader;
+
+    // last output state of each pin address, re-applied when the lines are requested again
+    private final BitSet outputStates = new BitSet();
+
+    /**
+     * Default Constructor; opens the GPIO chip {@link #DEFAULT_CHIP}.
+     *
+     * @throws IOException if the GPIO chip cannot be opened
+     */
+    public GpioChipGpioProvider() throws IOException {
+        this(DEFAULT_CHIP);
+    }
+
+    /**
+     * Alternate Constructor opening the given GPIO chip.
+     *
+     * @param chip GPIO character device path, e.g. <code>/dev/gpiochip0</code>
+     * @throws IOException if the GPIO chip cannot be opened
+     */
+    public GpioChipGpioProvider(String chip) throws IOException {
+        this(NAME, new LinuxGpioChipDevice(chip));
+    }
+
+    /**
+     * Alternate Constructor using a GPIO chip device implementation.
+     *
+     * @param name provider name of the pins served by this provider
+     * @param device GPIO chip device
+     */
+    public GpioChipGpioProvider(String name, GpioChipDevice device) {
+        this.name = name;
+        this.device = device;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean hasPin(Pin pin) {
+        return super.hasPin(pin) && pin.getAddress() >= 0;
+    }
+
+    @Override
+    public void export(Pin pin, PinMode mode, PinState defaultState) {
+        // request output lines with their default state
+        if (defaultState != null && mode == PinMode.DIGITAL_OUTPUT) {
+            setOutputState(pin, defaultState);
+        }
+        super.export(pin, mode, defaultState);
+    }
+
+    @Override
+    public void export(Pin pin, PinMode mode) {
+        validateDigitalMode(pin, mode);
+        super.export(pin, mode);
+
+        lock.lock();
+        try {
+            if (getLineIndex(pin) < 0) {
+                Pin[] lines = lineRequest.lines;
+                if (lines.length >= GpioChipDevice.LINES_MAX) {
+                    throw new RuntimeException("Unable to export pin [" + pin.getName() + "]; a line request is limited to " + GpioChipDevice.LINES_MAX + " lines.");
+                }
+                Pin[] requested = Arrays.copyOf(lines, lines.length + 1);
+                requested[lines.length] = pin;
+                requestLines(requested);
+            } else {
+                configureLines();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void unexport(Pin pin) {
+        super.unexport(pin);
+
+        lock.lock();
+        try {
+            int index = getLineIndex(pin);
+            if (index >= 0) {
+                Pin[] lines = lineRequest.lines;
+                Pin[] requested = new Pin[lines.length - 1];
+                System.arraycopy(lines, 0, requested, 0, index);
+                System.arraycopy(lines, index + 1, requested, index, requested.length - index);
+                requestLines(requested);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void setMode(Pin pin, PinMode mode) {
+        validateDigitalMode(pin, mode);
+        super.setMode(pin, mode);
+        updateLineConfig(pin);
+    }
+
+    @Override
+    public void setPullResistance(Pin pin, PinPullResistance resistance) {
+        super.setPullResistance(pin, resistance);
+        updateLineConfig(pin);
+    }
+
+    @Override
+    public void addListener(Pin pin, PinListener listener) {
+        super.addListener(pin, listener);
+        updateLineConfig(pin);
+    }
+
+    @Override
+    public void removeListener(Pin pin, PinListener listener) {
+        super.removeListener(pin, listener);
+        updateLineConfig(pin);
+    }
+
+    @Override
+    public void setState(Pin pin, PinState state) {
+        // skip the write and the event if the pin already has this state
+        if (isRedundantWrite(pin, state)) {
+            return;
+        }
+
+        // validate pin and pin mode
+        validateDigitalOutput(pin);
+
+        // control GPIO line
+        writeLine(pin, state);
+
+        // for digital output pins, we will echo the event feedback
+        dispatchPinDigitalStateChangeEvent(pin, state);
+
+        // cache pin state
+        getPinCache(pin).setState(state);
+    }
+
+    @Override
+    public void setState(Pin[] pins, int mask, int values) {
+        // skip the pins that already have the requested state
+        mask = elideRedundantWrites(pins, mask, values);
+
+        // validate all pins and pin modes before changing any line
+        for (int index = 0; index < pins.length; index++) {
+            if ((mask & (1 << index)) != 0) {
+                validateDigitalOutput(pins[index]);
+            }
+        }
+
+        // control GPIO lines; all lines change with a single operation
+        LineRequest current = acquireLineRequest();
+        try {
+            long lineMask = 0, lineValues = 0;
+            for (int index = 0; index < pins.length; index++) {
+                int bit = 1 << index;
+                if ((mask & bit) == 0) {
+                    continue;
+                }
+                long lineBit = 1L << current.requireLineIndex(pins[index]);
+                lineMask |= lineBit;
+                if ((values & bit) != 0) {
+                    lineValues |= lineBit;
+                }
+            }
+            if (lineMask != 0) {
+                device.setValues(current.fd, lineMask, lineValues);
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            current.release();
+        }
+
+        // for digital output pins, we will echo the event feedback and cache the pin state
+        for (int index = 0; index < pins.length; index++) {
+            int bit = 1 << index;
+            if ((mask & bit) != 0) {
+                PinState state = PinState.getState((values & bit) != 0);
+                setOutputState(pins[index], state);
+                dispatchPinDigitalStateChangeEvent(pins[index], state);
+                getPinCache(pins[index]).setState(state);
+            }
+        }
+    }
+
+    @Override
+    public PinState getState(Pin pin) {
+        // validate pin and pin mode
+        super.getState(pin);
+
+        // return line state
+        return readLine(pin);
+    }
+
+    @Override
+    public int getState(Pin[] pins) {
+        // validate all pins and pin modes before reading the lines
+        for (int index = 0; index < pins.length; index++) {
+            super.getState(pins[index]);
+        }
+
+        // read all lines with a single operation
+        long lineValues;
+        int[] bits = new int[pins.length];
+        LineRequest current = acquireLineRequest();
+        try {
+            long lineMask = 0;
+            for (int index = 0; index < pins.length; index++) {
+                bits[index] = current.requireLineIndex(pins[index]);
+                lineMask |= 1L << bits[index];
+            }
+            lineValues = (lineMask != 0) ? device.getValues(current.fd, lineMask) : 0;
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            current.release();
+        }
+        int values = 0;
+        for (int index = 0; index < pins.length; index++) {
+            if ((lineValues & (1L << bits[index])) != 0) {
+                values |= 1 << index;
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public GpioStateHandle getStateHandle(Pin pin) {
+        // the pin is validated once; the line index is looked up on each access since
+        // unexporting other pins renumbers the lines of the line request
+        return new DigitalStateHandle(pin) {
+            @Override
+            protected void write(PinState state) {
+                writeLine(pin, state);
+            }
+
+            @Override
+            protected PinState read() {
+                return readLine(pin);
+            }
+        };
+    }
+
+    @Override
+    public void shutdown() {
+
+        // prevent reentrant invocation
+        if(isShutdown())
+            return;
+
+        // perform shutdown login in base; removing the listeners stops the event reader
+        super.shutdown();
+
+        lock.lock();
+        try {
+            LineRequest previous = lineRequest;
+            previous.retire();
+            lineRequest = LineRequest.none();
+            if (previous.fd >= 0) {
+                device.releaseLines(previous.fd);
+            }
+            device.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void validateDigitalMode(Pin pin, PinMode mode) {
+        if (mode != PinMode.DIGITAL_INPUT && mode != PinMode.DIGITAL_OUTPUT) {
+            throw new UnsupportedPinModeException(pin, mode);
+        }
+    }
+
+    private int getLineIndex(Pin pin) {
+        return lineRequest.getLineIndex(pin);
+    }
+
+    // returns the current line request, in use until released; if the lines are being
+    // requested again, waits for the new line request
+    private LineRequest acquireLineRequest() {
+        while (true) {
+            LineRequest current = lineRequest;
+            if (current.acquire()) {
+                return current;
+            }
+            lock.lock();
+            lock.unlock();
+        }
+    }
+
+    private void writeLine(Pin pin, PinState state) {
+        LineRequest current = acquireLineRequest();
+        try {
+            long bit = 1L << current.requireLineIndex(pin);
+            device.setValues(current.fd, bit, state.isHigh() ? bit : 0);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            current.release();
+        }
+        setOutputState(pin, state);
+    }
+
+    private PinState readLine(Pin pin) {
+        LineRequest current = acquireLineRequest();
+        try {
+            long bit = 1L << current.requireLineIndex(pin);
+            return PinState.getState((device.getValues(current.fd, bit) & bit) != 0);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            current.release();
+        }
+    }
+
+    private void setOutputState(Pin pin, PinState state) {
+        synchronized (outputStates) {
+            outputStates.set(pin.getAddress(), state.isHigh());
+        }
+    }
+
+    private void updateLineConfig(Pin pin) {
+        lock.lock();
+        try {
+            if (getLineIndex(pin) >= 0) {
+                configureLines();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // must be called while holding the lock
+    private void requestLines(Pin[] requested) {
+        int[] index = new int[0];
+        for (int i = 0; i < requested.length; i++) {
+            int address = requested[i].getAddress();
+            if (address >= index.length) {
+                int length = index.length;
+                index = Arrays.copyOf(index, address + 1);
+                Arrays.fill(index, length, index.length, -1);
+            }
+            index[address] = i;
+        }
+
+        // the kernel only grants the lines once the previous request is released, so wait
+        // for the reads, writes and event polls still using it
+        LineRequest previous = lineRequest;
+        previous.retire();
+        int fd = -1;
+        try {
+            if (previous.fd >= 0) {
+                device.releaseLines(previous.fd);
+            }
+            if (requested.length > 0) {
+                int[] offsets = new int[requested.length];
+                for (int i = 0; i < requested.length; i++) {
+                    offsets[i] = requested[i].getAddress();
+                }
+                fd = device.requestLines(offsets, getLineFlags(requested), getOutputValues(requested), CONSUMER);
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            lineRequest = new LineRequest(fd, requested, index);
+        }
+        updateEventReader();
+    }
+
+    // must be called while holding the lock
+    private void configureLines() {
+        LineRequest current = lineRequest;
+        try {
+            device.setLineConfig(current.fd, getLineFlags(current.lines), getOutputValues(current.lines));
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+        updateEventReader();
+    }
+
+    // must be called while holding the lock
+    private long[] getLineFlags(Pin[] lines) {
+        long[] flags = new long[lines.length];
+        boolean edges = false;
+        for (int i = 0; i < lines.length; i++) {
+            flags[i] = getLineFlags(lines[i]);
+            edges |= (flags[i] & GpioChipDevice.FLAG_EDGE_RISING) != 0;
+        }
+        edgeDetection = edges;
+        return flags;
+    }
+
+    private long getLineFlags(Pin pin) {
+        GpioProviderPinCache pc = getPinCache(pin);
+        if (pc.getMode() == PinMode.DIGITAL_OUTPUT) {
+            return GpioChipDevice.FLAG_OUTPUT;
+        }
+
+        long flags = GpioChipDevice.FLAG_INPUT;
+        if (pc.getResistance() == PinPullResistance.PULL_UP) {
+            flags |= GpioChipDevice.FLAG_BIAS_PULL_UP;
+        } else if (pc.getResistance() == PinPullResistance.PULL_DOWN) {
+            flags |= GpioChipDevice.FLAG_BIAS_PULL_DOWN;
+        } else if (pc.getResistance() == PinPullResistance.OFF) {
+            flags |= GpioChipDevice.FLAG_BIAS_DISABLED;
+        }
+
+        // only lines with listeners generate edge events
+        if (getListenerRegistration(pin.getAddress()) != null) {
+            flags |= GpioChipDevice.FLAG_EDGE_RISING | GpioChipDevice.FLAG_EDGE_FALLING;
+        }
+        return flags;
+    }
+
+    private long getOutputValues(Pin[] lines) {
+        long values = 0;
+        synchronized (outputStates) {
+            for (int i = 0; i < lines.length; i++) {
+                if (outputStates.get(lines[i].getAddress())) {
+                    values |= 1L << i;
+                }
+            }
+        }
+        return values;
+    }
+
+    // must be called while holding the lock
+    private void updateEventReader() {
+        if (edgeDetection && eventReader == null) {
+            eventReader = new Thread(this::readEvents, "pi4j-gpiochip-events");
+            eventReader.setDaemon(true);
+            eventReader.start();
+        }
+    }
+
+    private void readEvents() {
+        ByteBuffer events = ByteBuffer.allocateDirect(EVENT_BATCH_SIZE * GpioChipDevice.EVENT_SIZE).order(ByteOrder.nativeOrder());
+        boolean failed = false;
+        while (!isShutdown()) {
+            // the reader stops when no line has edge detection enabled; it is
+            // started again by the next configuration enabling edge detection
+            LineRequest current = lineRequest;
+            if (!edgeDetection || current.fd < 0) {
+                lock.lock();
+                try {
+                    if (!edgeDetection || lineRequest.fd < 0) {
+                        eventReader = null;
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                continue;
+            }
+
+            // poll without holding the configuration lock
+            int count = 0;
+            current = acquireLineRequest();
+            try {
+                if (current.fd >= 0) {
+                    count = device.readEvents(current.fd, events, EVENT_POLL_TIMEOUT);
+                }
+            } catch (IOException ex) {
+                if (!isShutdown()) {
+                    ex.printStackTrace();
+                    failed = true;
+                }
+            } finally {
+                current.release();
+            }
+
+            // back off after a failed read rather than retrying in a busy loop
+            if (failed) {
+                failed = false;
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(EVENT_POLL_TIMEOUT));
+            }
+
+            // dispatch the batch in kernel event order
+            for (int i = 0; i < count; i++) {
+                int event = i * GpioChipDevice.EVENT_SIZE;
+                long timestamp = events.getLong(event + GpioChipDevice.EVENT_TIMESTAMP);
+                int id = events.getInt(event + GpioChipDevice.EVENT_ID);
+                int offset = events.getInt(event + GpioChipDevice.EVENT_OFFSET);
+                PinState state = PinState.getState(id == GpioChipDevice.EVENT_RISING_EDGE);
+                dispatchPinDigitalStateChangeEvent(offset, state, timestamp);
+            }
+        }
+    }
+
+    /**
+     * Immutable line request: the request file descriptor together with the requested pins in
+     * line request order.  The line index of a pin is its bit position in the line value masks;
+     * lineIndex maps each pin address to its line index (or -1).
+     *
+     * Operations on the file descriptor hold a reference from {@link #acquire()} until
+     * {@link #release()}; {@link #retire()} refuses new references and waits for the
+     * remaining ones, so the descriptor is never used after it has been released.
+     */
+    private static final class LineRequest {
+
+        // added to the reference count once the request is retired
+        private static final int RETIRED = Integer.MIN_VALUE;
+
+        final int fd;
+        final Pin[] lines;
+        final int[] lineIndex;
+        private final AtomicInteger references = new AtomicInteger();
+
+        LineRequest(int fd, Pin[] lines, int[] lineIndex) {
+            this.fd = fd;
+            this.lines = lines;
+            this.lineIndex = lineIndex;
+        }
+
+        // an empty line request; not shared, since each provider retires its own requests
+        static LineRequest none() {
+            return new LineRequest(-1, new Pin[0], new int[0]);
+        }
+
+        int getLineIndex(Pin pin) {
+            int address = pin.getAddress();
+            return (address < lineIndex.length) ? lineIndex[address] : -1;
+        }
+
+        int requireLineIndex(Pin pin) {
+            int index = getLineIndex(pin);
+            if (index < 0) {
+                throw new InvalidPinException(pin);
+            }
+            return index;
+        }
+
+        boolean acquire() {
+            while (true) {
+                int count = references.get();
+                if (count < 0) {
+                    return false;
+                }
+                if (references.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release() {
+            references.decrementAndGet();
+        }
+
+        void retire() {
+            references.addAndGet(RETIRED);
+            while (references.get() != RETIRED) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+            }
+        }
+    }
+}
@@ -123,6 +123,15 @@ public interface GpioController {
     GpioPinDigitalInput provisionDigitalInputPin(Pin pin, String name);
     GpioPinDigitalInput provisionDigitalInputPin(Pin pin);
 
+    GpioPinCounter provisionCounterPin(GpioProvider provider, Pin pin, String name, PinEdge edge, PinPullResistance resistance);
+    GpioPinCounter provisionCounterPin(GpioProvider provider, Pin pin, String name, PinEdge edge);
+    GpioPinCounter provisionCounterPin(GpioProvider provider, Pin pin, PinEdge edge);
+    GpioPinCounter provisionCounterPin(GpioProvider provider, Pin pin);
+    GpioPinCounter provisionCounterPin(Pin pin, String name, PinEdge edge, PinPullResistance resistance);
+    GpioPinCounter provisionCounterPin(Pin pin, String name, PinEdge edge);
+    GpioPinCounter provisionCounterPin(Pin pin, PinEdge edge);
+    GpioPinCounter provisionCounterPin(Pin pin);
+
     GpioPinDigitalOutput provisionDigitalOutputPin(GpioProvider provider, Pin pin, String name, PinState defaultState);
     GpioPinDigitalOutput provisionDigitalOutputPin(GpioProvider provider, Pin pin, PinState defaultState);
     GpioPinDigitalOutput provisionDigitalOutputPin(GpioProvider provider, Pin pin, String name);
@@ -132,6 +141,16 @@ public interface GpioController {
     GpioPinDigitalOutput provisionDigitalOutputPin(Pin pin, String name);
     GpioPinDigitalOutput provisionDigitalOutputPin(Pin pin);
 
+    GpioPort provisionDigitalOutputPort(GpioProvider provider, PinState defaultState, Pin... pin);
+    GpioPort provisionDigitalOutputPort(GpioProvider provider, Pin... pin);
+    GpioPort provisionDigitalOutputPort(PinState defaultState, Pin... pin);
+    GpioPort provisionDigitalOutputPort(Pin... pin);
+
+    GpioPort provisionDigitalInputPort(GpioProvider provider, PinPullResistance resistance, Pin... pin);
+    GpioPort provisionDigitalInputPort(GpioProvider provider, Pin... pin);
+    GpioPort provisionDigitalInputPort(PinPullResistance resistance, Pin... pin);
+    GpioPort provisionDigitalInputPort(Pin... pin);
+
     GpioPinAnalogInput provisionAnalogInputPin(GpioProvider provider, Pin pin, String name);
     GpioPinAnalogInput provisionAnalogInputPin(GpioProvider provider, Pin pin);
     GpioPinAnalogInput provisionAnalogInputPin(Pin pin, String name);
@@ -181,6 +200,7 @@ public interface GpioController {
     GpioPin getProvisionedPin(String name);
 
     void unprovisionPin(GpioPin... pin);
+    void unprovisionPort(GpioPort port);
     boolean isShutdown();
     void shutdown();
 }
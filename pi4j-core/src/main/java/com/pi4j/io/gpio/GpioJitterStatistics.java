@@ -0,0 +1,71 @@
+package com.pi4j.io.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioJitterStatistics.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Lateness of timed GPIO operations (pulse and blink edges, waveform segments) relative to
+ * their deadlines.
+ */
+public class GpioJitterStatistics {
+
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long lastNanos;
+
+    public GpioJitterStatistics(long count, long totalNanos, long maxNanos, long lastNanos) {
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.lastNanos = lastNanos;
+    }
+
+    /**
+     * @return number of timed operations
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public long getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getLastNanos() {
+        return lastNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + ", mean=" + getMeanNanos() + "ns, max=" + maxNanos + "ns, last=" + lastNanos + "ns";
+    }
+}
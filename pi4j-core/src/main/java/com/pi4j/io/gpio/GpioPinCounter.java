@@ -0,0 +1,94 @@
+package com.pi4j.io.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioPinCounter.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Digital input pin that counts pin edges; e.g. for pulse counting flow meters, anemometers
+ * or frequency measurements.
+ *
+ * Edges are counted in the GPIO provider's interrupt path, before (and independent of) the
+ * dispatch of GPIO pin events to listeners and triggers; counting does not create any events.
+ */
+@SuppressWarnings("unused")
+public interface GpioPinCounter extends GpioPinDigitalInput {
+
+    /**
+     * Default sliding window (in milliseconds) over which the edge rate is calculated.
+     */
+    long DEFAULT_RATE_WINDOW = 1000;
+
+    /**
+     * Gets the number of edges counted since the counter was enabled or last reset.
+     *
+     * @return edge count
+     */
+    long getCount();
+
+    /**
+     * Resets the edge count to zero.
+     *
+     * @return the edge count before the reset
+     */
+    long resetCount();
+
+    /**
+     * Gets the rate of counted edges over the sliding rate window.
+     *
+     * @return edges per second
+     */
+    double getRate();
+
+    /**
+     * Gets the sliding window (in milliseconds) over which the edge rate is calculated.
+     *
+     * @return rate window in milliseconds
+     */
+    long getRateWindow();
+
+    /**
+     * Sets the sliding window (in milliseconds) over which the edge rate is calculated; the edge
+     * rate is reported with a granularity of one tenth of this window.
+     *
+     * @param window rate window in milliseconds
+     */
+    void setRateWindow(long window);
+
+    /**
+     * Gets the pin edge(s) that are counted.
+     *
+     * @return counted pin edge; {@link PinEdge#NONE} if counting is disabled
+     */
+    PinEdge getCountEdge();
+
+    /**
+     * Sets the pin edge(s) to count; {@link PinEdge#NONE} disables counting.
+     *
+     * @param edge pin edge to count
+     */
+    void setCountEdge(PinEdge edge);
+}
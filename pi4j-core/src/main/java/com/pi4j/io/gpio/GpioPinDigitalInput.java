@@ -66,4 +66,26 @@ public interface GpioPinDigitalInput extends GpioPinDigital, GpioPinInput {
      * @param state The pin states to apply the debounce delay interval to.
      */
     void setDebounce(int debounce, PinState ... state);
+
+    /**
+     * Gets the mode in which the debounce delay intervals are applied.
+     *
+     * @return the debounce mode; {@link PinDebounceMode#LEADING_EDGE} by default.
+     */
+    default PinDebounceMode getDebounceMode() {
+        return PinDebounceMode.LEADING_EDGE;
+    }
+
+    /**
+     * Sets the mode in which the debounce delay intervals are applied.  Implementations that
+     * only support the {@link PinDebounceMode#LEADING_EDGE} mode do not need to override this.
+     *
+     * @param mode The debounce mode.
+     * @throws UnsupportedOperationException if the pin does not support the debounce mode.
+     */
+    default void setDebounceMode(PinDebounceMode mode) {
+        if (mode != getDebounceMode()) {
+            throw new UnsupportedOperationException("Debounce mode " + mode + " is not supported by this pin.");
+        }
+    }
 }
@@ -73,6 +73,15 @@ public interface GpioPinDigitalOutput extends GpioPinDigital, GpioPinOutput {
     void pulseSync(long duration, PinState pulseState) throws InterruptedException;
     void pulseSync(long duration, PinState pulseState, TimeUnit timeUnit) throws InterruptedException;
 
+    /**
+     * Plays a waveform on this pin on the dedicated waveform thread; bit 0 of the segment states
+     * is the pin state.
+     *
+     * @param waveform waveform to play
+     * @return future completing at the end of the waveform with the lateness of the segment writes
+     */
+    Future<GpioJitterStatistics> play(GpioWaveform waveform);
+
     void setState(PinState state);
     void setState(boolean state);
 
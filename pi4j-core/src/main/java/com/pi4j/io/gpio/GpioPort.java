@@ -0,0 +1,99 @@
+package com.pi4j.io.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioPort.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Group of digital GPIO pins on a single GPIO provider that are read and written together as a
+ * bitmask; bit <i>n</i> of a value corresponds to the pin at index <i>n</i> of the port.
+ *
+ * Port transfers are delegated to {@link GpioProvider#setState(Pin[], int, int)} and
+ * {@link GpioProvider#getState(Pin[])}, which providers may implement as a single register
+ * transfer instead of one operation per pin.
+ */
+@SuppressWarnings("unused")
+public interface GpioPort {
+
+    /**
+     * Maximum number of pins in a port.
+     */
+    int MAX_SIZE = 32;
+
+    GpioProvider getProvider();
+
+    /**
+     * @return the port pins in bit order
+     */
+    List<GpioPinDigital> getPins();
+
+    GpioPinDigital getPin(int index);
+
+    /**
+     * @return number of pins in the port
+     */
+    int size();
+
+    /**
+     * @return bitmask with the bits of all port pins set
+     */
+    int getMask();
+
+    /**
+     * Reads the state of all port pins.
+     *
+     * @return bitmask of the port pin states; a set bit is a HIGH pin state
+     */
+    int read();
+
+    /**
+     * Writes the state of all port pins; the port pins must be digital outputs.
+     *
+     * @param values bitmask of the port pin states; a set bit is a HIGH pin state
+     */
+    void write(int values);
+
+    /**
+     * Writes the state of the port pins selected by the mask, leaving the other pins unchanged;
+     * the selected port pins must be digital outputs.
+     *
+     * @param mask bitmask of the port pins to write
+     * @param values bitmask of the port pin states; a set bit is a HIGH pin state
+     */
+    void write(int mask, int values);
+
+    /**
+     * Plays a waveform on the port pins on the dedicated waveform thread; the state bitmask of each
+     * segment is written to all port pins.
+     *
+     * @param waveform waveform to play
+     * @return future completing at the end of the waveform with the lateness of the segment writes
+     */
+    Future<GpioJitterStatistics> play(GpioWaveform waveform);
+}
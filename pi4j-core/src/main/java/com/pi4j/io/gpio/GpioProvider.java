@@ -56,6 +56,102 @@ public interface GpioProvider {
     void setState(Pin pin, PinState state);
     PinState getState(Pin pin);
 
+    /**
+     * Sets the state of a group of digital output pins; bit <i>n</i> of the mask and values
+     * corresponds to <code>pins[n]</code>.  Pins whose mask bit is clear are left unchanged.
+     *
+     * The default implementation sets each selected pin individually; providers that can update
+     * several pins with a single register transfer override this method.
+     *
+     * @param pins pins in bit order (at most {@link GpioPort#MAX_SIZE} pins)
+     * @param mask bitmask of the pins to update
+     * @param values bitmask of the pin states; a set bit is a HIGH pin state
+     */
+    default void setState(Pin[] pins, int mask, int values) {
+        for (int index = 0; index < pins.length; index++) {
+            int bit = 1 << index;
+            if ((mask & bit) != 0) {
+                setState(pins[index], PinState.getState((values & bit) != 0));
+            }
+        }
+    }
+
+    /**
+     * Gets the state of a group of digital pins; bit <i>n</i> of the result corresponds to
+     * <code>pins[n]</code>.
+     *
+     * The default implementation reads each pin individually; providers that can read several
+     * pins with a single register transfer override this method.
+     *
+     * @param pins pins in bit order (at most {@link GpioPort#MAX_SIZE} pins)
+     * @return bitmask of the pin states; a set bit is a HIGH pin state
+     */
+    default int getState(Pin[] pins) {
+        int values = 0;
+        for (int index = 0; index < pins.length; index++) {
+            if (getState(pins[index]) == PinState.HIGH) {
+                values |= 1 << index;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Gets a handle to the state of a digital pin that validates the pin and its current mode
+     * once, rather than on every state access; see {@link GpioStateHandle}.
+     *
+     * The default implementation returns a handle that calls {@link #setState(Pin, PinState)} and
+     * {@link #getState(Pin)}; providers with a cheaper unchecked hardware access override this method.
+     *
+     * @param pin digital input or output pin
+     * @return state handle
+     */
+    default GpioStateHandle getStateHandle(Pin pin) {
+        return new GpioStateHandle() {
+            @Override
+            public Pin getPin() {
+                return pin;
+            }
+
+            @Override
+            public void setState(PinState state) {
+                GpioProvider.this.setState(pin, state);
+            }
+
+            @Override
+            public PinState getState() {
+                return GpioProvider.this.getState(pin);
+            }
+        };
+    }
+
+    /**
+     * Enables or disables write elision.  When enabled, setting a digital output pin to the state
+     * it already has (according to the provider's pin state cache) skips the hardware write and
+     * the state change event; this saves a full bus transaction on I2C/SPI expanders.  Only enable
+     * write elision when the output pins are not changed by anything other than this provider.
+     *
+     * The default implementation does not support write elision.
+     *
+     * @param enabled true to skip redundant output writes
+     */
+    default void setWriteElision(boolean enabled) {
+        if (enabled) {
+            throw new UnsupportedOperationException("Write elision is not supported by the [" + getName() + "] provider.");
+        }
+    }
+
+    default boolean isWriteElision() {
+        return false;
+    }
+
+    /**
+     * @return number of pin writes that were skipped because the pin already had the requested state
+     */
+    default long getElidedWriteCount() {
+        return 0;
+    }
+
     void setValue(Pin pin, double value);
     double getValue(Pin pin);
 
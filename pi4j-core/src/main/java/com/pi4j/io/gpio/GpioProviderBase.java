@@ -29,7 +29,6 @@ package com.pi4j.io.gpio;
 
 
 import com.pi4j.io.gpio.event.PinAnalogValueChangeEvent;
-import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
 import com.pi4j.io.gpio.event.PinListener;
 import com.pi4j.io.gpio.exception.InvalidPinException;
 import com.pi4j.io.gpio.exception.InvalidPinModeException;
@@ -41,6 +40,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Abstract base implementation of {@link com.pi4j.io.gpio.GpioProvider}.
@@ -51,45 +51,67 @@ import java.util.concurrent.ConcurrentHashMap;
 @SuppressWarnings("unused")
 public abstract class GpioProviderBase implements GpioProvider {
 
+    /**
+     * @deprecated no longer used; the pin cache and the listener registry are allocated in
+     * pages as pins are used, so there is no initial size.
+     */
+    @Deprecated
     public static final int DEFAULT_CACHE_SIZE = 100;
 
     public abstract String getName();
 
     protected final Map<Pin, List<PinListener>> listeners = new ConcurrentHashMap<>();
 
-    // support up to pin address 100 by default.
-    // (dynamically expand array to accommodate cases where the pin addresses
-    //  may be higher than the default allocation capacity of 100.)
-    protected GpioProviderPinCache[] cache = new GpioProviderPinCache[DEFAULT_CACHE_SIZE];
+    // immutable listener registrations indexed by pin address, kept in the sparse page layout of
+    // the pin cache store so that widely spread pin addresses only allocate the pages holding
+    // pins; the directory, its pages and their entries are never modified in place, a copy is
+    // swapped in when listeners are added or removed so that event dispatch is a single
+    // volatile read followed by two plain array reads
+    private volatile ListenerRegistration[][] listenerRegistry = new ListenerRegistration[0][];
+
+    /**
+     * Immutable snapshot of the listeners registered for a single pin.  Distinct pins sharing
+     * an address are chained through {@link #next}.
+     */
+    protected static final class ListenerRegistration {
+        public final Pin pin;
+        public final PinListener[] listeners;
+        public final ListenerRegistration next;
+
+        ListenerRegistration(Pin pin, PinListener[] listeners, ListenerRegistration next) {
+            this.pin = pin;
+            this.listeners = listeners;
+            this.next = next;
+        }
+    }
+
+    // pin cache entries by pin address; entries are created atomically on first access
+    protected final GpioProviderPinCacheStore cache = new GpioProviderPinCacheStore(this::createPinCache);
 
     protected boolean isshutdown = false;
 
+    // skip output writes that would not change the cached pin state (opt-in)
+    private volatile boolean writeElision = false;
+    private final LongAdder elidedWrites = new LongAdder();
+
     @Override
     public boolean hasPin(Pin pin) {
         return (pin.getProvider().equals(getName()));
     }
 
     protected GpioProviderPinCache getPinCache(Pin pin) {
+        return cache.get(pin);
+    }
 
-        int address = pin.getAddress();
-
-        // dynamically resize pin cache storage if needed based on pin address
-        if(address >= cache.length){
-            // create a new array with existing contents
-            // that is 100 elements larger than the requested address
-            // (we add the extra 100 elements to provide additional overhead capacity in
-            //  an attempt to minimize further array expansion)
-            cache = Arrays.copyOf(cache, address + 100);
-        }
-
-        // get the cached pin object from the cache
-        GpioProviderPinCache pc = cache[address];
-
-        // if no pin object is found in the cache, then we need to create one at this address index in the cache array
-        if(pc == null){
-            pc = cache[pin.getAddress()] = new GpioProviderPinCache(pin);
-        }
-        return pc;
+    /**
+     * Creates the cache entry of a pin on first access; providers with additional cached
+     * pin properties return a subclass of {@link GpioProviderPinCache}.
+     *
+     * @param pin pin
+     * @return new pin cache entry
+     */
+    protected GpioProviderPinCache createPinCache(Pin pin) {
+        return new GpioProviderPinCache(pin);
     }
 
     @Override
@@ -191,22 +213,100 @@ public abstract class GpioProviderBase implements GpioProvider {
 
     @Override
     public void setState(Pin pin, PinState state) {
+        // skip the write and the event if the pin already has this state
+        if (isRedundantWrite(pin, state)) {
+            return;
+        }
+
+        // validate pin and pin mode
+        validateDigitalOutput(pin);
+
+        // for digital output pins, we will echo the event feedback
+        dispatchPinDigitalStateChangeEvent(pin, state);
+
+        // cache pin state
+        getPinCache(pin).setState(state);
+    }
+
+    /**
+     * Validates that the pin belongs to this provider and is configured as a digital output.
+     *
+     * @param pin pin to validate
+     * @throws InvalidPinException if the pin does not belong to this provider
+     * @throws InvalidPinModeException if the pin is not configured as a digital output
+     */
+    protected void validateDigitalOutput(Pin pin) {
         if (!hasPin(pin)) {
             throw new InvalidPinException(pin);
         }
 
-        GpioProviderPinCache pinCache = getPinCache(pin);
-
         // only permit invocation on pins set to DIGITAL_OUTPUT modes
-        if (pinCache.getMode() != PinMode.DIGITAL_OUTPUT) {
-            throw new InvalidPinModeException(pin, "Invalid pin mode on pin [" + pin.getName() + "]; cannot setState() when pin mode is [" + pinCache.getMode().getName() + "]");
+        PinMode mode = getPinCache(pin).getMode();
+        if (mode != PinMode.DIGITAL_OUTPUT) {
+            throw new InvalidPinModeException(pin, "Invalid pin mode on pin [" + pin.getName() + "]; cannot setState() when pin mode is [" + mode.getName() + "]");
         }
+    }
 
-        // for digital output pins, we will echo the event feedback
-        dispatchPinDigitalStateChangeEvent(pin, state);
+    @Override
+    public void setWriteElision(boolean enabled) {
+        writeElision = enabled;
+    }
 
-        // cache pin state
-        pinCache.setState(state);
+    @Override
+    public boolean isWriteElision() {
+        return writeElision;
+    }
+
+    @Override
+    public long getElidedWriteCount() {
+        return elidedWrites.sum();
+    }
+
+    /**
+     * Determines if a write can be skipped because write elision is enabled and the pin is a
+     * digital output whose cached state already is the requested state; skipped writes are
+     * counted.  Providers call this before validating the pin and writing to the hardware, and
+     * must cache the state of every digital output write.
+     *
+     * @param pin output pin
+     * @param state requested pin state
+     * @return true if the write must be skipped
+     */
+    protected boolean isRedundantWrite(Pin pin, PinState state) {
+        if (!writeElision || !hasPin(pin)) {
+            return false;
+        }
+        return isRedundantWrite(getPinCache(pin), state);
+    }
+
+    protected boolean isRedundantWrite(GpioProviderPinCache pc, PinState state) {
+        if (!writeElision || pc.getMode() != PinMode.DIGITAL_OUTPUT || pc.getState() != state) {
+            return false;
+        }
+        elidedWrites.increment();
+        return true;
+    }
+
+    /**
+     * Removes the redundant writes (see {@link #isRedundantWrite(Pin, PinState)}) from a
+     * group write.
+     *
+     * @param pins pins in bit order
+     * @param mask bitmask of the pins to update
+     * @param values bitmask of the pin states
+     * @return bitmask of the pins that need to be written
+     */
+    protected int elideRedundantWrites(Pin[] pins, int mask, int values) {
+        if (!writeElision) {
+            return mask;
+        }
+        for (int index = 0; index < pins.length; index++) {
+            int bit = 1 << index;
+            if ((mask & bit) != 0 && isRedundantWrite(pins[index], PinState.getState((values & bit) != 0))) {
+                mask &= ~bit;
+            }
+        }
+        return mask;
     }
 
     @Override
@@ -215,7 +315,7 @@ public abstract class GpioProviderBase implements GpioProvider {
         PinMode mode = getMode(pin);
 
         // only permit invocation on pins set to DIGITAL modes
-        if (!PinMode.allDigital().contains(mode)) {
+        if (!isDigital(mode)) {
             throw new InvalidPinModeException(pin, "Invalid pin mode on pin [" + pin.getName() + "]; cannot getState() when pin mode is [" + mode.getName() + "]");
         }
 
@@ -223,6 +323,76 @@ public abstract class GpioProviderBase implements GpioProvider {
         return getPinCache(pin).getState();
     }
 
+    // avoids the EnumSet allocation of PinMode.allDigital() on the getState() path
+    private static boolean isDigital(PinMode mode) {
+        return mode == PinMode.DIGITAL_INPUT || mode == PinMode.DIGITAL_OUTPUT;
+    }
+
+    /**
+     * Base class for state handles with unchecked hardware access.  The pin and its digital
+     * mode are validated when the handle is created; the state changes of output handles are
+     * subject to write elision, dispatched to the listeners and cached like
+     * {@link #setState(Pin, PinState)} does.  Writes to input handles go through
+     * {@link #setState(Pin, PinState)}, which reports the invalid pin mode.
+     */
+    protected abstract class DigitalStateHandle implements GpioStateHandle {
+        protected final Pin pin;
+        protected final GpioProviderPinCache pinCache;
+        private final boolean output;
+
+        protected DigitalStateHandle(Pin pin) {
+            // the getMode() will validate the pin exists with the hasPin() function
+            PinMode mode = getMode(pin);
+            if (!isDigital(mode)) {
+                throw new InvalidPinModeException(pin, "Invalid pin mode on pin [" + pin.getName() + "]; cannot access the pin state when pin mode is [" + mode.getName() + "]");
+            }
+            this.pin = pin;
+            this.pinCache = getPinCache(pin);
+            this.output = (mode == PinMode.DIGITAL_OUTPUT);
+        }
+
+        @Override
+        public Pin getPin() {
+            return pin;
+        }
+
+        @Override
+        public void setState(PinState state) {
+            if (!output) {
+                GpioProviderBase.this.setState(pin, state);
+                return;
+            }
+
+            // skip the write and the event if the pin already has this state
+            if (isRedundantWrite(pinCache, state)) {
+                return;
+            }
+
+            write(state);
+
+            // for digital output pins, we will echo the event feedback
+            dispatchPinDigitalStateChangeEvent(pin, state);
+
+            // cache pin state
+            pinCache.setState(state);
+        }
+
+        @Override
+        public PinState getState() {
+            return read();
+        }
+
+        /**
+         * Writes the state of the (validated) output pin to the hardware.
+         */
+        protected abstract void write(PinState state);
+
+        /**
+         * Reads the state of the (validated) pin from the hardware.
+         */
+        protected abstract PinState read();
+    }
+
     @Override
     public void setValue(Pin pin, double value) {
 
@@ -300,6 +470,7 @@ public abstract class GpioProviderBase implements GpioProvider {
             List<PinListener> lsnrs = listeners.get(pin);
             if (!lsnrs.contains(listener)) {
                 lsnrs.add(listener);
+                updateListenerRegistry(pin);
             }
         }
     }
@@ -319,6 +490,7 @@ public abstract class GpioProviderBase implements GpioProvider {
                 if (lsnrs.isEmpty()) {
                     listeners.remove(pin);
                 }
+                updateListenerRegistry(pin);
             }
         }
     }
@@ -346,27 +518,139 @@ public abstract class GpioProviderBase implements GpioProvider {
     }
 
     protected void dispatchPinDigitalStateChangeEvent(Pin pin, PinState state) {
-        // if the pin listeners map contains this pin, then dispatch event
-        if (listeners.containsKey(pin)) {
-            // dispatch this event to all listener handlers
-            // iterate over all listener pins in the map
-            List<PinListener> listeners_copy = new ArrayList<>(listeners.get(pin));
-            for (PinListener listener : listeners_copy) {
-                listener.handlePinEvent(new PinDigitalStateChangeEvent(this, pin, state));
+        dispatchPinDigitalStateChangeEvent(pin, state, System.nanoTime());
+    }
+
+    protected void dispatchPinDigitalStateChangeEvent(Pin pin, PinState state, long timestamp) {
+        // if the listener registry contains this pin, then dispatch event
+        ListenerRegistration registration = findListenerRegistration(pin);
+        if (registration != null) {
+            // dispatch this state change to all listener handlers; listeners that
+            // need an event object create one in PinListener.handlePinDigitalStateChange()
+            for (PinListener listener : registration.listeners) {
+                listener.handlePinDigitalStateChange(this, pin, state, timestamp);
+            }
+        }
+    }
+
+    protected void dispatchPinDigitalStateChangeEvent(int address, PinState state) {
+        dispatchPinDigitalStateChangeEvent(address, state, System.nanoTime());
+    }
+
+    /**
+     * Dispatch a digital state change for the pin registered at the given address; intended
+     * for interrupt paths that only know the pin address.  Nothing is dispatched if no
+     * listeners are registered for the address.
+     *
+     * @param address pin address
+     * @param state new pin state
+     * @param timestamp event timestamp in {@link System#nanoTime()} time base
+     */
+    protected void dispatchPinDigitalStateChangeEvent(int address, PinState state, long timestamp) {
+        for (ListenerRegistration registration = getListenerRegistration(address); registration != null; registration = registration.next) {
+            for (PinListener listener : registration.listeners) {
+                listener.handlePinDigitalStateChange(this, registration.pin, state, timestamp);
             }
         }
     }
 
     protected void dispatchPinAnalogValueChangeEvent(Pin pin, double value) {
-        // if the pin listeners map contains this pin, then dispatch event
-        if (listeners.containsKey(pin)) {
+        // if the listener registry contains this pin, then dispatch event
+        ListenerRegistration registration = findListenerRegistration(pin);
+        if (registration != null) {
             // dispatch this event to all listener handlers
-            // iterate over all listener pins in the map
-            List<PinListener> listeners_copy = new ArrayList<>(listeners.get(pin));
-            for (PinListener listener : listeners_copy) {
-                listener.handlePinEvent(new PinAnalogValueChangeEvent(this, pin, value));
+            PinAnalogValueChangeEvent event = new PinAnalogValueChangeEvent(this, pin, value);
+            for (PinListener listener : registration.listeners) {
+                listener.handlePinEvent(event);
+            }
+        }
+    }
+
+    /**
+     * Dispatch an analog value change for the pin registered at the given address.  Nothing
+     * is dispatched if no listeners are registered for the address.
+     *
+     * @param address pin address
+     * @param value new analog value
+     */
+    protected void dispatchPinAnalogValueChangeEvent(int address, double value) {
+        for (ListenerRegistration registration = getListenerRegistration(address); registration != null; registration = registration.next) {
+            PinAnalogValueChangeEvent event = new PinAnalogValueChangeEvent(this, registration.pin, value);
+            for (PinListener listener : registration.listeners) {
+                listener.handlePinEvent(event);
+            }
+        }
+    }
+
+    /**
+     * Get the immutable listener snapshot registered for a pin address; the snapshots of
+     * other pins registered at the same address follow through {@link ListenerRegistration#next}.
+     *
+     * @param address pin address
+     * @return listener registration or null if no listeners are registered for the address
+     */
+    protected ListenerRegistration getListenerRegistration(int address) {
+        if (address < 0) {
+            return null;
+        }
+        ListenerRegistration[][] registry = listenerRegistry;
+        int pageIndex = address >>> GpioProviderPinCacheStore.PAGE_SHIFT;
+        if (pageIndex >= registry.length || registry[pageIndex] == null) {
+            return null;
+        }
+        return registry[pageIndex][address & GpioProviderPinCacheStore.PAGE_MASK];
+    }
+
+    private ListenerRegistration findListenerRegistration(Pin pin) {
+        for (ListenerRegistration registration = getListenerRegistration(pin.getAddress()); registration != null; registration = registration.next) {
+            if (registration.pin == pin || registration.pin.equals(pin)) {
+                return registration;
+            }
+        }
+        return null;
+    }
+
+    // must be called while holding the listeners lock
+    private void updateListenerRegistry(Pin pin) {
+        int address = pin.getAddress();
+        if (address < 0) {
+            throw new InvalidPinException(pin);
+        }
+
+        // rebuild the registrations of all pins sharing the address
+        ListenerRegistration registration = null;
+        for (Map.Entry<Pin, List<PinListener>> entry : listeners.entrySet()) {
+            if (entry.getKey().getAddress() == address && !entry.getValue().isEmpty()) {
+                registration = new ListenerRegistration(entry.getKey(), entry.getValue().toArray(new PinListener[0]), registration);
+            }
+        }
+        ListenerRegistration[][] registry = listenerRegistry;
+        int pageIndex = address >>> GpioProviderPinCacheStore.PAGE_SHIFT;
+        ListenerRegistration[] page = (pageIndex < registry.length) ? registry[pageIndex] : null;
+        if (page == null && registration == null) {
+            return;
+        }
+
+        // copy the directory (growing it if needed) and the page rather than modifying them
+        // in place so that readers never observe a partially published registration
+        ListenerRegistration[][] updated = Arrays.copyOf(registry, Math.max(registry.length, pageIndex + 1));
+        page = (page == null) ? new ListenerRegistration[GpioProviderPinCacheStore.PAGE_SIZE] : page.clone();
+        page[address & GpioProviderPinCacheStore.PAGE_MASK] = registration;
+        updated[pageIndex] = page;
+        listenerRegistry = updated;
+    }
+
+    /**
+     * @return number of allocated listener registry pages (for diagnostics)
+     */
+    protected int getListenerPageCount() {
+        int count = 0;
+        for (ListenerRegistration[] page : listenerRegistry) {
+            if (page != null) {
+                count++;
             }
         }
+        return count;
     }
 
     @Override
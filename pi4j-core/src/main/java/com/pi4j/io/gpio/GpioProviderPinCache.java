@@ -27,22 +27,58 @@ package com.pi4j.io.gpio;
  * #L%
  */
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 /**
  * This class provides cache for gpio pin instances.
  *
+ * The mode, state, pull resistance and exported flag of a pin are packed into a single int,
+ * so a reader always observes a consistent combination and concurrent updates of different
+ * properties (e.g. a monitor thread caching a state while the application changes the mode)
+ * cannot overwrite each other.  The packed word and the analog and PWM values are primitives
+ * accessed through {@link VarHandle}s with acquire/release ordering, so the values written by
+ * event threads are visible to application threads without locking.
+ *
  * @author Robert Savage (<a
  *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
  */
 @SuppressWarnings("unused")
 public class GpioProviderPinCache {
 
+    // packed word layout; each enum field holds (ordinal + 1), or 0 for null
+    private static final int MODE_SHIFT = 0;
+    private static final int MODE_MASK = 0xF;
+    private static final int STATE_SHIFT = 4;
+    private static final int STATE_MASK = 0x3;
+    private static final int RESISTANCE_SHIFT = 6;
+    private static final int RESISTANCE_MASK = 0x3;
+    private static final int EXPORTED = 1 << 8;
+
+    // enum values by ordinal (values() allocates a new array on each call)
+    private static final PinMode[] MODES = PinMode.values();
+    private static final PinState[] STATES = PinState.values();
+    private static final PinPullResistance[] RESISTANCES = PinPullResistance.values();
+
+    private static final VarHandle WORD;
+    private static final VarHandle ANALOG_VALUE;
+    private static final VarHandle PWM_VALUE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            WORD = lookup.findVarHandle(GpioProviderPinCache.class, "word", int.class);
+            ANALOG_VALUE = lookup.findVarHandle(GpioProviderPinCache.class, "analogValue", long.class);
+            PWM_VALUE = lookup.findVarHandle(GpioProviderPinCache.class, "pwmValue", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final Pin pin;
-    private PinMode mode;
-    private PinState state;
-    private PinPullResistance resistance;
-    private double analogValue = -1;
+    private int word = 0;
+    private long analogValue = Double.doubleToRawLongBits(-1);
     private int pwmValue = -1;
-    private boolean exported = false;
 
     public GpioProviderPinCache(Pin pin) {
         this.pin = pin;
@@ -50,54 +86,70 @@ public class GpioProviderPinCache {
 
     @Override
     public String toString() {
-        return "PIN [" + pin.getName() + "] CACHE :: mode=" + mode.getName() + "; state=" + state.getName();
+        return "PIN [" + pin.getName() + "] CACHE :: mode=" + getMode().getName() + "; state=" + getState().getName();
     }
 
     public PinMode getMode() {
-        return mode;
+        int value = (getWord() >>> MODE_SHIFT) & MODE_MASK;
+        return (value == 0) ? null : MODES[value - 1];
     }
 
     public void setMode(PinMode mode) {
-        this.mode = mode;
+        update(MODE_SHIFT, MODE_MASK, (mode == null) ? 0 : mode.ordinal() + 1);
     }
 
     public PinState getState() {
-        return state;
+        int value = (getWord() >>> STATE_SHIFT) & STATE_MASK;
+        return (value == 0) ? null : STATES[value - 1];
     }
 
     public void setState(PinState state) {
-        this.state = state;
+        update(STATE_SHIFT, STATE_MASK, (state == null) ? 0 : state.ordinal() + 1);
     }
 
     public PinPullResistance getResistance() {
-        return resistance;
+        int value = (getWord() >>> RESISTANCE_SHIFT) & RESISTANCE_MASK;
+        return (value == 0) ? null : RESISTANCES[value - 1];
     }
 
     public void setResistance(PinPullResistance resistance) {
-        this.resistance = resistance;
+        update(RESISTANCE_SHIFT, RESISTANCE_MASK, (resistance == null) ? 0 : resistance.ordinal() + 1);
     }
 
     public double getAnalogValue() {
-        return analogValue;
+        return Double.longBitsToDouble((long) ANALOG_VALUE.getAcquire(this));
     }
 
     public void setAnalogValue(double value) {
-        this.analogValue = value;
+        ANALOG_VALUE.setRelease(this, Double.doubleToRawLongBits(value));
     }
 
     public int getPwmValue() {
-        return pwmValue;
+        return (int) PWM_VALUE.getAcquire(this);
     }
 
     public void setPwmValue(int value) {
-        this.pwmValue = value;
+        PWM_VALUE.setRelease(this, value);
     }
 
     public boolean isExported() {
-        return exported;
+        return (getWord() & EXPORTED) != 0;
     }
 
     public void setExported(boolean exported) {
-        this.exported = exported;
+        update(0, EXPORTED, exported ? EXPORTED : 0);
+    }
+
+    private int getWord() {
+        return (int) WORD.getAcquire(this);
+    }
+
+    // replaces one field of the packed word; retried if another field changed concurrently
+    private void update(int shift, int mask, int value) {
+        int current, updated;
+        do {
+            current = getWord();
+            updated = (current & ~(mask << shift)) | (value << shift);
+        } while (current != updated && !WORD.weakCompareAndSetRelease(this, current, updated));
     }
 }
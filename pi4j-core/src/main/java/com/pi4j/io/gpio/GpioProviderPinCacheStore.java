@@ -0,0 +1,153 @@
+package com.pi4j.io.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioProviderPinCacheStore.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.exception.InvalidPinException;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Concurrent store of the {@link GpioProviderPinCache} entries of a provider, indexed by pin
+ * address.  The entries are kept in a sparse array of fixed size pages, so providers with
+ * widely spread pin addresses (e.g. the MCP23017 port B pins at 1001-1128) only allocate the
+ * pages that hold pins.
+ *
+ * Lookups of existing entries are lock free: a volatile read of the page directory followed by
+ * two array reads.  Entries are created atomically on first access; concurrent first accesses
+ * of an address all receive the same entry.  Only the rare creation of a page (and growth of
+ * the page directory) is serialized.
+ */
+public class GpioProviderPinCacheStore {
+
+    // number of entries per page (a power of two)
+    static final int PAGE_SIZE = 64;
+    static final int PAGE_SHIFT = 6;
+    static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final Function<Pin, ? extends GpioProviderPinCache> factory;
+
+    // page directory; a new directory is swapped in when it grows, and pages are only
+    // added to the directory while holding the store lock so that growth never loses a page
+    private volatile AtomicReferenceArray<GpioProviderPinCache>[] pages;
+
+    /**
+     * @param factory creates the cache entry of a pin on first access
+     */
+    public GpioProviderPinCacheStore(Function<Pin, ? extends GpioProviderPinCache> factory) {
+        this.factory = factory;
+        this.pages = newDirectory(0);
+    }
+
+    /**
+     * Gets the cache entry of a pin address, creating it if it does not exist yet.
+     *
+     * @param pin pin
+     * @return cache entry of the pin address
+     */
+    public GpioProviderPinCache get(Pin pin) {
+        int address = pin.getAddress();
+        if (address < 0) {
+            throw new InvalidPinException(pin);
+        }
+
+        AtomicReferenceArray<GpioProviderPinCache> page = getPage(address >>> PAGE_SHIFT);
+        int index = address & PAGE_MASK;
+        GpioProviderPinCache pc = page.get(index);
+        if (pc == null) {
+            // atomically publish a new entry; the losing thread takes the winning entry
+            GpioProviderPinCache created = factory.apply(pin);
+            pc = page.compareAndSet(index, null, created) ? created : page.get(index);
+        }
+        return pc;
+    }
+
+    /**
+     * Gets the cache entry of a pin address if it exists.
+     *
+     * @param address pin address
+     * @return cache entry or null
+     */
+    public GpioProviderPinCache find(int address) {
+        if (address < 0) {
+            return null;
+        }
+        AtomicReferenceArray<GpioProviderPinCache>[] directory = pages;
+        int pageIndex = address >>> PAGE_SHIFT;
+        if (pageIndex >= directory.length || directory[pageIndex] == null) {
+            return null;
+        }
+        return directory[pageIndex].get(address & PAGE_MASK);
+    }
+
+    /**
+     * @return number of allocated pages (for diagnostics)
+     */
+    public int getPageCount() {
+        int count = 0;
+        for (AtomicReferenceArray<GpioProviderPinCache> page : pages) {
+            if (page != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private AtomicReferenceArray<GpioProviderPinCache> getPage(int pageIndex) {
+        AtomicReferenceArray<GpioProviderPinCache>[] directory = pages;
+        if (pageIndex < directory.length && directory[pageIndex] != null) {
+            return directory[pageIndex];
+        }
+        return createPage(pageIndex);
+    }
+
+    private synchronized AtomicReferenceArray<GpioProviderPinCache> createPage(int pageIndex) {
+        AtomicReferenceArray<GpioProviderPinCache>[] directory = pages;
+        if (pageIndex >= directory.length) {
+            directory = Arrays.copyOf(directory, pageIndex + 1);
+        } else if (directory[pageIndex] != null) {
+            // created by another thread while waiting for the lock
+            return directory[pageIndex];
+        } else {
+            directory = directory.clone();
+        }
+
+        // publish a new directory rather than modifying the current one in place, so
+        // that lock free readers never see a directory slot change under them
+        AtomicReferenceArray<GpioProviderPinCache> page = new AtomicReferenceArray<>(PAGE_SIZE);
+        directory[pageIndex] = page;
+        pages = directory;
+        return page;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static AtomicReferenceArray<GpioProviderPinCache>[] newDirectory(int length) {
+        return (AtomicReferenceArray<GpioProviderPinCache>[]) new AtomicReferenceArray[length];
+    }
+}
@@ -0,0 +1,47 @@
+package com.pi4j.io.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioStateHandle.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Handle to the state of a digital pin, obtained from {@link GpioProvider#getStateHandle(Pin)}.
+ * The pin and its mode are validated when the handle is created, so providers can implement
+ * {@link #setState(PinState)} and {@link #getState()} as direct hardware accesses without the
+ * per-call validation of {@link GpioProvider#setState(Pin, PinState)} and
+ * {@link GpioProvider#getState(Pin)}.
+ *
+ * A handle is bound to the pin mode it was created for; request a new handle after the pin is
+ * exported again or its mode changes.  Provisioned pins manage their handle themselves.
+ */
+public interface GpioStateHandle {
+
+    Pin getPin();
+
+    void setState(PinState state);
+
+    PinState getState();
+}
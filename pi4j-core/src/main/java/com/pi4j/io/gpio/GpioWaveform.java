@@ -0,0 +1,123 @@
+package com.pi4j.io.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioWaveform.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * Precomputed sequence of digital output states with their durations, e.g. a stepper STEP pulse
+ * train, an IR code or a bit-banged protocol frame.
+ *
+ * Each segment holds a state bitmask and a duration in microseconds; when the waveform is played
+ * on a {@link GpioPort}, bit <i>n</i> of the state is the state of the port pin at index <i>n</i>,
+ * and when it is played on a {@link GpioPinDigitalOutput}, bit 0 is the pin state.  The segment
+ * states are written at absolute offsets from the start of the playback, so the timing error of a
+ * segment does not accumulate into the following segments.
+ */
+public class GpioWaveform {
+
+    private final int[] states;
+    private final int[] durations;
+    private final int repeat;
+    private final long totalMicros;
+
+    /**
+     * @param states state bitmask of each segment; a set bit is a HIGH pin state
+     * @param durations duration of each segment in microseconds
+     */
+    public GpioWaveform(int[] states, int[] durations) {
+        this(states, durations, 1);
+    }
+
+    /**
+     * @param states state bitmask of each segment; a set bit is a HIGH pin state
+     * @param durations duration of each segment in microseconds
+     * @param repeat number of times the segment sequence is played
+     */
+    public GpioWaveform(int[] states, int[] durations, int repeat) {
+        if (states == null || durations == null || states.length == 0) {
+            throw new IllegalArgumentException("A waveform requires at least one segment.");
+        }
+        if (states.length != durations.length) {
+            throw new IllegalArgumentException("Segment count mismatch: " + states.length + " states, " + durations.length + " durations.");
+        }
+        if (repeat <= 0) {
+            throw new IllegalArgumentException("Repeat count must be greater than 0: " + repeat);
+        }
+        long total = 0;
+        for (int duration : durations) {
+            if (duration <= 0) {
+                throw new IllegalArgumentException("Segment durations must be greater than 0: " + duration);
+            }
+            total += duration;
+        }
+        this.states = states.clone();
+        this.durations = durations.clone();
+        this.repeat = repeat;
+        this.totalMicros = total * repeat;
+    }
+
+    /**
+     * Creates a waveform of <code>count</code> pulses on bit 0, each HIGH for <code>highMicros</code>
+     * followed by LOW for <code>lowMicros</code>.
+     */
+    public static GpioWaveform pulseTrain(int count, int highMicros, int lowMicros) {
+        return new GpioWaveform(new int[] { 1, 0 }, new int[] { highMicros, lowMicros }, count);
+    }
+
+    /**
+     * @return number of segments in one repetition
+     */
+    public int size() {
+        return states.length;
+    }
+
+    public int getState(int index) {
+        return states[index];
+    }
+
+    public int getDurationMicros(int index) {
+        return durations[index];
+    }
+
+    public int getRepeat() {
+        return repeat;
+    }
+
+    /**
+     * @return duration of the complete playback (all repetitions) in microseconds
+     */
+    public long getTotalMicros() {
+        return totalMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "GpioWaveform [states=" + Arrays.toString(states) + ", durations=" + Arrays.toString(durations) + ", repeat=" + repeat + "]";
+    }
+}
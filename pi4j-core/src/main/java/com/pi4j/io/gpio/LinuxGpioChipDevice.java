@@ -0,0 +1,213 @@
+package com.pi4j.io.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  LinuxGpioChipDevice.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.file.LinuxFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link GpioChipDevice} implementation on a Linux GPIO character device, using the
+ * uAPI v2 ioctl calls of <code>linux/gpio.h</code> through {@link LinuxFile}.
+ * The line request handles are the file descriptors returned by the kernel.
+ */
+public class LinuxGpioChipDevice implements GpioChipDevice {
+
+    // ioctl commands (_IOWR(0xB4, nr, struct))
+    private static final long GPIO_V2_GET_LINE_IOCTL = 0xC250B407L;
+    private static final long GPIO_V2_LINE_SET_CONFIG_IOCTL = 0xC110B40DL;
+    private static final long GPIO_V2_LINE_GET_VALUES_IOCTL = 0xC010B40EL;
+    private static final long GPIO_V2_LINE_SET_VALUES_IOCTL = 0xC010B40FL;
+
+    // maximum number of configuration attributes (GPIO_V2_LINE_NUM_ATTRS_MAX)
+    static final int LINE_NUM_ATTRS_MAX = 10;
+
+    // configuration attribute ids (enum gpio_v2_line_attr_id)
+    static final int LINE_ATTR_ID_FLAGS = 1;
+    static final int LINE_ATTR_ID_OUTPUT_VALUES = 2;
+
+    // struct gpio_v2_line_request layout
+    static final int REQUEST_SIZE = 592;
+    static final int REQUEST_CONSUMER = 256;
+    static final int REQUEST_CONFIG = 288;
+    static final int REQUEST_NUM_LINES = 560;
+    static final int REQUEST_FD = 588;
+    private static final int CONSUMER_SIZE = 32;
+
+    // struct gpio_v2_line_config layout
+    static final int CONFIG_SIZE = 272;
+    static final int CONFIG_NUM_ATTRS = 8;
+    static final int CONFIG_ATTRS = 32;
+    static final int CONFIG_ATTR_SIZE = 24;
+
+    // struct gpio_v2_line_values size
+    private static final int VALUES_SIZE = 16;
+
+    private final LinuxFile chip;
+    private final ByteBuffer request = ByteBuffer.allocateDirect(REQUEST_SIZE).order(ByteOrder.nativeOrder());
+    private final ByteBuffer config = ByteBuffer.allocateDirect(CONFIG_SIZE).order(ByteOrder.nativeOrder());
+    private final ByteBuffer values = ByteBuffer.allocateDirect(VALUES_SIZE).order(ByteOrder.nativeOrder());
+    private final IntBuffer noOffsets = IntBuffer.allocate(0);
+
+    /**
+     * Opens the GPIO character device.
+     *
+     * @param path GPIO character device path, e.g. <code>/dev/gpiochip0</code>
+     * @throws IOException if the device cannot be opened
+     */
+    public LinuxGpioChipDevice(String path) throws IOException {
+        chip = new LinuxFile(path, "rw");
+    }
+
+    @Override
+    public synchronized int requestLines(int[] offsets, long[] flags, long outputValues, String consumer) throws IOException {
+        encodeLineRequest(request, offsets, flags, outputValues, consumer);
+        chip.ioctl(GPIO_V2_GET_LINE_IOCTL, request, noOffsets);
+        return request.getInt(REQUEST_FD);
+    }
+
+    @Override
+    public synchronized void setLineConfig(int request, long[] flags, long outputValues) throws IOException {
+        encodeLineConfig(config, 0, flags, outputValues);
+        LinuxFile.ioctl(request, GPIO_V2_LINE_SET_CONFIG_IOCTL, config);
+    }
+
+    @Override
+    public synchronized long getValues(int request, long mask) throws IOException {
+        values.putLong(0, 0);
+        values.putLong(8, mask);
+        LinuxFile.ioctl(request, GPIO_V2_LINE_GET_VALUES_IOCTL, values);
+        return values.getLong(0);
+    }
+
+    @Override
+    public synchronized void setValues(int request, long mask, long bits) throws IOException {
+        values.putLong(0, bits);
+        values.putLong(8, mask);
+        LinuxFile.ioctl(request, GPIO_V2_LINE_SET_VALUES_IOCTL, values);
+    }
+
+    @Override
+    public int readEvents(int request, ByteBuffer events, int timeoutMillis) throws IOException {
+        // a single read returns as many complete events as fit in the buffer
+        events.clear();
+        events.limit(events.capacity() - events.capacity() % EVENT_SIZE);
+        int bytes = LinuxFile.read(request, events, timeoutMillis);
+        events.flip();
+        return bytes / EVENT_SIZE;
+    }
+
+    @Override
+    public void releaseLines(int request) throws IOException {
+        LinuxFile.close(request);
+    }
+
+    @Override
+    public void close() throws IOException {
+        chip.close();
+    }
+
+    /**
+     * Encodes a line request (struct gpio_v2_line_request) at position 0 of the buffer.
+     */
+    static void encodeLineRequest(ByteBuffer buffer, int[] offsets, long[] flags, long outputValues, String consumer) {
+        if (offsets.length == 0 || offsets.length > LINES_MAX || flags.length != offsets.length) {
+            throw new IllegalArgumentException("Invalid number of lines: " + offsets.length);
+        }
+        clear(buffer, 0, REQUEST_SIZE);
+        for (int i = 0; i < offsets.length; i++) {
+            buffer.putInt(i * 4, offsets[i]);
+        }
+        byte[] label = consumer.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < label.length && i < CONSUMER_SIZE - 1; i++) {
+            buffer.put(REQUEST_CONSUMER + i, label[i]);
+        }
+        encodeLineConfig(buffer, REQUEST_CONFIG, flags, outputValues);
+        buffer.putInt(REQUEST_NUM_LINES, offsets.length);
+    }
+
+    /**
+     * Encodes a line configuration (struct gpio_v2_line_config) at the given buffer index.  The
+     * flags of the first line are the default flags; lines with other flags are grouped into one
+     * flags attribute per distinct value, and the output values are passed as an attribute
+     * covering all output lines.
+     */
+    static void encodeLineConfig(ByteBuffer buffer, int index, long[] flags, long outputValues) {
+        clear(buffer, index, CONFIG_SIZE);
+        buffer.putLong(index, flags[0]);
+
+        int attrs = 0;
+        long grouped = 1L;
+        long outputs = 0;
+        for (int i = 0; i < flags.length; i++) {
+            if ((flags[i] & FLAG_OUTPUT) != 0) {
+                outputs |= 1L << i;
+            }
+            if ((grouped & (1L << i)) != 0) {
+                continue;
+            }
+            long mask = 0;
+            for (int j = i; j < flags.length; j++) {
+                if (flags[j] == flags[i]) {
+                    mask |= 1L << j;
+                }
+            }
+            if (flags[i] == flags[0]) {
+                // lines sharing the default flags do not need an attribute
+                grouped |= mask;
+                continue;
+            }
+            putAttribute(buffer, index, attrs++, LINE_ATTR_ID_FLAGS, flags[i], mask);
+            grouped |= mask;
+        }
+        if (outputs != 0) {
+            putAttribute(buffer, index, attrs++, LINE_ATTR_ID_OUTPUT_VALUES, outputValues & outputs, outputs);
+        }
+        buffer.putInt(index + CONFIG_NUM_ATTRS, attrs);
+    }
+
+    private static void putAttribute(ByteBuffer buffer, int index, int attr, int id, long value, long mask) {
+        if (attr >= LINE_NUM_ATTRS_MAX) {
+            throw new IllegalArgumentException("Too many distinct line configurations; maximum is " + LINE_NUM_ATTRS_MAX);
+        }
+        int attrIndex = index + CONFIG_ATTRS + attr * CONFIG_ATTR_SIZE;
+        buffer.putInt(attrIndex, id);
+        buffer.putLong(attrIndex + 8, value);
+        buffer.putLong(attrIndex + 16, mask);
+    }
+
+    private static void clear(ByteBuffer buffer, int index, int length) {
+        for (int i = index; i < index + length; i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+}
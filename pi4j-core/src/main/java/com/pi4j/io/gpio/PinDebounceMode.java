@@ -0,0 +1,49 @@
+package com.pi4j.io.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  PinDebounceMode.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Pin debounce mode; defines how the debounce delay intervals of a digital input pin
+ * (see {@link GpioPinDigitalInput#setDebounce(int, PinState...)}) are applied.
+ */
+public enum PinDebounceMode {
+
+    /**
+     * A state change is reported immediately; further state changes are ignored for the debounce
+     * interval of the reported state.  If the pin settled in a different state by the end of the
+     * interval, that state change is reported when the interval ends.
+     */
+    LEADING_EDGE,
+
+    /**
+     * A state change is only reported once the pin has remained in the new state for the debounce
+     * interval of that state (glitch filter); shorter pulses are never reported.  The state change
+     * is reported with the timestamp of the original edge.
+     */
+    STABLE
+}
@@ -0,0 +1,364 @@
+package com.pi4j.io.gpio;
+
+import com.pi4j.io.gpio.exception.UnsupportedPinModeException;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  RaspiGpioMemProvider.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Raspberry Pi {@link GpioProvider} implementation that accesses the BCM GPIO registers
+ * directly from Java through a memory mapping of <code>/dev/gpiomem</code>, bypassing
+ * the JNI/wiringPi layer.  Pin addresses use the Broadcom GPIO numbering; see {@link RaspiBcmPin}.
+ *
+ * Output state changes are single writes to the GPSET/GPCLR registers, which only affect the
+ * pins whose bits are set; {@link #setState(Pin[], int, int)} therefore updates any number of
+ * pins of a register bank with one clear and one set register write, without a
+ * read-modify-write cycle.  Input states are read from the GPLEV registers.
+ *
+ * This provider supports digital input and output pin modes and pull resistance; it does not
+ * monitor pin interrupts, so listeners only receive the state changes of output pins.
+ *
+ * The register block may be any file or device that can be memory mapped, which allows
+ * testing with a regular file of {@link #BLOCK_SIZE} bytes standing in for the registers.
+ */
+@SuppressWarnings("unused")
+public class RaspiGpioMemProvider extends GpioProviderBase implements GpioProvider {
+
+    // pins are shared with the (wiringPi based) Raspberry Pi provider
+    public static final String NAME = RaspiGpioProvider.NAME;
+
+    public static final String DEFAULT_DEVICE = "/dev/gpiomem";
+
+    // size of the memory mapped GPIO register block
+    public static final int BLOCK_SIZE = 4096;
+
+    // highest BCM GPIO pin number
+    public static final int MAX_PIN_ADDRESS = 53;
+
+    // register byte offsets in the GPIO register block
+    private static final int GPFSEL0 = 0x00;
+    private static final int GPSET0 = 0x1C;
+    private static final int GPCLR0 = 0x28;
+    private static final int GPLEV0 = 0x34;
+    private static final int GPPUD = 0x94;
+    private static final int GPPUDCLK0 = 0x98;
+    private static final int GPPUPPDN0 = 0xE4;
+    private static final int GPPUPPDN3 = 0xF0;
+
+    // chips before the BCM2711 read this value ("gpio") from the GPPUPPDN3 register address
+    private static final int LEGACY_PULL_CONTROL = 0x6770696F;
+
+    // function select values
+    private static final int FSEL_INPUT = 0b000;
+    private static final int FSEL_OUTPUT = 0b001;
+
+    // pull control value that disables the pull-up/down resistor
+    private static final int PULL_CONTROL_OFF = 0b00;
+
+    // settle time of the legacy pull-up/down control sequence (datasheet: 150 cycles)
+    private static final long PULL_CONTROL_SETTLE_NANOS = 5_000;
+
+    // 32-bit little-endian register access with volatile semantics, so register reads and
+    // writes are neither cached nor reordered by the JIT
+    private static final VarHandle REGISTER = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel channel;
+    private final MappedByteBuffer registers;
+    private final boolean legacyPullControl;
+
+    /**
+     * Default Constructor; maps the GPIO registers from {@link #DEFAULT_DEVICE}.
+     *
+     * @throws IOException if the GPIO register device cannot be mapped
+     */
+    public RaspiGpioMemProvider() throws IOException {
+        this(Paths.get(DEFAULT_DEVICE));
+    }
+
+    /**
+     * Alternate Constructor mapping the GPIO registers from the given device or file.
+     *
+     * @param device path of the GPIO register device (or a file standing in for it)
+     * @throws IOException if the GPIO register device cannot be mapped
+     */
+    public RaspiGpioMemProvider(Path device) throws IOException {
+        channel = FileChannel.open(device, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            registers = channel.map(FileChannel.MapMode.READ_WRITE, 0, BLOCK_SIZE);
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+        legacyPullControl = (read(GPPUPPDN3) == LEGACY_PULL_CONTROL);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean hasPin(Pin pin) {
+        return super.hasPin(pin) && pin.getAddress() >= 0 && pin.getAddress() <= MAX_PIN_ADDRESS;
+    }
+
+    @Override
+    public void export(Pin pin, PinMode mode) {
+        super.export(pin, mode);
+        selectFunction(pin, mode);
+    }
+
+    @Override
+    public void setMode(Pin pin, PinMode mode) {
+        super.setMode(pin, mode);
+        selectFunction(pin, mode);
+    }
+
+    @Override
+    public void setPullResistance(Pin pin, PinPullResistance resistance) {
+        super.setPullResistance(pin, resistance);
+        if (legacyPullControl) {
+            setLegacyPullResistance(pin, resistance);
+        } else {
+            setPullResistanceRegister(pin, resistance);
+        }
+    }
+
+    @Override
+    public void setState(Pin pin, PinState state) {
+        // skip the write and the event if the pin already has this state
+        if (isRedundantWrite(pin, state)) {
+            return;
+        }
+
+        // validate pin and pin mode
+        validateDigitalOutput(pin);
+
+        // control GPIO pin; the set and clear registers only affect pins with a set bit
+        int bank = pin.getAddress() >> 5;
+        write((state.isHigh() ? GPSET0 : GPCLR0) + (bank << 2), 1 << (pin.getAddress() & 31));
+
+        // for digital output pins, we will echo the event feedback
+        dispatchPinDigitalStateChangeEvent(pin, state);
+
+        // cache pin state
+        getPinCache(pin).setState(state);
+    }
+
+    @Override
+    public void setState(Pin[] pins, int mask, int values) {
+        // skip the pins that already have the requested state
+        mask = elideRedundantWrites(pins, mask, values);
+
+        // collect the set and clear bits of both register banks
+        int set0 = 0, set1 = 0, clear0 = 0, clear1 = 0;
+        for (int index = 0; index < pins.length; index++) {
+            int bit = 1 << index;
+            if ((mask & bit) == 0) {
+                continue;
+            }
+            Pin pin = pins[index];
+            validateDigitalOutput(pin);
+            int pinBit = 1 << (pin.getAddress() & 31);
+            boolean high = (values & bit) != 0;
+            if (pin.getAddress() < 32) {
+                set0 |= high ? pinBit : 0;
+                clear0 |= high ? 0 : pinBit;
+            } else {
+                set1 |= high ? pinBit : 0;
+                clear1 |= high ? 0 : pinBit;
+            }
+        }
+
+        // control GPIO pins; one clear and one set register write per bank
+        if ((clear0 | set0) != 0) {
+            write(GPCLR0, clear0);
+            write(GPSET0, set0);
+        }
+        if ((clear1 | set1) != 0) {
+            write(GPCLR0 + 4, clear1);
+            write(GPSET0 + 4, set1);
+        }
+
+        // for digital output pins, we will echo the event feedback and cache the pin state
+        for (int index = 0; index < pins.length; index++) {
+            int bit = 1 << index;
+            if ((mask & bit) != 0) {
+                PinState state = PinState.getState((values & bit) != 0);
+                dispatchPinDigitalStateChangeEvent(pins[index], state);
+                getPinCache(pins[index]).setState(state);
+            }
+        }
+    }
+
+    @Override
+    public PinState getState(Pin pin) {
+        // validate pin and pin mode
+        super.getState(pin);
+
+        // return pin state
+        int bank = pin.getAddress() >> 5;
+        int level = read(GPLEV0 + (bank << 2));
+        return PinState.getState((level & (1 << (pin.getAddress() & 31))) != 0);
+    }
+
+    @Override
+    public int getState(Pin[] pins) {
+        // validate all pins and pin modes before reading the level registers
+        boolean bank1 = false;
+        for (Pin pin : pins) {
+            super.getState(pin);
+            bank1 |= pin.getAddress() >= 32;
+        }
+
+        // read each level register once
+        int level0 = read(GPLEV0);
+        int level1 = bank1 ? read(GPLEV0 + 4) : 0;
+        int values = 0;
+        for (int index = 0; index < pins.length; index++) {
+            int address = pins[index].getAddress();
+            int level = (address >= 32) ? level1 : level0;
+            if ((level & (1 << (address & 31))) != 0) {
+                values |= 1 << index;
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public GpioStateHandle getStateHandle(Pin pin) {
+        // the pin is validated once; the handle accesses the registers directly
+        final int bank = (pin.getAddress() >> 5) << 2;
+        final int bit = 1 << (pin.getAddress() & 31);
+        return new DigitalStateHandle(pin) {
+            @Override
+            protected void write(PinState state) {
+                RaspiGpioMemProvider.this.write((state.isHigh() ? GPSET0 : GPCLR0) + bank, bit);
+            }
+
+            @Override
+            protected PinState read() {
+                return PinState.getState((RaspiGpioMemProvider.this.read(GPLEV0 + bank) & bit) != 0);
+            }
+        };
+    }
+
+    @Override
+    public void shutdown() {
+
+        // prevent reentrant invocation
+        if(isShutdown())
+            return;
+
+        // perform shutdown login in base
+        super.shutdown();
+
+        try {
+            // the register mapping stays valid until it is garbage collected
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private synchronized void selectFunction(Pin pin, PinMode mode) {
+        int function;
+        switch (mode) {
+            case DIGITAL_INPUT: {
+                function = FSEL_INPUT;
+                break;
+            }
+            case DIGITAL_OUTPUT: {
+                function = FSEL_OUTPUT;
+                break;
+            }
+            default: {
+                throw new UnsupportedPinModeException(pin, mode);
+            }
+        }
+
+        // each function select register holds 3 bits for each of 10 pins
+        int offset = GPFSEL0 + ((pin.getAddress() / 10) << 2);
+        int shift = (pin.getAddress() % 10) * 3;
+        write(offset, (read(offset) & ~(0b111 << shift)) | (function << shift));
+    }
+
+    private synchronized void setPullResistanceRegister(Pin pin, PinPullResistance resistance) {
+        // BCM2711: each pull control register holds 2 bits for each of 16 pins
+        int value = PULL_CONTROL_OFF;
+        if (resistance == PinPullResistance.PULL_UP) {
+            value = 0b01;
+        } else if (resistance == PinPullResistance.PULL_DOWN) {
+            value = 0b10;
+        }
+        int offset = GPPUPPDN0 + ((pin.getAddress() >> 4) << 2);
+        int shift = (pin.getAddress() & 15) << 1;
+        write(offset, (read(offset) & ~(0b11 << shift)) | (value << shift));
+    }
+
+    private synchronized void setLegacyPullResistance(Pin pin, PinPullResistance resistance) {
+        // BCM2835-BCM2837: write the control value, then clock it into the pin
+        int value = PULL_CONTROL_OFF;
+        if (resistance == PinPullResistance.PULL_UP) {
+            value = 0b10;
+        } else if (resistance == PinPullResistance.PULL_DOWN) {
+            value = 0b01;
+        }
+        int clock = GPPUDCLK0 + ((pin.getAddress() >> 5) << 2);
+        write(GPPUD, value);
+        settle();
+        write(clock, 1 << (pin.getAddress() & 31));
+        settle();
+        write(GPPUD, PULL_CONTROL_OFF);
+        write(clock, 0);
+    }
+
+    private static void settle() {
+        long deadline = System.nanoTime() + PULL_CONTROL_SETTLE_NANOS;
+        while (System.nanoTime() - deadline < 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private int read(int offset) {
+        return (int) REGISTER.getVolatile(registers, offset);
+    }
+
+    private void write(int offset, int value) {
+        REGISTER.setVolatile(registers, offset, value);
+    }
+}
@@ -40,6 +40,13 @@ public class RaspiGpioProvider extends WiringPiGpioProviderBase implements GpioP
 
     public static final String NAME = "RaspberryPi GPIO Provider";
 
+    // number of pins written by wiringPi's digitalWriteByte()
+    private static final int WRITE_BYTE_PINS = 8;
+
+    // pin addresses (in the selected numbering scheme) of the wiringPi pins 0-7 that
+    // digitalWriteByte() updates with a single pair of GPIO set/clear register writes
+    private final int[] writeByteAddresses = new int[WRITE_BYTE_PINS];
+
     /**
      * Default Constructor
      */
@@ -60,11 +67,17 @@ public class RaspiGpioProvider extends WiringPiGpioProviderBase implements GpioP
             case BROADCOM_PIN_NUMBERING: {
                 // we will use the raw/direct Broadcom GPIO pin number scheme with the wiringPi library
                 com.pi4j.wiringpi.Gpio.wiringPiSetupGpio();
+                for (int index = 0; index < WRITE_BYTE_PINS; index++) {
+                    writeByteAddresses[index] = com.pi4j.wiringpi.Gpio.wpiPinToGpio(index);
+                }
                 break;
             }
             case DEFAULT_PIN_NUMBERING: {
                 // we will use the WiringPi pin number scheme with the wiringPi library
                 com.pi4j.wiringpi.Gpio.wiringPiSetup();
+                for (int index = 0; index < WRITE_BYTE_PINS; index++) {
+                    writeByteAddresses[index] = index;
+                }
                 break;
             }
             default: {
@@ -77,4 +90,50 @@ public class RaspiGpioProvider extends WiringPiGpioProviderBase implements GpioP
     public String getName() {
         return NAME;
     }
+
+    @Override
+    public void setState(Pin[] pins, int mask, int values) {
+        // a full write of the wiringPi pins 0-7 (in order) is a single digitalWriteByte() call;
+        // wiringPi has no set/clear write for other pin groups, so they are written pin by pin
+        if (!isWriteBytePort(pins, mask)) {
+            super.setState(pins, mask, values);
+            return;
+        }
+
+        // skip the write if no pin changes; pins that keep their state are rewritten unchanged
+        mask = elideRedundantWrites(pins, mask, values);
+        if (mask == 0) {
+            return;
+        }
+
+        // validate all pins before changing any pin state
+        for (Pin pin : pins) {
+            validateDigitalOutput(pin);
+        }
+
+        // control GPIO pins
+        com.pi4j.wiringpi.Gpio.digitalWriteByte(values & 0xFF);
+
+        // for digital output pins, we will echo the event feedback and cache the pin state
+        for (int index = 0; index < WRITE_BYTE_PINS; index++) {
+            int bit = 1 << index;
+            if ((mask & bit) != 0) {
+                PinState state = PinState.getState((values & bit) != 0);
+                dispatchPinDigitalStateChangeEvent(pins[index], state);
+                getPinCache(pins[index]).setState(state);
+            }
+        }
+    }
+
+    private boolean isWriteBytePort(Pin[] pins, int mask) {
+        if (pins.length != WRITE_BYTE_PINS || (mask & 0xFF) != 0xFF) {
+            return false;
+        }
+        for (int index = 0; index < WRITE_BYTE_PINS; index++) {
+            if (pins[index].getAddress() != writeByteAddresses[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -1,5 +1,7 @@
 package com.pi4j.io.gpio;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /*
@@ -52,6 +54,9 @@ import java.util.Map;
  * If you don't provide a value for theSimulatedPlatform the system assumes that
  * you want to use the raspberry pi platform: RaspiGpioProvider
  *
+ * When recording is enabled, every digital state write is appended to a timeline of
+ * timestamped {@link Transition}s, so tests can verify the timing of pulses and waveforms.
+ *
  * @author bsutton
  *
  */
@@ -60,6 +65,9 @@ public class SimulatedGpioProvider extends GpioProviderBase implements GpioProvi
     // We use the name of the platform that we are simulating.
     public static String NAME;
 
+    private final List<Transition> timeline = new ArrayList<>();
+    private volatile boolean recording = false;
+
     public SimulatedGpioProvider() {
         Map<String, String> env = System.getenv();
 
@@ -80,6 +88,19 @@ public class SimulatedGpioProvider extends GpioProviderBase implements GpioProvi
     }
 
     public void setState(Pin pin, PinState state) {
+        // skip the write and the event if the output pin already has this state
+        if (isRedundantWrite(pin, state)) {
+            return;
+        }
+
+        // record the write on the timeline
+        if (recording) {
+            long timestamp = System.nanoTime();
+            synchronized (timeline) {
+                timeline.add(new Transition(timestamp, pin, state));
+            }
+        }
+
         // cache pin state
         getPinCache(pin).setState(state);
 
@@ -95,4 +116,65 @@ public class SimulatedGpioProvider extends GpioProviderBase implements GpioProvi
         dispatchPinAnalogValueChangeEvent(pin, value);
     }
 
+    /**
+     * Enables or disables recording of the digital state writes.
+     */
+    public void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * @return copy of the recorded state writes in the order they were made
+     */
+    public List<Transition> getTimeline() {
+        synchronized (timeline) {
+            return new ArrayList<>(timeline);
+        }
+    }
+
+    public void clearTimeline() {
+        synchronized (timeline) {
+            timeline.clear();
+        }
+    }
+
+    /**
+     * A recorded digital state write.
+     */
+    public static class Transition {
+
+        private final long timestamp;
+        private final Pin pin;
+        private final PinState state;
+
+        public Transition(long timestamp, Pin pin, PinState state) {
+            this.timestamp = timestamp;
+            this.pin = pin;
+            this.state = state;
+        }
+
+        /**
+         * @return {@link System#nanoTime()} of the write
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public Pin getPin() {
+            return pin;
+        }
+
+        public PinState getState() {
+            return state;
+        }
+
+        @Override
+        public String toString() {
+            return timestamp + " " + pin.getName() + " " + state;
+        }
+    }
 }
@@ -102,6 +102,7 @@ public abstract class WiringPiGpioProviderBase extends GpioProviderBase implemen
         }
 
         // if not already exported, export the pin and set the pin direction
+        boolean directionApplied = true;
         if(!GpioUtil.isExported(pin.getAddress())){
             GpioUtil.export(pin.getAddress(), direction);
         }
@@ -110,9 +111,17 @@ public abstract class WiringPiGpioProviderBase extends GpioProviderBase implemen
         else if(GpioUtil.getDirection(pin.getAddress()) != mode.getDirection().getValue()){
             GpioUtil.setDirection(pin.getAddress(), direction);
         }
+        else {
+            directionApplied = false;
+        }
 
-        // set the pin input/output mode
+        // set the pin input/output mode (this clears the cached pin state)
         setMode(pin, mode);
+
+        // the default state is only known to be on the pin if it was driven with the direction
+        if(directionApplied && (direction == GpioUtil.DIRECTION_LOW || direction == GpioUtil.DIRECTION_HIGH)){
+            getPinCache(pin).setState(defaultState);
+        }
     }
 
     @Override
@@ -127,6 +136,9 @@ public abstract class WiringPiGpioProviderBase extends GpioProviderBase implemen
     public void unexport(Pin pin) {
         super.unexport(pin);
 
+        // the pin state is unknown once the pin is released; forget it for write elision
+        getPinCache(pin).setState(null);
+
         // unexport the pins
         GpioUtil.unexport(pin.getAddress());
     }
@@ -146,8 +158,10 @@ public abstract class WiringPiGpioProviderBase extends GpioProviderBase implemen
             throw new UnsupportedPinModeException(pin, mode);
         }
 
-        // cache mode
+        // cache mode; the pin state is unknown after a mode change, so it is no longer
+        // used for write elision until the next write
         getPinCache(pin).setMode(mode);
+        getPinCache(pin).setState(null);
 
         // set pin mode on hardware
         com.pi4j.wiringpi.Gpio.pinMode(pin.getAddress(), mode.getValue());
@@ -174,15 +188,13 @@ public abstract class WiringPiGpioProviderBase extends GpioProviderBase implemen
     @Override
     public void setState(Pin pin, PinState state) {
 
-        // validate pin
-        if (!hasPin(pin)) {
-            throw new InvalidPinException(pin);
+        // skip the write and the event if the pin already has this state
+        if (isRedundantWrite(pin, state)) {
+            return;
         }
 
-        // only permit invocation on pins set to DIGITAL_OUTPUT modes
-        if (pinModeCache[pin.getAddress()] != PinMode.DIGITAL_OUTPUT) {
-            throw new InvalidPinModeException(pin, "Invalid pin mode on pin [" + pin.getName() + "]; cannot setState() when pin mode is [" + pinModeCache[pin.getAddress()].getName() + "]");
-        }
+        // validate pin and pin mode
+        validateDigitalOutput(pin);
 
         // control GPIO pin
         com.pi4j.wiringpi.Gpio.digitalWrite(pin.getAddress(), state.getValue());
@@ -190,7 +202,21 @@ public abstract class WiringPiGpioProviderBase extends GpioProviderBase implemen
         // for digital output pins, we will echo the event feedback
         dispatchPinDigitalStateChangeEvent(pin, state);
 
-        // for the Raspberry pi, we will not cache pin state since we never use the cache to get state.
+        // the cached pin state is only used for write elision; getState() always reads the pin
+        getPinCache(pin).setState(state);
+    }
+
+    @Override
+    protected void validateDigitalOutput(Pin pin) {
+        // validate pin
+        if (!hasPin(pin)) {
+            throw new InvalidPinException(pin);
+        }
+
+        // only permit invocation on pins set to DIGITAL_OUTPUT modes
+        if (pinModeCache[pin.getAddress()] != PinMode.DIGITAL_OUTPUT) {
+            throw new InvalidPinModeException(pin, "Invalid pin mode on pin [" + pin.getName() + "]; cannot setState() when pin mode is [" + pinModeCache[pin.getAddress()].getName() + "]");
+        }
     }
 
     @Override
@@ -206,6 +232,24 @@ public abstract class WiringPiGpioProviderBase extends GpioProviderBase implemen
         return state;
     }
 
+    @Override
+    public GpioStateHandle getStateHandle(Pin pin) {
+        // the pin is validated once; the handle calls wiringPi directly
+        final int address = pin.getAddress();
+        return new DigitalStateHandle(pin) {
+            @Override
+            protected void write(PinState state) {
+                com.pi4j.wiringpi.Gpio.digitalWrite(address, state.getValue());
+            }
+
+            @Override
+            protected PinState read() {
+                int ret = com.pi4j.wiringpi.Gpio.digitalRead(address);
+                return (ret >= 0) ? PinState.getState(ret) : null;
+            }
+        };
+    }
+
     @Override
     public void setValue(Pin pin, double value) {
         super.setValue(pin, value);
@@ -280,14 +324,8 @@ public abstract class WiringPiGpioProviderBase extends GpioProviderBase implemen
 
     @Override
     public void pinStateChange(GpioInterruptEvent event) {
-        // iterate over the pin listeners map
-        for (Pin pin : listeners.keySet()) {
-            // dispatch this event to the listener
-            // if a matching pin address is found
-            if (pin.getAddress() == event.getPin()) {
-                dispatchPinDigitalStateChangeEvent(pin, PinState.getState(event.getState()));
-            }
-        }
+        // dispatch this event to the listeners of the pin found at the interrupt pin address
+        dispatchPinDigitalStateChangeEvent(event.getPin(), PinState.getState(event.getState()), event.getTimestamp());
     }
 
     @Override
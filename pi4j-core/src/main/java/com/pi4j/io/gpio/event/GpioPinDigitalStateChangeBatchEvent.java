@@ -0,0 +1,114 @@
+package com.pi4j.io.gpio.event;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioPinDigitalStateChangeBatchEvent.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import com.pi4j.io.gpio.GpioPin;
+import com.pi4j.io.gpio.PinEdge;
+import com.pi4j.io.gpio.PinState;
+
+/**
+ * GPIO pin digital state change batch event; holds the state changes of a pin, in the order
+ * they occurred, accumulated since the previous batch was delivered.
+ *
+ * <p>Note: the backing buffers of a batch are reused for the next batch of the same listener;
+ * the batch contents are only valid for the duration of the
+ * {@link GpioPinListenerDigitalBatch#handleGpioPinDigitalStateChangeBatch} callback.</p>
+ */
+@SuppressWarnings("unused")
+public class GpioPinDigitalStateChangeBatchEvent extends GpioPinEvent {
+
+    private static final long serialVersionUID = 5153932585924497937L;
+    private final long[] timestamps;
+    private final PinState[] states;
+    private final int size;
+
+    /**
+     * Default event constructor
+     *
+     * @param obj        Ignore this parameter
+     * @param pin        GPIO pin
+     * @param timestamps state change timestamps in nanoseconds
+     * @param states     new GPIO pin states
+     * @param size       number of state changes held in the timestamps and states arrays
+     */
+    public GpioPinDigitalStateChangeBatchEvent(Object obj, GpioPin pin, long[] timestamps, PinState[] states, int size) {
+        super(obj, pin, PinEventType.DIGITAL_STATE_CHANGE);
+        if (size < 0 || size > timestamps.length || size > states.length) {
+            throw new IllegalArgumentException("Invalid batch size: " + size);
+        }
+        this.timestamps = timestamps;
+        this.states = states;
+        this.size = size;
+    }
+
+    /**
+     * @return number of state changes in this batch
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the new pin state of a state change in this batch.
+     *
+     * @param index state change index (0 is the oldest state change)
+     * @return GPIO pin state
+     */
+    public PinState getState(int index) {
+        checkIndex(index);
+        return states[index];
+    }
+
+    /**
+     * Get the pin edge of a state change in this batch.
+     *
+     * @param index state change index (0 is the oldest state change)
+     * @return GPIO pin edge
+     */
+    public PinEdge getEdge(int index) {
+        return (getState(index) == PinState.HIGH) ? PinEdge.RISING : PinEdge.FALLING;
+    }
+
+    /**
+     * Get the time of a state change in this batch.
+     *
+     * @param index state change index (0 is the oldest state change)
+     * @return timestamp in nanoseconds (see {@link GpioPinDigitalStateChangeEvent#getTimestamp()})
+     */
+    public long getTimestamp(int index) {
+        checkIndex(index);
+        return timestamps[index];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.pi4j.io.gpio.event;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioPinListenerDigitalBatch.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * <p>This interface implements the callback event handler for batched GPIO pin state changes.</p>
+ *
+ * <p>
+ * For inputs that change state at high (kHz) rates, a callback per edge quickly becomes the
+ * bottleneck.  Batch listeners registered on a {@link com.pi4j.io.gpio.GpioPinDigitalInput}
+ * instead receive all state changes (with their timestamps) accumulated since the previous
+ * delivery.  A batch is delivered as soon as it holds {@link #getMaxBatchSize()} state changes,
+ * or at the latest {@link #getMaxBatchLatency()} milliseconds after its first state change.
+ * </p>
+ *
+ * @see GpioPinDigitalStateChangeBatchEvent
+ * @see <a href="https://pi4j.com/">https://pi4j.com/</a>
+ */
+public interface GpioPinListenerDigitalBatch extends GpioPinListener {
+
+    int DEFAULT_MAX_BATCH_SIZE = 256;
+    long DEFAULT_MAX_BATCH_LATENCY = 10;
+
+    void handleGpioPinDigitalStateChangeBatch(GpioPinDigitalStateChangeBatchEvent event);
+
+    /**
+     * @return maximum number of state changes delivered in a single batch
+     */
+    default int getMaxBatchSize() {
+        return DEFAULT_MAX_BATCH_SIZE;
+    }
+
+    /**
+     * @return maximum delay (in milliseconds) between a state change and the delivery of its batch
+     */
+    default long getMaxBatchLatency() {
+        return DEFAULT_MAX_BATCH_LATENCY;
+    }
+}
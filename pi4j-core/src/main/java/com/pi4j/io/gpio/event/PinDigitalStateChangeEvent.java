@@ -44,17 +44,31 @@ public class PinDigitalStateChangeEvent extends PinEvent {
     private static final long serialVersionUID = -7643355305429082626L;
     private final PinState state;
     private final PinEdge edge;
+    private final long timestamp;
 
     /**
-     * Default event constructor
+     * Default event constructor; the event is timestamped with the current {@link System#nanoTime()}.
      *
      * @param obj Ignore this parameter
      * @param pin GPIO pin number (not header pin number; not wiringPi pin number)
      * @param state New GPIO pin state.
      */
     public PinDigitalStateChangeEvent(Object obj, Pin pin, PinState state) {
+        this(obj, pin, state, System.nanoTime());
+    }
+
+    /**
+     * Event constructor
+     *
+     * @param obj Ignore this parameter
+     * @param pin GPIO pin number (not header pin number; not wiringPi pin number)
+     * @param state New GPIO pin state.
+     * @param timestamp Time of the state change in nanoseconds.
+     */
+    public PinDigitalStateChangeEvent(Object obj, Pin pin, PinState state, long timestamp) {
         super(obj, pin, PinEventType.DIGITAL_STATE_CHANGE);
         this.state = state;
+        this.timestamp = timestamp;
 
         // set pin edge caused by the state change
         this.edge = (state == PinState.HIGH) ? PinEdge.RISING : PinEdge.FALLING;
@@ -78,4 +92,16 @@ public class PinDigitalStateChangeEvent extends PinEvent {
     public PinEdge getEdge() {
         return this.edge;
     }
+
+    /**
+     * Get the time of the state change.  For interrupts detected by the native Pi4J library this
+     * is the CLOCK_MONOTONIC time captured when the monitoring thread woke up for the edge; it uses
+     * the same time base as {@link System#nanoTime()} on Linux and is unaffected by event dispatch
+     * latency.
+     *
+     * @return timestamp in nanoseconds
+     */
+    public long getTimestamp() {
+        return this.timestamp;
+    }
 }
@@ -27,6 +27,9 @@ package com.pi4j.io.gpio.event;
  * #L%
  */
 
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.PinState;
+
 /**
  * <p>Pin Listener Interface</p>
  *
@@ -52,4 +55,18 @@ public interface PinListener extends java.util.EventListener {
 
     void handlePinEvent(PinEvent event);
 
+    /**
+     * Handle a digital pin state change.  Providers call this method rather than
+     * {@link #handlePinEvent(PinEvent)} for digital state changes, so that listeners on the
+     * event hot path can consume the primitive values without an event object being created;
+     * the default implementation creates the event and forwards it to {@link #handlePinEvent(PinEvent)}.
+     *
+     * @param source the event source (the GPIO provider)
+     * @param pin GPIO pin
+     * @param state new GPIO pin state
+     * @param timestamp time of the state change in nanoseconds (see {@link PinDigitalStateChangeEvent#getTimestamp()})
+     */
+    default void handlePinDigitalStateChange(Object source, Pin pin, PinState state, long timestamp) {
+        handlePinEvent(new PinDigitalStateChangeEvent(source, pin, state, timestamp));
+    }
 }
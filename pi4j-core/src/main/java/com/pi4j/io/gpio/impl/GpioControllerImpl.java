@@ -258,32 +258,12 @@ public class GpioControllerImpl implements GpioController {
 
     @Override
     public void high(GpioPinDigitalOutput... pin) {
-        if (pin == null || pin.length == 0) {
-            throw new IllegalArgumentException("Missing pin argument.");
-        }
-        // ensure the requested pin has been provisioned
-        for (GpioPinDigitalOutput p : pin) {
-            if (!pins.contains(p)) {
-                throw new GpioPinNotProvisionedException(p.getPin());
-            }
-            // set pin state high
-            p.high();
-        }
+        setState(PinState.HIGH, pin);
     }
 
     @Override
     public void low(GpioPinDigitalOutput... pin) {
-        if (pin == null || pin.length == 0) {
-            throw new IllegalArgumentException("Missing pin argument.");
-        }
-        // ensure the requested pin has been provisioned
-        for (GpioPinDigitalOutput p : pin) {
-            if (!pins.contains(p)) {
-                throw new GpioPinNotProvisionedException(p.getPin());
-            }
-            // set pin state low
-            p.low();
-        }
+        setState(PinState.LOW, pin);
     }
 
     @Override
@@ -314,16 +294,21 @@ public class GpioControllerImpl implements GpioController {
 
     @Override
     public void toggle(GpioPinDigitalOutput... pin) {
-        if (pin == null || pin.length == 0) {
-            throw new IllegalArgumentException("Missing pin argument.");
-        }
-        for (GpioPinDigitalOutput p : pin) {
-            // ensure the requested pin has been provisioned
-            if (!pins.contains(p)) {
-                throw new GpioPinNotProvisionedException(p.getPin());
+        checkOutputPins(pin);
+        if (pin.length == 1 || hasDuplicates(pin)) {
+            // a pin listed more than once is toggled once per occurrence, as pin by pin
+            for (GpioPinDigitalOutput p : pin) {
+                p.toggle();
             }
-            // toggle pin state
-            p.toggle();
+            return;
+        }
+
+        // read and write the pin states of each provider with one bulk call each
+        for (List<GpioPinDigitalOutput> group : groupByProvider(pin)) {
+            Pin[] providerPins = getProviderPins(group);
+            GpioProvider provider = group.get(0).getProvider();
+            int mask = getPortMask(providerPins.length);
+            provider.setState(providerPins, mask, ~provider.getState(providerPins) & mask);
         }
     }
 
@@ -344,19 +329,75 @@ public class GpioControllerImpl implements GpioController {
 
     @Override
     public void setState(PinState state, GpioPinDigitalOutput... pin) {
+        checkOutputPins(pin);
+        if (pin.length == 1 || hasDuplicates(pin)) {
+            for (GpioPinDigitalOutput p : pin) {
+                p.setState(state);
+            }
+            return;
+        }
+
+        // set the pin states of each provider with one bulk call each; how the provider
+        // writes the group (e.g. a single register write for the pins of an expander, or
+        // one write per pin) is up to the provider
+        for (List<GpioPinDigitalOutput> group : groupByProvider(pin)) {
+            Pin[] providerPins = getProviderPins(group);
+            int mask = getPortMask(providerPins.length);
+            group.get(0).getProvider().setState(providerPins, mask, state.isHigh() ? mask : 0);
+        }
+    }
+
+    // ensure the requested pins have been provisioned
+    private void checkOutputPins(GpioPinDigitalOutput[] pin) {
         if (pin == null || pin.length == 0) {
             throw new IllegalArgumentException("Missing pin argument.");
         }
         for (GpioPinDigitalOutput p : pin) {
-            // ensure the requested pin has been provisioned
             if (!pins.contains(p)) {
                 throw new GpioPinNotProvisionedException(p.getPin());
             }
-            // set pin state
-            p.setState(state);
         }
     }
 
+    private static boolean hasDuplicates(GpioPinDigitalOutput[] pin) {
+        Set<GpioPinDigitalOutput> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (GpioPinDigitalOutput p : pin) {
+            if (!distinct.add(p)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // groups pins by provider, in order of first appearance; a group holds at most
+    // GpioPort.MAX_SIZE pins so that each group fits the provider bulk state bitmasks
+    private static List<List<GpioPinDigitalOutput>> groupByProvider(GpioPinDigitalOutput[] pin) {
+        Map<GpioProvider, List<GpioPinDigitalOutput>> open = new LinkedHashMap<>();
+        List<List<GpioPinDigitalOutput>> groups = new ArrayList<>();
+        for (GpioPinDigitalOutput p : pin) {
+            List<GpioPinDigitalOutput> group = open.get(p.getProvider());
+            if (group == null || group.size() == GpioPort.MAX_SIZE) {
+                group = new ArrayList<>();
+                open.put(p.getProvider(), group);
+                groups.add(group);
+            }
+            group.add(p);
+        }
+        return groups;
+    }
+
+    private static Pin[] getProviderPins(List<GpioPinDigitalOutput> group) {
+        Pin[] providerPins = new Pin[group.size()];
+        for (int index = 0; index < providerPins.length; index++) {
+            providerPins[index] = group.get(index).getPin();
+        }
+        return providerPins;
+    }
+
+    private static int getPortMask(int size) {
+        return (size == GpioPort.MAX_SIZE) ? -1 : (1 << size) - 1;
+    }
+
     @Override
     public void setState(boolean state, GpioPinDigitalOutput... pin) {
         setState((state) ? PinState.HIGH : PinState.LOW, pin);
@@ -687,6 +728,53 @@ public class GpioControllerImpl implements GpioController {
         return provisionDigitalInputPin(defaultProvider, pin, resistance);
     }
 
+    @Override
+    public GpioPinCounter provisionCounterPin(GpioProvider provider, Pin pin, String name, PinEdge edge, PinPullResistance resistance) {
+        // create new GPIO pin instance
+        GpioPinCounter gpioPin = (GpioPinCounter)provisionDigitalInputPin(provider, pin, name, resistance);
+
+        // start counting the requested pin edges
+        gpioPin.setCountEdge(edge);
+
+        // return new new pin instance
+        return gpioPin;
+    }
+
+    @Override
+    public GpioPinCounter provisionCounterPin(GpioProvider provider, Pin pin, String name, PinEdge edge) {
+        return provisionCounterPin(provider, pin, name, edge, null);
+    }
+
+    @Override
+    public GpioPinCounter provisionCounterPin(GpioProvider provider, Pin pin, PinEdge edge) {
+        return provisionCounterPin(provider, pin, pin.getName(), edge);
+    }
+
+    @Override
+    public GpioPinCounter provisionCounterPin(GpioProvider provider, Pin pin) {
+        return provisionCounterPin(provider, pin, PinEdge.RISING);
+    }
+
+    @Override
+    public GpioPinCounter provisionCounterPin(Pin pin, String name, PinEdge edge, PinPullResistance resistance) {
+        return provisionCounterPin(defaultProvider, pin, name, edge, resistance);
+    }
+
+    @Override
+    public GpioPinCounter provisionCounterPin(Pin pin, String name, PinEdge edge) {
+        return provisionCounterPin(defaultProvider, pin, name, edge);
+    }
+
+    @Override
+    public GpioPinCounter provisionCounterPin(Pin pin, PinEdge edge) {
+        return provisionCounterPin(defaultProvider, pin, edge);
+    }
+
+    @Override
+    public GpioPinCounter provisionCounterPin(Pin pin) {
+        return provisionCounterPin(defaultProvider, pin);
+    }
+
     @Override
     public GpioPinDigitalOutput provisionDigitalOutputPin(GpioProvider provider, Pin pin, String name) {
         // return new new pin instance
@@ -737,6 +825,72 @@ public class GpioControllerImpl implements GpioController {
         return provisionDigitalOutputPin(defaultProvider, pin, defaultState);
     }
 
+    @Override
+    public GpioPort provisionDigitalOutputPort(GpioProvider provider, PinState defaultState, Pin... pin) {
+        checkPortPins(pin);
+        GpioPinDigital[] gpioPins = new GpioPinDigital[pin.length];
+        for (int index = 0; index < pin.length; index++) {
+            gpioPins[index] = provisionDigitalOutputPin(provider, pin[index]);
+        }
+        GpioPort port = new GpioPortImpl(provider, gpioPins);
+
+        // apply default state to all port pins in a single port write
+        if (defaultState != null) {
+            port.write(defaultState.isHigh() ? port.getMask() : 0);
+        }
+        return port;
+    }
+
+    @Override
+    public GpioPort provisionDigitalOutputPort(GpioProvider provider, Pin... pin) {
+        return provisionDigitalOutputPort(provider, null, pin);
+    }
+
+    @Override
+    public GpioPort provisionDigitalOutputPort(PinState defaultState, Pin... pin) {
+        return provisionDigitalOutputPort(defaultProvider, defaultState, pin);
+    }
+
+    @Override
+    public GpioPort provisionDigitalOutputPort(Pin... pin) {
+        return provisionDigitalOutputPort(defaultProvider, null, pin);
+    }
+
+    @Override
+    public GpioPort provisionDigitalInputPort(GpioProvider provider, PinPullResistance resistance, Pin... pin) {
+        checkPortPins(pin);
+        GpioPinDigital[] gpioPins = new GpioPinDigital[pin.length];
+        for (int index = 0; index < pin.length; index++) {
+            gpioPins[index] = provisionDigitalInputPin(provider, pin[index], resistance);
+        }
+        return new GpioPortImpl(provider, gpioPins);
+    }
+
+    @Override
+    public GpioPort provisionDigitalInputPort(GpioProvider provider, Pin... pin) {
+        return provisionDigitalInputPort(provider, null, pin);
+    }
+
+    @Override
+    public GpioPort provisionDigitalInputPort(PinPullResistance resistance, Pin... pin) {
+        return provisionDigitalInputPort(defaultProvider, resistance, pin);
+    }
+
+    @Override
+    public GpioPort provisionDigitalInputPort(Pin... pin) {
+        return provisionDigitalInputPort(defaultProvider, null, pin);
+    }
+
+    private void checkPortPins(Pin... pin) {
+        // validate the port size before any of the port pins are provisioned
+        if (pin == null || pin.length == 0) {
+            throw new IllegalArgumentException("Missing pin argument.");
+        }
+        if (pin.length > GpioPort.MAX_SIZE) {
+            throw new IllegalArgumentException("A GPIO port supports at most " + GpioPort.MAX_SIZE + " pins; " + pin.length + " pins were given.");
+        }
+    }
+
     @Override
     public GpioPinAnalogInput provisionAnalogInputPin(GpioProvider provider, Pin pin, String name) {
         // return new new pin instance
@@ -926,12 +1080,22 @@ public class GpioControllerImpl implements GpioController {
                     ((GpioPinInput) p).removeAllTriggers();
                 }
 
+                // stop counting edges
+                if (p instanceof GpioPinCounter) {
+                    ((GpioPinCounter) p).setCountEdge(PinEdge.NONE);
+                }
+
                 // remove this pin instance from the managed collection
                 pins.remove(p);
             }
         }
     }
 
+    @Override
+    public void unprovisionPort(GpioPort port) {
+        unprovisionPin(port.getPins().toArray(new GpioPin[0]));
+    }
+
     public void setShutdownOptions(GpioPinShutdown options, GpioPin... pin) {
         for (GpioPin p : pin) {
             if (!pins.contains(p)) {
@@ -1057,6 +1221,10 @@ public class GpioControllerImpl implements GpioController {
             }
         }
 
+        // stop the pulse and blink timer and the waveform player
+        GpioScheduledExecutorImpl.shutdown();
+        GpioWaveformPlayer.shutdownDefault();
+
         // shutdown all executor services
         //
         // NOTE: we are not permitted to access the shutdown() method of the individual
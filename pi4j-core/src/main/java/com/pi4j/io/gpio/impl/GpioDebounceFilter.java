@@ -0,0 +1,157 @@
+package com.pi4j.io.gpio.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioDebounceFilter.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.PinDebounceMode;
+import com.pi4j.io.gpio.PinState;
+
+/**
+ * Timestamp based debounce (glitch filter) state machine for the digital state changes of a pin.
+ *
+ * Decisions are made from the edge timestamps alone: the pin is never re-read and no task is
+ * scheduled per edge.  When the filter needs to act without a further edge (to report the state
+ * a pin settled in), {@link #getDeadline()} returns the time at which {@link #expire(long)} must
+ * be called.  All times are in nanoseconds on the time base of the edge timestamps, so the filter
+ * can be driven by a virtual clock.
+ *
+ * Instances are not thread-safe; callers synchronize on the filter.
+ */
+class GpioDebounceFilter {
+
+    static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    /**
+     * Receives the state changes passed by the filter.
+     */
+    interface Sink {
+        void accept(Object source, PinState state, long timestamp);
+    }
+
+    private final Sink sink;
+    private PinDebounceMode mode = PinDebounceMode.LEADING_EDGE;
+    private long highWindow = 0;
+    private long lowWindow = 0;
+
+    // last reported state (null until the first state change is reported)
+    private PinState reported = null;
+
+    // last received (raw) state change
+    private Object rawSource = null;
+    private PinState raw = null;
+    private long rawTimestamp;
+
+    // end of the suppression window of the last reported edge (leading edge mode)
+    private long windowEnd = 0;
+    private long deadline = NO_DEADLINE;
+
+    GpioDebounceFilter(Sink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Configure the filter.
+     *
+     * @param mode debounce mode
+     * @param highWindow debounce interval for rising edges (state changes to HIGH) in nanoseconds
+     * @param lowWindow debounce interval for falling edges (state changes to LOW) in nanoseconds
+     */
+    void configure(PinDebounceMode mode, long highWindow, long lowWindow) {
+        this.mode = mode;
+        this.highWindow = highWindow;
+        this.lowWindow = lowWindow;
+    }
+
+    /**
+     * @return time at which {@link #expire(long)} must be called, or {@link #NO_DEADLINE}
+     */
+    long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Filter a state change of the pin.
+     *
+     * @param source event source
+     * @param state new pin state
+     * @param timestamp time of the state change
+     */
+    void edge(Object source, PinState state, long timestamp) {
+        // settle any decision that was due before this edge
+        expire(timestamp);
+
+        rawSource = source;
+        raw = state;
+        rawTimestamp = timestamp;
+
+        if (mode == PinDebounceMode.STABLE) {
+            if (state == reported) {
+                // a glitch; the pin returned to the reported state
+                deadline = NO_DEADLINE;
+            } else {
+                // report the state change once the pin is stable for the window
+                deadline = timestamp + getWindow(state);
+                expire(timestamp);
+            }
+        } else if (reported == null || timestamp - windowEnd >= 0) {
+            if (state != reported) {
+                report(source, state, timestamp);
+            }
+        } else if (state != reported) {
+            // bounce within the window; check the settled state at the end of the window
+            deadline = windowEnd;
+        } else {
+            deadline = NO_DEADLINE;
+        }
+    }
+
+    /**
+     * Report the state the pin settled in if a deadline has passed.
+     *
+     * @param now current time
+     */
+    void expire(long now) {
+        if (deadline == NO_DEADLINE || now - deadline < 0) {
+            return;
+        }
+        deadline = NO_DEADLINE;
+        if (raw != reported) {
+            report(rawSource, raw, rawTimestamp);
+        }
+    }
+
+    private void report(Object source, PinState state, long timestamp) {
+        reported = state;
+        windowEnd = timestamp + getWindow(state);
+        deadline = NO_DEADLINE;
+        sink.accept(source, state, timestamp);
+    }
+
+    private long getWindow(PinState state) {
+        return (state == PinState.HIGH) ? highWindow : lowWindow;
+    }
+}
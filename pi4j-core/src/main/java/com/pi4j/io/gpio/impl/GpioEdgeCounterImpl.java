@@ -0,0 +1,163 @@
+package com.pi4j.io.gpio.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioEdgeCounterImpl.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioPinCounter;
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.PinEdge;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
+import com.pi4j.io.gpio.event.PinEvent;
+import com.pi4j.io.gpio.event.PinEventType;
+import com.pi4j.io.gpio.event.PinListener;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pin listener that counts the digital edges of a pin for a {@link GpioPinCounter}.
+ *
+ * The counter is registered directly with the GPIO provider, so edges are counted on the
+ * provider's interrupt thread without creating or dispatching any events.  The edge rate is
+ * calculated over a sliding window of {@link #RATE_BUCKETS} buckets; it covers the last
+ * complete buckets, so the reported rate lags by at most one bucket (a tenth of the window).
+ */
+class GpioEdgeCounterImpl implements PinListener {
+
+    // number of (complete) buckets covered by the sliding rate window
+    protected static final int RATE_BUCKETS = 10;
+
+    private final Pin pin;
+    private volatile PinEdge edge;
+
+    // edge count and sliding window buckets (guarded by 'this')
+    private long count = 0;
+    private long bucketNanos;
+    private final long[] bucketCounts = new long[RATE_BUCKETS + 1];
+    private final long[] bucketEpochs = new long[RATE_BUCKETS + 1];
+
+    GpioEdgeCounterImpl(Pin pin, PinEdge edge, long rateWindow) {
+        this.pin = pin;
+        this.edge = edge;
+        setRateWindow(rateWindow);
+    }
+
+    PinEdge getEdge() {
+        return edge;
+    }
+
+    void setEdge(PinEdge edge) {
+        this.edge = edge;
+    }
+
+    synchronized long getCount() {
+        return count;
+    }
+
+    synchronized long reset() {
+        long previous = count;
+        count = 0;
+        Arrays.fill(bucketCounts, 0);
+        return previous;
+    }
+
+    synchronized long getRateWindow() {
+        return TimeUnit.NANOSECONDS.toMillis(bucketNanos * RATE_BUCKETS);
+    }
+
+    synchronized void setRateWindow(long window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Invalid rate window: " + window);
+        }
+        bucketNanos = Math.max(1, TimeUnit.MILLISECONDS.toNanos(window) / RATE_BUCKETS);
+        Arrays.fill(bucketCounts, 0);
+        Arrays.fill(bucketEpochs, Long.MIN_VALUE);
+    }
+
+    double getRate() {
+        return getRate(System.nanoTime());
+    }
+
+    /**
+     * Get the edge rate over the complete buckets of the rate window preceding the given time.
+     *
+     * @param timestamp current time in nanoseconds
+     * @return edges per second
+     */
+    synchronized double getRate(long timestamp) {
+        long current = Math.floorDiv(timestamp, bucketNanos);
+        long edges = 0;
+        for (int index = 0; index < bucketEpochs.length; index++) {
+            long epoch = bucketEpochs[index];
+            if (epoch >= current - RATE_BUCKETS && epoch < current) {
+                edges += bucketCounts[index];
+            }
+        }
+        return edges * 1_000_000_000d / (bucketNanos * RATE_BUCKETS);
+    }
+
+    @Override
+    public void handlePinEvent(PinEvent event) {
+        if (event.getEventType() == PinEventType.DIGITAL_STATE_CHANGE) {
+            PinDigitalStateChangeEvent stateChangeEvent = (PinDigitalStateChangeEvent) event;
+            handlePinDigitalStateChange(event.getSource(), event.getPin(),
+                    stateChangeEvent.getState(), stateChangeEvent.getTimestamp());
+        }
+    }
+
+    @Override
+    public void handlePinDigitalStateChange(Object source, Pin eventPin, PinState state, long timestamp) {
+        if (!pin.equals(eventPin) || !isCounted(state)) {
+            return;
+        }
+        synchronized (this) {
+            count++;
+
+            long epoch = Math.floorDiv(timestamp, bucketNanos);
+            int index = (int) Math.floorMod(epoch, (long) bucketEpochs.length);
+            if (bucketEpochs[index] != epoch) {
+                bucketEpochs[index] = epoch;
+                bucketCounts[index] = 0;
+            }
+            bucketCounts[index]++;
+        }
+    }
+
+    private boolean isCounted(PinState state) {
+        switch (edge) {
+            case BOTH:
+                return true;
+            case RISING:
+                return state == PinState.HIGH;
+            case FALLING:
+                return state == PinState.LOW;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.pi4j.io.gpio.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioEventBatchImpl.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioPinInput;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.event.GpioPinDigitalStateChangeBatchEvent;
+import com.pi4j.io.gpio.event.GpioPinListenerDigitalBatch;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accumulates the digital state changes of a pin for a single {@link GpioPinListenerDigitalBatch}.
+ *
+ * A batch is delivered by the event dispatch thread as soon as it is full, or by the scheduled
+ * executor when the listener's maximum batch latency has elapsed since its first state change.
+ * Batches are delivered while holding this instance's lock, so they never overlap and are
+ * always delivered in order; the buffers are reused for every batch.
+ */
+class GpioEventBatchImpl implements Runnable {
+
+    private final GpioPinInput pin;
+    private final GpioPinListenerDigitalBatch listener;
+    private final ScheduledExecutorService scheduledExecutor;
+    private final long maxLatency;
+
+    // pending state changes (guarded by 'this')
+    private final long[] timestamps;
+    private final PinState[] states;
+    private int size = 0;
+    private Object source;
+    private ScheduledFuture<?> flushFuture;
+
+    GpioEventBatchImpl(GpioPinInput pin, GpioPinListenerDigitalBatch listener, ScheduledExecutorService scheduledExecutor) {
+        int maxBatchSize = listener.getMaxBatchSize();
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Invalid maximum batch size: " + maxBatchSize);
+        }
+        this.pin = pin;
+        this.listener = listener;
+        this.scheduledExecutor = scheduledExecutor;
+        this.maxLatency = Math.max(0, listener.getMaxBatchLatency());
+        this.timestamps = new long[maxBatchSize];
+        this.states = new PinState[maxBatchSize];
+    }
+
+    GpioPinListenerDigitalBatch getListener() {
+        return listener;
+    }
+
+    /**
+     * Add a state change to the pending batch; delivers the batch if it is full.
+     */
+    synchronized void add(Object source, PinState state, long timestamp) {
+        if (size == 0) {
+            this.source = source;
+            if (maxLatency > 0 && states.length > 1) {
+                // deliver this batch at the latest when the maximum latency has elapsed
+                flushFuture = scheduledExecutor.schedule(this, maxLatency, TimeUnit.MILLISECONDS);
+            }
+        }
+        timestamps[size] = timestamp;
+        states[size] = state;
+        size++;
+
+        if (size == states.length || maxLatency == 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Deliver the pending batch (if any) to the listener.
+     */
+    synchronized void flush() {
+        if (flushFuture != null) {
+            flushFuture.cancel(false);
+            flushFuture = null;
+        }
+        if (size == 0) {
+            return;
+        }
+        try {
+            listener.handleGpioPinDigitalStateChangeBatch(
+                    new GpioPinDigitalStateChangeBatchEvent(source, pin, timestamps, states, size));
+        } finally {
+            // the batch is consumed even if the listener failed
+            size = 0;
+            source = null;
+        }
+    }
+
+    /**
+     * Maximum latency elapsed; deliver the pending batch.
+     */
+    @Override
+    public void run() {
+        flush();
+    }
+}
@@ -27,65 +27,314 @@ package com.pi4j.io.gpio.impl;
  * #L%
  */
 
+import com.pi4j.concurrent.StripedRunnable;
 import com.pi4j.io.gpio.GpioFactory;
 import com.pi4j.io.gpio.GpioPinDigitalInput;
 import com.pi4j.io.gpio.GpioPinInput;
+import com.pi4j.io.gpio.Pin;
 import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.event.GpioPinListener;
+import com.pi4j.io.gpio.event.GpioPinListenerDigitalBatch;
 import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
 import com.pi4j.io.gpio.event.PinEvent;
 import com.pi4j.io.gpio.event.PinEventType;
 import com.pi4j.io.gpio.event.PinListener;
-import com.pi4j.io.gpio.tasks.impl.GpioEventDebounceTaskImpl;
 import com.pi4j.io.gpio.tasks.impl.GpioEventDispatchTaskImpl;
+import com.pi4j.io.gpio.trigger.GpioTrigger;
 
+import java.util.ArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
-public class GpioEventMonitorExecutorImpl implements PinListener {
+/**
+ * Pin listener that forwards provider pin events to the GPIO pin listeners and triggers
+ * on the GPIO event executor.
+ *
+ * Digital state changes are queued in a preallocated ring buffer and delivered in order by a
+ * single reusable dispatch task that is only submitted to the executor when the queue goes from
+ * idle to busy; in steady state no objects are allocated per event.  The ring grows with bursts
+ * up to {@link #MAX_EVENT_BUFFER_SIZE} pending state changes; beyond that, when the listeners
+ * fall behind, the oldest pending state change is dropped and counted.  State changes for
+ * {@link GpioPinListenerDigitalBatch} listeners are accumulated per listener and delivered in batches.
+ * Fast triggers (see {@link com.pi4j.io.gpio.trigger.OutputStateGpioTrigger#setFast(boolean)}) are
+ * evaluated before the state change is queued, on the thread delivering the provider event.
+ */
+public class GpioEventMonitorExecutorImpl implements PinListener, StripedRunnable {
+
+    // initial number of pending digital state changes buffered per pin
+    // (the buffer grows if a burst of events exceeds this capacity)
+    protected static final int INITIAL_EVENT_BUFFER_SIZE = 64;
+
+    // maximum number of pending digital state changes buffered per pin
+    protected static final int MAX_EVENT_BUFFER_SIZE = 4096;
 
     private final GpioPinInput pin;
+    private final GpioPinImpl fastTriggerPin;
     private static ExecutorService executor;
     private static ScheduledExecutorService scheduledExecutor;
-    private ScheduledFuture<?> debounceFuture = null;
+
+    // timestamp based debounce filter (guarded by itself) and its (single) pending timer
+    private final GpioDebounceFilter debounceFilter = new GpioDebounceFilter(this::enqueue);
+    private final Runnable debounceTimerTask = this::expireDebounceFilter;
+    private ScheduledFuture<?> debounceTimer = null;
+    private long debounceTimerDeadline;
+
+    private final GpioEventDispatchTaskImpl dispatcher;
+
+    // pending digital state change ring buffer (guarded by 'this')
+    private Object[] pendingSources = new Object[INITIAL_EVENT_BUFFER_SIZE];
+    private PinState[] pendingStates = new PinState[INITIAL_EVENT_BUFFER_SIZE];
+    private long[] pendingTimestamps = new long[INITIAL_EVENT_BUFFER_SIZE];
+    private int pendingHead = 0;
+    private int pendingCount = 0;
+    private boolean dispatching = false;
+    private long droppedEvents = 0;
+
+    // batch accumulators for the batch listeners of the listener snapshot they were created for
+    // (only accessed by the dispatch task)
+    private GpioPinListener[] batchListenerSnapshot = null;
+    private GpioEventBatchImpl[] batches = new GpioEventBatchImpl[0];
 
     public GpioEventMonitorExecutorImpl(GpioPinInput pin) {
         this.pin = pin;
+        this.fastTriggerPin = (pin instanceof GpioPinImpl) ? (GpioPinImpl) pin : null;
+        this.dispatcher = new GpioEventDispatchTaskImpl(pin);
         executor = GpioFactory.getExecutorServiceFactory().getGpioEventExecutorService();
         scheduledExecutor = GpioFactory.getExecutorServiceFactory().getScheduledExecutorService();
     }
 
     @Override
     public void handlePinEvent(PinEvent event) {
+        if (event.getEventType() == PinEventType.DIGITAL_STATE_CHANGE) {
+            PinDigitalStateChangeEvent stateChangeEvent = (PinDigitalStateChangeEvent) event;
+            handlePinDigitalStateChange(event.getSource(), event.getPin(),
+                    stateChangeEvent.getState(), stateChangeEvent.getTimestamp());
+        } else {
+            // add a new pin event notification to the thread pool for *immediate* execution
+            executor.execute(new GpioEventDispatchTaskImpl(pin, event));
+        }
+    }
+
+    @Override
+    public void handlePinDigitalStateChange(Object source, Pin eventPin, PinState state, long timestamp) {
+
+        if (!pin.getPin().equals(eventPin)) {
+            return;
+        }
 
         // for digital input pins, we need to enforce pin debounce event suppression
-        if(pin instanceof GpioPinDigitalInput && event.getEventType() == PinEventType.DIGITAL_STATE_CHANGE){
-
-            // cast to the digital input pin interface, get the current state from
-            // the event, and determine the debounce interval for this pin state
-            GpioPinDigitalInput dip = (GpioPinDigitalInput)pin;
-            PinState state = ((PinDigitalStateChangeEvent) event).getState();
-            int pinDebounceForState = dip.getDebounce(state);
-
-            // if the pin has a debounce delay configured for this pin state,
-            // then we will need to use the pin debounce logic to defer pin events
-            if(pinDebounceForState > 0) {
-                // if no existing debounce future task exists or no future task is still busy, then
-                // create a new debounce future task and schedule it based on the debounce
-                // interval defined for the current pin state
-                if (debounceFuture == null || debounceFuture.isDone()) {
-                    debounceFuture = scheduledExecutor.schedule(
-                            new GpioEventDebounceTaskImpl(dip, state), pinDebounceForState, TimeUnit.MILLISECONDS);
-                } else {
-                    // if an existing debounce future task exists and is still busy,
-                    // then exit this method effectively suppressing the current pin event
-                    return;
+        if (pin instanceof GpioPinDigitalInput) {
+            GpioPinDigitalInput dip = (GpioPinDigitalInput) pin;
+            int highDebounce = dip.getDebounce(PinState.HIGH);
+            int lowDebounce = dip.getDebounce(PinState.LOW);
+            boolean filtered = false;
+            long deadline = GpioDebounceFilter.NO_DEADLINE;
+            synchronized (debounceFilter) {
+                // (a pending filter decision is settled even if the debounce was just disabled)
+                if (highDebounce > 0 || lowDebounce > 0 || debounceFilter.getDeadline() != GpioDebounceFilter.NO_DEADLINE) {
+                    // the debounce filter decides from the edge timestamps and
+                    // passes the accepted state changes on to enqueue()
+                    debounceFilter.configure(dip.getDebounceMode(),
+                            TimeUnit.MILLISECONDS.toNanos(highDebounce), TimeUnit.MILLISECONDS.toNanos(lowDebounce));
+                    debounceFilter.edge(source, state, timestamp);
+                    deadline = debounceFilter.getDeadline();
+                    filtered = true;
                 }
             }
+            if (filtered) {
+                scheduleDebounceTimer(deadline);
+                return;
+            }
         }
 
-        // add a new pin event notification to the thread pool for *immediate* execution
-        executor.execute(new GpioEventDispatchTaskImpl(pin, event));
+        // queue the state change for the (reusable) dispatch task
+        enqueue(source, state, timestamp);
+    }
+
+    /**
+     * Make sure the debounce timer runs at (or before) the given debounce filter deadline; a
+     * single timer is scheduled per debounce window, not per edge.
+     */
+    private void scheduleDebounceTimer(long deadline) {
+        if (deadline == GpioDebounceFilter.NO_DEADLINE) {
+            return;
+        }
+        synchronized (debounceFilter) {
+            if (debounceTimer != null && !debounceTimer.isDone() && debounceTimerDeadline - deadline <= 0) {
+                // the pending timer fires before the deadline; it reschedules itself if needed
+                return;
+            }
+            debounceTimerDeadline = deadline;
+            debounceTimer = scheduledExecutor.schedule(debounceTimerTask,
+                    Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void expireDebounceFilter() {
+        long deadline;
+        synchronized (debounceFilter) {
+            debounceFilter.expire(System.nanoTime());
+            deadline = debounceFilter.getDeadline();
+            debounceTimer = null;
+        }
+        scheduleDebounceTimer(deadline);
+    }
+
+    private void enqueue(Object source, PinState state, long timestamp) {
+        // fast triggers are evaluated right here, on the thread delivering the (debounced) state change
+        if (fastTriggerPin != null) {
+            GpioFastTriggerTable fastTriggers = fastTriggerPin.getFastTriggerTable();
+            if (!fastTriggers.isEmpty()) {
+                fastTriggers.evaluate(state);
+            }
+        }
+
+        synchronized (this) {
+            // drop the oldest pending state change once the buffer cannot grow any further
+            if (pendingCount == MAX_EVENT_BUFFER_SIZE) {
+                pendingSources[pendingHead] = null;
+                pendingHead = (pendingHead + 1) % pendingStates.length;
+                pendingCount--;
+                droppedEvents++;
+            }
+
+            // grow the buffer if a burst of events exceeds the current capacity
+            if (pendingCount == pendingStates.length) {
+                Object[] sources = new Object[pendingStates.length * 2];
+                PinState[] states = new PinState[pendingStates.length * 2];
+                long[] timestamps = new long[pendingStates.length * 2];
+                for (int index = 0; index < pendingCount; index++) {
+                    sources[index] = pendingSources[(pendingHead + index) % pendingSources.length];
+                    states[index] = pendingStates[(pendingHead + index) % pendingStates.length];
+                    timestamps[index] = pendingTimestamps[(pendingHead + index) % pendingTimestamps.length];
+                }
+                pendingSources = sources;
+                pendingStates = states;
+                pendingTimestamps = timestamps;
+                pendingHead = 0;
+            }
+
+            int tail = (pendingHead + pendingCount) % pendingStates.length;
+            pendingSources[tail] = source;
+            pendingStates[tail] = state;
+            pendingTimestamps[tail] = timestamp;
+            pendingCount++;
+
+            // the dispatch task is already scheduled or running; it will pick up this event
+            if (dispatching) {
+                return;
+            }
+            dispatching = true;
+        }
+
+        // schedule the dispatch task for *immediate* execution
+        executor.execute(this);
+    }
+
+    /**
+     * @return number of digital state changes dropped because the pending buffer was full
+     */
+    public synchronized long getDroppedEventCount() {
+        return droppedEvents;
+    }
+
+    /**
+     * Dispatch task; delivers all pending digital state changes in the order they were received.
+     */
+    @Override
+    public void run() {
+        boolean completed = false;
+        try {
+            for (;;) {
+                Object source;
+                PinState state;
+                long timestamp;
+                synchronized (this) {
+                    if (pendingCount == 0) {
+                        dispatching = false;
+                        completed = true;
+                        return;
+                    }
+                    source = pendingSources[pendingHead];
+                    state = pendingStates[pendingHead];
+                    timestamp = pendingTimestamps[pendingHead];
+                    pendingSources[pendingHead] = null;
+                    pendingHead = (pendingHead + 1) % pendingStates.length;
+                    pendingCount--;
+                }
+                GpioPinListener[] listeners = getListeners();
+                dispatcher.dispatchDigitalStateChange(source, state, timestamp, listeners, getTriggers());
+                for (GpioEventBatchImpl batch : getBatches(listeners)) {
+                    batch.add(source, state, timestamp);
+                }
+            }
+        } finally {
+            // a listener or trigger failed; reschedule the dispatch task for any remaining events
+            if (!completed) {
+                boolean reschedule;
+                synchronized (this) {
+                    reschedule = dispatching = (pendingCount > 0);
+                }
+                if (reschedule) {
+                    executor.execute(this);
+                }
+            }
+        }
+    }
+
+    /**
+     * Events of a pin are dispatched on the same stripe when using a striped executor.
+     */
+    @Override
+    public int getStripeKey() {
+        return pin.getPin().getAddress();
+    }
+
+    private GpioEventBatchImpl[] getBatches(GpioPinListener[] listeners) {
+        if (listeners == batchListenerSnapshot) {
+            return batches;
+        }
+
+        // the listeners changed; keep the accumulators of the remaining batch listeners
+        ArrayList<GpioEventBatchImpl> updated = new ArrayList<>();
+        for (GpioPinListener listener : listeners) {
+            if (listener instanceof GpioPinListenerDigitalBatch) {
+                GpioEventBatchImpl batch = null;
+                for (GpioEventBatchImpl existing : batches) {
+                    if (existing.getListener() == listener) {
+                        batch = existing;
+                        break;
+                    }
+                }
+                if (batch == null) {
+                    batch = new GpioEventBatchImpl(pin, (GpioPinListenerDigitalBatch) listener, scheduledExecutor);
+                }
+                updated.add(batch);
+            }
+        }
+
+        // deliver the state changes still pending for removed batch listeners
+        for (GpioEventBatchImpl existing : batches) {
+            if (!updated.contains(existing)) {
+                existing.flush();
+            }
+        }
+
+        // only cache the result for immutable listener snapshots
+        if (pin instanceof GpioPinImpl) {
+            batchListenerSnapshot = listeners;
+        }
+        batches = updated.toArray(new GpioEventBatchImpl[0]);
+        return batches;
+    }
+
+    private GpioPinListener[] getListeners() {
+        return GpioEventDispatchTaskImpl.getListeners(pin);
+    }
+
+    private GpioTrigger[] getTriggers() {
+        return GpioEventDispatchTaskImpl.getTriggers(pin);
     }
 }
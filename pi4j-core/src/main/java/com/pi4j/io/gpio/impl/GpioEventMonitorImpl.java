@@ -39,11 +39,9 @@ import com.pi4j.io.gpio.event.PinEvent;
 import com.pi4j.io.gpio.event.PinEventType;
 import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
 import com.pi4j.io.gpio.event.PinListener;
+import com.pi4j.io.gpio.tasks.impl.GpioEventDispatchTaskImpl;
 import com.pi4j.io.gpio.trigger.GpioTrigger;
 
-import java.util.ArrayList;
-import java.util.Collection;
-
 @SuppressWarnings("unused")
 public class GpioEventMonitorImpl implements PinListener {
     private final GpioPinInput pin;
@@ -60,21 +58,15 @@ public class GpioEventMonitorImpl implements PinListener {
             if (event.getEventType() == PinEventType.DIGITAL_STATE_CHANGE) {
                 PinState state = ((PinDigitalStateChangeEvent)event).getState();
 
-                // create a copy of the listeners collection
-                Collection<GpioPinListener> listeners  = new ArrayList<>(pin.getListeners());
-
                 // process event callbacks for digital listeners
-                for (GpioPinListener listener : listeners) {
+                for (GpioPinListener listener : GpioEventDispatchTaskImpl.getListeners(pin)) {
                     if (listener != null && listener instanceof GpioPinListenerDigital) {
-                        ((GpioPinListenerDigital)listener).handleGpioPinDigitalStateChangeEvent(new GpioPinDigitalStateChangeEvent(event.getSource(), pin, state));
+                        ((GpioPinListenerDigital)listener).handleGpioPinDigitalStateChangeEvent(new GpioPinDigitalStateChangeEvent(event.getSource(), pin, state, ((PinDigitalStateChangeEvent)event).getTimestamp()));
                     }
                 }
 
-                // create a copy of the triggers collection
-                Collection<GpioTrigger> triggers  = new ArrayList<>(pin.getTriggers());
-
                 // process triggers
-                for (GpioTrigger trigger : triggers) {
+                for (GpioTrigger trigger : GpioEventDispatchTaskImpl.getTriggers(pin)) {
                     if (trigger != null && trigger.hasPinState(state)) {
                         trigger.invoke(pin, state);
                     }
@@ -82,11 +74,8 @@ public class GpioEventMonitorImpl implements PinListener {
             } else if(event.getEventType() == PinEventType.ANALOG_VALUE_CHANGE) {
                 double value = ((PinAnalogValueChangeEvent)event).getValue();
 
-                // create a copy of the listeners collection
-                Collection<GpioPinListener> listeners  = new ArrayList<>(pin.getListeners());
-
                 // process event callbacks for analog listeners
-                for (GpioPinListener listener : listeners) {
+                for (GpioPinListener listener : GpioEventDispatchTaskImpl.getListeners(pin)) {
                     if (listener != null && listener instanceof GpioPinListenerAnalog) {
                         ((GpioPinListenerAnalog)listener).handleGpioPinAnalogValueChangeEvent(new GpioPinAnalogValueChangeEvent(event.getSource(), pin, value));
                     }
@@ -0,0 +1,104 @@
+package com.pi4j.io.gpio.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioFastTriggerTable.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioPinDigitalOutput;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.trigger.OutputStateGpioTrigger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fast triggers of an input pin compiled into a lookup table of target pins and target states
+ * per input state; evaluated by {@link GpioEventMonitorExecutorImpl} on the thread delivering the
+ * provider pin event, see {@link OutputStateGpioTrigger#setFast(boolean)}.
+ *
+ * Each input state row only holds the triggers whose pin states contain that state, so no trigger
+ * state is checked per event.  The table is immutable; the pin compiles a new table whenever its
+ * triggers or their pin states change.
+ */
+final class GpioFastTriggerTable {
+
+    private static final PinState[] STATES = PinState.values();
+
+    static final GpioFastTriggerTable EMPTY = new GpioFastTriggerTable(new ArrayList<>());
+
+    // table entries indexed by the input state value (LOW = 0, HIGH = 1)
+    private final GpioPinDigitalOutput[][] targets;
+    private final PinState[][] targetStates;
+    private final boolean empty;
+
+    GpioFastTriggerTable(List<OutputStateGpioTrigger> fastTriggers) {
+        targets = new GpioPinDigitalOutput[STATES.length][];
+        targetStates = new PinState[STATES.length][];
+        boolean none = true;
+        for (PinState state : STATES) {
+            List<OutputStateGpioTrigger> entries = new ArrayList<>();
+            for (OutputStateGpioTrigger trigger : fastTriggers) {
+                if (trigger.getTargetPin() != null && trigger.hasPinState(state)) {
+                    entries.add(trigger);
+                }
+            }
+            int index = state.getValue();
+            targets[index] = new GpioPinDigitalOutput[entries.size()];
+            targetStates[index] = new PinState[entries.size()];
+            for (int entry = 0; entry < entries.size(); entry++) {
+                targets[index][entry] = entries.get(entry).getTargetPin();
+                targetStates[index][entry] = entries.get(entry).getTargetState(state);
+            }
+            none &= entries.isEmpty();
+        }
+        empty = none;
+    }
+
+    boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * Sets the target pins of the triggers matching the input state.
+     */
+    void evaluate(PinState state) {
+        int index = state.getValue();
+        GpioPinDigitalOutput[] stateTargets = targets[index];
+        PinState[] stateTargetStates = targetStates[index];
+        for (int entry = 0; entry < stateTargets.length; entry++) {
+            try {
+                if (stateTargetStates[entry] == null) {
+                    stateTargets[entry].toggle();
+                } else {
+                    stateTargets[entry].setState(stateTargetStates[entry]);
+                }
+            } catch (RuntimeException e) {
+                // never let a failing target write break the provider event thread
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -31,6 +31,7 @@ import com.pi4j.io.gpio.*;
 import com.pi4j.io.gpio.event.GpioPinListener;
 import com.pi4j.io.gpio.event.PinListener;
 import com.pi4j.io.gpio.trigger.GpioTrigger;
+import com.pi4j.io.gpio.trigger.OutputStateGpioTrigger;
 
 import java.util.*;
 import java.util.concurrent.Callable;
@@ -40,6 +41,7 @@ import java.util.concurrent.TimeUnit;
 
 public class GpioPinImpl implements GpioPin,
         GpioPinDigitalInput,
+        GpioPinCounter,
         GpioPinDigitalOutput,
         GpioPinDigitalMultipurpose,
         GpioPinAnalogInput,
@@ -58,7 +60,22 @@ public class GpioPinImpl implements GpioPin,
     private final Map<String, String> properties = new ConcurrentHashMap<>();
     private final List<GpioPinListener> listeners = new ArrayList<>();
     private final List<GpioTrigger> triggers = new ArrayList<>();
-    private final Map<PinState, Integer> debounce = new HashMap<>();
+
+    // immutable snapshots of the listeners and triggers read by the event dispatch path
+    private volatile GpioPinListener[] listenerSnapshot = new GpioPinListener[0];
+    private volatile GpioTrigger[] triggerSnapshot = new GpioTrigger[0];
+    private volatile GpioFastTriggerTable fastTriggerTable = GpioFastTriggerTable.EMPTY;
+    private List<OutputStateGpioTrigger> fastTriggers = Collections.emptyList();
+
+    // recompiles the fast trigger table when the pin states of a fast trigger change
+    private final Runnable fastTriggerCompiler = this::compileFastTriggers;
+    private final Map<PinState, Integer> debounce = new ConcurrentHashMap<>();
+    private volatile PinDebounceMode debounceMode = PinDebounceMode.LEADING_EDGE;
+    private volatile GpioEdgeCounterImpl counter = null;
+
+    // state handle validated by the provider when the pin was exported or its mode changed;
+    // null for pins that are not in a digital mode
+    private volatile GpioStateHandle stateHandle = null;
     protected final int NO_DEBOUCE = 0;
 
     @SuppressWarnings("unused")
@@ -148,17 +165,20 @@ public class GpioPinImpl implements GpioPin,
     public void export(PinMode mode) {
         // export the pin
         provider.export(pin, mode);
+        updateStateHandle(mode);
     }
 
     @Override
     public void export(PinMode mode, PinState defaultState) {
         // export the pin
         provider.export(pin, mode, defaultState);
+        updateStateHandle(mode);
     }
 
     @Override
     public void unexport() {
         // unexport the pin
+        stateHandle = null;
         provider.unexport(pin);
     }
 
@@ -169,7 +189,17 @@ public class GpioPinImpl implements GpioPin,
 
     @Override
     public void setMode(PinMode mode) {
+        stateHandle = null;
         provider.setMode(pin, mode);
+        updateStateHandle(mode);
+    }
+
+    private void updateStateHandle(PinMode mode) {
+        if (mode == PinMode.DIGITAL_INPUT || mode == PinMode.DIGITAL_OUTPUT) {
+            stateHandle = provider.getStateHandle(pin);
+        } else {
+            stateHandle = null;
+        }
     }
 
     @Override
@@ -408,14 +438,24 @@ public class GpioPinImpl implements GpioPin,
         setState(PinState.getInverseState(pulseState));
     }
 
+    @Override
+    public Future<GpioJitterStatistics> play(GpioWaveform waveform) {
+        return GpioWaveformPlayer.getDefault().play(waveform, values -> setState(PinState.getState((values & 1) != 0)));
+    }
+
     @Override
     public void setState(PinState state) {
-        provider.setState(pin, state);
+        GpioStateHandle handle = stateHandle;
+        if (handle != null) {
+            handle.setState(state);
+        } else {
+            provider.setState(pin, state);
+        }
     }
 
     @Override
     public void setState(boolean state) {
-        provider.setState(pin, (state) ? PinState.HIGH : PinState.LOW);
+        setState((state) ? PinState.HIGH : PinState.LOW);
     }
 
     @Override
@@ -430,6 +470,10 @@ public class GpioPinImpl implements GpioPin,
 
     @Override
     public PinState getState() {
+        GpioStateHandle handle = stateHandle;
+        if (handle != null) {
+            return handle.getState();
+        }
         return provider.getState(pin);
     }
 
@@ -463,6 +507,78 @@ public class GpioPinImpl implements GpioPin,
         setDebounce(debounce, PinState.HIGH, PinState.LOW);
     }
 
+    @Override
+    public PinDebounceMode getDebounceMode() {
+        return debounceMode;
+    }
+
+    @Override
+    public void setDebounceMode(PinDebounceMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Missing debounce mode argument.");
+        }
+        this.debounceMode = mode;
+    }
+
+    @Override
+    public long getCount() {
+        GpioEdgeCounterImpl counter = this.counter;
+        return (counter == null) ? 0 : counter.getCount();
+    }
+
+    @Override
+    public long resetCount() {
+        GpioEdgeCounterImpl counter = this.counter;
+        return (counter == null) ? 0 : counter.reset();
+    }
+
+    @Override
+    public double getRate() {
+        GpioEdgeCounterImpl counter = this.counter;
+        return (counter == null) ? 0 : counter.getRate();
+    }
+
+    @Override
+    public synchronized long getRateWindow() {
+        return (counter == null) ? DEFAULT_RATE_WINDOW : counter.getRateWindow();
+    }
+
+    @Override
+    public synchronized void setRateWindow(long window) {
+        if (counter == null) {
+            counter = new GpioEdgeCounterImpl(pin, PinEdge.NONE, window);
+        } else {
+            counter.setRateWindow(window);
+        }
+    }
+
+    @Override
+    public synchronized PinEdge getCountEdge() {
+        return (counter == null) ? PinEdge.NONE : counter.getEdge();
+    }
+
+    @Override
+    public synchronized void setCountEdge(PinEdge edge) {
+        if (edge == null) {
+            edge = PinEdge.NONE;
+        }
+        if (counter == null) {
+            counter = new GpioEdgeCounterImpl(pin, PinEdge.NONE, DEFAULT_RATE_WINDOW);
+        }
+
+        // the counter is registered directly with the provider so that edges
+        // are counted in the provider's interrupt path without event dispatch
+        if (counter.getEdge() == PinEdge.NONE && edge != PinEdge.NONE) {
+            counter.setEdge(edge);
+            provider.addListener(pin, counter);
+        } else if (counter.getEdge() != PinEdge.NONE && edge == PinEdge.NONE) {
+            provider.removeListener(pin, counter);
+            counter.setEdge(edge);
+        } else {
+            counter.setEdge(edge);
+        }
+    }
+
     @Override
     public void setValue(double value) {
         provider.setValue(pin, value);
@@ -519,6 +635,7 @@ public class GpioPinImpl implements GpioPin,
             throw new IllegalArgumentException("Missing listener argument.");
         }
         Collections.addAll(listeners, listener);
+        listenerSnapshot = listeners.toArray(new GpioPinListener[0]);
         updateInterruptListener();
     }
 
@@ -556,6 +673,7 @@ public class GpioPinImpl implements GpioPin,
         for (GpioPinListener lsnr : listener) {
             listeners.remove(lsnr);
         }
+        listenerSnapshot = listeners.toArray(new GpioPinListener[0]);
 
         updateInterruptListener();
     }
@@ -574,6 +692,53 @@ public class GpioPinImpl implements GpioPin,
         }
     }
 
+    /**
+     * @return immutable snapshot of the registered listeners; the returned array must not be modified
+     */
+    public GpioPinListener[] getListenerSnapshot() {
+        return listenerSnapshot;
+    }
+
+    /**
+     * @return immutable snapshot of the registered triggers that are invoked by the event dispatch;
+     *         fast triggers are not included.  The returned array must not be modified
+     */
+    public GpioTrigger[] getTriggerSnapshot() {
+        return triggerSnapshot;
+    }
+
+    /**
+     * @return the registered fast triggers compiled into a lookup table
+     */
+    GpioFastTriggerTable getFastTriggerTable() {
+        return fastTriggerTable;
+    }
+
+    private void updateTriggerSnapshots() {
+        List<GpioTrigger> dispatched = new ArrayList<>();
+        List<OutputStateGpioTrigger> fast = new ArrayList<>();
+        for (GpioTrigger trigger : triggers) {
+            if (trigger instanceof OutputStateGpioTrigger && ((OutputStateGpioTrigger) trigger).isFast()) {
+                fast.add((OutputStateGpioTrigger) trigger);
+            } else {
+                dispatched.add(trigger);
+            }
+        }
+        for (OutputStateGpioTrigger trigger : fastTriggers) {
+            trigger.removePinStateListener(fastTriggerCompiler);
+        }
+        for (OutputStateGpioTrigger trigger : fast) {
+            trigger.addPinStateListener(fastTriggerCompiler);
+        }
+        fastTriggers = fast;
+        triggerSnapshot = dispatched.toArray(new GpioTrigger[0]);
+        compileFastTriggers();
+    }
+
+    private synchronized void compileFastTriggers() {
+        fastTriggerTable = fastTriggers.isEmpty() ? GpioFastTriggerTable.EMPTY : new GpioFastTriggerTable(fastTriggers);
+    }
+
     /**
      *
      */
@@ -586,6 +751,7 @@ public class GpioPinImpl implements GpioPin,
             throw new IllegalArgumentException("Missing trigger argument.");
         }
         Collections.addAll(triggers, trigger);
+        updateTriggerSnapshots();
         updateInterruptListener();
     }
 
@@ -605,6 +771,7 @@ public class GpioPinImpl implements GpioPin,
         for (GpioTrigger trgr : trigger) {
             triggers.remove(trgr);
         }
+        updateTriggerSnapshots();
 
         updateInterruptListener();
     }
@@ -0,0 +1,128 @@
+package com.pi4j.io.gpio.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioPortImpl.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioJitterStatistics;
+import com.pi4j.io.gpio.GpioPinDigital;
+import com.pi4j.io.gpio.GpioPort;
+import com.pi4j.io.gpio.GpioProvider;
+import com.pi4j.io.gpio.GpioWaveform;
+import com.pi4j.io.gpio.Pin;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Default {@link GpioPort} implementation; port transfers are delegated to the bulk
+ * state methods of the GPIO provider.
+ */
+public class GpioPortImpl implements GpioPort {
+
+    private final GpioProvider provider;
+    private final List<GpioPinDigital> pins;
+    private final Pin[] providerPins;
+    private final int mask;
+
+    public GpioPortImpl(GpioProvider provider, GpioPinDigital... pins) {
+        if (pins == null || pins.length == 0) {
+            throw new IllegalArgumentException("Missing pin argument.");
+        }
+        if (pins.length > MAX_SIZE) {
+            throw new IllegalArgumentException("A GPIO port supports at most " + MAX_SIZE + " pins; " + pins.length + " pins were given.");
+        }
+        this.provider = provider;
+        this.pins = Collections.unmodifiableList(Arrays.asList(pins.clone()));
+        this.providerPins = new Pin[pins.length];
+        for (int index = 0; index < pins.length; index++) {
+            if (pins[index].getProvider() != provider) {
+                throw new IllegalArgumentException("Pin [" + pins[index].getName() + "] does not belong to GPIO provider [" + provider.getName() + "].");
+            }
+            providerPins[index] = pins[index].getPin();
+        }
+        this.mask = (pins.length == MAX_SIZE) ? -1 : (1 << pins.length) - 1;
+    }
+
+    @Override
+    public GpioProvider getProvider() {
+        return provider;
+    }
+
+    @Override
+    public List<GpioPinDigital> getPins() {
+        return pins;
+    }
+
+    @Override
+    public GpioPinDigital getPin(int index) {
+        return pins.get(index);
+    }
+
+    @Override
+    public int size() {
+        return providerPins.length;
+    }
+
+    @Override
+    public int getMask() {
+        return mask;
+    }
+
+    @Override
+    public int read() {
+        return provider.getState(providerPins);
+    }
+
+    @Override
+    public void write(int values) {
+        provider.setState(providerPins, mask, values);
+    }
+
+    @Override
+    public void write(int mask, int values) {
+        provider.setState(providerPins, mask & this.mask, values);
+    }
+
+    @Override
+    public Future<GpioJitterStatistics> play(GpioWaveform waveform) {
+        return GpioWaveformPlayer.getDefault().play(waveform, this::write);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("GPIO port [");
+        for (int index = 0; index < providerPins.length; index++) {
+            if (index > 0) {
+                sb.append(", ");
+            }
+            sb.append(providerPins[index].getName());
+        }
+        return sb.append("]").toString();
+    }
+}
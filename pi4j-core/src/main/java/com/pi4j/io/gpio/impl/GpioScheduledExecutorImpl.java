@@ -29,166 +29,289 @@ package com.pi4j.io.gpio.impl;
 
 
 import com.pi4j.io.gpio.GpioFactory;
+import com.pi4j.io.gpio.GpioJitterStatistics;
 import com.pi4j.io.gpio.GpioPinDigitalOutput;
 import com.pi4j.io.gpio.PinState;
 import com.pi4j.io.gpio.tasks.impl.GpioBlinkStopTaskImpl;
 import com.pi4j.io.gpio.tasks.impl.GpioBlinkTaskImpl;
 import com.pi4j.io.gpio.tasks.impl.GpioPulseTaskImpl;
 
-import java.util.ArrayList;
-import java.util.Map.Entry;
-import java.util.concurrent.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Schedules the timed edges of pulse and blink operations on a {@link GpioTimerWheel}.
+ *
+ * Each pin owns a task slot holding its current timing tasks together with a generation number.
+ * Starting a new pulse or blink atomically advances the pin's generation and cancels the tasks of
+ * the previous generation; the new tasks are then installed only if no newer generation has been
+ * started meanwhile.  No locks are involved: a scheduled task publishes the generation of the edge it
+ * is about to write before checking that its generation is still current, and a new pulse or blink
+ * waits for such an edge of a superseded generation to be written before it sets its initial state,
+ * so a superseded task that was already due can never override a newer pulse or blink.  The timer
+ * thread never waits for an application thread, so a slow write on one pin never delays the edges of
+ * other pins, and completed tasks never need to be purged.
+ */
 public class GpioScheduledExecutorImpl {
 
-    private static final ConcurrentHashMap<GpioPinDigitalOutput, CopyOnWriteArrayList<ScheduledFuture<?>>> pinTaskQueue = new ConcurrentHashMap<>();
-    private static ScheduledExecutorService scheduledExecutorService;
+    private static final ConcurrentHashMap<GpioPinDigitalOutput, PinTaskSlot> pinTaskSlots = new ConcurrentHashMap<>();
+    private static volatile GpioTimerWheel timer;
+
+    // interval at which a new pulse or blink checks whether a superseded edge has been written
+    private static final long EDGE_WAIT_INTERVAL = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * Timing tasks of one generation of a pin; immutable.
+     */
+    private static final class PinTasks {
+        private static final PinTasks INITIAL = new PinTasks(0, null, null);
 
-    private synchronized static void init(GpioPinDigitalOutput pin) {
-        if (scheduledExecutorService == null) {
-            scheduledExecutorService = GpioFactory.getExecutorServiceFactory().getScheduledExecutorService();
+        private final long generation;
+        private final Future<?> task;
+        private final Future<?> stopTask;
+
+        private PinTasks(long generation, Future<?> task, Future<?> stopTask) {
+            this.generation = generation;
+            this.task = task;
+            this.stopTask = stopTask;
         }
 
-        // determine if any existing future tasks are already scheduled for this pin
-        if (pinTaskQueue.containsKey(pin)) {
-            // if a task is found, then cancel all pending tasks immediately and remove them
-            CopyOnWriteArrayList<ScheduledFuture<?>> tasks = pinTaskQueue.get(pin);
-            if (tasks != null && !tasks.isEmpty()) {
-                // iterate tasks and cancel any
-                for (int index = (tasks.size() - 1); index >= 0; index--) {
-                    ScheduledFuture<?> task = tasks.get(index);
-                    task.cancel(true);
-                }
-                // clear the tasks queue for this pin
-                tasks.clear();
+        private void cancel() {
+            if (task != null) {
+                task.cancel(false);
             }
-
-            // if no remaining future tasks are remaining, then remove this pin from the tasks queue
-            if (tasks != null && tasks.isEmpty()) {
-                pinTaskQueue.remove(pin);
+            if (stopTask != null) {
+                stopTask.cancel(false);
             }
         }
+
+        private boolean isDone() {
+            return (task == null || task.isDone()) && (stopTask == null || stopTask.isDone());
+        }
     }
 
-    private synchronized static ScheduledFuture<?> createCleanupTask(long delay, TimeUnit timeUnit) {
-        // create future task to clean up completed tasks
-
-        @SuppressWarnings({"rawtypes", "unchecked"})
-        ScheduledFuture<?> cleanupFutureTask = scheduledExecutorService.schedule(new Callable() {
-            public Object call() throws Exception {
-                for (Entry<GpioPinDigitalOutput, CopyOnWriteArrayList<ScheduledFuture<?>>> item : pinTaskQueue.entrySet()) {
-                    CopyOnWriteArrayList<ScheduledFuture<?>> remainingTasks = item.getValue();
-                    ArrayList<ScheduledFuture<?>> purgeTasks = new ArrayList<>();
-
-                    // if there are pending tasks in queue, then lets look for any that can be removed
-                    if (remainingTasks != null && !remainingTasks.isEmpty()) {
-                        // build up a purge list of tasks that are canceled or already complete
-                        for (int index = (remainingTasks.size() - 1); index >= 0; index--) {
-                            ScheduledFuture<?> remainingTask = remainingTasks.get(index);
-                            if (remainingTask.isCancelled() || remainingTask.isDone()) {
-                                purgeTasks.add(remainingTask);
-                            }
-                        }
-                        // purge the completed and canceled tasks on the purge list now
-                        for(ScheduledFuture<?> task : purgeTasks){
-                            if(remainingTasks.contains(task)) remainingTasks.remove(task);
-                        }
-
-                        // if no remaining future tasks are remaining, then remove this pin from the tasks queue
-                        if (remainingTasks.isEmpty()) {
-                            pinTaskQueue.remove(item.getKey());
-                        }
-                    }
+    /**
+     * Current timing tasks of a single pin.
+     */
+    private static final class PinTaskSlot {
+        private final AtomicReference<PinTasks> current = new AtomicReference<>(PinTasks.INITIAL);
+
+        // generation of the edge being written by the timer thread, or 0 if no edge is being written
+        private volatile long writing;
+
+        /**
+         * Starts a new generation and cancels the tasks of the previous one.
+         * @return the new generation
+         */
+        private long begin() {
+            while (true) {
+                PinTasks previous = current.get();
+                PinTasks next = new PinTasks(previous.generation + 1, null, null);
+                if (current.compareAndSet(previous, next)) {
+                    previous.cancel();
+                    return next.generation;
                 }
-                return null;
             }
-        }, delay, timeUnit);
+        }
 
-        return cleanupFutureTask;
-    }
+        /**
+         * Installs the tasks of a generation; the tasks are cancelled if a newer generation has been started.
+         */
+        private void install(long generation, Future<?> task, Future<?> stopTask) {
+            PinTasks tasks = new PinTasks(generation, task, stopTask);
+            while (true) {
+                PinTasks installed = current.get();
+                if (installed.generation != generation) {
+                    tasks.cancel();
+                    return;
+                }
+                if (current.compareAndSet(installed, tasks)) {
+                    return;
+                }
+            }
+        }
 
+        private boolean isCurrent(long generation) {
+            return current.get().generation == generation;
+        }
 
-    public synchronized static Future<?> pulse(GpioPinDigitalOutput pin, long duration, PinState pulseState, TimeUnit unit) {
-        return pulse(pin, duration, pulseState, null, unit);
+        /**
+         * Wraps a task so that it only runs while its generation is current.  The generation of the
+         * edge is published before the check, so a pulse or blink that starts a new generation after
+         * the check sees the edge in {@link #awaitEdge(long)}.
+         */
+        private Runnable guard(long generation, Runnable task) {
+            return () -> {
+                writing = generation;
+                try {
+                    if (isCurrent(generation)) {
+                        task.run();
+                    }
+                } finally {
+                    writing = 0;
+                }
+            };
+        }
+
+        /**
+         * Waits until an edge of another generation that passed its generation check has been
+         * written; only the application thread starting the given generation waits here.
+         */
+        private void awaitEdge(long generation) {
+            long edge;
+            while ((edge = writing) != 0 && edge != generation) {
+                LockSupport.parkNanos(this, EDGE_WAIT_INTERVAL);
+            }
+        }
     }
 
-    public synchronized static Future<?> pulse(GpioPinDigitalOutput pin, long duration, PinState pulseState, Callable<?> callback, TimeUnit timeUnit) {
+    /**
+     * Future of a pulse with a callback; completes when the callback has returned.  Cancelling it
+     * cancels the pending edge, but has no effect once the edge has been written.
+     */
+    private static final class PulseCallbackFuture extends CompletableFuture<Object> {
+        private volatile Future<?> edge;
+        private volatile boolean written;
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            Future<?> pending = edge;
+            if (pending != null) {
+                pending.cancel(false);
+            }
+            return !written && super.cancel(mayInterruptIfRunning);
+        }
+    }
 
-        // create future return object
-        ScheduledFuture<?> scheduledFuture = null;
+    private static GpioTimerWheel getTimer() {
+        GpioTimerWheel current = timer;
+        if (current == null || current.isShutdown()) {
+            synchronized (GpioScheduledExecutorImpl.class) {
+                current = timer;
+                if (current == null || current.isShutdown()) {
+                    current = new GpioTimerWheel();
+                    timer = current;
+                }
+            }
+        }
+        return current;
+    }
 
-        // perform the initial startup and cleanup for this pin
-        init(pin);
+    private static PinTaskSlot getSlot(GpioPinDigitalOutput pin) {
+        PinTaskSlot slot = pinTaskSlots.get(pin);
+        if (slot == null) {
+            slot = pinTaskSlots.computeIfAbsent(pin, key -> new PinTaskSlot());
+        }
+        return slot;
+    }
 
-        // we only pulse for requests with a valid duration in milliseconds
-        if (duration > 0) {
-            // set the active state
-            pin.setState(pulseState);
+    /**
+     * @return true if no pulse or blink task of the pin is pending
+     */
+    static boolean isIdle(GpioPinDigitalOutput pin) {
+        PinTaskSlot slot = pinTaskSlots.get(pin);
+        return slot == null || slot.current.get().isDone();
+    }
 
-            // create future job to return the pin to the low state
-            scheduledFuture = scheduledExecutorService
-                .schedule(new GpioPulseTaskImpl(pin, PinState.getInverseState(pulseState), callback), duration, timeUnit);
+    /**
+     * @return lateness statistics of the executed pulse and blink edges
+     */
+    public static GpioJitterStatistics getJitterStatistics() {
+        return getTimer().getJitterStatistics();
+    }
 
-            // get pending tasks for the current pin
-            CopyOnWriteArrayList<ScheduledFuture<?>> tasks;
-            if (!pinTaskQueue.containsKey(pin)) {
-                pinTaskQueue.put(pin, new CopyOnWriteArrayList<>());
+    /**
+     * Cancel all pending pulse and blink tasks and stop the timer thread.  A new timer thread is
+     * started when the next pulse or blink is requested.
+     */
+    public static void shutdown() {
+        for (PinTaskSlot slot : pinTaskSlots.values()) {
+            slot.begin();
+        }
+        pinTaskSlots.clear();
+        synchronized (GpioScheduledExecutorImpl.class) {
+            if (timer != null) {
+                timer.shutdown();
+                timer = null;
             }
-            tasks = pinTaskQueue.get(pin);
-
-            // add the new scheduled task to the tasks collection
-            tasks.add(scheduledFuture);
-
-            // create future task to clean up completed tasks
-            createCleanupTask(duration + 500, timeUnit);
         }
+    }
 
-        // return future task
-        return scheduledFuture;
+    public static Future<?> pulse(GpioPinDigitalOutput pin, long duration, PinState pulseState, TimeUnit unit) {
+        return pulse(pin, duration, pulseState, null, unit);
     }
 
-    public synchronized static Future<?> blink(GpioPinDigitalOutput pin, long delay, long duration, PinState blinkState, TimeUnit timeUnit) {
+    public static Future<?> pulse(GpioPinDigitalOutput pin, long duration, PinState pulseState, Callable<?> callback, TimeUnit timeUnit) {
+        // cancel any pending tasks for this pin
+        PinTaskSlot slot = getSlot(pin);
+        long generation = slot.begin();
 
-        // perform the initial startup and cleanup for this pin
-        init(pin);
+        // we only pulse for requests with a valid duration
+        if (duration <= 0) {
+            return null;
+        }
 
-        // we only blink for requests with a valid delay in milliseconds
-        if (delay > 0) {
-            // make sure pin starts in active state
-            pin.setState(blinkState);
+        // set the active state; a superseded edge that is already running completes first
+        slot.awaitEdge(generation);
+        pin.setState(pulseState);
 
-            // create future job to toggle the pin state
-            ScheduledFuture<?> scheduledFutureBlinkTask = scheduledExecutorService
-                .scheduleAtFixedRate(new GpioBlinkTaskImpl(pin), delay, delay, timeUnit);
+        // create future job to return the pin to the inactive state
+        Runnable edge = new GpioPulseTaskImpl(pin, PinState.getInverseState(pulseState));
+        if (callback == null) {
+            Future<?> pulseTask = getTimer().schedule(slot.guard(generation, edge), duration, timeUnit);
+            slot.install(generation, pulseTask, null);
+            return pulseTask;
+        }
 
-            // get pending tasks for the current pin
-            CopyOnWriteArrayList<ScheduledFuture<?>> tasks;
-            if (!pinTaskQueue.containsKey(pin)) {
-                pinTaskQueue.put(pin, new CopyOnWriteArrayList<>());
-            }
-            tasks = pinTaskQueue.get(pin);
+        // the callback may block, so it is handed off to the event executor instead of running on
+        // the timer thread; the returned future completes once the callback has returned
+        PulseCallbackFuture pulseTask = new PulseCallbackFuture();
+        Runnable task = () -> {
+            pulseTask.written = true;
+            edge.run();
+            GpioFactory.getExecutorServiceFactory().getEventExecutorService().execute(() -> {
+                try {
+                    callback.call();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+                pulseTask.complete(null);
+            });
+        };
+        pulseTask.edge = getTimer().schedule(slot.guard(generation, task), duration, timeUnit);
+        slot.install(generation, pulseTask, null);
+        return pulseTask;
+    }
 
-            // add the new scheduled task to the tasks collection
-            tasks.add(scheduledFutureBlinkTask);
+    public static Future<?> blink(GpioPinDigitalOutput pin, long delay, long duration, PinState blinkState, TimeUnit timeUnit) {
+        // cancel any pending tasks for this pin
+        PinTaskSlot slot = getSlot(pin);
+        long generation = slot.begin();
 
-            // if a duration was defined, then schedule a future task to kill the blinker task
-            if (duration > 0) {
-                // create future job to stop blinking
-                ScheduledFuture<?> scheduledFutureBlinkStopTask = scheduledExecutorService
-                    .schedule(new GpioBlinkStopTaskImpl(pin,PinState.getInverseState(blinkState), scheduledFutureBlinkTask), duration, timeUnit);
+        // no future task when a delay time has not been specified
+        if (delay <= 0) {
+            return null;
+        }
 
-                // add the new scheduled stop task to the tasks collection
-                tasks.add(scheduledFutureBlinkStopTask);
+        // make sure pin starts in active state; a superseded edge that is already running completes first
+        slot.awaitEdge(generation);
+        pin.setState(blinkState);
 
-                // create future task to clean up completed tasks
-                createCleanupTask(duration + 500, timeUnit);
-            }
+        // create future job to toggle the pin state
+        GpioTimerWheel wheel = getTimer();
+        GpioTimerWheel.Timeout blinkTask = wheel.scheduleAtFixedRate(slot.guard(generation, new GpioBlinkTaskImpl(pin)), delay, delay, timeUnit);
 
-            // return future task
-            return scheduledFutureBlinkTask;
+        // if a duration was defined, then schedule a future task to kill the blinker task
+        Future<?> stopTask = null;
+        if (duration > 0) {
+            stopTask = wheel.schedule(slot.guard(generation, new GpioBlinkStopTaskImpl(pin, PinState.getInverseState(blinkState), blinkTask)), duration, timeUnit);
         }
-
-        // no future task when a delay time has not been specified
-        return null;
+        slot.install(generation, blinkTask, stopTask);
+        return blinkTask;
     }
 }
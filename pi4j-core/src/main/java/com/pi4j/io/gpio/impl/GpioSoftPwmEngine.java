@@ -0,0 +1,299 @@
+package com.pi4j.io.gpio.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioSoftPwmEngine.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioJitterStatistics;
+import com.pi4j.io.gpio.GpioPinDigital;
+import com.pi4j.io.gpio.GpioPort;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Software PWM for many digital output pins, serviced by a single timing thread.
+ *
+ * The channels are the pins of one or more {@link GpioPort}s.  At the start of every PWM period
+ * all channels with a non-zero value are set HIGH with one port write per port; the channels are
+ * then cleared at the offsets of their PWM values, again with one port write per port and offset.
+ * Channels sharing a PWM value share a clear write, so the number of writes per period depends on
+ * the number of distinct PWM values rather than on the number of channels.  The set and clear
+ * masks are precomputed whenever a PWM value changes and take effect at the start of the next
+ * period.  When all channels are fully off or fully on, no writes are made until a value changes.
+ *
+ * Unlike {@link com.pi4j.io.gpio.PinMode#SOFT_PWM_OUTPUT}, which starts one native thread per pin,
+ * the pins are used in {@link com.pi4j.io.gpio.PinMode#DIGITAL_OUTPUT} mode and work with any GPIO
+ * provider that supports port writes.
+ */
+public class GpioSoftPwmEngine {
+
+    public static final int DEFAULT_RANGE = 100;
+    public static final int DEFAULT_PERIOD_MICROS = 10000;
+
+    private final GpioPort[] ports;
+    private final int range;
+    private final long periodNanos;
+    private final long spinNanos;
+
+    // PWM values by port and channel index; guarded by this
+    private final int[][] values;
+    private volatile Schedule schedule;
+    private Thread thread;
+
+    // jitter statistics; written by the timing thread only
+    private volatile long jitterCount;
+    private volatile long jitterTotal;
+    private volatile long jitterMax;
+    private volatile long jitterLast;
+
+    /**
+     * Creates an engine with a range of {@value #DEFAULT_RANGE} and a period of
+     * {@value #DEFAULT_PERIOD_MICROS} microseconds (the wiringPi soft PWM defaults).
+     */
+    public GpioSoftPwmEngine(GpioPort... ports) {
+        this(DEFAULT_RANGE, DEFAULT_PERIOD_MICROS, ports);
+    }
+
+    /**
+     * @param range PWM value of a fully on channel
+     * @param periodMicros PWM period in microseconds
+     * @param ports ports holding the PWM channels; the port pins must be digital outputs
+     */
+    public GpioSoftPwmEngine(int range, int periodMicros, GpioPort... ports) {
+        if (ports == null || ports.length == 0) {
+            throw new IllegalArgumentException("Missing port argument.");
+        }
+        if (range <= 0) {
+            throw new IllegalArgumentException("PWM range must be greater than 0: " + range);
+        }
+        if (periodMicros <= 0) {
+            throw new IllegalArgumentException("PWM period must be greater than 0: " + periodMicros);
+        }
+        this.ports = ports.clone();
+        this.range = range;
+        this.periodNanos = TimeUnit.MICROSECONDS.toNanos(periodMicros);
+        this.spinNanos = GpioTimerWheel.DEFAULT_SPIN_NANOS;
+        this.values = new int[ports.length][];
+        for (int index = 0; index < ports.length; index++) {
+            values[index] = new int[ports[index].size()];
+        }
+        this.schedule = createSchedule();
+    }
+
+    public int getRange() {
+        return range;
+    }
+
+    public long getPeriodMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(periodNanos);
+    }
+
+    /**
+     * Sets the PWM value of a channel; the new value takes effect at the start of the next period.
+     *
+     * @param pin port pin of this engine
+     * @param value PWM value from 0 (off) to the range (fully on)
+     */
+    public synchronized void setPwm(GpioPinDigital pin, int value) {
+        if (value < 0 || value > range) {
+            throw new IllegalArgumentException("PWM value out of range [0.." + range + "]: " + value);
+        }
+        int[] channel = findChannel(pin);
+        if (values[channel[0]][channel[1]] == value) {
+            return;
+        }
+        values[channel[0]][channel[1]] = value;
+        schedule = createSchedule();
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    public synchronized int getPwm(GpioPinDigital pin) {
+        int[] channel = findChannel(pin);
+        return values[channel[0]][channel[1]];
+    }
+
+    /**
+     * Starts the timing thread.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        thread = new Thread(this::run, "pi4j-gpio-soft-pwm");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Stops the timing thread and sets all channels LOW.
+     */
+    public synchronized void stop() throws InterruptedException {
+        if (thread == null) {
+            return;
+        }
+        thread.interrupt();
+        thread.join();
+        thread = null;
+        for (GpioPort port : ports) {
+            port.write(0);
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return thread != null;
+    }
+
+    /**
+     * @return lateness of the period starts and channel clear writes relative to their deadlines
+     */
+    public GpioJitterStatistics getJitterStatistics() {
+        return new GpioJitterStatistics(jitterCount, jitterTotal, jitterMax, jitterLast);
+    }
+
+    private int[] findChannel(GpioPinDigital pin) {
+        for (int port = 0; port < ports.length; port++) {
+            int index = ports[port].getPins().indexOf(pin);
+            if (index >= 0) {
+                return new int[] { port, index };
+            }
+        }
+        throw new IllegalArgumentException("Pin [" + pin.getName() + "] is not a channel of this soft PWM engine.");
+    }
+
+    private Schedule createSchedule() {
+        // distinct PWM values that require a clear write within the period, ascending
+        int count = 0;
+        int[] sorted = new int[range + 1];
+        int[] onMasks = new int[ports.length];
+        boolean[] used = new boolean[range + 1];
+        for (int port = 0; port < ports.length; port++) {
+            for (int index = 0; index < values[port].length; index++) {
+                int value = values[port][index];
+                if (value > 0) {
+                    onMasks[port] |= 1 << index;
+                }
+                used[value] = true;
+            }
+        }
+        for (int value = 1; value < range; value++) {
+            if (used[value]) {
+                sorted[count++] = value;
+            }
+        }
+        sorted = Arrays.copyOf(sorted, count);
+
+        long[] offsets = new long[sorted.length];
+        int[][] clearMasks = new int[sorted.length][ports.length];
+        for (int edge = 0; edge < sorted.length; edge++) {
+            offsets[edge] = periodNanos * sorted[edge] / range;
+            for (int port = 0; port < ports.length; port++) {
+                for (int index = 0; index < values[port].length; index++) {
+                    if (values[port][index] == sorted[edge]) {
+                        clearMasks[edge][port] |= 1 << index;
+                    }
+                }
+            }
+        }
+        return new Schedule(onMasks, offsets, clearMasks);
+    }
+
+    private void run() {
+        Schedule applied = null;
+        long cycle = System.nanoTime();
+        while (!Thread.currentThread().isInterrupted()) {
+            Schedule current = schedule;
+
+            // nothing to switch within the period; wait for a PWM value change
+            if (current.offsets.length == 0 && current == applied) {
+                LockSupport.park(this);
+                cycle = System.nanoTime();
+                continue;
+            }
+
+            // skip the periods that were missed entirely
+            if (System.nanoTime() - cycle > periodNanos) {
+                cycle = System.nanoTime();
+            }
+
+            for (int port = 0; port < ports.length; port++) {
+                ports[port].write(current.onMasks[port]);
+            }
+            applied = current;
+
+            for (int edge = 0; edge < current.offsets.length; edge++) {
+                long deadline = cycle + current.offsets[edge];
+                if (!GpioSpinWait.awaitDeadline(deadline, spinNanos)) {
+                    return;
+                }
+                recordJitter(System.nanoTime() - deadline);
+                int[] clearMasks = current.clearMasks[edge];
+                for (int port = 0; port < ports.length; port++) {
+                    if (clearMasks[port] != 0) {
+                        ports[port].write(clearMasks[port], 0);
+                    }
+                }
+            }
+
+            cycle += periodNanos;
+            if (!GpioSpinWait.awaitDeadline(cycle, spinNanos)) {
+                return;
+            }
+            recordJitter(System.nanoTime() - cycle);
+        }
+    }
+
+    private void recordJitter(long lateness) {
+        jitterLast = lateness;
+        jitterCount = jitterCount + 1;
+        jitterTotal = jitterTotal + lateness;
+        if (lateness > jitterMax) {
+            jitterMax = lateness;
+        }
+    }
+
+    /**
+     * Precomputed port writes of one PWM period.
+     */
+    private static final class Schedule {
+        // channels set HIGH at the start of the period, by port
+        final int[] onMasks;
+        // offsets of the clear writes from the start of the period, ascending
+        final long[] offsets;
+        // channels cleared at each offset, by port
+        final int[][] clearMasks;
+
+        Schedule(int[] onMasks, long[] offsets, int[][] clearMasks) {
+            this.onMasks = onMasks;
+            this.offsets = offsets;
+            this.clearMasks = clearMasks;
+        }
+    }
+}
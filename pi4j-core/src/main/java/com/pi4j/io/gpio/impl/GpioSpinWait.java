@@ -0,0 +1,62 @@
+package com.pi4j.io.gpio.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioSpinWait.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Waits for a {@link System#nanoTime()} deadline by parking until shortly before the deadline and
+ * busy-spinning for the remaining time, since parking alone overshoots by tens of microseconds.
+ */
+final class GpioSpinWait {
+
+    private GpioSpinWait() {
+    }
+
+    /**
+     * @param deadline {@link System#nanoTime()} to wait for
+     * @param spinNanos time before the deadline during which the thread spins instead of parking
+     * @return false if the current thread was interrupted before the deadline
+     */
+    static boolean awaitDeadline(long deadline, long spinNanos) {
+        while (true) {
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return true;
+            }
+            if (remaining > spinNanos) {
+                LockSupport.parkNanos(remaining - spinNanos);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
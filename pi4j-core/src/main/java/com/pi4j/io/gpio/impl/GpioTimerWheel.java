@@ -0,0 +1,494 @@
+package com.pi4j.io.gpio.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioTimerWheel.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioJitterStatistics;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timer wheel used to run short GPIO timing tasks (pulse and blink edges).
+ *
+ * All tasks are executed on a single timer thread, so the tasks must be short and must not block;
+ * setting a pin state is the intended workload.  Scheduling a task only appends it to a lock-free
+ * queue and (if the new deadline is earlier than the one the timer thread is waiting for) unparks
+ * the timer thread.  The timer thread owns the wheel buckets, so no locking is needed to insert,
+ * expire or remove tasks.
+ *
+ * The timer thread sleeps with {@link LockSupport#parkNanos(long)} until shortly before the next
+ * deadline and busy-spins for the remaining time (see the spin threshold), which gives
+ * sub-millisecond precision while only consuming CPU for a few microseconds per edge.  When no
+ * tasks are pending the thread parks indefinitely.
+ *
+ * The lateness of every task execution relative to its deadline is recorded and can be obtained
+ * with {@link #getJitterStatistics()} for monitoring.
+ *
+ * @author Robert Savage (<a
+ *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
+ */
+public class GpioTimerWheel {
+
+    public static final long DEFAULT_TICK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+    public static final long DEFAULT_SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final long tickNanos;
+    private final int mask;
+    private final long spinNanos;
+    private final long startNanos;
+    private final Bucket[] wheel;
+    private final ConcurrentLinkedQueue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+
+    // deadline (nano time) the timer thread is currently waiting for; Long.MAX_VALUE while idle
+    private volatile long sleepUntil = Long.MAX_VALUE;
+
+    // tick of the bucket the timer thread expires next; only accessed by the timer thread
+    private long currentTick;
+    private volatile boolean running = true;
+
+    // jitter statistics; written by the timer thread only
+    private volatile long jitterCount;
+    private volatile long jitterTotal;
+    private volatile long jitterMax;
+    private volatile long jitterLast;
+
+    public GpioTimerWheel() {
+        this("pi4j-gpio-timer", DEFAULT_TICK_NANOS, DEFAULT_WHEEL_SIZE, DEFAULT_SPIN_NANOS);
+    }
+
+    /**
+     * @param name       timer thread name
+     * @param tickNanos  duration of one wheel bucket in nanoseconds
+     * @param wheelSize  number of wheel buckets (rounded up to a power of two)
+     * @param spinNanos  time before a deadline during which the timer thread spins instead of parking
+     */
+    public GpioTimerWheel(String name, long tickNanos, int wheelSize, long spinNanos) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("tickNanos must be greater than 0: " + tickNanos);
+        }
+        if (wheelSize <= 0 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("wheelSize out of range: " + wheelSize);
+        }
+        if (spinNanos < 0) {
+            throw new IllegalArgumentException("spinNanos must not be negative: " + spinNanos);
+        }
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) {
+            size <<= 1;
+        }
+        this.tickNanos = tickNanos;
+        this.mask = size - 1;
+        this.spinNanos = spinNanos;
+        this.wheel = new Bucket[size];
+        for (int index = 0; index < size; index++) {
+            wheel[index] = new Bucket();
+        }
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.setPriority(Thread.MAX_PRIORITY);
+        this.worker.start();
+    }
+
+    /**
+     * Schedule a one-shot task.
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit timeUnit) {
+        return submit(new Timeout(task, System.nanoTime() + Math.max(0, timeUnit.toNanos(delay)), 0));
+    }
+
+    /**
+     * Schedule a periodic task at a fixed rate; the first execution happens after one period.
+     * The deadlines are computed from the initial schedule time, so late executions do not
+     * accumulate drift.  A periodic task is cancelled if it throws an exception.
+     */
+    public Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit timeUnit) {
+        long periodNanos = timeUnit.toNanos(period);
+        if (periodNanos <= 0) {
+            throw new IllegalArgumentException("period must be greater than 0: " + period);
+        }
+        return submit(new Timeout(task, System.nanoTime() + Math.max(0, timeUnit.toNanos(initialDelay)), periodNanos));
+    }
+
+    private Timeout submit(Timeout timeout) {
+        if (!running) {
+            throw new RejectedExecutionException("GPIO timer wheel has been shut down.");
+        }
+        pending.offer(timeout);
+        // the timer thread publishes the deadline it waits for before re-checking the pending queue,
+        // so either it sees this task or we see a deadline that requires waking it up
+        long awaited = sleepUntil;
+        if (awaited == Long.MAX_VALUE || timeout.deadline - awaited < 0) {
+            LockSupport.unpark(worker);
+        }
+        return timeout;
+    }
+
+    /**
+     * Stop the timer thread; tasks that have not run yet are cancelled.
+     */
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    public boolean isShutdown() {
+        return !running;
+    }
+
+    /**
+     * @return snapshot of the lateness of the executed tasks relative to their deadlines
+     */
+    public GpioJitterStatistics getJitterStatistics() {
+        return new GpioJitterStatistics(jitterCount, jitterTotal, jitterMax, jitterLast);
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    public int getWheelSize() {
+        return mask + 1;
+    }
+
+    private long tickOf(long deadline) {
+        return Math.max(0, deadline - startNanos) / tickNanos;
+    }
+
+    private void run() {
+        long lastTick = tickOf(System.nanoTime());
+        currentTick = lastTick;
+        while (running) {
+            transferPending();
+
+            long now = System.nanoTime();
+            long nowTick = tickOf(now);
+            currentTick = nowTick;
+            expire(lastTick, nowTick, now);
+            lastTick = nowTick;
+
+            long next = nextDeadline(lastTick);
+            if (next == Long.MAX_VALUE) {
+                sleepUntil = Long.MAX_VALUE;
+                if (pending.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+            } else {
+                awaitDeadline(next);
+            }
+            sleepUntil = Long.MAX_VALUE;
+        }
+
+        // cancel everything that is left over
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            timeout.cancel(false);
+        }
+        for (Bucket bucket : wheel) {
+            for (Timeout node = bucket.head; node != null; node = node.next) {
+                node.cancel(false);
+            }
+            bucket.head = bucket.tail = null;
+        }
+    }
+
+    private void awaitDeadline(long deadline) {
+        sleepUntil = deadline;
+        while (running && pending.isEmpty()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            if (remaining > spinNanos) {
+                LockSupport.parkNanos(this, remaining - spinNanos);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (!timeout.isCancelled()) {
+                insert(timeout);
+            }
+        }
+    }
+
+    private void insert(Timeout timeout) {
+        // a deadline that has already passed (a late periodic task or a submission that waited in
+        // the pending queue) goes into the current bucket; a bucket behind it would only be
+        // visited again after a full wheel round
+        timeout.tick = Math.max(tickOf(timeout.deadline), currentTick);
+        wheel[(int) (timeout.tick & mask)].add(timeout);
+    }
+
+    private void expire(long fromTick, long toTick, long now) {
+        // process every bucket passed since the last iteration (at most one full round)
+        long count = Math.min(toTick - fromTick + 1, mask + 1);
+        Timeout rescheduled = null;
+        for (long tick = toTick - count + 1; tick <= toTick; tick++) {
+            Bucket bucket = wheel[(int) (tick & mask)];
+            Timeout node = bucket.head;
+            while (node != null) {
+                Timeout next = node.next;
+                if (node.isCancelled()) {
+                    bucket.remove(node);
+                } else if (node.deadline - now <= 0) {
+                    bucket.remove(node);
+                    recordJitter(System.nanoTime() - node.deadline);
+                    if (node.execute()) {
+                        // periodic task; re-insert after this pass so it is not executed twice
+                        node.deadline += node.period;
+                        node.next = rescheduled;
+                        rescheduled = node;
+                    }
+                }
+                node = next;
+            }
+        }
+        while (rescheduled != null) {
+            Timeout next = rescheduled.next;
+            rescheduled.next = null;
+            insert(rescheduled);
+            rescheduled = next;
+        }
+    }
+
+    private long nextDeadline(long fromTick) {
+        // the first bucket holding a task of the current wheel round determines the next deadline;
+        // tasks of later rounds are only considered when no such bucket exists
+        long later = Long.MAX_VALUE;
+        for (long tick = fromTick; tick <= fromTick + mask; tick++) {
+            Bucket bucket = wheel[(int) (tick & mask)];
+            long earliest = Long.MAX_VALUE;
+            Timeout node = bucket.head;
+            while (node != null) {
+                Timeout next = node.next;
+                if (node.isCancelled()) {
+                    bucket.remove(node);
+                } else if (node.tick <= tick) {
+                    earliest = Math.min(earliest, node.deadline);
+                } else {
+                    later = Math.min(later, node.deadline);
+                }
+                node = next;
+            }
+            if (earliest != Long.MAX_VALUE) {
+                return earliest;
+            }
+        }
+        return later;
+    }
+
+    private void recordJitter(long lateness) {
+        jitterLast = lateness;
+        jitterCount = jitterCount + 1;
+        jitterTotal = jitterTotal + lateness;
+        if (lateness > jitterMax) {
+            jitterMax = lateness;
+        }
+    }
+
+    /**
+     * Doubly linked list of timeouts; only accessed by the timer thread.
+     */
+    private static final class Bucket {
+        Timeout head;
+        Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = timeout.next = null;
+        }
+    }
+
+    /**
+     * Handle of a scheduled task.
+     */
+    public static final class Timeout implements ScheduledFuture<Object> {
+
+        private static final int PENDING = 0;
+        private static final int RUNNING = 1;
+        private static final int DONE = 2;
+        private static final int CANCELLED = 3;
+
+        private static final VarHandle STATE;
+        static {
+            try {
+                STATE = MethodHandles.lookup().findVarHandle(Timeout.class, "state", int.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final Runnable task;
+        private final long period;
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile int state = PENDING;
+        private volatile Throwable failure;
+
+        // owned by the timer thread
+        volatile long deadline;
+        long tick;
+        Timeout prev;
+        Timeout next;
+
+        private Timeout(Runnable task, long deadline, long period) {
+            this.task = task;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        /**
+         * Run the task on the timer thread.
+         * @return true if the task is periodic and must be scheduled again
+         */
+        private boolean execute() {
+            if (!STATE.compareAndSet(this, PENDING, RUNNING)) {
+                return false;
+            }
+            try {
+                task.run();
+            } catch (Throwable e) {
+                failure = e;
+                if (STATE.compareAndSet(this, RUNNING, DONE)) {
+                    completed.countDown();
+                }
+                return false;
+            }
+            if (period > 0 && STATE.compareAndSet(this, RUNNING, PENDING)) {
+                return true;
+            }
+            if (STATE.compareAndSet(this, RUNNING, DONE)) {
+                completed.countDown();
+            }
+            return false;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            // the timer thread must never be interrupted, so a running task is only prevented from running again
+            while (true) {
+                int current = state;
+                if (current == DONE || current == CANCELLED) {
+                    return false;
+                }
+                if (STATE.compareAndSet(this, current, CANCELLED)) {
+                    completed.countDown();
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        @Override
+        public boolean isDone() {
+            int current = state;
+            return current == DONE || current == CANCELLED;
+        }
+
+        public boolean isPeriodic() {
+            return period > 0;
+        }
+
+        @Override
+        public Object get() throws InterruptedException, ExecutionException {
+            completed.await();
+            return report();
+        }
+
+        @Override
+        public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            if (!completed.await(timeout, unit)) {
+                throw new TimeoutException();
+            }
+            return report();
+        }
+
+        private Object report() throws ExecutionException {
+            if (state == CANCELLED) {
+                throw new CancellationException();
+            }
+            if (failure != null) {
+                throw new ExecutionException(failure);
+            }
+            return null;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other == this) {
+                return 0;
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.pi4j.io.gpio.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioWaveformPlayer.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioJitterStatistics;
+import com.pi4j.io.gpio.GpioWaveform;
+import com.pi4j.wiringpi.Gpio;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Plays {@link GpioWaveform}s on a dedicated high-priority thread.
+ *
+ * Waveforms submitted to the same player are played one after another.  The player thread parks
+ * until shortly before each segment deadline and spins for the remaining time; optionally it
+ * raises itself to a real-time scheduling priority with {@link Gpio#piHiPri(int)} (this requires
+ * root privileges and the native Pi4J library).  Cancelling the returned future with
+ * <code>mayInterruptIfRunning</code> stops a running playback after the current segment; the
+ * pins keep the last written state.
+ */
+public class GpioWaveformPlayer {
+
+    /**
+     * System property with the real-time priority (1..99) of the default player thread;
+     * when not set, the default player runs with the normal Java thread scheduling.
+     */
+    public static final String PRIORITY_PROPERTY = "pi4j.waveform.priority";
+
+    private static GpioWaveformPlayer defaultPlayer;
+
+    private final ExecutorService executor;
+    private final long spinNanos;
+
+    /**
+     * @param name player thread name
+     * @param priority real-time priority (1..99) requested with {@link Gpio#piHiPri(int)}, or 0 to keep the default scheduling
+     * @param spinNanos time before a segment deadline during which the player thread spins instead of parking
+     */
+    public GpioWaveformPlayer(String name, int priority, long spinNanos) {
+        if (priority < 0 || priority > 99) {
+            throw new IllegalArgumentException("Priority must be in the range 0..99: " + priority);
+        }
+        this.spinNanos = spinNanos;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(() -> {
+                if (priority > 0) {
+                    try {
+                        Gpio.piHiPri(priority);
+                    } catch (LinkageError e) {
+                        // the native library is not available; keep the Java thread priority
+                    }
+                }
+                runnable.run();
+            }, name);
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MAX_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * @return the shared player used by {@link com.pi4j.io.gpio.GpioPort#play(GpioWaveform)} and
+     *         {@link com.pi4j.io.gpio.GpioPinDigitalOutput#play(GpioWaveform)}
+     */
+    public static synchronized GpioWaveformPlayer getDefault() {
+        if (defaultPlayer == null) {
+            defaultPlayer = new GpioWaveformPlayer("pi4j-gpio-waveform", Integer.getInteger(PRIORITY_PROPERTY, 0),
+                GpioTimerWheel.DEFAULT_SPIN_NANOS);
+        }
+        return defaultPlayer;
+    }
+
+    /**
+     * Stop the shared player thread; a new one is created when the next waveform is played.
+     */
+    public static synchronized void shutdownDefault() {
+        if (defaultPlayer != null) {
+            defaultPlayer.shutdown();
+            defaultPlayer = null;
+        }
+    }
+
+    /**
+     * Queue a waveform for playback.
+     *
+     * @param waveform waveform to play
+     * @param output receives the state bitmask of each segment at the segment start
+     * @return future completing at the end of the last segment with the lateness of the segment writes
+     */
+    public Future<GpioJitterStatistics> play(GpioWaveform waveform, IntConsumer output) {
+        return executor.submit(() -> render(waveform, output));
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private GpioJitterStatistics render(GpioWaveform waveform, IntConsumer output) {
+        int size = waveform.size();
+        long count = 0;
+        long total = 0;
+        long max = 0;
+        long last = 0;
+
+        long deadline = System.nanoTime();
+        for (int repetition = 0; repetition < waveform.getRepeat(); repetition++) {
+            for (int index = 0; index < size; index++) {
+                if (!GpioSpinWait.awaitDeadline(deadline, spinNanos)) {
+                    return new GpioJitterStatistics(count, total, max, last);
+                }
+                last = System.nanoTime() - deadline;
+                output.accept(waveform.getState(index));
+                count++;
+                total += last;
+                if (last > max) {
+                    max = last;
+                }
+                deadline += TimeUnit.MICROSECONDS.toNanos(waveform.getDurationMicros(index));
+            }
+        }
+        // the future completes when the last segment has ended
+        GpioSpinWait.awaitDeadline(deadline, spinNanos);
+        return new GpioJitterStatistics(count, total, max, last);
+    }
+}
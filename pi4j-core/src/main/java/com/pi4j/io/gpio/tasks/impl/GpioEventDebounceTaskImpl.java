@@ -35,6 +35,13 @@ import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
 
 import java.util.concurrent.ExecutorService;
 
+/**
+ * Debounce task that re-reads the pin state when the debounce delay interval has elapsed.
+ *
+ * @deprecated no longer used by the GPIO event monitor; debouncing is decided from the
+ *             edge timestamps without re-reading the pin state.
+ */
+@Deprecated
 public class GpioEventDebounceTaskImpl implements Runnable {
 
     private final GpioPinDigitalInput pin;
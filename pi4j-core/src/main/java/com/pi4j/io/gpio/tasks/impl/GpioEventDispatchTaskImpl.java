@@ -28,61 +28,54 @@ package com.pi4j.io.gpio.tasks.impl;
  */
 
 
+import com.pi4j.concurrent.StripedRunnable;
 import com.pi4j.io.gpio.GpioPinInput;
 import com.pi4j.io.gpio.PinState;
 import com.pi4j.io.gpio.event.*;
+import com.pi4j.io.gpio.impl.GpioPinImpl;
 import com.pi4j.io.gpio.trigger.GpioTrigger;
 
 import java.util.ArrayList;
-import java.util.Collection;
 
-public class GpioEventDispatchTaskImpl implements Runnable {
+public class GpioEventDispatchTaskImpl implements StripedRunnable {
 
     private final GpioPinInput pin;
     private final PinEvent event;
 
+    // reusable pin state change events (one for each pin state) handed to the digital listeners
+    private ReusableDigitalStateChangeEvent highEvent;
+    private ReusableDigitalStateChangeEvent lowEvent;
+
     public GpioEventDispatchTaskImpl(GpioPinInput pin, PinEvent event) {
         this.event = event;
         this.pin = pin;
     }
 
+    /**
+     * Create a reusable dispatcher for the given pin; events are delivered
+     * using {@link #dispatchDigitalStateChange} rather than {@link #run()}.
+     *
+     * @param pin GPIO pin
+     */
+    public GpioEventDispatchTaskImpl(GpioPinInput pin) {
+        this(pin, null);
+    }
+
     @Override
     public void run() {
         // only process listeners and triggers if the received interrupt event
         // matches the pin number being tracked my this class instance
-        if (this.pin.getPin().equals(event.getPin())) {
+        if (event != null && this.pin.getPin().equals(event.getPin())) {
             if (event.getEventType() == PinEventType.DIGITAL_STATE_CHANGE) {
                 PinState state = ((PinDigitalStateChangeEvent) event).getState();
 
-                // create a copy of the listeners collection
-                Collection<GpioPinListener> listeners  = new ArrayList<>(pin.getListeners());
-
-                // process event callbacks for digital listeners
-                for (GpioPinListener listener : listeners) {
-                    if(listener != null && listener instanceof GpioPinListenerDigital) {
-                        ((GpioPinListenerDigital) listener)
-                            .handleGpioPinDigitalStateChangeEvent(new GpioPinDigitalStateChangeEvent(
-                                    event.getSource(), pin, state));
-                    }
-                }
-
-                // create a copy of the triggers collection
-                Collection<GpioTrigger> triggers  = new ArrayList<>(pin.getTriggers());
-
-                // process triggers
-                for (GpioTrigger trigger : triggers) {
-                    if (trigger != null && trigger.hasPinState(state)) {
-                        trigger.invoke(pin, state);
-                    }
-                }
+                dispatchDigitalStateChange(event.getSource(), state,
+                        ((PinDigitalStateChangeEvent) event).getTimestamp(), getListeners(pin), getTriggers(pin));
             } else if (event.getEventType() == PinEventType.ANALOG_VALUE_CHANGE) {
                 double value = ((PinAnalogValueChangeEvent) event).getValue();
 
-                // create a copy of the listeners collection
-                Collection<GpioPinListener> listeners  = new ArrayList<>(pin.getListeners());
-
                 // process event callbacks for analog listeners
-                for (GpioPinListener listener : listeners) {
+                for (GpioPinListener listener : getListeners(pin)) {
                     if (listener != null && listener instanceof GpioPinListenerAnalog) {
                         ((GpioPinListenerAnalog) listener)
                             .handleGpioPinAnalogValueChangeEvent(new GpioPinAnalogValueChangeEvent(
@@ -92,4 +85,109 @@ public class GpioEventDispatchTaskImpl implements Runnable {
             }
         }
     }
+
+    /**
+     * Get the listeners registered on a pin as an array that is safe to iterate while listeners
+     * are added or removed.  For {@link GpioPinImpl} pins this is the immutable snapshot maintained
+     * by the pin, so no copy is made; other pin implementations are copied.
+     *
+     * @param pin GPIO pin
+     * @return listeners snapshot; this array must not be modified
+     */
+    public static GpioPinListener[] getListeners(GpioPinInput pin) {
+        if (pin instanceof GpioPinImpl) {
+            return ((GpioPinImpl) pin).getListenerSnapshot();
+        }
+        return new ArrayList<>(pin.getListeners()).toArray(new GpioPinListener[0]);
+    }
+
+    /**
+     * Get the triggers registered on a pin as an array that is safe to iterate while triggers
+     * are added or removed; see {@link #getListeners(GpioPinInput)}.
+     *
+     * @param pin GPIO pin
+     * @return triggers snapshot; this array must not be modified
+     */
+    public static GpioTrigger[] getTriggers(GpioPinInput pin) {
+        if (pin instanceof GpioPinImpl) {
+            return ((GpioPinImpl) pin).getTriggerSnapshot();
+        }
+        return new ArrayList<>(pin.getTriggers()).toArray(new GpioTrigger[0]);
+    }
+
+    @Override
+    public int getStripeKey() {
+        return pin.getPin().getAddress();
+    }
+
+    /**
+     * Deliver a digital state change to the given listeners and triggers.  The event instances
+     * handed to the listeners are reused for each dispatch with the same source and state (only
+     * the timestamp is updated), so no objects are created in steady state; listeners that keep
+     * an event beyond the callback should copy its timestamp.
+     *
+     * @param source event source (the GPIO provider)
+     * @param state new GPIO pin state
+     * @param timestamp time of the state change in nanoseconds
+     * @param listeners listeners snapshot; this array is not modified
+     * @param triggers triggers snapshot; this array is not modified
+     */
+    public void dispatchDigitalStateChange(Object source, PinState state, long timestamp, GpioPinListener[] listeners, GpioTrigger[] triggers) {
+        GpioPinDigitalStateChangeEvent stateChangeEvent = null;
+
+        // process event callbacks for digital listeners
+        for (GpioPinListener listener : listeners) {
+            if (listener instanceof GpioPinListenerDigital) {
+                if (stateChangeEvent == null) {
+                    stateChangeEvent = getDigitalStateChangeEvent(source, state, timestamp);
+                }
+                ((GpioPinListenerDigital) listener).handleGpioPinDigitalStateChangeEvent(stateChangeEvent);
+            }
+        }
+
+        // process triggers
+        for (GpioTrigger trigger : triggers) {
+            if (trigger != null && trigger.hasPinState(state)) {
+                trigger.invoke(pin, state);
+            }
+        }
+    }
+
+    private GpioPinDigitalStateChangeEvent getDigitalStateChangeEvent(Object source, PinState state, long timestamp) {
+        if (state == PinState.HIGH) {
+            if (highEvent == null || highEvent.getSource() != source) {
+                highEvent = new ReusableDigitalStateChangeEvent(source, pin, state);
+            }
+            highEvent.timestamp = timestamp;
+            return highEvent;
+        }
+        if (state == PinState.LOW) {
+            if (lowEvent == null || lowEvent.getSource() != source) {
+                lowEvent = new ReusableDigitalStateChangeEvent(source, pin, state);
+            }
+            lowEvent.timestamp = timestamp;
+            return lowEvent;
+        }
+        return new GpioPinDigitalStateChangeEvent(source, pin, state, timestamp);
+    }
+
+    /**
+     * State change event with a mutable timestamp; only this dispatcher updates the
+     * timestamp, from the (single) thread delivering the events of the pin.
+     */
+    private static class ReusableDigitalStateChangeEvent extends GpioPinDigitalStateChangeEvent {
+
+        private static final long serialVersionUID = 1L;
+
+        private long timestamp;
+
+        ReusableDigitalStateChangeEvent(Object obj, GpioPinInput pin, PinState state) {
+            super(obj, pin, state, 0);
+        }
+
+        @Override
+        public long getTimestamp() {
+            return timestamp;
+        }
+    }
 }
@@ -27,14 +27,13 @@ package com.pi4j.io.gpio.trigger;
  * #L%
  */
 
-import com.pi4j.io.gpio.GpioPin;
 import com.pi4j.io.gpio.GpioPinDigitalOutput;
 import com.pi4j.io.gpio.PinState;
 
 import java.util.List;
 
 @SuppressWarnings("unused")
-public class GpioInverseSyncStateTrigger extends OutputTargetedGpioTrigger {
+public class GpioInverseSyncStateTrigger extends OutputStateGpioTrigger {
 
 	public GpioInverseSyncStateTrigger(GpioPinDigitalOutput targetPin) {
 		super(targetPin);
@@ -53,13 +52,7 @@ public class GpioInverseSyncStateTrigger extends OutputTargetedGpioTrigger {
 	}
 
 	@Override
-	public void invoke(GpioPin pin, PinState state) {
-		if (targetPin != null) {
-			if (state == PinState.HIGH) {
-				targetPin.setState(PinState.LOW);
-			} else {
-				targetPin.setState(PinState.HIGH);
-			}
-		}
+	public PinState getTargetState(PinState state) {
+		return PinState.getInverseState(state);
 	}
 }
@@ -27,14 +27,13 @@ package com.pi4j.io.gpio.trigger;
  * #L%
  */
 
-import com.pi4j.io.gpio.GpioPin;
 import com.pi4j.io.gpio.GpioPinDigitalOutput;
 import com.pi4j.io.gpio.PinState;
 
 import java.util.List;
 
 @SuppressWarnings("unused")
-public class GpioSetStateTrigger extends OutputTargetedGpioTrigger {
+public class GpioSetStateTrigger extends OutputStateGpioTrigger {
 
 	private final PinState targetPinState;
 
@@ -63,9 +62,7 @@ public class GpioSetStateTrigger extends OutputTargetedGpioTrigger {
 	}
 
 	@Override
-	public void invoke(GpioPin pin, PinState state) {
-		if (targetPin != null) {
-			targetPin.setState(targetPinState);
-		}
+	public PinState getTargetState(PinState state) {
+		return targetPinState;
 	}
 }
@@ -27,14 +27,13 @@ package com.pi4j.io.gpio.trigger;
  * #L%
  */
 
-import com.pi4j.io.gpio.GpioPin;
 import com.pi4j.io.gpio.GpioPinDigitalOutput;
 import com.pi4j.io.gpio.PinState;
 
 import java.util.List;
 
 @SuppressWarnings("unused")
-public class GpioSyncStateTrigger extends OutputTargetedGpioTrigger {
+public class GpioSyncStateTrigger extends OutputStateGpioTrigger {
 
 	public GpioSyncStateTrigger(GpioPinDigitalOutput targetPin) {
 		super(targetPin);
@@ -53,9 +52,7 @@ public class GpioSyncStateTrigger extends OutputTargetedGpioTrigger {
 	}
 
 	@Override
-	public void invoke(GpioPin pin, PinState state) {
-		if (targetPin != null) {
-			targetPin.setState(state);
-		}
+	public PinState getTargetState(PinState state) {
+		return state;
 	}
 }
@@ -34,7 +34,7 @@ import com.pi4j.io.gpio.PinState;
 import java.util.List;
 
 @SuppressWarnings("unused")
-public class GpioToggleStateTrigger extends OutputTargetedGpioTrigger {
+public class GpioToggleStateTrigger extends OutputStateGpioTrigger {
 
 	public GpioToggleStateTrigger(GpioPinDigitalOutput targetPin) {
 		super(targetPin);
@@ -65,9 +65,8 @@ public class GpioToggleStateTrigger extends OutputTargetedGpioTrigger {
 	}
 
 	@Override
-	public void invoke(GpioPin pin, PinState state) {
-		if (targetPin != null) {
-			targetPin.toggle();
-		}
+	public PinState getTargetState(PinState state) {
+		// null toggles the target pin
+		return null;
 	}
 }
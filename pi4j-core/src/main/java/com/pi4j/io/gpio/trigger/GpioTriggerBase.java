@@ -32,37 +32,58 @@ import com.pi4j.io.gpio.GpioPin;
 import com.pi4j.io.gpio.PinState;
 
 import java.util.List;
-import java.util.Vector;
 
 public abstract class GpioTriggerBase implements GpioTrigger {
 
-    private List<PinState> states = new Vector<>();
+    // bitmask of the trigger pin states (bit n is the state with value n); hasPinState()
+    // is called for every pin event, so it is a single volatile read
+    private volatile int states = 0;
 
     public GpioTriggerBase() {
-        addPinState(PinState.allStates());
+        this.states = maskOf(PinState.allStates());
     }
 
     public GpioTriggerBase(PinState state) {
-        addPinState(state);
+        this.states = maskOf(state);
     }
 
     public GpioTriggerBase(PinState[] states) {
-        addPinState(states);
+        this.states = maskOf(states);
     }
 
     public GpioTriggerBase(List<PinState> states) {
-        addPinState(states);
+        int mask = 0;
+        for (PinState state : states) {
+            mask |= 1 << state.getValue();
+        }
+        this.states = mask;
     }
 
-    public void addPinState(PinState... state) {
+    private static int maskOf(PinState... state) {
         if (state == null || state.length == 0) {
             throw new IllegalArgumentException("Missing pin state argument.");
         }
+        int mask = 0;
         for (PinState s : state) {
-            if (!states.contains(s)) {
-                states.add(s);
-            }
+            mask |= 1 << s.getValue();
+        }
+        return mask;
+    }
+
+    public void addPinState(PinState... state) {
+        int mask = maskOf(state);
+        synchronized (this) {
+            states = states | mask;
+        }
+        pinStatesChanged();
+    }
+
+    public void removePinState(PinState... state) {
+        int mask = maskOf(state);
+        synchronized (this) {
+            states = states & ~mask;
         }
+        pinStatesChanged();
     }
 
     public void addPinState(List<? extends PinState> states) {
@@ -72,7 +93,14 @@ public abstract class GpioTriggerBase implements GpioTrigger {
     }
 
     public boolean hasPinState(PinState state) {
-        return states.contains(state);
+        return state != null && (states & (1 << state.getValue())) != 0;
+    }
+
+    /**
+     * Called after the trigger pin states have been changed by {@link #addPinState(PinState...)}
+     * or {@link #removePinState(PinState...)}; not called from the constructors.
+     */
+    protected void pinStatesChanged() {
     }
 
     public abstract void invoke(GpioPin pin, PinState state);
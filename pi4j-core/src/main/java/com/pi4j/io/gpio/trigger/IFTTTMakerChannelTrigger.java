@@ -33,15 +33,33 @@ import com.pi4j.io.gpio.PinState;
 import com.pi4j.io.gpio.event.IFTTTMakerChannelTriggerEvent;
 import com.pi4j.io.gpio.event.IFTTTMakerChannelTriggerListener;
 
-import javax.net.ssl.HttpsURLConnection;
-import java.io.*;
-import java.net.*;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Posts an IFTTT Maker Channel event whenever the trigger fires.
+ *
+ * The HTTP request is never made on the GPIO event thread: {@link #invoke(GpioPin, PinState)}
+ * only builds the payload, runs the optional {@link IFTTTMakerChannelTriggerListener} and
+ * appends the request to a bounded outbound queue.  Requests are then posted one at a time,
+ * in order, using the asynchronous {@link HttpClient} API.  When the queue is full the oldest
+ * pending request is dropped; requests that fail with an I/O error, HTTP 429 or a 5xx response
+ * are retried with exponential backoff.  An optional coalescing window merges bursts of
+ * triggers that are still waiting to be sent into a single request carrying the latest payload.
+ */
 @SuppressWarnings("unused")
 public class IFTTTMakerChannelTrigger extends GpioTriggerBase {
 
@@ -51,6 +69,46 @@ public class IFTTTMakerChannelTrigger extends GpioTriggerBase {
 
     protected static final String IFTTT_MAKER_CHANNEL_URL = "https://maker.ifttt.com/trigger/%s/with/key/%s";
 
+    public static final int DEFAULT_QUEUE_CAPACITY = 32;
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final long DEFAULT_RETRY_BACKOFF_MILLIS = 500;
+    public static final long MAX_RETRY_BACKOFF_MILLIS = 30000;
+    public static final long REQUEST_TIMEOUT_MILLIS = 10000;
+
+    private volatile String urlFormat = IFTTT_MAKER_CHANNEL_URL;
+    private volatile int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private volatile long coalesceWindowNanos = 0;
+    private volatile int maxRetries = DEFAULT_MAX_RETRIES;
+    private volatile long retryBackoffMillis = DEFAULT_RETRY_BACKOFF_MILLIS;
+
+    // pending requests and the in-flight flag are guarded by 'queue'
+    private final ArrayDeque<Request> queue = new ArrayDeque<>();
+    private boolean sending = false;
+
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder retryCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+
+    // shared by all triggers so that connections to the service are pooled
+    private static class HttpClientHolder {
+        static final HttpClient CLIENT = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(REQUEST_TIMEOUT_MILLIS))
+                .build();
+    }
+
+    private static final class Request {
+        final long created;
+        String payload;  // replaced while queued when later triggers are coalesced into it
+        int attempts;
+
+        Request(String payload, long created) {
+            this.payload = payload;
+            this.created = created;
+        }
+    }
+
     public IFTTTMakerChannelTrigger(String apikey, String eventName) {
         super();
         this.apikey = apikey;
@@ -113,93 +171,231 @@ public class IFTTTMakerChannelTrigger extends GpioTriggerBase {
      * Maker Channel API, or an opportunity to override any data payload values
      * before transmitting to the IFTTT Maker Channel API.
      *
+     * The listener is called on the GPIO event thread, before the request is
+     * queued, so it should return quickly.
+     *
      * @param listener
      */
     public void setTriggerListener(IFTTTMakerChannelTriggerListener listener){
         this.listener = listener;
     }
 
+    /**
+     * Override the service URL; the format receives the event name and the API key.
+     * Defaults to {@link #IFTTT_MAKER_CHANNEL_URL}.
+     *
+     * @param urlFormat URL format string
+     */
+    public void setUrlFormat(String urlFormat) {
+        this.urlFormat = urlFormat;
+    }
+
+    /**
+     * Set the maximum number of requests waiting to be sent.  When the queue is full
+     * the oldest waiting request is dropped in favour of the newest.
+     *
+     * @param capacity maximum number of pending requests (at least 1)
+     */
+    public void setQueueCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1");
+        }
+        this.queueCapacity = capacity;
+    }
+
+    /**
+     * Set the coalescing window.  A trigger that fires within this window of the most
+     * recent request still waiting in the queue replaces that request's payload instead
+     * of queueing a new one.  A window of zero (the default) sends every trigger.
+     *
+     * @param window coalescing window
+     * @param unit time unit of the window
+     */
+    public void setCoalesceWindow(long window, TimeUnit unit) {
+        this.coalesceWindowNanos = unit.toNanos(window);
+    }
+
+    /**
+     * Set how failed requests are retried.  The delay before retry n is
+     * {@code backoffMillis * 2^(n-1)}, capped at {@link #MAX_RETRY_BACKOFF_MILLIS}.
+     *
+     * @param maxRetries maximum number of retries per request (zero disables retries)
+     * @param backoffMillis delay before the first retry
+     */
+    public void setRetryPolicy(int maxRetries, long backoffMillis) {
+        this.maxRetries = maxRetries;
+        this.retryBackoffMillis = backoffMillis;
+    }
+
+    /** @return number of requests accepted by the service */
+    public long getSentCount() { return sentCount.sum(); }
+
+    /** @return number of requests abandoned after an error response or exhausting their retries */
+    public long getFailedCount() { return failedCount.sum(); }
+
+    /** @return number of retry attempts made */
+    public long getRetryCount() { return retryCount.sum(); }
+
+    /** @return number of requests discarded because the queue was full */
+    public long getDroppedCount() { return droppedCount.sum(); }
+
+    /** @return number of triggers merged into a request already waiting in the queue */
+    public long getCoalescedCount() { return coalescedCount.sum(); }
+
+    /** @return number of requests waiting to be sent, excluding the one in flight */
+    public int getPendingCount() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    /**
+     * Wait until every queued request has been sent, failed or dropped.
+     *
+     * @param timeout maximum time to wait
+     * @param unit time unit of the timeout
+     * @return true if the queue drained before the timeout elapsed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (queue) {
+            while (sending || !queue.isEmpty()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(queue, remaining);
+            }
+            return true;
+        }
+    }
+
     @Override
     public void invoke(GpioPin pin, PinState state) {
-        try {
-            // create an ISO-8601 complaint date format for timestamp
-            DateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
-
-            // create the default JSON payload that will get supplied as the default
-            // data for 'value3' in the IFTTT Maker Channel trigger API
-            String json = "{\"pin\":{\"name\":\"" + pin.getName() +
-                    "\",\"address\":\"" + pin.getPin().getAddress() +
-                    "\",\"provider\":\"" + pin.getPin().getProvider() +
-                    "\",\"mode\":\"" + pin.getMode().getName() +
-                    "\",\"direction\":\"" + pin.getMode().getDirection() +
-                    "\",\"pull\":\"" + pin.getPullResistance().getName() +
-                    "\"},\"state\":{" +
-                    "\"name\":\"" + state.getName() +
-                    "\",\"value\":\"" + state.getValue() +
-                    "\",\"is-high\":\"" + state.isHigh() +
-                    "\",\"is-low\":\"" + state.isLow() +
-                    "\"},\"timestamp\":\"" + df.format(new Date()) + "\"}";
-
-            // create an IFTTT Maker Channel event
-            IFTTTMakerChannelTriggerEvent event = new IFTTTMakerChannelTriggerEvent(
-                    this,                               // IFTTTMakerChannelTrigger instance
-                    pin,                                // GPIO PIN instance
-                    state,                              // GPIO PIN STATE
-                    eventName,                          // IFTTT EVENT NAME
-                    pin.getName(),                      // VALUE 1
-                    Integer.toString(state.getValue()), // VALUE 2
-                    json);                              // VALUE 3
-
-            // if the consumer configured a custom listener for callback events,
-            // then we need to invoke the listner instance 'onTriggered' callback
-            // method with the IFTTTMakerChannelTriggerEvent instance.
-            if(this.listener != null){
-                if(this.listener.onTriggered(event) == false) {
-                    // abort
-                    return;
-                }
+        // create an ISO-8601 complaint date format for timestamp
+        DateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+
+        // create the default JSON payload that will get supplied as the default
+        // data for 'value3' in the IFTTT Maker Channel trigger API
+        String json = "{\"pin\":{\"name\":\"" + pin.getName() +
+                "\",\"address\":\"" + pin.getPin().getAddress() +
+                "\",\"provider\":\"" + pin.getPin().getProvider() +
+                "\",\"mode\":\"" + pin.getMode().getName() +
+                "\",\"direction\":\"" + pin.getMode().getDirection() +
+                "\",\"pull\":\"" + pin.getPullResistance().getName() +
+                "\"},\"state\":{" +
+                "\"name\":\"" + state.getName() +
+                "\",\"value\":\"" + state.getValue() +
+                "\",\"is-high\":\"" + state.isHigh() +
+                "\",\"is-low\":\"" + state.isLow() +
+                "\"},\"timestamp\":\"" + df.format(new Date()) + "\"}";
+
+        // create an IFTTT Maker Channel event
+        IFTTTMakerChannelTriggerEvent event = new IFTTTMakerChannelTriggerEvent(
+                this,                               // IFTTTMakerChannelTrigger instance
+                pin,                                // GPIO PIN instance
+                state,                              // GPIO PIN STATE
+                eventName,                          // IFTTT EVENT NAME
+                pin.getName(),                      // VALUE 1
+                Integer.toString(state.getValue()), // VALUE 2
+                json);                              // VALUE 3
+
+        // if the consumer configured a custom listener for callback events,
+        // then we need to invoke the listner instance 'onTriggered' callback
+        // method with the IFTTTMakerChannelTriggerEvent instance.
+        if(this.listener != null){
+            if(this.listener.onTriggered(event) == false) {
+                // abort
+                return;
             }
+        }
+
+        // we must URL encode the IFTTT payload data values (value1, value2, value3)
+        String value1 = URLEncoder.encode(event.getValue1(), StandardCharsets.UTF_8);
+        String value2 = URLEncoder.encode(event.getValue2(), StandardCharsets.UTF_8);
+        String value3 = URLEncoder.encode(event.getValue3(), StandardCharsets.UTF_8);
 
-            // we must URL encode the IFTTT payload data values (value1, value2, value3)
-            String value1 = URLEncoder.encode(event.getValue1(), StandardCharsets.UTF_8.name());
-            String value2 = URLEncoder.encode(event.getValue2(), StandardCharsets.UTF_8.name());
-            String value3 = URLEncoder.encode(event.getValue3(), StandardCharsets.UTF_8.name());
-
-            // create the URL parameters and post data
-            String urlParameters  = "value1=" + value1 + "&value2=" + value2 + "&value3=" + value3;
-            byte[] postData       = urlParameters.getBytes(StandardCharsets.UTF_8);
-
-            // create the IFTTT Maker Channel trigger URL & connection
-            URL url = new URL(String.format(IFTTT_MAKER_CHANNEL_URL, eventName, apikey));
-            HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
-            connection.setRequestMethod("POST");
-            connection.setDoOutput(true);
-            connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-            connection.setRequestProperty("charset", "utf-8");
-            connection.setRequestProperty("Content-Length", Integer.toString(postData.length));
-            connection.setUseCaches(false);
-            try( DataOutputStream stream = new DataOutputStream(connection.getOutputStream())) {
-                stream.write( postData );
+        // queue the form post; it is sent asynchronously
+        enqueue("value1=" + value1 + "&value2=" + value2 + "&value3=" + value3);
+    }
+
+    private void enqueue(String payload) {
+        long now = System.nanoTime();
+        synchronized (queue) {
+            Request tail = queue.peekLast();
+            if (tail != null && now - tail.created < coalesceWindowNanos) {
+                tail.payload = payload;
+                coalescedCount.increment();
+                return;
+            }
+            while (queue.size() >= queueCapacity) {
+                queue.pollFirst();
+                droppedCount.increment();
             }
+            queue.addLast(new Request(payload, now));
+            if (sending) {
+                return;
+            }
+            sending = true;
+        }
+        sendNext();
+    }
 
-            // get HTTP response
-            int responseCode = connection.getResponseCode();
-
-            // if the HTTP post resulted in an error, then raise an exception
-            if(responseCode != 200) {
-                System.err.println("IFTTT MakerChannel ERROR Response Code: " + responseCode);
-                BufferedReader in = new BufferedReader( new InputStreamReader(connection.getInputStream()));
-                String inputLine;
-                StringBuffer response = new StringBuffer();
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                in.close();
-                throw new RuntimeException(response.toString());
+    private void sendNext() {
+        Request request;
+        synchronized (queue) {
+            request = queue.pollFirst();
+            if (request == null) {
+                sending = false;
+                queue.notifyAll();
+                return;
             }
         }
-        catch (IOException e) {
-            throw new RuntimeException(e);
+        send(request);
+    }
+
+    private void send(Request request) {
+        try {
+            HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(String.format(urlFormat, eventName, apikey)))
+                    .timeout(Duration.ofMillis(REQUEST_TIMEOUT_MILLIS))
+                    .header("Content-Type", "application/x-www-form-urlencoded; charset=utf-8")
+                    .POST(HttpRequest.BodyPublishers.ofString(request.payload, StandardCharsets.UTF_8))
+                    .build();
+            HttpClientHolder.CLIENT.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> complete(request, response, error));
+        }
+        catch (RuntimeException e) {
+            // malformed URL or similar; retrying would not help
+            failedCount.increment();
+            System.err.println("IFTTT MakerChannel ERROR: " + e);
+            sendNext();
+        }
+    }
+
+    private void complete(Request request, HttpResponse<String> response, Throwable error) {
+        if (error == null && response.statusCode() / 100 == 2) {
+            sentCount.increment();
+            sendNext();
+            return;
+        }
+
+        boolean retryable = error != null || response.statusCode() == 429 || response.statusCode() >= 500;
+        if (retryable && request.attempts < maxRetries) {
+            long delay = Math.min(retryBackoffMillis << Math.min(request.attempts, 20), MAX_RETRY_BACKOFF_MILLIS);
+            request.attempts++;
+            retryCount.increment();
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(() -> send(request));
+            return;
+        }
+
+        failedCount.increment();
+        if (error != null) {
+            System.err.println("IFTTT MakerChannel ERROR: " + error);
+        }
+        else {
+            System.err.println("IFTTT MakerChannel ERROR Response Code: " + response.statusCode() + " " + response.body());
         }
+        sendNext();
     }
 }
@@ -0,0 +1,124 @@
+package com.pi4j.io.gpio.trigger;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  OutputStateGpioTrigger.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioPin;
+import com.pi4j.io.gpio.GpioPinDigitalOutput;
+import com.pi4j.io.gpio.PinState;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Trigger that sets the state of a target output pin as a function of the input pin state only
+ * (sync, inverse sync, set and toggle).
+ *
+ * Such triggers can be marked <i>fast</i>: when a fast trigger is added to a pin, it is compiled
+ * into a lookup table of target pins and target states that is evaluated directly on the thread
+ * delivering the provider pin event (e.g. the interrupt thread), instead of being dispatched on
+ * the GPIO event executor.  This gives an input-to-output latency of a few microseconds for
+ * interlocks; fast triggers must therefore only target pins whose writes do not block for long.
+ * The fast mode must be set before the trigger is added to a pin; pin states added or removed
+ * later are compiled into the lookup table again.
+ */
+public abstract class OutputStateGpioTrigger extends OutputTargetedGpioTrigger {
+
+	private volatile boolean fast = false;
+
+	// callbacks of the pins that compiled this trigger into their fast trigger table
+	private final Set<Runnable> pinStateListeners = new CopyOnWriteArraySet<>();
+
+	public OutputStateGpioTrigger(GpioPinDigitalOutput targetPin) {
+		super(targetPin);
+	}
+
+	public OutputStateGpioTrigger(PinState state, GpioPinDigitalOutput targetPin) {
+		super(state, targetPin);
+	}
+
+	public OutputStateGpioTrigger(PinState[] states, GpioPinDigitalOutput targetPin) {
+		super(states, targetPin);
+	}
+
+	public OutputStateGpioTrigger(List<PinState> states, GpioPinDigitalOutput targetPin) {
+		super(states, targetPin);
+	}
+
+	/**
+	 * @param state input pin state
+	 * @return state to set on the target pin, or null to toggle the target pin
+	 */
+	public abstract PinState getTargetState(PinState state);
+
+	public boolean isFast() {
+		return fast;
+	}
+
+	/**
+	 * Enables evaluation on the pin event thread; see the class description.
+	 *
+	 * @param fast true to evaluate the trigger without an executor hop
+	 */
+	public void setFast(boolean fast) {
+		this.fast = fast;
+	}
+
+	/**
+	 * Registers a callback run after the pin states of this trigger have changed; used by the pins
+	 * that compiled this trigger into their fast trigger table.
+	 *
+	 * @param listener callback
+	 */
+	public void addPinStateListener(Runnable listener) {
+		pinStateListeners.add(listener);
+	}
+
+	public void removePinStateListener(Runnable listener) {
+		pinStateListeners.remove(listener);
+	}
+
+	@Override
+	protected void pinStatesChanged() {
+		for (Runnable listener : pinStateListeners) {
+			listener.run();
+		}
+	}
+
+	@Override
+	public void invoke(GpioPin pin, PinState state) {
+		if (targetPin != null) {
+			PinState targetState = getTargetState(state);
+			if (targetState == null) {
+				targetPin.toggle();
+			} else {
+				targetPin.setState(targetState);
+			}
+		}
+	}
+}
@@ -28,11 +28,9 @@ package com.pi4j.wiringpi;
  */
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
 
 import com.pi4j.io.gpio.GpioFactory;
 import com.pi4j.util.NativeLibraryLoader;
@@ -45,6 +43,12 @@ import com.pi4j.util.NativeLibraryLoader;
  * </p>
  *
  * <p>
+ * GPIO interrupts are detected by a pluggable {@link GpioInterruptBackend}; the native Pi4J
+ * library is used (and loaded on first use) unless another backend, e.g. the pure Java
+ * {@link SysfsGpioInterruptBackend}, is installed using {@link #setBackend(GpioInterruptBackend)}.
+ * </p>
+ *
+ * <p>
  * Before using the Pi4J library, you need to ensure that the Java VM in configured with access to
  * the following system libraries:
  * <ul>
@@ -62,11 +66,29 @@ import com.pi4j.util.NativeLibraryLoader;
  */
 public class GpioInterrupt {
 
+    // maximum number of pending pin state changes buffered between the
+    // native callback thread and the Java event dispatch thread
+    public static final int EVENT_BUFFER_SIZE = 1024;
+
     private static final Object mutex;
-    private static final LinkedBlockingQueue<GpioEvent> events;
 	private static final List<GpioInterruptListener> listeners;
 
-	private static boolean run;
+	// lock-free event buffer; the native callback thread writes pin numbers, states and
+	// timestamps into primitive slots so no objects are created per interrupt
+	private static final GpioInterruptBuffer events =
+			new GpioInterruptBuffer(EVENT_BUFFER_SIZE, GpioInterruptBuffer.OverflowPolicy.DROP_OLDEST);
+
+	// immutable snapshot holding a reusable event instance per registered listener (the listener
+	// is the event source); replaced (never modified) whenever the listener registration changes
+	private static volatile GpioInterruptEvent[] listenerEvents = new GpioInterruptEvent[0];
+
+	// callback handed to the interrupt backend for every detected pin state change
+	private static final GpioInterruptBuffer.Handler callback = GpioInterrupt::pinStateChangeCallback;
+
+	// interrupt backend; the native backend is created on first use
+	private static GpioInterruptBackend backend;
+
+	private static volatile boolean run;
 	private static ExecutorService eventExecutor;
 	private static Future<?> eventTask;
 
@@ -77,17 +99,43 @@ public class GpioInterrupt {
 
     static {
 		mutex = new Object();
-		events = new LinkedBlockingQueue<>();
-		listeners = Collections.synchronizedList(new ArrayList<>());
+		listeners = new ArrayList<>();
+    }
+
+    /**
+     * <p>
+     * Install the backend used to detect GPIO interrupts; any previously installed backend is
+     * shut down.  The backend should be installed before any GPIO pin is monitored.
+     * </p>
+     *
+     * @param interruptBackend GPIO interrupt backend
+     */
+    public static synchronized void setBackend(GpioInterruptBackend interruptBackend) {
+		if (interruptBackend == null) {
+			throw new IllegalArgumentException("Missing interrupt backend argument.");
+		}
+		if (backend != null && backend != interruptBackend) {
+			backend.shutdown();
+		}
+		backend = interruptBackend;
+    }
 
-        // Load the platform library
-        NativeLibraryLoader.load("libpi4j.so", "pi4j");
+    /**
+     * @return the GPIO interrupt backend; the native Pi4J library backend unless another backend was installed
+     */
+    public static synchronized GpioInterruptBackend getBackend() {
+		if (backend == null) {
+			backend = new NativeGpioInterruptBackend();
+		}
+		return backend;
     }
 
     /**
      * <p>
-     * This method is used to instruct the native code to setup a monitoring thread to monitor
-     * interrupts that represent changes to the selected GPIO pin.
+     * This method is used to instruct the native code to monitor interrupts that represent
+     * changes to the selected GPIO pin.  All monitored pins share a single native monitoring
+     * thread that waits for edges on all of them using epoll; enabling a pin registers its
+     * sysfs value file with that thread.
      * </p>
      *
      * <p>
@@ -97,25 +145,33 @@ public class GpioInterrupt {
      * @param pin GPIO pin number (not header pin number; not wiringPi pin number)
      * @return A return value of a negative number represents an error. A return value of '0'
      *         represents success and that the GPIO pin is already being monitored. A return value
-     *         of '1' represents success and that a new monitoring thread was created to handle the
-     *         requested GPIO pin number.
+     *         of '1' represents success and that the monitoring of the requested GPIO pin number
+     *         was started.
      */
-    public static native int enablePinStateChangeCallback(int pin);
+    public static int enablePinStateChangeCallback(int pin) {
+		return getBackend().enablePinStateChangeCallback(pin, callback);
+    }
 
     /**
      * <p>
-     * This method is used to instruct the native code to stop the monitoring thread monitoring
-     * interrupts on the selected GPIO pin.
+     * This method is used to instruct the native code to stop monitoring interrupts on the
+     * selected GPIO pin.
      * </p>
      *
      * @param pin GPIO pin number (not header pin number; not wiringPi pin number)
 
      * @return A return value of a negative number represents an error. A return value of '0'
      *         represents success and that no existing monitor was previously running. A return
-     *         value of '1' represents success and that an existing monitoring thread was stopped
-     *         for the requested GPIO pin number.
+     *         value of '1' represents success and that the monitoring of the requested GPIO pin
+     *         number was stopped.
      */
-    public static native int disablePinStateChangeCallback(int pin);
+    public static int disablePinStateChangeCallback(int pin) {
+		return getBackend().disablePinStateChangeCallback(pin);
+    }
+
+    private static native int enableNativePinStateChangeCallback(int pin);
+
+    private static native int disableNativePinStateChangeCallback(int pin);
 
     /**
      * <p>
@@ -126,13 +182,51 @@ public class GpioInterrupt {
      *
      * @param pin GPIO pin number (not header pin number; not wiringPi pin number)
      * @param state New GPIO pin state.
+     * @param timestamp CLOCK_MONOTONIC time in nanoseconds captured when the native monitoring thread woke up
      */
-    private static void pinStateChangeCallback(int pin, boolean state) {
-		synchronized (mutex) {
-			events.add(new GpioEvent(pin, state));
+    private static void pinStateChangeCallback(int pin, boolean state, long timestamp) {
+		// pin state changes are discarded while no listener is registered
+		if (run) {
+			events.offer(pin, state, timestamp);
 		}
     }
 
+    /**
+     * <p>
+     * Set the action taken when a GPIO interrupt is received while the event buffer is full
+     * (the Java event dispatch thread is not keeping up with the interrupt rate). The default
+     * policy is {@link GpioInterruptBuffer.OverflowPolicy#DROP_OLDEST}.
+     * {@link GpioInterruptBuffer.OverflowPolicy#BLOCK} stalls the monitoring thread until the
+     * dispatch thread catches up and should only be used when no interrupt may be lost.
+     * </p>
+     *
+     * @param policy buffer overflow policy
+     */
+    public static void setOverflowPolicy(GpioInterruptBuffer.OverflowPolicy policy) {
+		events.setOverflowPolicy(policy);
+    }
+
+    /**
+     * @return the action taken when a GPIO interrupt is received while the event buffer is full
+     */
+    public static GpioInterruptBuffer.OverflowPolicy getOverflowPolicy() {
+		return events.getOverflowPolicy();
+    }
+
+    /**
+     * @return number of GPIO interrupts received while the event buffer was full
+     */
+    public static long getOverflowCount() {
+		return events.getOverflowCount();
+    }
+
+    /**
+     * @return number of GPIO interrupts discarded because of event buffer overflows
+     */
+    public static long getDroppedEventCount() {
+		return events.getDroppedCount();
+    }
+
     /**
      * <p>
      * Java consumer code can call this method to register itself as a listener for pin state
@@ -148,6 +242,7 @@ public class GpioInterrupt {
     	synchronized (mutex) {
 			if (!listeners.contains(listener)) {
 				listeners.add(listener);
+				updateListenerSnapshot();
 
 				if (!run)
 					enableEventExecutor();
@@ -168,7 +263,8 @@ public class GpioInterrupt {
      */
     public static void removeListener(GpioInterruptListener listener) {
 		synchronized (mutex) {
-			listeners.remove(listener);
+			if (listeners.remove(listener))
+				updateListenerSnapshot();
 
 			if (run && listeners.isEmpty())
 				disableEventExecutor();
@@ -191,6 +287,15 @@ public class GpioInterrupt {
 		}
     }
 
+	// must be called while holding the mutex
+	private static void updateListenerSnapshot() {
+		GpioInterruptEvent[] snapshot = new GpioInterruptEvent[listeners.size()];
+		for (int index = 0; index < snapshot.length; index++) {
+			snapshot[index] = new GpioInterruptEvent(listeners.get(index), 0, false);
+		}
+		listenerEvents = snapshot;
+	}
+
 	private static synchronized void enableEventExecutor() {
 		if (!run) {
 			run = true;
@@ -205,27 +310,25 @@ public class GpioInterrupt {
 			run = false;
 			if (eventTask != null)
 				eventTask.cancel(true);
+
+			// discard the pending pin state changes so they are not delivered to the next listener
+			events.clear();
 		}
 	}
 
 	public static void shutdown() {
 		disableEventExecutor();
+		synchronized (GpioInterrupt.class) {
+			if (backend != null) {
+				backend.shutdown();
+			}
+		}
 	}
 
 	private static void handleEvents() {
 		while (run) {
 			try {
-				GpioEvent event = events.take();
-
-				List<GpioInterruptListener> listenersClone;
-				synchronized (mutex) {
-					listenersClone = new ArrayList<>(listeners);
-				}
-
-				for (GpioInterruptListener listener : listenersClone) {
-					GpioInterruptEvent interruptEvent = new GpioInterruptEvent(listener, event.pin, event.state);
-					listener.pinStateChange(interruptEvent);
-				}
+				events.take(GpioInterrupt::dispatchEvent);
 			} catch (InterruptedException e) {
 				if (!run) {
 					return;
@@ -234,13 +337,40 @@ public class GpioInterrupt {
 		}
 	}
 
-    public static class GpioEvent {
-        private final int pin;
-        private final boolean state;
+	private static void dispatchEvent(int pin, boolean state, long timestamp) {
+		// the event instances are owned by this dispatch thread and reused for
+		// every interrupt; listeners must not retain them beyond the callback
+		GpioInterruptEvent[] snapshot = listenerEvents;
+		for (GpioInterruptEvent interruptEvent : snapshot) {
+			interruptEvent.update(pin, state, timestamp);
+			((GpioInterruptListener) interruptEvent.getSource()).pinStateChange(interruptEvent);
+		}
+	}
+
+    /**
+     * Interrupt backend using the monitoring thread of the native Pi4J library; the native
+     * library invokes {@link GpioInterrupt#pinStateChangeCallback(int, boolean, long)} directly.
+     */
+    private static class NativeGpioInterruptBackend implements GpioInterruptBackend {
+
+        NativeGpioInterruptBackend() {
+            // Load the platform library
+            NativeLibraryLoader.load("libpi4j.so", "pi4j");
+        }
+
+        @Override
+        public int enablePinStateChangeCallback(int pin, GpioInterruptBuffer.Handler handler) {
+            return enableNativePinStateChangeCallback(pin);
+        }
+
+        @Override
+        public int disablePinStateChangeCallback(int pin) {
+            return disableNativePinStateChangeCallback(pin);
+        }
 
-        public GpioEvent(int pin, boolean state) {
-            this.pin = pin;
-            this.state = state;
+        @Override
+        public void shutdown() {
+            // the native monitoring thread is stopped when the library is unloaded
         }
     }
 }
@@ -0,0 +1,67 @@
+package com.pi4j.wiringpi;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioInterruptBackend.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * <p>
+ * GPIO interrupt backend; detects state changes on monitored GPIO pins and reports them to a
+ * handler.  The default backend is the native Pi4J library; an alternative backend can be
+ * installed with {@link GpioInterrupt#setBackend(GpioInterruptBackend)}.
+ * </p>
+ *
+ * @see GpioInterrupt
+ * @see SysfsGpioInterruptBackend
+ */
+public interface GpioInterruptBackend {
+
+    /**
+     * Start monitoring the given GPIO pin for state changes.
+     *
+     * @param pin GPIO pin number
+     * @param handler handler invoked for every state change of the pin
+     * @return A return value of a negative number represents an error. A return value of '0'
+     *         represents success and that the GPIO pin is already being monitored. A return value
+     *         of '1' represents success and that the monitoring of the GPIO pin was started.
+     */
+    int enablePinStateChangeCallback(int pin, GpioInterruptBuffer.Handler handler);
+
+    /**
+     * Stop monitoring the given GPIO pin for state changes.
+     *
+     * @param pin GPIO pin number
+     * @return A return value of a negative number represents an error. A return value of '0'
+     *         represents success and that the GPIO pin was not monitored. A return value of '1'
+     *         represents success and that the monitoring of the GPIO pin was stopped.
+     */
+    int disablePinStateChangeCallback(int pin);
+
+    /**
+     * Stop monitoring all GPIO pins and release the resources held by this backend.
+     */
+    void shutdown();
+}
@@ -0,0 +1,281 @@
+package com.pi4j.wiringpi;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioInterruptBuffer.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * Bounded, lock-free buffer for GPIO interrupt events passed from the native callback thread(s) to
+ * the Java event dispatch thread.  Each slot stores the pin number, the pin state and the event
+ * timestamp as primitives; no objects are created when events are added or removed.
+ * </p>
+ *
+ * <p>
+ * The buffer uses a sequence number per slot (as described by Dmitry Vyukov for bounded MPMC
+ * queues) so that several native monitoring threads may add events concurrently while a single
+ * dispatch thread removes them.  A single consumer thread may block in {@link #take(Handler)}
+ * waiting for events.
+ * </p>
+ *
+ * @see <a href="https://pi4j.com/">https://pi4j.com/</a>
+ */
+public class GpioInterruptBuffer {
+
+    /**
+     * Action taken when an event is added to a full buffer.
+     */
+    public enum OverflowPolicy {
+        /** discard the oldest buffered event to make room for the new event */
+        DROP_OLDEST,
+        /** discard the new event */
+        DROP_NEWEST,
+        /** wait until the dispatch thread frees a slot */
+        BLOCK
+    }
+
+    /**
+     * Receives the events removed from the buffer.
+     */
+    public interface Handler {
+        void handle(int pin, boolean state, long timestamp);
+    }
+
+    // handler used to discard events when dropping the oldest event
+    private static final Handler DISCARD = (pin, state, timestamp) -> { };
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final int[] pins;
+    private final boolean[] states;
+    private final long[] timestamps;
+
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    private final AtomicLong overflowCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private volatile OverflowPolicy overflowPolicy;
+    private volatile Thread waitingConsumer;
+
+    /**
+     * @param capacity maximum number of buffered events; rounded up to the next power of two
+     * @param overflowPolicy action taken when an event is added to a full buffer
+     */
+    public GpioInterruptBuffer(int capacity, OverflowPolicy overflowPolicy) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Buffer capacity must be at least 2.");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        this.pins = new int[size];
+        this.states = new boolean[size];
+        this.timestamps = new long[size];
+        for (int index = 0; index < size; index++) {
+            sequences.set(index, index);
+        }
+        setOverflowPolicy(overflowPolicy);
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        if (overflowPolicy == null) {
+            throw new IllegalArgumentException("Missing overflow policy argument.");
+        }
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * @return number of times an event was added while the buffer was full
+     */
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    /**
+     * @return number of events discarded because of buffer overflows
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return number of events currently buffered (approximate while producers are active)
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, getCapacity()));
+    }
+
+    public boolean isEmpty() {
+        long position = head.get();
+        return sequences.get((int) position & mask) != position + 1;
+    }
+
+    /**
+     * Discard all buffered events; the discarded events are not counted as dropped.
+     *
+     * @return number of discarded events
+     */
+    public int clear() {
+        int count = 0;
+        while (poll(DISCARD)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Add an event to the buffer, applying the overflow policy if the buffer is full.
+     *
+     * @param pin GPIO pin number
+     * @param state new GPIO pin state
+     * @param timestamp event timestamp
+     * @return true if the event was buffered; false if it was discarded
+     */
+    public boolean offer(int pin, boolean state, long timestamp) {
+        boolean overflowed = false;
+        while (!tryOffer(pin, state, timestamp)) {
+            if (!overflowed) {
+                overflowed = true;
+                overflowCount.incrementAndGet();
+            }
+            switch (overflowPolicy) {
+                case DROP_NEWEST:
+                    droppedCount.incrementAndGet();
+                    return false;
+                case DROP_OLDEST:
+                    if (poll(DISCARD)) {
+                        droppedCount.incrementAndGet();
+                    }
+                    break;
+                default:
+                    if (Thread.currentThread().isInterrupted()) {
+                        droppedCount.incrementAndGet();
+                        return false;
+                    }
+                    LockSupport.parkNanos(this, 1000L);
+                    break;
+            }
+        }
+
+        // wake up the dispatch thread if it is waiting for events
+        Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    private boolean tryOffer(int pin, boolean state, long timestamp) {
+        for (;;) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    pins[index] = pin;
+                    states[index] = state;
+                    timestamps[index] = timestamp;
+                    // publish the slot to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                // buffer is full
+                return false;
+            }
+            // another producer claimed this slot; retry with the next position
+        }
+    }
+
+    /**
+     * Remove the oldest event from the buffer, if any, and pass it to the handler.
+     *
+     * @param handler event handler
+     * @return true if an event was removed; false if the buffer was empty
+     */
+    public boolean poll(Handler handler) {
+        for (;;) {
+            long position = head.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    int pin = pins[index];
+                    boolean state = states[index];
+                    long timestamp = timestamps[index];
+                    // release the slot to the producers
+                    sequences.set(index, position + mask + 1);
+                    handler.handle(pin, state, timestamp);
+                    return true;
+                }
+            } else if (difference < 0) {
+                // buffer is empty
+                return false;
+            }
+            // another consumer removed this slot; retry with the next position
+        }
+    }
+
+    /**
+     * Remove the oldest event from the buffer and pass it to the handler, waiting for an event
+     * to become available if the buffer is empty.  Only a single thread may wait at a time.
+     *
+     * @param handler event handler
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public void take(Handler handler) throws InterruptedException {
+        while (!poll(handler)) {
+            waitingConsumer = Thread.currentThread();
+            try {
+                // re-check after publishing the waiting thread so that a concurrent offer is not missed
+                if (isEmpty()) {
+                    LockSupport.park(this);
+                }
+            } finally {
+                waitingConsumer = null;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+}
@@ -50,6 +50,7 @@ public class GpioInterruptEvent extends EventObject {
     private static final long serialVersionUID = 1L;
     private int pin;
     private boolean state;
+    private long timestamp;
 
     /**
      * <h1>Default event constructor</h1>
@@ -59,9 +60,35 @@ public class GpioInterruptEvent extends EventObject {
      * @param state New GPIO pin state.
      */
     public GpioInterruptEvent(Object obj, int pin, boolean state) {
+        this(obj, pin, state, System.nanoTime());
+    }
+
+    /**
+     * <h1>Event constructor</h1>
+     *
+     * @param obj Ignore this parameter
+     * @param pin GPIO pin number (not header pin number; not wiringPi pin number)
+     * @param state New GPIO pin state.
+     * @param timestamp Time of the interrupt in nanoseconds (CLOCK_MONOTONIC).
+     */
+    public GpioInterruptEvent(Object obj, int pin, boolean state, long timestamp) {
         super(obj);
         this.pin = pin;
         this.state = state;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Update the event payload; used by the interrupt dispatcher to recycle event instances.
+     *
+     * @param pin GPIO pin number (not header pin number; not wiringPi pin number)
+     * @param state New GPIO pin state.
+     * @param timestamp Time of the interrupt in nanoseconds (CLOCK_MONOTONIC).
+     */
+    void update(int pin, boolean state, long timestamp) {
+        this.pin = pin;
+        this.state = state;
+        this.timestamp = timestamp;
     }
 
     /**
@@ -90,4 +117,13 @@ public class GpioInterruptEvent extends EventObject {
     public int getStateValue() {
         return (state) ? 1 : 0;
     }
+
+    /**
+     * Get the time the interrupt was detected by the native monitoring thread.
+     *
+     * @return CLOCK_MONOTONIC timestamp in nanoseconds (same time base as {@link System#nanoTime()} on Linux)
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
 }
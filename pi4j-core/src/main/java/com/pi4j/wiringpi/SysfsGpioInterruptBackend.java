@@ -0,0 +1,287 @@
+package com.pi4j.wiringpi;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SysfsGpioInterruptBackend.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * <p>
+ * Pure Java GPIO interrupt backend; monitors the sysfs value files of the GPIO pins
+ * (<code>/sys/class/gpio/gpio#/value</code>) from a single Java polling thread.
+ * </p>
+ *
+ * <p>
+ * The value files of all monitored pins are read with positional {@link FileChannel} reads
+ * into a single preallocated buffer at a fixed poll interval, so no objects are created per
+ * poll.  Java cannot wait for the sysfs POLLPRI edge notification, so pulses shorter than the
+ * poll interval may be missed; the state change timestamps have a resolution of the poll
+ * interval.  In exchange, interrupt detection can be profiled and tuned from Java, and it can
+ * be tested against a temporary directory that mimics <code>/sys/class/gpio</code>.
+ * </p>
+ *
+ * <p>
+ * The GPIO pins must be exported before they can be monitored.  Pin numbers passed to
+ * {@link #enablePinStateChangeCallback(int, GpioInterruptBuffer.Handler)} are translated to
+ * sysfs (BCM) GPIO numbers using the configured pin mapping; e.g. pass
+ * <code>Gpio::wpiPinToGpio</code> when using the WiringPi pin numbering scheme.
+ * </p>
+ *
+ * @see GpioInterrupt#setBackend(GpioInterruptBackend)
+ */
+public class SysfsGpioInterruptBackend implements GpioInterruptBackend {
+
+    public static final Path DEFAULT_GPIO_PATH = Paths.get("/sys/class/gpio");
+    public static final long DEFAULT_POLL_INTERVAL = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final int MAX_PIN = 256;
+
+    private final Path gpioPath;
+    private final long pollInterval;
+    private final IntUnaryOperator pinMapping;
+
+    // immutable snapshot of the monitored pins read by the polling thread; replaced
+    // (never modified) when pins are enabled or disabled while holding 'this'
+    private volatile MonitoredPin[] monitoredPins = new MonitoredPin[0];
+
+    // the polling thread runs while it is the current polling thread; it is stopped when the
+    // last pin is disabled and started again when the next pin is enabled
+    private volatile Thread pollingThread;
+
+    // polling thread stopped with the last disabled pin; it may still be finishing its last poll
+    private Thread stoppedThread;
+
+    /**
+     * Create a backend monitoring <code>/sys/class/gpio</code> every millisecond, with
+     * pin numbers equal to the sysfs (BCM) GPIO numbers.
+     */
+    public SysfsGpioInterruptBackend() {
+        this(DEFAULT_GPIO_PATH, DEFAULT_POLL_INTERVAL, IntUnaryOperator.identity());
+    }
+
+    /**
+     * @param gpioPath sysfs GPIO directory (containing the <code>gpio#</code> pin directories)
+     * @param pollInterval interval between polls of the pin value files in nanoseconds
+     * @param pinMapping translates the monitored pin numbers to sysfs GPIO numbers
+     */
+    public SysfsGpioInterruptBackend(Path gpioPath, long pollInterval, IntUnaryOperator pinMapping) {
+        if (pollInterval <= 0) {
+            throw new IllegalArgumentException("Invalid poll interval: " + pollInterval);
+        }
+        this.gpioPath = gpioPath;
+        this.pollInterval = pollInterval;
+        this.pinMapping = pinMapping;
+    }
+
+    public long getPollInterval() {
+        return pollInterval;
+    }
+
+    @Override
+    public synchronized int enablePinStateChangeCallback(int pin, GpioInterruptBuffer.Handler handler) {
+        int gpio = (pin >= 0 && pin < MAX_PIN) ? pinMapping.applyAsInt(pin) : -1;
+        if (gpio < 0) {
+            return -1;
+        }
+        if (findMonitoredPin(pin) >= 0) {
+            return 0;
+        }
+
+        // open the value file and read the initial pin state
+        // (this fails if the pin has not been exported)
+        MonitoredPin monitoredPin;
+        try {
+            FileChannel channel = FileChannel.open(gpioPath.resolve("gpio" + gpio).resolve("value"), StandardOpenOption.READ);
+            monitoredPin = new MonitoredPin(pin, channel, handler);
+            int state = readState(channel, ByteBuffer.allocate(8));
+            if (state < 0) {
+                channel.close();
+                return -3;
+            }
+            monitoredPin.lastKnownState = state;
+        } catch (IOException e) {
+            return -3;
+        }
+
+        MonitoredPin[] pins = Arrays.copyOf(monitoredPins, monitoredPins.length + 1);
+        pins[pins.length - 1] = monitoredPin;
+        monitoredPins = pins;
+
+        // start the polling thread with the first monitored pin, once a stopped polling
+        // thread has finished its last poll so that no pin is polled by two threads
+        if (pollingThread == null) {
+            awaitStoppedThread();
+            Thread thread = new Thread(this::poll, "pi4j-gpio-interrupt-sysfs");
+            thread.setDaemon(true);
+            pollingThread = thread;
+            thread.start();
+        }
+        return 1;
+    }
+
+    @Override
+    public synchronized int disablePinStateChangeCallback(int pin) {
+        int index = findMonitoredPin(pin);
+        if (index < 0) {
+            return (pin >= 0 && pin < MAX_PIN) ? 0 : -1;
+        }
+        MonitoredPin monitoredPin = monitoredPins[index];
+        MonitoredPin[] pins = new MonitoredPin[monitoredPins.length - 1];
+        System.arraycopy(monitoredPins, 0, pins, 0, index);
+        System.arraycopy(monitoredPins, index + 1, pins, index, pins.length - index);
+        monitoredPins = pins;
+        monitoredPin.close();
+
+        // stop the polling thread with the last monitored pin
+        if (pins.length == 0 && pollingThread != null) {
+            stoppedThread = pollingThread;
+            LockSupport.unpark(pollingThread);
+            pollingThread = null;
+        }
+        return 1;
+    }
+
+    @Override
+    public void shutdown() {
+        Thread thread;
+        synchronized (this) {
+            thread = pollingThread;
+            pollingThread = null;
+            stoppedThread = null;
+            for (MonitoredPin monitoredPin : monitoredPins) {
+                monitoredPin.close();
+            }
+            monitoredPins = new MonitoredPin[0];
+        }
+        if (thread != null && thread != Thread.currentThread()) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.NANOSECONDS.toMillis(pollInterval) + 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // must be called while holding 'this'
+    private void awaitStoppedThread() {
+        Thread thread = stoppedThread;
+        stoppedThread = null;
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // must be called while holding 'this'
+    private int findMonitoredPin(int pin) {
+        for (int index = 0; index < monitoredPins.length; index++) {
+            if (monitoredPins[index].pin == pin) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private void poll() {
+        // read buffer owned by this polling thread
+        ByteBuffer buffer = ByteBuffer.allocateDirect(8);
+        long deadline = System.nanoTime();
+        while (pollingThread == Thread.currentThread()) {
+            MonitoredPin[] pins = monitoredPins;
+            for (MonitoredPin monitoredPin : pins) {
+                int state = readState(monitoredPin.channel, buffer);
+                if (state >= 0 && state != monitoredPin.lastKnownState) {
+                    monitoredPin.lastKnownState = state;
+                    monitoredPin.handler.handle(monitoredPin.pin, state == 1, System.nanoTime());
+                }
+            }
+
+            // wait for the next poll; skip polls missed because of a slow handler
+            deadline += pollInterval;
+            long now = System.nanoTime();
+            if (deadline - now > 0) {
+                LockSupport.parkNanos(this, deadline - now);
+            } else {
+                deadline = now;
+            }
+        }
+    }
+
+    /**
+     * Read the pin state from a sysfs value file.
+     *
+     * @return '1' for HIGH, '0' for LOW or '-1' if the value file could not be read
+     */
+    private static int readState(FileChannel channel, ByteBuffer buffer) {
+        try {
+            buffer.clear();
+            if (channel.read(buffer, 0) < 1) {
+                return -1;
+            }
+            return (buffer.get(0) == '1') ? 1 : 0;
+        } catch (IOException e) {
+            // the pin was disabled (channel closed) or unexported
+            return -1;
+        }
+    }
+
+    private static class MonitoredPin {
+        private final int pin;
+        private final FileChannel channel;
+        private final GpioInterruptBuffer.Handler handler;
+
+        // only accessed by the polling thread after the pin is published
+        private int lastKnownState;
+
+        MonitoredPin(int pin, FileChannel channel, GpioInterruptBuffer.Handler handler) {
+            this.pin = pin;
+            this.channel = channel;
+            this.handler = handler;
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // ignore; the pin is no longer monitored
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.pi4j.concurrent;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  StripedExecutorServiceTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for the {@link StripedExecutorService}.
+ */
+public class StripedExecutorServiceTest {
+
+    private StripedExecutorService executor;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static StripedRunnable task(int key, Runnable runnable) {
+        return new StripedRunnable() {
+            @Override
+            public int getStripeKey() {
+                return key;
+            }
+
+            @Override
+            public void run() {
+                runnable.run();
+            }
+        };
+    }
+
+    @Test
+    public void testPerKeyOrdering() throws InterruptedException {
+        final int keys = 8;
+        final int tasksPerKey = 10_000;
+        executor = new StripedExecutorService(3, 64, Executors.defaultThreadFactory());
+
+        final int[] last = new int[keys];
+        final AtomicBoolean outOfOrder = new AtomicBoolean(false);
+        final CountDownLatch done = new CountDownLatch(keys * tasksPerKey);
+        for (int index = 1; index <= tasksPerKey; index++) {
+            for (int key = 0; key < keys; key++) {
+                final int pin = key;
+                final int sequence = index;
+                executor.execute(task(pin, () -> {
+                    if (last[pin] != sequence - 1) {
+                        outOfOrder.set(true);
+                    }
+                    last[pin] = sequence;
+                    done.countDown();
+                }));
+            }
+        }
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        assertFalse(outOfOrder.get());
+    }
+
+    @Test
+    public void testBoundedThreadCount() throws InterruptedException {
+        executor = new StripedExecutorService(2, 16, Executors.defaultThreadFactory());
+
+        final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        final CountDownLatch done = new CountDownLatch(1000);
+        for (int index = 0; index < 1000; index++) {
+            executor.execute(task(index, () -> {
+                threads.add(Thread.currentThread());
+                done.countDown();
+            }));
+        }
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        assertTrue(threads.size() <= 2);
+    }
+
+    @Test
+    public void testSameKeySameThread() throws InterruptedException {
+        executor = new StripedExecutorService(4, 16, Executors.defaultThreadFactory());
+
+        final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        final CountDownLatch done = new CountDownLatch(100);
+        for (int index = 0; index < 100; index++) {
+            executor.execute(task(7, () -> {
+                threads.add(Thread.currentThread());
+                done.countDown();
+            }));
+        }
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        assertEquals(1, threads.size());
+    }
+
+    @Test
+    public void testQueueDepthMetrics() throws InterruptedException {
+        executor = new StripedExecutorService(2, 4, Executors.defaultThreadFactory());
+
+        // block the worker of stripe 0 and queue additional tasks behind it
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        executor.execute(task(0, () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int index = 0; index < 3; index++) {
+            executor.execute(task(2, () -> { }));
+        }
+
+        assertEquals(4, executor.getQueueDepth(0));
+        assertEquals(0, executor.getQueueDepth(1));
+        assertEquals(4, executor.getQueueDepth());
+        assertEquals(4, executor.getMaxQueueDepth(0));
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.getQueueDepth(0) > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, executor.getQueueDepth(0));
+        assertEquals(4, executor.getMaxQueueDepth(0));
+
+        executor.resetMaxQueueDepth();
+        assertEquals(0, executor.getMaxQueueDepth(0));
+    }
+
+    @Test
+    public void testFailingTaskDoesNotStopWorker() throws InterruptedException {
+        executor = new StripedExecutorService(1, 4, runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setUncaughtExceptionHandler((t, e) -> { });
+            return thread;
+        });
+
+        final CountDownLatch done = new CountDownLatch(1);
+        executor.execute(task(0, () -> { throw new IllegalStateException("test"); }));
+        executor.execute(task(0, done::countDown));
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testShutdown() throws InterruptedException {
+        executor = new StripedExecutorService(2, 4, Executors.defaultThreadFactory());
+        executor.shutdown();
+        assertTrue(executor.isShutdown());
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(executor.isTerminated());
+    }
+}
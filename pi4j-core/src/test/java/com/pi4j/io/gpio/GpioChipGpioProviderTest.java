@@ -0,0 +1,302 @@
+package com.pi4j.io.gpio;
+
+/*-
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioChipGpioProviderTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
+import com.pi4j.io.gpio.event.PinListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link GpioChipGpioProvider} using a fake GPIO chip device, and for the
+ * line request encoding of {@link LinuxGpioChipDevice}.
+ */
+public class GpioChipGpioProviderTest {
+
+    private FakeGpioChipDevice device;
+    private GpioChipGpioProvider provider;
+
+    @Before
+    public void setUp() {
+        device = new FakeGpioChipDevice();
+        provider = new GpioChipGpioProvider(GpioChipGpioProvider.NAME, device);
+    }
+
+    @After
+    public void tearDown() {
+        provider.shutdown();
+    }
+
+    @Test
+    public void testExportRequestsLinesWithModeFlags() {
+        provider.export(RaspiBcmPin.GPIO_17, PinMode.DIGITAL_INPUT);
+        provider.setPullResistance(RaspiBcmPin.GPIO_17, PinPullResistance.PULL_UP);
+        assertArrayEquals(new int[] { 17 }, device.offsets);
+        assertArrayEquals(new long[] { GpioChipDevice.FLAG_INPUT | GpioChipDevice.FLAG_BIAS_PULL_UP }, device.flags);
+
+        provider.export(RaspiBcmPin.GPIO_18, PinMode.DIGITAL_OUTPUT, PinState.HIGH);
+        assertArrayEquals(new int[] { 17, 18 }, device.offsets);
+        assertArrayEquals(new long[] { GpioChipDevice.FLAG_INPUT | GpioChipDevice.FLAG_BIAS_PULL_UP, GpioChipDevice.FLAG_OUTPUT }, device.flags);
+
+        // the output line is requested with its default state
+        assertEquals(0b10, device.requestedOutputValues);
+        assertEquals(2, device.requests);
+        assertEquals(1, device.released);
+    }
+
+    @Test
+    public void testBulkStateUsesSingleOperation() {
+        Pin[] pins = { RaspiBcmPin.GPIO_17, RaspiBcmPin.GPIO_18, RaspiBcmPin.GPIO_27 };
+        for (Pin pin : pins) {
+            provider.export(pin, PinMode.DIGITAL_OUTPUT);
+        }
+
+        int calls = device.setValuesCalls;
+        provider.setState(pins, 0b111, 0b101);
+        assertEquals(calls + 1, device.setValuesCalls);
+        assertEquals(0b101, device.values);
+
+        int reads = device.getValuesCalls;
+        assertEquals(0b101, provider.getState(pins));
+        assertEquals(reads + 1, device.getValuesCalls);
+        assertEquals(PinState.LOW, provider.getState(RaspiBcmPin.GPIO_18));
+
+        // masked pins are left unchanged
+        provider.setState(pins, 0b010, 0b010);
+        assertEquals(0b111, device.values);
+    }
+
+    @Test
+    public void testListenerEnablesEdgeEventsWithKernelTimestamps() throws InterruptedException {
+        provider.export(RaspiBcmPin.GPIO_17, PinMode.DIGITAL_INPUT);
+        assertEquals(GpioChipDevice.FLAG_INPUT, device.flags[0]);
+
+        List<PinDigitalStateChangeEvent> events = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(2);
+        PinListener listener = event -> {
+            events.add((PinDigitalStateChangeEvent) event);
+            latch.countDown();
+        };
+        provider.addListener(RaspiBcmPin.GPIO_17, listener);
+        assertEquals(GpioChipDevice.FLAG_INPUT | GpioChipDevice.FLAG_EDGE_RISING | GpioChipDevice.FLAG_EDGE_FALLING, device.flags[0]);
+
+        // both edges of a pulse are reported with the kernel timestamps, in order
+        device.events.add(new long[] { 1_000, GpioChipDevice.EVENT_RISING_EDGE, 17 });
+        device.events.add(new long[] { 2_000, GpioChipDevice.EVENT_FALLING_EDGE, 17 });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(PinState.HIGH, events.get(0).getState());
+        assertEquals(1_000, events.get(0).getTimestamp());
+        assertEquals(PinState.LOW, events.get(1).getState());
+        assertEquals(2_000, events.get(1).getTimestamp());
+        assertSame(RaspiBcmPin.GPIO_17, events.get(1).getPin());
+
+        provider.removeListener(RaspiBcmPin.GPIO_17, listener);
+        assertEquals(GpioChipDevice.FLAG_INPUT, device.flags[0]);
+    }
+
+    @Test
+    public void testUnexportRequestsRemainingLines() {
+        provider.export(RaspiBcmPin.GPIO_17, PinMode.DIGITAL_OUTPUT, PinState.HIGH);
+        provider.export(RaspiBcmPin.GPIO_18, PinMode.DIGITAL_OUTPUT);
+        provider.unexport(RaspiBcmPin.GPIO_17);
+        assertArrayEquals(new int[] { 18 }, device.offsets);
+        assertEquals(0, device.requestedOutputValues);
+
+        provider.setState(RaspiBcmPin.GPIO_18, PinState.HIGH);
+        assertEquals(0b1, device.values);
+    }
+
+    @Test
+    public void testWritesDuringReRequestUseCurrentRequest() throws InterruptedException {
+        provider.export(RaspiBcmPin.GPIO_18, PinMode.DIGITAL_OUTPUT);
+        provider.addListener(RaspiBcmPin.GPIO_18, event -> { });
+
+        // the fake device fails any operation on a released line request
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; running.get(); i++) {
+                    provider.setState(RaspiBcmPin.GPIO_18, (i & 1) == 0 ? PinState.HIGH : PinState.LOW);
+                }
+            } catch (Throwable t) {
+                errors.add(t);
+            }
+        });
+        writer.start();
+        for (int i = 0; i < 2000 && errors.isEmpty(); i++) {
+            // every export and unexport releases the line request and requests the lines again
+            provider.export(RaspiBcmPin.GPIO_17, PinMode.DIGITAL_OUTPUT);
+            provider.unexport(RaspiBcmPin.GPIO_17);
+        }
+        running.set(false);
+        writer.join();
+        assertEquals(errors.toString(), 0, errors.size());
+
+        provider.setState(RaspiBcmPin.GPIO_18, PinState.HIGH);
+        provider.setState(RaspiBcmPin.GPIO_18, PinState.LOW);
+        assertEquals(0, device.values);
+    }
+
+    @Test
+    public void testShutdownReleasesLinesAndClosesChip() {
+        provider.export(RaspiBcmPin.GPIO_17, PinMode.DIGITAL_OUTPUT);
+        provider.shutdown();
+        assertEquals(1, device.released);
+        assertTrue(device.closed);
+    }
+
+    @Test
+    public void testEncodeLineRequestGroupsFlagsIntoAttributes() {
+        ByteBuffer buffer = ByteBuffer.allocate(LinuxGpioChipDevice.REQUEST_SIZE).order(ByteOrder.nativeOrder());
+        long pullUpInput = GpioChipDevice.FLAG_INPUT | GpioChipDevice.FLAG_BIAS_PULL_UP;
+        LinuxGpioChipDevice.encodeLineRequest(buffer, new int[] { 4, 17, 22, 27 },
+                new long[] { GpioChipDevice.FLAG_INPUT, GpioChipDevice.FLAG_OUTPUT, pullUpInput, GpioChipDevice.FLAG_OUTPUT },
+                0b1010, "pi4j");
+
+        assertEquals(17, buffer.getInt(4));
+        assertEquals(27, buffer.getInt(12));
+        assertEquals(4, buffer.getInt(LinuxGpioChipDevice.REQUEST_NUM_LINES));
+        byte[] consumer = new byte[5];
+        buffer.position(LinuxGpioChipDevice.REQUEST_CONSUMER);
+        buffer.get(consumer);
+        assertEquals("pi4j\0", new String(consumer, StandardCharsets.US_ASCII));
+
+        // default flags, one flags attribute per other distinct value and the output values
+        int config = LinuxGpioChipDevice.REQUEST_CONFIG;
+        assertEquals(GpioChipDevice.FLAG_INPUT, buffer.getLong(config));
+        assertEquals(3, buffer.getInt(config + LinuxGpioChipDevice.CONFIG_NUM_ATTRS));
+        assertAttribute(buffer, 0, LinuxGpioChipDevice.LINE_ATTR_ID_FLAGS, GpioChipDevice.FLAG_OUTPUT, 0b1010);
+        assertAttribute(buffer, 1, LinuxGpioChipDevice.LINE_ATTR_ID_FLAGS, pullUpInput, 0b0100);
+        assertAttribute(buffer, 2, LinuxGpioChipDevice.LINE_ATTR_ID_OUTPUT_VALUES, 0b1010, 0b1010);
+    }
+
+    private static void assertAttribute(ByteBuffer buffer, int attr, int id, long value, long mask) {
+        int index = LinuxGpioChipDevice.REQUEST_CONFIG + LinuxGpioChipDevice.CONFIG_ATTRS + attr * LinuxGpioChipDevice.CONFIG_ATTR_SIZE;
+        assertEquals(id, buffer.getInt(index));
+        assertEquals(value, buffer.getLong(index + 8));
+        assertEquals(mask, buffer.getLong(index + 16));
+    }
+
+    // records the line requests and emulates the line values and edge events of a GPIO chip
+    private static class FakeGpioChipDevice implements GpioChipDevice {
+        final BlockingQueue<long[]> events = new LinkedBlockingQueue<>();
+        volatile int[] offsets;
+        volatile long[] flags;
+        volatile long requestedOutputValues;
+        volatile long values;
+        volatile int requests, released, setValuesCalls, getValuesCalls;
+        volatile boolean closed;
+        private volatile int request = -1;
+
+        @Override
+        public int requestLines(int[] offsets, long[] flags, long outputValues, String consumer) {
+            assertEquals(-1, request);
+            this.offsets = offsets.clone();
+            this.flags = flags.clone();
+            requestedOutputValues = outputValues;
+            values = outputValues;
+            request = 100 + ++requests;
+            return request;
+        }
+
+        @Override
+        public void setLineConfig(int request, long[] flags, long outputValues) {
+            assertEquals(this.request, request);
+            this.flags = flags.clone();
+        }
+
+        @Override
+        public long getValues(int request, long mask) {
+            assertLineRequest(request);
+            getValuesCalls++;
+            return values & mask;
+        }
+
+        @Override
+        public void setValues(int request, long mask, long bits) {
+            assertLineRequest(request);
+            setValuesCalls++;
+            values = (values & ~mask) | (bits & mask);
+        }
+
+        // line values may only be accessed through the current, unreleased line request
+        private void assertLineRequest(int request) {
+            assertTrue("line request released", request >= 0);
+            assertEquals(this.request, request);
+        }
+
+        @Override
+        public int readEvents(int request, ByteBuffer buffer, int timeoutMillis) {
+            buffer.clear();
+            long[] event;
+            try {
+                event = events.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return 0;
+            }
+            int count = 0;
+            while (event != null && buffer.remaining() >= EVENT_SIZE) {
+                int index = count++ * EVENT_SIZE;
+                buffer.putLong(index + EVENT_TIMESTAMP, event[0]);
+                buffer.putInt(index + EVENT_ID, (int) event[1]);
+                buffer.putInt(index + EVENT_OFFSET, (int) event[2]);
+                buffer.position(index + EVENT_SIZE);
+                event = events.poll();
+            }
+            buffer.flip();
+            return count;
+        }
+
+        @Override
+        public void releaseLines(int request) {
+            assertEquals(this.request, request);
+            released++;
+            this.request = -1;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
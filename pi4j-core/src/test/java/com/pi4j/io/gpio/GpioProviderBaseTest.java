@@ -0,0 +1,317 @@
+package com.pi4j.io.gpio;
+
+/*-
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioProviderBaseTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.event.PinAnalogValueChangeEvent;
+import com.pi4j.io.gpio.event.PinEvent;
+import com.pi4j.io.gpio.event.PinListener;
+import com.pi4j.io.gpio.exception.InvalidPinModeException;
+import com.pi4j.io.gpio.impl.PinImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for the copy-on-write listener registry and the write elision of {@link GpioProviderBase}.
+ */
+public class GpioProviderBaseTest {
+
+    private SimulatedGpioProvider provider;
+    private Pin pin;
+
+    @Before
+    public void setUp() {
+        provider = new SimulatedGpioProvider();
+        pin = createPin(3);
+    }
+
+    @Test
+    public void testDispatchToRegisteredListeners() {
+        RecordingListener first = new RecordingListener();
+        RecordingListener second = new RecordingListener();
+        provider.addListener(pin, first);
+        provider.addListener(pin, second);
+
+        // adding the same listener twice must not deliver events twice
+        provider.addListener(pin, first);
+
+        provider.setState(pin, PinState.HIGH);
+        assertEquals(1, first.states.size());
+        assertEquals(1, second.states.size());
+
+        provider.removeListener(pin, second);
+        provider.setState(pin, PinState.LOW);
+        assertEquals(2, first.states.size());
+        assertEquals(PinState.LOW, first.states.get(1));
+        assertEquals(1, second.states.size());
+
+        provider.removeListener(pin, first);
+        assertNull(provider.getListenerRegistration(pin.getAddress()));
+    }
+
+    @Test
+    public void testDispatchByAddress() {
+        RecordingListener listener = new RecordingListener();
+        provider.addListener(pin, listener);
+
+        provider.dispatchPinDigitalStateChangeEvent(pin.getAddress(), PinState.HIGH, 42L);
+        assertEquals(1, listener.states.size());
+        assertSame(pin, listener.pins.get(0));
+        assertEquals(42L, (long) listener.timestamps.get(0));
+
+        // addresses without listeners (including out of range addresses) are ignored
+        provider.dispatchPinDigitalStateChangeEvent(pin.getAddress() + 1, PinState.LOW, 43L);
+        provider.dispatchPinDigitalStateChangeEvent(-1, PinState.LOW, 44L);
+        provider.dispatchPinDigitalStateChangeEvent(100000, PinState.LOW, 45L);
+        assertEquals(1, listener.states.size());
+    }
+
+    @Test
+    public void testRegistryGrowsForHighPinAddress() {
+        // MCP23017 port B pin address
+        Pin high = createPin(1008);
+        RecordingListener listener = new RecordingListener();
+        RecordingListener lowListener = new RecordingListener();
+        provider.addListener(pin, lowListener);
+        provider.addListener(high, listener);
+
+        provider.setState(high, PinState.HIGH);
+        provider.setState(pin, PinState.HIGH);
+        assertEquals(1, listener.states.size());
+        assertSame(high, listener.pins.get(0));
+        assertEquals(1, lowListener.states.size());
+        assertSame(pin, lowListener.pins.get(0));
+
+        // only the pages holding the two pins are allocated
+        assertEquals(2, provider.getListenerPageCount());
+        assertNull(provider.getListenerRegistration(1009));
+        assertNull(provider.getListenerRegistration(500));
+    }
+
+    @Test
+    public void testPinsSharingAnAddress() {
+        Pin alias = new PinImpl(provider.getName(), pin.getAddress(), "ALIAS",
+                EnumSet.of(PinMode.DIGITAL_INPUT, PinMode.ANALOG_INPUT));
+        RecordingListener listener = new RecordingListener();
+        RecordingListener aliasListener = new RecordingListener();
+        provider.addListener(pin, listener);
+        provider.addListener(alias, aliasListener);
+
+        // address dispatch reaches the listeners of both pins with their own pin
+        provider.dispatchPinDigitalStateChangeEvent(pin.getAddress(), PinState.HIGH, 1L);
+        assertSame(pin, listener.pins.get(0));
+        assertSame(alias, aliasListener.pins.get(0));
+
+        // pin dispatch only reaches the listeners of that pin
+        provider.setState(alias, PinState.LOW);
+        assertEquals(1, listener.states.size());
+        assertEquals(2, aliasListener.states.size());
+
+        // removing the listener of one pin keeps the listeners of the other
+        provider.removeListener(pin, listener);
+        provider.dispatchPinDigitalStateChangeEvent(pin.getAddress(), PinState.HIGH, 2L);
+        assertEquals(1, listener.states.size());
+        assertEquals(3, aliasListener.states.size());
+    }
+
+    @Test
+    public void testListenerRemovedDuringDispatch() {
+        final RecordingListener second = new RecordingListener();
+        PinListener first = new PinListener() {
+            @Override
+            public void handlePinEvent(PinEvent event) {
+            }
+
+            @Override
+            public void handlePinDigitalStateChange(Object source, Pin pin, PinState state, long timestamp) {
+                provider.removeListener(pin, second);
+            }
+        };
+        provider.addListener(pin, first);
+        provider.addListener(pin, second);
+
+        // the in-flight dispatch iterates the snapshot taken before the removal
+        provider.setState(pin, PinState.HIGH);
+        assertEquals(1, second.states.size());
+
+        provider.setState(pin, PinState.LOW);
+        assertEquals(1, second.states.size());
+    }
+
+    @Test
+    public void testAnalogDispatch() {
+        RecordingListener listener = new RecordingListener();
+        provider.addListener(pin, listener);
+
+        provider.setAnalogValue(pin, 1.5);
+        assertEquals(1, listener.values.size());
+        assertEquals(1.5, listener.values.get(0), 0.0);
+    }
+
+    @Test
+    public void testRemoveAllListeners() {
+        RecordingListener listener = new RecordingListener();
+        provider.addListener(pin, listener);
+        provider.removeAllListeners();
+
+        provider.setState(pin, PinState.HIGH);
+        assertTrue(listener.states.isEmpty());
+        assertNull(provider.getListenerRegistration(pin.getAddress()));
+    }
+
+    @Test
+    public void testWriteElisionSkipsUnchangedOutputs() {
+        WritingGpioProvider writer = new WritingGpioProvider();
+        Pin output = writer.createOutputPin(5);
+        RecordingListener listener = new RecordingListener();
+        writer.export(output, PinMode.DIGITAL_OUTPUT, PinState.LOW);
+        writer.addListener(output, listener);
+
+        // disabled by default: every write reaches the hardware
+        writer.setState(output, PinState.LOW);
+        assertEquals(2, writer.writes);
+        assertEquals(1, listener.states.size());
+
+        writer.setWriteElision(true);
+        writer.setState(output, PinState.LOW);
+        assertEquals(2, writer.writes);
+        assertEquals(1, listener.states.size());
+        assertEquals(1, writer.getElidedWriteCount());
+
+        writer.setState(output, PinState.HIGH);
+        writer.setState(output, PinState.HIGH);
+        assertEquals(3, writer.writes);
+        assertEquals(2, listener.states.size());
+        assertEquals(2, writer.getElidedWriteCount());
+    }
+
+    @Test
+    public void testWriteElisionInGroupWrites() {
+        WritingGpioProvider writer = new WritingGpioProvider();
+        Pin[] pins = { writer.createOutputPin(0), writer.createOutputPin(1), writer.createOutputPin(2) };
+        for (Pin output : pins) {
+            writer.export(output, PinMode.DIGITAL_OUTPUT, PinState.LOW);
+        }
+
+        assertEquals(0b111, writer.elideRedundantWrites(pins, 0b111, 0b010));
+        writer.setWriteElision(true);
+        assertEquals(0b010, writer.elideRedundantWrites(pins, 0b111, 0b010));
+        assertEquals(0b000, writer.elideRedundantWrites(pins, 0b101, 0b000));
+        assertEquals(4, writer.getElidedWriteCount());
+    }
+
+    @Test(expected = InvalidPinModeException.class)
+    public void testWriteElisionStillValidatesPinMode() {
+        WritingGpioProvider writer = new WritingGpioProvider();
+        Pin output = writer.createOutputPin(5);
+        writer.export(output, PinMode.DIGITAL_OUTPUT, PinState.LOW);
+        writer.setMode(output, PinMode.DIGITAL_INPUT);
+        writer.setWriteElision(true);
+
+        // the cached state of a former output pin must not hide the invalid write
+        writer.setState(output, PinState.LOW);
+    }
+
+    @Test
+    public void testSimulatedProviderHonoursWriteElision() {
+        SimulatedGpioProvider simulated = new SimulatedGpioProvider();
+        Pin output = RaspiPin.GPIO_01;
+        simulated.setWriteElision(true);
+        simulated.setRecording(true);
+
+        simulated.export(output, PinMode.DIGITAL_OUTPUT, PinState.LOW);
+        simulated.setState(output, PinState.LOW);
+        assertEquals(1, simulated.getTimeline().size());
+        assertEquals(1, simulated.getElidedWriteCount());
+
+        // re-provisioning with another default state must not leave a stale state behind
+        simulated.unexport(output);
+        simulated.export(output, PinMode.DIGITAL_OUTPUT, PinState.HIGH);
+        simulated.setState(output, PinState.LOW);
+        List<SimulatedGpioProvider.Transition> timeline = simulated.getTimeline();
+        assertEquals(3, timeline.size());
+        assertEquals(PinState.LOW, timeline.get(2).getState());
+        assertEquals(PinState.LOW, simulated.getState(output));
+        simulated.shutdown();
+    }
+
+    private Pin createPin(int address) {
+        return new PinImpl(provider.getName(), address, "TEST_" + address,
+                EnumSet.of(PinMode.DIGITAL_INPUT, PinMode.ANALOG_INPUT));
+    }
+
+    // counts the hardware writes of an output provider that follows the expander pattern
+    private static class WritingGpioProvider extends GpioProviderBase {
+        int writes;
+
+        @Override
+        public String getName() {
+            return "WritingGpioProvider";
+        }
+
+        @Override
+        public void setState(Pin pin, PinState state) {
+            if (isRedundantWrite(pin, state)) {
+                return;
+            }
+            super.setState(pin, state);
+            writes++;
+        }
+
+        Pin createOutputPin(int address) {
+            return new PinImpl(getName(), address, "OUT_" + address,
+                    EnumSet.of(PinMode.DIGITAL_INPUT, PinMode.DIGITAL_OUTPUT));
+        }
+    }
+
+    private static class RecordingListener implements PinListener {
+        final List<Pin> pins = new ArrayList<>();
+        final List<PinState> states = new ArrayList<>();
+        final List<Long> timestamps = new ArrayList<>();
+        final List<Double> values = new ArrayList<>();
+
+        @Override
+        public void handlePinEvent(PinEvent event) {
+            if (event instanceof PinAnalogValueChangeEvent) {
+                values.add(((PinAnalogValueChangeEvent) event).getValue());
+            }
+        }
+
+        @Override
+        public void handlePinDigitalStateChange(Object source, Pin pin, PinState state, long timestamp) {
+            pins.add(pin);
+            states.add(state);
+            timestamps.add(timestamp);
+        }
+    }
+}
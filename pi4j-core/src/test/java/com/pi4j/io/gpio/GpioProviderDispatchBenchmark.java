@@ -0,0 +1,143 @@
+package com.pi4j.io.gpio;
+
+/*-
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioProviderDispatchBenchmark.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.event.PinEvent;
+import com.pi4j.io.gpio.event.PinListener;
+import com.pi4j.io.gpio.impl.PinImpl;
+
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * This is a micro benchmark program that is intended to be run by hand
+ * and not as part of the JUnit testing.  It measures the cost of dispatching
+ * an interrupt from a pin address to its listeners as the number of pins with
+ * listeners grows (e.g. many chained GPIO expanders on one provider), comparing
+ * the address indexed listener registry in {@link GpioProviderBase} against the
+ * listener map scan that the providers previously performed.
+ *
+ * Usage: java com.pi4j.io.gpio.GpioProviderDispatchBenchmark [iterations]
+ */
+public class GpioProviderDispatchBenchmark {
+
+    private static final int[] PIN_COUNTS = { 8, 32, 128, 512, 1024 };
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+
+        System.out.printf("%8s %18s %18s%n", "pins", "indexed (ns/op)", "map scan (ns/op)");
+        for (int pinCount : PIN_COUNTS) {
+            BenchmarkProvider provider = new BenchmarkProvider(pinCount);
+            double indexed = 0;
+            double scan = 0;
+            for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+                double indexedRound = provider.measure(iterations, false);
+                double scanRound = provider.measure(iterations, true);
+                if (round >= WARMUP_ROUNDS) {
+                    indexed += indexedRound;
+                    scan += scanRound;
+                }
+            }
+            System.out.printf("%8d %18.1f %18.1f%n", pinCount, indexed / MEASURED_ROUNDS, scan / MEASURED_ROUNDS);
+            provider.check();
+        }
+    }
+
+    private static class BenchmarkProvider extends GpioProviderBase {
+
+        private final int pinCount;
+        private final CountingListener listener = new CountingListener();
+        private long expected;
+
+        BenchmarkProvider(int pinCount) {
+            this.pinCount = pinCount;
+            EnumSet<PinMode> modes = EnumSet.of(PinMode.DIGITAL_INPUT);
+            for (int address = 0; address < pinCount; address++) {
+                addListener(new PinImpl(getName(), address, "PIN_" + address, modes), listener);
+            }
+        }
+
+        @Override
+        public String getName() {
+            return "Benchmark";
+        }
+
+        double measure(int iterations, boolean scan) {
+            // visit the pin addresses in a scrambled order so that the scan cost is not
+            // dominated by pins found early in the map iteration
+            int address = 0;
+            long start = System.nanoTime();
+            for (int index = 0; index < iterations; index++) {
+                address = (address + 7919) % pinCount;
+                if (scan) {
+                    dispatchByScan(address, PinState.HIGH);
+                } else {
+                    dispatchPinDigitalStateChangeEvent(address, PinState.HIGH, start);
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            expected += iterations;
+            return (double) elapsed / iterations;
+        }
+
+        // the listener map scan previously used by the provider interrupt/monitor paths
+        private void dispatchByScan(int pinAddress, PinState state) {
+            for (Pin pin : listeners.keySet()) {
+                if (pin.getAddress() == pinAddress) {
+                    List<PinListener> lsnrs = listeners.get(pin);
+                    for (PinListener listener : lsnrs) {
+                        listener.handlePinDigitalStateChange(this, pin, state, 0L);
+                    }
+                }
+            }
+        }
+
+        void check() {
+            if (listener.count != expected) {
+                throw new IllegalStateException("expected " + expected + " events; received " + listener.count);
+            }
+        }
+    }
+
+    private static class CountingListener implements PinListener {
+        long count;
+
+        @Override
+        public void handlePinEvent(PinEvent event) {
+            count++;
+        }
+
+        @Override
+        public void handlePinDigitalStateChange(Object source, Pin pin, PinState state, long timestamp) {
+            count++;
+        }
+    }
+}
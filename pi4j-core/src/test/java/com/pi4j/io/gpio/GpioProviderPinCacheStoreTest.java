@@ -0,0 +1,153 @@
+package com.pi4j.io.gpio;
+
+/*-
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioProviderPinCacheStoreTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.exception.InvalidPinException;
+import com.pi4j.io.gpio.impl.PinImpl;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit and concurrency stress test for {@link GpioProviderPinCacheStore}.
+ */
+public class GpioProviderPinCacheStoreTest {
+
+    private static final int THREADS = 8;
+    private static final int ADDRESSES = 2048;
+    private static final int ROUNDS = 20;
+
+    @Test
+    public void testConcurrentFirstAccessReturnsSingleEntry() throws Exception {
+        Pin[] pins = new Pin[ADDRESSES];
+        for (int address = 0; address < ADDRESSES; address++) {
+            pins[address] = createPin(address);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                GpioProviderPinCacheStore store = new GpioProviderPinCacheStore(GpioProviderPinCache::new);
+                AtomicReferenceArray<GpioProviderPinCache> seen = new AtomicReferenceArray<>(ADDRESSES);
+                CyclicBarrier start = new CyclicBarrier(THREADS);
+                List<Future<?>> results = new ArrayList<>();
+                for (int thread = 0; thread < THREADS; thread++) {
+                    // every thread visits all addresses in its own order, so first accesses
+                    // and page creations race with each other and with directory growth
+                    List<Integer> order = new ArrayList<>();
+                    for (int address = 0; address < ADDRESSES; address++) {
+                        order.add(address);
+                    }
+                    Collections.shuffle(order, new Random(round * THREADS + thread));
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        for (int address : order) {
+                            GpioProviderPinCache pc = store.get(pins[address]);
+                            if (!seen.compareAndSet(address, null, pc) && seen.get(address) != pc) {
+                                throw new AssertionError("two cache entries for address " + address);
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> result : results) {
+                    result.get(30, TimeUnit.SECONDS);
+                }
+                for (int address = 0; address < ADDRESSES; address++) {
+                    assertSame(seen.get(address), store.find(address));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentStateUpdatesAreNotLost() throws Exception {
+        // entries created while other threads update existing entries must not replace them
+        GpioProviderPinCacheStore store = new GpioProviderPinCacheStore(GpioProviderPinCache::new);
+        Pin updated = createPin(3);
+        store.get(updated).setState(PinState.HIGH);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int first = thread * ADDRESSES;
+                results.add(executor.submit(() -> {
+                    for (int address = first; address < first + ADDRESSES; address++) {
+                        store.get(createPin(address + GpioProviderPinCacheStore.PAGE_SIZE));
+                        assertEquals(PinState.HIGH, store.get(updated).getState());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(PinState.HIGH, store.find(3).getState());
+    }
+
+    @Test
+    public void testSparseAddressesOnlyAllocateUsedPages() {
+        // MCP23017 pin addresses: port A 1-128 and port B 1001-1128
+        GpioProviderPinCacheStore store = new GpioProviderPinCacheStore(GpioProviderPinCache::new);
+        for (int bit = 0; bit < 8; bit++) {
+            store.get(createPin(1 << bit));
+            store.get(createPin(1000 + (1 << bit)));
+        }
+        // pages 0-2 and 15-17 (6 x 64 entries) rather than an array of 1129 entries
+        assertEquals(6, store.getPageCount());
+        assertNull(store.find(500));
+        assertNull(store.find(100_000));
+    }
+
+    @Test(expected = InvalidPinException.class)
+    public void testNegativeAddress() {
+        new GpioProviderPinCacheStore(GpioProviderPinCache::new).get(createPin(-1));
+    }
+
+    private static Pin createPin(int address) {
+        return new PinImpl("Test", address, "TEST_" + address, EnumSet.of(PinMode.DIGITAL_OUTPUT));
+    }
+}
@@ -0,0 +1,135 @@
+package com.pi4j.io.gpio;
+
+/*-
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioProviderPinCacheTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.impl.PinImpl;
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for the packed pin properties of {@link GpioProviderPinCache}.
+ */
+public class GpioProviderPinCacheTest {
+
+    private static final int ITERATIONS = 200_000;
+
+    private final GpioProviderPinCache pc = new GpioProviderPinCache(
+            new PinImpl("Test", 1, "TEST_1", EnumSet.allOf(PinMode.class)));
+
+    @Test
+    public void testDefaults() {
+        assertNull(pc.getMode());
+        assertNull(pc.getState());
+        assertNull(pc.getResistance());
+        assertFalse(pc.isExported());
+        assertEquals(-1, pc.getAnalogValue(), 0.0);
+        assertEquals(-1, pc.getPwmValue());
+    }
+
+    @Test
+    public void testPackedFieldsAreIndependent() {
+        pc.setExported(true);
+        pc.setResistance(PinPullResistance.PULL_UP);
+        for (PinMode mode : PinMode.values()) {
+            for (PinState state : PinState.values()) {
+                pc.setMode(mode);
+                pc.setState(state);
+                assertSame(mode, pc.getMode());
+                assertSame(state, pc.getState());
+                assertSame(PinPullResistance.PULL_UP, pc.getResistance());
+                assertTrue(pc.isExported());
+            }
+        }
+
+        pc.setMode(null);
+        pc.setState(null);
+        pc.setExported(false);
+        assertNull(pc.getMode());
+        assertNull(pc.getState());
+        assertFalse(pc.isExported());
+        assertSame(PinPullResistance.PULL_UP, pc.getResistance());
+    }
+
+    @Test
+    public void testAnalogAndPwmValues() {
+        pc.setAnalogValue(3.3);
+        pc.setPwmValue(512);
+        assertEquals(3.3, pc.getAnalogValue(), 0.0);
+        assertEquals(512, pc.getPwmValue());
+        pc.setAnalogValue(Double.NaN);
+        assertTrue(Double.isNaN(pc.getAnalogValue()));
+    }
+
+    @Test
+    public void testConcurrentUpdatesOfDifferentFieldsAreNotLost() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        CyclicBarrier start = new CyclicBarrier(3);
+        try {
+            // a monitor thread caching states while the application changes the mode and pull
+            Future<?> states = executor.submit(() -> {
+                start.await();
+                for (int index = 0; index < ITERATIONS; index++) {
+                    pc.setState(PinState.getState((index & 1) == 0));
+                }
+                return null;
+            });
+            Future<?> modes = executor.submit(() -> {
+                start.await();
+                for (int index = 0; index < ITERATIONS; index++) {
+                    pc.setMode(((index & 1) == 0) ? PinMode.DIGITAL_OUTPUT : PinMode.DIGITAL_INPUT);
+                }
+                return null;
+            });
+            Future<?> resistances = executor.submit(() -> {
+                start.await();
+                for (int index = 0; index < ITERATIONS; index++) {
+                    pc.setResistance(((index & 1) == 0) ? PinPullResistance.PULL_DOWN : PinPullResistance.OFF);
+                }
+                return null;
+            });
+            states.get(30, TimeUnit.SECONDS);
+            modes.get(30, TimeUnit.SECONDS);
+            resistances.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // the last write of each thread must have survived the other threads' updates
+        assertSame(PinState.LOW, pc.getState());
+        assertSame(PinMode.DIGITAL_INPUT, pc.getMode());
+        assertSame(PinPullResistance.OFF, pc.getResistance());
+    }
+}
@@ -0,0 +1,123 @@
+package com.pi4j.io.gpio;
+
+/*-
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioStateHandleBenchmark.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.impl.GpioPinImpl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This is a micro benchmark program that is intended to be run by hand
+ * and not as part of the JUnit testing.  It measures the per-call cost of
+ * setState() and getState() on a provisioned pin of the {@link RaspiGpioMemProvider}
+ * (on a temporary file standing in for the GPIO registers), comparing the validated
+ * provider calls previously made by {@link GpioPinImpl} (including the
+ * <code>PinMode.allDigital()</code> check that getState() performed) with the
+ * {@link GpioStateHandle} that the pin now captures when it is exported.
+ *
+ * Usage: java com.pi4j.io.gpio.GpioStateHandleBenchmark [iterations]
+ */
+public class GpioStateHandleBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 5;
+
+    // consumed results, so that the JIT cannot eliminate the reads
+    private static long sink;
+
+    public static void main(String[] args) throws IOException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+
+        Path registers = Files.createTempFile("gpiomem", ".bin");
+        try {
+            Files.write(registers, new byte[RaspiGpioMemProvider.BLOCK_SIZE]);
+            RaspiGpioMemProvider provider = new RaspiGpioMemProvider(registers);
+            GpioPinImpl output = new GpioPinImpl(null, provider, RaspiBcmPin.GPIO_17);
+            output.export(PinMode.DIGITAL_OUTPUT);
+            GpioPinImpl input = new GpioPinImpl(null, provider, RaspiBcmPin.GPIO_18);
+            input.export(PinMode.DIGITAL_INPUT);
+
+            double[] results = new double[4];
+            for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+                double[] roundResults = {
+                        measureSetState(iterations, provider, output, false),
+                        measureSetState(iterations, provider, output, true),
+                        measureGetState(iterations, provider, input, false),
+                        measureGetState(iterations, provider, input, true)
+                };
+                if (round >= WARMUP_ROUNDS) {
+                    for (int index = 0; index < results.length; index++) {
+                        results[index] += roundResults[index] / MEASURED_ROUNDS;
+                    }
+                }
+            }
+            provider.shutdown();
+
+            System.out.printf("%10s %20s %20s%n", "", "provider (ns/op)", "state handle (ns/op)");
+            System.out.printf("%10s %20.1f %20.1f%n", "setState", results[0], results[1]);
+            System.out.printf("%10s %20.1f %20.1f%n", "getState", results[2], results[3]);
+        } finally {
+            Files.deleteIfExists(registers);
+        }
+    }
+
+    private static double measureSetState(int iterations, GpioProvider provider, GpioPinImpl pin, boolean handle) {
+        long start = System.nanoTime();
+        for (int index = 0; index < iterations; index++) {
+            PinState state = ((index & 1) == 0) ? PinState.HIGH : PinState.LOW;
+            if (handle) {
+                pin.setState(state);
+            } else {
+                provider.setState(pin.getPin(), state);
+            }
+        }
+        return (double) (System.nanoTime() - start) / iterations;
+    }
+
+    private static double measureGetState(int iterations, GpioProvider provider, GpioPinImpl pin, boolean handle) {
+        long start = System.nanoTime();
+        long high = 0;
+        for (int index = 0; index < iterations; index++) {
+            PinState state;
+            if (handle) {
+                state = pin.getState();
+            } else {
+                // the validation GpioProviderBase.getState() performed before the state handles
+                if (!PinMode.allDigital().contains(provider.getMode(pin.getPin()))) {
+                    throw new IllegalStateException();
+                }
+                state = provider.getState(pin.getPin());
+            }
+            high += state.getValue();
+        }
+        sink += high;
+        return (double) (System.nanoTime() - start) / iterations;
+    }
+}
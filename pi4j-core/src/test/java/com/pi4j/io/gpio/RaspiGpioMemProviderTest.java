@@ -0,0 +1,246 @@
+package com.pi4j.io.gpio;
+
+/*-
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  RaspiGpioMemProviderTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.exception.InvalidPinModeException;
+import com.pi4j.io.gpio.impl.GpioPinImpl;
+import com.pi4j.io.gpio.impl.PinImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link RaspiGpioMemProvider} using a regular file standing in for the
+ * GPIO register block.
+ */
+public class RaspiGpioMemProviderTest {
+
+    private static final int GPFSEL1 = 0x04;
+    private static final int GPSET0 = 0x1C;
+    private static final int GPSET1 = 0x20;
+    private static final int GPCLR0 = 0x28;
+    private static final int GPCLR1 = 0x2C;
+    private static final int GPLEV0 = 0x34;
+    private static final int GPLEV1 = 0x38;
+    private static final int GPPUPPDN1 = 0xE8;
+    private static final int GPPUPPDN3 = 0xF0;
+
+    private static final Pin GPIO_40 = new PinImpl(RaspiGpioMemProvider.NAME, 40, "GPIO 40",
+            EnumSet.of(PinMode.DIGITAL_INPUT, PinMode.DIGITAL_OUTPUT),
+            PinPullResistance.all());
+
+    private Path registerFile;
+    private FileChannel registers;
+    private RaspiGpioMemProvider provider;
+
+    @Before
+    public void setUp() throws IOException {
+        registerFile = Files.createTempFile("gpiomem", ".bin");
+        Files.write(registerFile, new byte[RaspiGpioMemProvider.BLOCK_SIZE]);
+        registers = FileChannel.open(registerFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (provider != null) {
+            provider.shutdown();
+        }
+        registers.close();
+        Files.deleteIfExists(registerFile);
+    }
+
+    @Test
+    public void testFunctionSelect() throws IOException {
+        // pins 10-19 share GPFSEL1; the other pins' function bits must be preserved
+        writeRegister(GPFSEL1, 0b111 << 24);
+        provider = new RaspiGpioMemProvider(registerFile);
+
+        provider.export(RaspiBcmPin.GPIO_17, PinMode.DIGITAL_OUTPUT);
+        assertEquals((0b111 << 24) | (0b001 << 21), readRegister(GPFSEL1));
+
+        provider.setMode(RaspiBcmPin.GPIO_17, PinMode.DIGITAL_INPUT);
+        assertEquals(0b111 << 24, readRegister(GPFSEL1));
+    }
+
+    @Test
+    public void testSetState() throws IOException {
+        provider = new RaspiGpioMemProvider(registerFile);
+        provider.export(RaspiBcmPin.GPIO_17, PinMode.DIGITAL_OUTPUT);
+        provider.export(GPIO_40, PinMode.DIGITAL_OUTPUT);
+
+        provider.setState(RaspiBcmPin.GPIO_17, PinState.HIGH);
+        assertEquals(1 << 17, readRegister(GPSET0));
+        assertEquals(0, readRegister(GPCLR0));
+
+        provider.setState(RaspiBcmPin.GPIO_17, PinState.LOW);
+        assertEquals(1 << 17, readRegister(GPCLR0));
+
+        provider.setState(GPIO_40, PinState.HIGH);
+        assertEquals(1 << 8, readRegister(GPSET1));
+    }
+
+    @Test
+    public void testBulkSetState() throws IOException {
+        provider = new RaspiGpioMemProvider(registerFile);
+        Pin[] pins = { RaspiBcmPin.GPIO_04, RaspiBcmPin.GPIO_17, RaspiBcmPin.GPIO_27, GPIO_40 };
+        for (Pin pin : pins) {
+            provider.export(pin, PinMode.DIGITAL_OUTPUT);
+        }
+
+        // all pins of a register bank are changed with one set and one clear register write
+        provider.setState(pins, 0b1111, 0b1010);
+        assertEquals(1 << 17, readRegister(GPSET0));
+        assertEquals((1 << 4) | (1 << 27), readRegister(GPCLR0));
+        assertEquals(1 << 8, readRegister(GPSET1));
+        assertEquals(0, readRegister(GPCLR1));
+
+        // pins outside the mask are not touched
+        provider.setState(pins, 0b0001, 0b0001);
+        assertEquals(1 << 4, readRegister(GPSET0));
+        assertEquals(0, readRegister(GPCLR0));
+        assertEquals(PinState.HIGH, provider.getPinCache(RaspiBcmPin.GPIO_17).getState());
+    }
+
+    @Test
+    public void testGetState() throws IOException {
+        provider = new RaspiGpioMemProvider(registerFile);
+        Pin[] pins = { RaspiBcmPin.GPIO_04, RaspiBcmPin.GPIO_17, GPIO_40 };
+        for (Pin pin : pins) {
+            provider.export(pin, PinMode.DIGITAL_INPUT);
+        }
+
+        writeRegister(GPLEV0, 1 << 17);
+        writeRegister(GPLEV1, 1 << 8);
+        assertEquals(PinState.LOW, provider.getState(RaspiBcmPin.GPIO_04));
+        assertEquals(PinState.HIGH, provider.getState(RaspiBcmPin.GPIO_17));
+        assertEquals(PinState.HIGH, provider.getState(GPIO_40));
+        assertEquals(0b110, provider.getState(pins));
+
+        writeRegister(GPLEV0, 1 << 4);
+        assertEquals(0b101, provider.getState(pins));
+    }
+
+    @Test
+    public void testPullResistance() throws IOException {
+        provider = new RaspiGpioMemProvider(registerFile);
+        provider.export(RaspiBcmPin.GPIO_17, PinMode.DIGITAL_INPUT);
+
+        // pin 17 uses bits 2-3 of the second BCM2711 pull control register
+        provider.setPullResistance(RaspiBcmPin.GPIO_17, PinPullResistance.PULL_UP);
+        assertEquals(0b01 << 2, readRegister(GPPUPPDN1));
+        provider.setPullResistance(RaspiBcmPin.GPIO_17, PinPullResistance.PULL_DOWN);
+        assertEquals(0b10 << 2, readRegister(GPPUPPDN1));
+        provider.setPullResistance(RaspiBcmPin.GPIO_17, PinPullResistance.OFF);
+        assertEquals(0, readRegister(GPPUPPDN1));
+        assertEquals(PinPullResistance.OFF, provider.getPullResistance(RaspiBcmPin.GPIO_17));
+    }
+
+    @Test
+    public void testLegacyPullResistance() throws IOException {
+        // chips before the BCM2711 use the GPPUD/GPPUDCLK sequence instead
+        writeRegister(GPPUPPDN3, 0x6770696F);
+        provider = new RaspiGpioMemProvider(registerFile);
+        provider.export(RaspiBcmPin.GPIO_17, PinMode.DIGITAL_INPUT);
+
+        provider.setPullResistance(RaspiBcmPin.GPIO_17, PinPullResistance.PULL_UP);
+        assertEquals(0, readRegister(GPPUPPDN1));
+        assertEquals(PinPullResistance.PULL_UP, provider.getPullResistance(RaspiBcmPin.GPIO_17));
+    }
+
+    @Test
+    public void testStateHandle() throws IOException {
+        provider = new RaspiGpioMemProvider(registerFile);
+        provider.export(RaspiBcmPin.GPIO_17, PinMode.DIGITAL_OUTPUT);
+        provider.export(GPIO_40, PinMode.DIGITAL_INPUT);
+
+        GpioStateHandle output = provider.getStateHandle(RaspiBcmPin.GPIO_17);
+        output.setState(PinState.HIGH);
+        assertEquals(1 << 17, readRegister(GPSET0));
+        assertEquals(PinState.HIGH, provider.getPinCache(RaspiBcmPin.GPIO_17).getState());
+
+        GpioStateHandle input = provider.getStateHandle(GPIO_40);
+        writeRegister(GPLEV1, 1 << 8);
+        assertEquals(PinState.HIGH, input.getState());
+        try {
+            input.setState(PinState.HIGH);
+            fail("input pin state must not be writable");
+        } catch (InvalidPinModeException expected) {
+        }
+    }
+
+    @Test
+    public void testProvisionedPinRefreshesStateHandle() throws IOException {
+        provider = new RaspiGpioMemProvider(registerFile);
+        GpioPinImpl pin = new GpioPinImpl(null, provider, RaspiBcmPin.GPIO_17);
+        pin.export(PinMode.DIGITAL_OUTPUT);
+        pin.high();
+        assertEquals(1 << 17, readRegister(GPSET0));
+
+        // the handle of the output pin must not outlive the mode change
+        pin.setMode(PinMode.DIGITAL_INPUT);
+        try {
+            pin.low();
+            fail("input pin state must not be writable");
+        } catch (InvalidPinModeException expected) {
+        }
+        assertEquals(0, readRegister(GPCLR0));
+    }
+
+    @Test
+    public void testPinRange() throws IOException {
+        provider = new RaspiGpioMemProvider(registerFile);
+        Pin outOfRange = new PinImpl(RaspiGpioMemProvider.NAME, RaspiGpioMemProvider.MAX_PIN_ADDRESS + 1, "GPIO 54",
+                EnumSet.of(PinMode.DIGITAL_OUTPUT));
+        assertTrue(provider.hasPin(RaspiBcmPin.GPIO_17));
+        assertTrue(provider.hasPin(GPIO_40));
+        assertFalse(provider.hasPin(outOfRange));
+    }
+
+    private int readRegister(int offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        registers.read(buffer, offset);
+        return buffer.getInt(0);
+    }
+
+    private void writeRegister(int offset, int value) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0, value);
+        registers.write(buffer, offset);
+    }
+}
@@ -0,0 +1,173 @@
+package com.pi4j.io.gpio.impl;
+
+/*-
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioDebounceFilterTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.PinDebounceMode;
+import com.pi4j.io.gpio.PinState;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.pi4j.io.gpio.PinState.HIGH;
+import static com.pi4j.io.gpio.PinState.LOW;
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for the {@link GpioDebounceFilter}; the filter is driven by a virtual clock
+ * (all times in milliseconds are converted to nanosecond timestamps).
+ */
+public class GpioDebounceFilterTest {
+
+    private final List<String> reported = new ArrayList<>();
+    private GpioDebounceFilter filter;
+
+    @Before
+    public void setUp() {
+        filter = new GpioDebounceFilter((source, state, timestamp) ->
+                reported.add(state.getValue() + "@" + (timestamp / 1_000_000)));
+    }
+
+    private void configure(PinDebounceMode mode, long highWindow, long lowWindow) {
+        filter.configure(mode, highWindow * 1_000_000, lowWindow * 1_000_000);
+    }
+
+    private void edge(PinState state, long time) {
+        filter.edge(this, state, time * 1_000_000);
+    }
+
+    private void expire(long time) {
+        filter.expire(time * 1_000_000);
+    }
+
+    private long deadline() {
+        long deadline = filter.getDeadline();
+        return (deadline == GpioDebounceFilter.NO_DEADLINE) ? -1 : deadline / 1_000_000;
+    }
+
+    @Test
+    public void testLeadingEdgeSuppressesBounces() {
+        configure(PinDebounceMode.LEADING_EDGE, 10, 10);
+
+        edge(HIGH, 100);
+        edge(LOW, 101);
+        edge(HIGH, 103);
+        assertEquals("[1@100]", reported.toString());
+
+        // the pin settled in the reported state; nothing to do at the end of the window
+        assertEquals(-1, deadline());
+
+        edge(LOW, 200);
+        assertEquals("[1@100, 0@200]", reported.toString());
+    }
+
+    @Test
+    public void testLeadingEdgeReportsSettledState() {
+        configure(PinDebounceMode.LEADING_EDGE, 10, 10);
+
+        // a short pulse within the window
+        edge(HIGH, 100);
+        edge(LOW, 104);
+        assertEquals(110, deadline());
+
+        expire(109);
+        assertEquals("[1@100]", reported.toString());
+        expire(110);
+        assertEquals("[1@100, 0@104]", reported.toString());
+        assertEquals(-1, deadline());
+    }
+
+    @Test
+    public void testLeadingEdgeSettledStateReportedByNextEdge() {
+        configure(PinDebounceMode.LEADING_EDGE, 10, 10);
+
+        edge(HIGH, 100);
+        edge(LOW, 104);
+
+        // the next edge arrives before the timer fired
+        edge(HIGH, 150);
+        assertEquals("[1@100, 0@104, 1@150]", reported.toString());
+    }
+
+    @Test
+    public void testSeparateRisingAndFallingWindows() {
+        configure(PinDebounceMode.LEADING_EDGE, 5, 50);
+
+        // the falling edge is outside the (short) rising window ...
+        edge(HIGH, 100);
+        edge(LOW, 110);
+        assertEquals("[1@100, 0@110]", reported.toString());
+
+        // ... the rising edge is within the (long) falling window
+        edge(HIGH, 120);
+        assertEquals("[1@100, 0@110]", reported.toString());
+        assertEquals(160, deadline());
+    }
+
+    @Test
+    public void testStableModeFiltersGlitches() {
+        configure(PinDebounceMode.STABLE, 10, 10);
+
+        // glitches shorter than the window are never reported
+        edge(HIGH, 100);
+        edge(LOW, 105);
+        edge(HIGH, 107);
+        assertEquals(117, deadline());
+        expire(116);
+        assertEquals("[]", reported.toString());
+
+        // the state change is reported with the timestamp of the edge
+        expire(117);
+        assertEquals("[1@107]", reported.toString());
+
+        edge(LOW, 200);
+        edge(HIGH, 203);
+        assertEquals(-1, deadline());
+        expire(300);
+        assertEquals("[1@107]", reported.toString());
+    }
+
+    @Test
+    public void testStableModeReportedByNextEdge() {
+        configure(PinDebounceMode.STABLE, 10, 10);
+
+        edge(HIGH, 100);
+        edge(LOW, 120);
+        assertEquals("[1@100]", reported.toString());
+        assertEquals(130, deadline());
+    }
+
+    @Test
+    public void testZeroWindowPassesAllEdges() {
+        configure(PinDebounceMode.STABLE, 0, 0);
+        edge(HIGH, 100);
+        edge(LOW, 100);
+        assertEquals("[1@100, 0@100]", reported.toString());
+    }
+}
@@ -0,0 +1,121 @@
+package com.pi4j.io.gpio.impl;
+
+/*-
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioEdgeCounterImplTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for the {@link GpioEdgeCounterImpl} and counter pins.
+ */
+public class GpioEdgeCounterImplTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private SimulatedGpioProvider provider;
+    private GpioController gpio;
+
+    @Before
+    public void setUp() {
+        provider = new SimulatedGpioProvider();
+        gpio = new GpioControllerImpl(provider);
+    }
+
+    @After
+    public void tearDown() {
+        if (!gpio.getProvisionedPins().isEmpty()) {
+            gpio.unprovisionPin(gpio.getProvisionedPins().toArray(new GpioPin[0]));
+        }
+    }
+
+    @Test
+    public void testCountsConfiguredEdges() {
+        GpioPinCounter rising = gpio.provisionCounterPin(RaspiPin.GPIO_01);
+        GpioPinCounter both = gpio.provisionCounterPin(RaspiPin.GPIO_02, PinEdge.BOTH);
+        assertEquals(PinEdge.RISING, rising.getCountEdge());
+
+        for (int index = 0; index < 10; index++) {
+            PinState state = (index % 2 == 0) ? PinState.HIGH : PinState.LOW;
+            provider.setState(RaspiPin.GPIO_01, state);
+            provider.setState(RaspiPin.GPIO_02, state);
+        }
+
+        assertEquals(5, rising.getCount());
+        assertEquals(10, both.getCount());
+        assertEquals(10, both.resetCount());
+        assertEquals(0, both.getCount());
+    }
+
+    @Test
+    public void testCountingDisabled() {
+        GpioPinCounter counter = gpio.provisionCounterPin(RaspiPin.GPIO_01, PinEdge.BOTH);
+        provider.setState(RaspiPin.GPIO_01, PinState.HIGH);
+
+        counter.setCountEdge(PinEdge.NONE);
+        provider.setState(RaspiPin.GPIO_01, PinState.LOW);
+        assertEquals(1, counter.getCount());
+
+        counter.setCountEdge(PinEdge.FALLING);
+        provider.setState(RaspiPin.GPIO_01, PinState.HIGH);
+        provider.setState(RaspiPin.GPIO_01, PinState.LOW);
+        assertEquals(2, counter.getCount());
+    }
+
+    @Test
+    public void testRateOverSlidingWindow() {
+        GpioEdgeCounterImpl counter = new GpioEdgeCounterImpl(RaspiPin.GPIO_01, PinEdge.BOTH, 1000);
+        long start = 1_000_000 * MS;
+
+        // 50 edges per 100 ms bucket for one second
+        for (int edge = 0; edge < 500; edge++) {
+            counter.handlePinDigitalStateChange(provider, RaspiPin.GPIO_01, PinState.HIGH, start + edge * 2 * MS);
+        }
+        assertEquals(500, counter.getCount());
+        assertEquals(500, counter.getRate(start + 1000 * MS), 0.001);
+
+        // the incomplete (current) bucket is not included in the rate
+        assertEquals(450, counter.getRate(start + 999 * MS), 0.001);
+
+        // edges age out of the window one bucket at a time
+        assertEquals(250, counter.getRate(start + 1500 * MS), 0.001);
+        assertEquals(0, counter.getRate(start + 2000 * MS), 0.001);
+    }
+
+    @Test
+    public void testIgnoresOtherPins() {
+        GpioEdgeCounterImpl counter = new GpioEdgeCounterImpl(RaspiPin.GPIO_01, PinEdge.BOTH, 1000);
+        counter.handlePinDigitalStateChange(provider, RaspiPin.GPIO_02, PinState.HIGH, 0);
+        assertEquals(0, counter.getCount());
+    }
+}
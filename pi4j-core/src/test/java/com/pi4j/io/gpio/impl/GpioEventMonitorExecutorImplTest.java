@@ -0,0 +1,354 @@
+package com.pi4j.io.gpio.impl;
+
+/*-
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioEventMonitorExecutorImplTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.concurrent.DefaultExecutorServiceFactory;
+import com.pi4j.concurrent.ExecutorServiceFactory;
+import com.pi4j.io.gpio.*;
+import com.pi4j.io.gpio.event.GpioPinDigitalStateChangeBatchEvent;
+import com.pi4j.io.gpio.event.GpioPinDigitalStateChangeEvent;
+import com.pi4j.io.gpio.event.GpioPinListenerDigital;
+import com.pi4j.io.gpio.event.GpioPinListenerDigitalBatch;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for the {@link GpioEventMonitorExecutorImpl} event dispatch path.
+ */
+public class GpioEventMonitorExecutorImplTest {
+
+    private static final int WARMUP_EVENTS = 200_000;
+    private static final int MEASURED_EVENTS = 100_000;
+
+    private ExecutorServiceFactory defaultExecutorServiceFactory;
+    private DirectExecutorServiceFactory executorServiceFactory;
+    private TimestampedGpioProvider provider;
+    private GpioController gpio;
+
+    @Before
+    public void setUp() {
+        // dispatch pin events on the calling thread so that all allocations
+        // made along the event path are attributed to the test thread
+        defaultExecutorServiceFactory = GpioFactory.getExecutorServiceFactory();
+        executorServiceFactory = new DirectExecutorServiceFactory();
+        GpioFactory.setExecutorServiceFactory(executorServiceFactory);
+
+        provider = new TimestampedGpioProvider();
+        gpio = new GpioControllerImpl(provider);
+    }
+
+    @After
+    public void tearDown() {
+        gpio.unprovisionPin(gpio.getProvisionedPins().toArray(new GpioPin[0]));
+        GpioFactory.setExecutorServiceFactory(defaultExecutorServiceFactory);
+    }
+
+    @Test
+    public void testEventsDeliveredInOrder() {
+        GpioPinDigitalInput input = gpio.provisionDigitalInputPin(RaspiPin.GPIO_01);
+        final StringBuilder received = new StringBuilder();
+        input.addListener(new GpioPinListenerDigital() {
+            @Override
+            public void handleGpioPinDigitalStateChangeEvent(GpioPinDigitalStateChangeEvent event) {
+                assertSame(input, event.getPin());
+                received.append(event.getState().getValue());
+            }
+        });
+
+        provider.setState(RaspiPin.GPIO_01, PinState.HIGH);
+        provider.setState(RaspiPin.GPIO_01, PinState.LOW);
+        provider.setState(RaspiPin.GPIO_01, PinState.HIGH);
+
+        assertEquals("101", received.toString());
+    }
+
+    @Test
+    public void testPendingEventsAreCappedWhenListenersFallBehind() {
+        GpioPinDigitalInput input = gpio.provisionDigitalInputPin(RaspiPin.GPIO_01);
+        final List<Long> received = new ArrayList<>();
+        input.addListener(new GpioPinListenerDigital() {
+            @Override
+            public void handleGpioPinDigitalStateChangeEvent(GpioPinDigitalStateChangeEvent event) {
+                received.add(event.getTimestamp());
+            }
+        });
+
+        // hold the dispatch task so that every state change stays pending
+        GpioEventMonitorExecutorImpl monitor = new GpioEventMonitorExecutorImpl(input);
+        executorServiceFactory.hold = true;
+        int events = GpioEventMonitorExecutorImpl.MAX_EVENT_BUFFER_SIZE + 10;
+        for (int index = 0; index < events; index++) {
+            monitor.handlePinDigitalStateChange(provider, RaspiPin.GPIO_01, PinState.getState(index % 2 == 0), index);
+        }
+        assertEquals(10, monitor.getDroppedEventCount());
+
+        // the oldest state changes were dropped; the remaining ones are delivered in order
+        executorServiceFactory.release();
+        assertEquals(GpioEventMonitorExecutorImpl.MAX_EVENT_BUFFER_SIZE, received.size());
+        assertEquals(10L, (long) received.get(0));
+        assertEquals(events - 1L, (long) received.get(received.size() - 1));
+    }
+
+    @Test
+    public void testEventTimestampsPropagated() {
+        GpioPinDigitalInput input = gpio.provisionDigitalInputPin(RaspiPin.GPIO_01);
+        final long[] timestamps = new long[3];
+        final int[] received = new int[1];
+        input.addListener(new GpioPinListenerDigital() {
+            @Override
+            public void handleGpioPinDigitalStateChangeEvent(GpioPinDigitalStateChangeEvent event) {
+                timestamps[received[0]++] = event.getTimestamp();
+            }
+        });
+
+        provider.setState(RaspiPin.GPIO_01, PinState.HIGH, 1000L);
+        provider.setState(RaspiPin.GPIO_01, PinState.LOW, 2500L);
+
+        // state changes without an explicit timestamp are stamped at dispatch
+        long before = System.nanoTime();
+        provider.setState(RaspiPin.GPIO_01, PinState.HIGH);
+        long after = System.nanoTime();
+
+        assertEquals(3, received[0]);
+        assertEquals(1000L, timestamps[0]);
+        assertEquals(2500L, timestamps[1]);
+        assertTrue(timestamps[2] >= before && timestamps[2] <= after);
+    }
+
+    @Test
+    public void testDebouncedFromTimestamps() throws InterruptedException {
+        GpioPinDigitalInput input = gpio.provisionDigitalInputPin(RaspiPin.GPIO_01);
+        input.setDebounce(50);
+        final StringBuffer received = new StringBuffer();
+        final CountDownLatch settled = new CountDownLatch(2);
+        input.addListener(new GpioPinListenerDigital() {
+            @Override
+            public void handleGpioPinDigitalStateChangeEvent(GpioPinDigitalStateChangeEvent event) {
+                received.append(event.getState().getValue()).append('@').append(event.getTimestamp()).append(' ');
+                settled.countDown();
+            }
+        });
+
+        // bounces within the window are suppressed; the settled (LOW) state is reported
+        // with its edge timestamp at the end of the window
+        long start = System.nanoTime();
+        provider.setState(RaspiPin.GPIO_01, PinState.HIGH, start);
+        provider.setState(RaspiPin.GPIO_01, PinState.LOW, start + 1_000_000);
+        provider.setState(RaspiPin.GPIO_01, PinState.HIGH, start + 2_000_000);
+        provider.setState(RaspiPin.GPIO_01, PinState.LOW, start + 3_000_000);
+        assertEquals("1@" + start + " ", received.toString());
+
+        assertTrue(settled.await(5, TimeUnit.SECONDS));
+        assertEquals("1@" + start + " 0@" + (start + 3_000_000) + " ", received.toString());
+    }
+
+    @Test
+    public void testBatchDeliveredWhenFull() {
+        GpioPinDigitalInput input = gpio.provisionDigitalInputPin(RaspiPin.GPIO_01);
+        final List<String> batches = new ArrayList<>();
+        input.addListener(new TestBatchListener(4, 60_000) {
+            @Override
+            public void handleGpioPinDigitalStateChangeBatch(GpioPinDigitalStateChangeBatchEvent event) {
+                assertSame(input, event.getPin());
+                StringBuilder batch = new StringBuilder();
+                for (int index = 0; index < event.size(); index++) {
+                    batch.append(event.getState(index).getValue()).append('@').append(event.getTimestamp(index)).append(' ');
+                }
+                batches.add(batch.toString().trim());
+            }
+        });
+
+        for (int index = 0; index < 9; index++) {
+            provider.setState(RaspiPin.GPIO_01, (index % 2 == 0) ? PinState.HIGH : PinState.LOW, index);
+        }
+
+        // the ninth state change waits for the next batch
+        assertEquals(2, batches.size());
+        assertEquals("1@0 0@1 1@2 0@3", batches.get(0));
+        assertEquals("1@4 0@5 1@6 0@7", batches.get(1));
+    }
+
+    @Test
+    public void testBatchDeliveredAfterMaxLatency() throws InterruptedException {
+        GpioPinDigitalInput input = gpio.provisionDigitalInputPin(RaspiPin.GPIO_01);
+        final CountDownLatch delivered = new CountDownLatch(1);
+        final int[] size = new int[1];
+        input.addListener(new TestBatchListener(1000, 20) {
+            @Override
+            public void handleGpioPinDigitalStateChangeBatch(GpioPinDigitalStateChangeBatchEvent event) {
+                size[0] = event.size();
+                delivered.countDown();
+            }
+        });
+
+        toggle(3);
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(3, size[0]);
+    }
+
+    @Test
+    public void testDigitalStateChangeDispatchDoesNotAllocate() {
+        GpioPinDigitalInput input = gpio.provisionDigitalInputPin(RaspiPin.GPIO_01);
+        final long[] counter = new long[1];
+        input.addListener(new GpioPinListenerDigital() {
+            @Override
+            public void handleGpioPinDigitalStateChangeEvent(GpioPinDigitalStateChangeEvent event) {
+                counter[0] += event.getState().getValue() + 1;
+            }
+        });
+
+        // warm up the event path (class loading, lazily created event instances, JIT)
+        toggle(WARMUP_EVENTS);
+
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        toggle(MEASURED_EVENTS);
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+        // every event was delivered ...
+        assertEquals((WARMUP_EVENTS + MEASURED_EVENTS) / 2 * 3, counter[0]);
+
+        // ... and the event path allocated (far) less than a single byte per event; the
+        // remaining bytes are the overhead of the allocation measurement itself
+        assertTrue("allocated " + allocated + " bytes for " + MEASURED_EVENTS + " events",
+                allocated < MEASURED_EVENTS);
+    }
+
+    private void toggle(int count) {
+        for (int index = 0; index < count; index++) {
+            provider.setState(RaspiPin.GPIO_01, (index % 2 == 0) ? PinState.HIGH : PinState.LOW);
+        }
+    }
+
+    /**
+     * Batch listener with the given maximum batch size and latency.
+     */
+    private static abstract class TestBatchListener implements GpioPinListenerDigitalBatch {
+
+        private final int maxBatchSize;
+        private final long maxBatchLatency;
+
+        TestBatchListener(int maxBatchSize, long maxBatchLatency) {
+            this.maxBatchSize = maxBatchSize;
+            this.maxBatchLatency = maxBatchLatency;
+        }
+
+        @Override
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        @Override
+        public long getMaxBatchLatency() {
+            return maxBatchLatency;
+        }
+    }
+
+    /**
+     * Simulated GPIO provider that raises state changes with a caller supplied timestamp.
+     */
+    private static class TimestampedGpioProvider extends SimulatedGpioProvider {
+
+        void setState(Pin pin, PinState state, long timestamp) {
+            getPinCache(pin).setState(state);
+            dispatchPinDigitalStateChangeEvent(pin, state, timestamp);
+        }
+    }
+
+    /**
+     * Executor service factory with a GPIO event executor that runs tasks on the submitting thread,
+     * or holds them until released.
+     */
+    private static class DirectExecutorServiceFactory extends DefaultExecutorServiceFactory {
+
+        volatile boolean hold = false;
+        private final List<Runnable> held = new ArrayList<>();
+
+        void release() {
+            hold = false;
+            for (Runnable command : held) {
+                command.run();
+            }
+            held.clear();
+        }
+
+        private final ExecutorService directExecutor = new AbstractExecutorService() {
+            @Override
+            public void execute(Runnable command) {
+                if (hold) {
+                    held.add(command);
+                } else {
+                    command.run();
+                }
+            }
+
+            @Override
+            public void shutdown() {
+            }
+
+            @Override
+            public List<Runnable> shutdownNow() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public boolean isShutdown() {
+                return false;
+            }
+
+            @Override
+            public boolean isTerminated() {
+                return false;
+            }
+
+            @Override
+            public boolean awaitTermination(long timeout, TimeUnit unit) {
+                return true;
+            }
+        };
+
+        @Override
+        public ExecutorService getGpioEventExecutorService() {
+            return directExecutor;
+        }
+    }
+}
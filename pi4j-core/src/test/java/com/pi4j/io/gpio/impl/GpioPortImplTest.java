@@ -0,0 +1,252 @@
+package com.pi4j.io.gpio.impl;
+
+/*-
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioPortImplTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.*;
+import com.pi4j.io.gpio.exception.GpioPinNotProvisionedException;
+import com.pi4j.io.gpio.exception.InvalidPinModeException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link GpioPortImpl}, GPIO port provisioning and the bulk group operations
+ * of {@link GpioControllerImpl}.
+ */
+public class GpioPortImplTest {
+
+    private static final Pin[] PORT_PINS = {
+            RaspiPin.GPIO_00, RaspiPin.GPIO_01, RaspiPin.GPIO_02, RaspiPin.GPIO_03 };
+
+    private BulkCountingGpioProvider provider;
+    private GpioController gpio;
+
+    @Before
+    public void setUp() {
+        provider = new BulkCountingGpioProvider();
+        gpio = new GpioControllerImpl(provider);
+    }
+
+    @After
+    public void tearDown() {
+        if (!gpio.getProvisionedPins().isEmpty()) {
+            gpio.unprovisionPin(gpio.getProvisionedPins().toArray(new GpioPin[0]));
+        }
+    }
+
+    @Test
+    public void testWriteAndRead() {
+        GpioPort port = gpio.provisionDigitalOutputPort(PORT_PINS);
+        assertEquals(4, port.size());
+        assertEquals(0b1111, port.getMask());
+        assertSame(RaspiPin.GPIO_02, port.getPin(2).getPin());
+
+        port.write(0b1010);
+        assertEquals(0b1010, port.read());
+        assertEquals(PinState.LOW, provider.getState(RaspiPin.GPIO_00));
+        assertEquals(PinState.HIGH, provider.getState(RaspiPin.GPIO_01));
+        assertEquals(PinState.LOW, provider.getState(RaspiPin.GPIO_02));
+        assertEquals(PinState.HIGH, provider.getState(RaspiPin.GPIO_03));
+
+        // bits beyond the port size are ignored
+        port.write(0xFFFFFFF0);
+        assertEquals(0, port.read());
+
+        // the whole port is transferred with one provider call
+        assertEquals(2, provider.bulkWrites);
+        assertEquals(0, provider.singleWrites);
+    }
+
+    @Test
+    public void testMaskedWrite() {
+        GpioPort port = gpio.provisionDigitalOutputPort(PinState.HIGH, PORT_PINS);
+        assertEquals(0b1111, port.read());
+
+        port.write(0b0110, 0b0000);
+        assertEquals(0b1001, port.read());
+
+        port.write(0b0010, 0b1111);
+        assertEquals(0b1011, port.read());
+    }
+
+    @Test
+    public void testDefaultProviderImplementation() {
+        // a provider without a bulk implementation falls back to one setState() per pin
+        SimulatedGpioProvider simulated = new SimulatedGpioProvider();
+        GpioController controller = new GpioControllerImpl(simulated);
+        GpioPort port = controller.provisionDigitalOutputPort(simulated, PinState.LOW, RaspiPin.GPIO_10, RaspiPin.GPIO_11);
+        try {
+            port.write(0b01);
+            assertEquals(0b01, port.read());
+            assertEquals(PinState.HIGH, simulated.getState(RaspiPin.GPIO_10));
+            assertEquals(PinState.LOW, simulated.getState(RaspiPin.GPIO_11));
+        } finally {
+            controller.unprovisionPort(port);
+        }
+    }
+
+    @Test
+    public void testInputPort() {
+        GpioPort port = gpio.provisionDigitalInputPort(PinPullResistance.PULL_DOWN, PORT_PINS);
+        assertTrue(port.getPin(0) instanceof GpioPinDigitalInput);
+        assertEquals(PinPullResistance.PULL_DOWN, ((GpioPinDigitalInput) port.getPin(0)).getPullResistance());
+
+        provider.setInputState(RaspiPin.GPIO_00, PinState.HIGH);
+        provider.setInputState(RaspiPin.GPIO_03, PinState.HIGH);
+        assertEquals(0b1001, port.read());
+
+        try {
+            port.write(0b1111);
+            fail("input port pins must not be writable");
+        } catch (InvalidPinModeException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testUnprovisionPort() {
+        GpioPort port = gpio.provisionDigitalOutputPort(PORT_PINS);
+        assertEquals(4, gpio.getProvisionedPins().size());
+
+        gpio.unprovisionPort(port);
+        assertTrue(gpio.getProvisionedPins().isEmpty());
+    }
+
+    @Test
+    public void testGroupOperationsUseOneBulkCallPerProvider() {
+        BulkCountingGpioProvider expander = new BulkCountingGpioProvider();
+        GpioPinDigitalOutput[] outputs = new GpioPinDigitalOutput[6];
+        for (int index = 0; index < 4; index++) {
+            outputs[index] = gpio.provisionDigitalOutputPin(PORT_PINS[index]);
+        }
+        outputs[4] = gpio.provisionDigitalOutputPin(expander, RaspiPin.GPIO_04);
+        outputs[5] = gpio.provisionDigitalOutputPin(expander, RaspiPin.GPIO_05);
+        int singleWrites = provider.singleWrites;
+
+        gpio.high(outputs);
+        assertEquals(1, provider.bulkWrites);
+        assertEquals(1, expander.bulkWrites);
+        assertTrue(gpio.isHigh(outputs));
+
+        gpio.toggle(outputs[0], outputs[4], outputs[1]);
+        assertEquals(2, provider.bulkWrites);
+        assertEquals(2, expander.bulkWrites);
+        assertTrue(gpio.isLow(outputs[0], outputs[1], outputs[4]));
+        assertTrue(gpio.isHigh(outputs[2], outputs[3], outputs[5]));
+
+        gpio.setState(false, outputs);
+        assertEquals(3, provider.bulkWrites);
+        assertTrue(gpio.isLow(outputs));
+        assertEquals(singleWrites, provider.singleWrites);
+
+        // a single pin is set directly
+        gpio.high(outputs[2]);
+        assertEquals(3, provider.bulkWrites);
+        assertEquals(singleWrites + 1, provider.singleWrites);
+    }
+
+    @Test
+    public void testToggleWithDuplicatePinsTogglesPerOccurrence() {
+        GpioPinDigitalOutput first = gpio.provisionDigitalOutputPin(RaspiPin.GPIO_00, PinState.LOW);
+        GpioPinDigitalOutput second = gpio.provisionDigitalOutputPin(RaspiPin.GPIO_01, PinState.LOW);
+
+        // as with individual toggles, the pin listed twice ends where it started
+        gpio.toggle(first, second, first);
+        assertTrue(first.isLow());
+        assertTrue(second.isHigh());
+        assertEquals(0, provider.bulkWrites);
+    }
+
+    @Test
+    public void testGroupOperationChecksAllPinsFirst() {
+        GpioPinDigitalOutput provisioned = gpio.provisionDigitalOutputPin(RaspiPin.GPIO_00, PinState.LOW);
+        GpioPinDigitalOutput unprovisioned = new GpioPinImpl(gpio, provider, RaspiPin.GPIO_01);
+        try {
+            gpio.high(provisioned, unprovisioned);
+            fail("unprovisioned pin must be rejected");
+        } catch (GpioPinNotProvisionedException expected) {
+        }
+        assertTrue(provisioned.isLow());
+        assertEquals(0, provider.bulkWrites);
+    }
+
+    @Test
+    public void testTooManyPins() {
+        Pin[] pins = new Pin[GpioPort.MAX_SIZE + 1];
+        for (int index = 0; index < pins.length; index++) {
+            pins[index] = RaspiPin.GPIO_00;
+        }
+        try {
+            gpio.provisionDigitalOutputPort(pins);
+            fail("ports larger than " + GpioPort.MAX_SIZE + " pins must be rejected");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+
+        // no port pins were provisioned
+        assertTrue(gpio.getProvisionedPins().isEmpty());
+    }
+
+    private static class BulkCountingGpioProvider extends GpioProviderBase {
+        int bulkWrites;
+        int singleWrites;
+        private boolean inBulkWrite;
+
+        @Override
+        public String getName() {
+            return RaspiGpioProvider.NAME;
+        }
+
+        @Override
+        public void setState(Pin pin, PinState state) {
+            if (!inBulkWrite) {
+                singleWrites++;
+            }
+            super.setState(pin, state);
+        }
+
+        @Override
+        public void setState(Pin[] pins, int mask, int values) {
+            bulkWrites++;
+            inBulkWrite = true;
+            try {
+                super.setState(pins, mask, values);
+            } finally {
+                inBulkWrite = false;
+            }
+        }
+
+        void setInputState(Pin pin, PinState state) {
+            // simulate an input pin state change
+            getPinCache(pin).setState(state);
+            dispatchPinDigitalStateChangeEvent(pin, state);
+        }
+    }
+}
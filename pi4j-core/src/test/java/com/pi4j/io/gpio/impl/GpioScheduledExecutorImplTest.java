@@ -0,0 +1,219 @@
+package com.pi4j.io.gpio.impl;
+
+/*-
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioScheduledExecutorImplTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for the per-pin pulse and blink task slots of {@link GpioScheduledExecutorImpl}.
+ */
+public class GpioScheduledExecutorImplTest {
+
+    private static final int PIN_COUNT = 30;
+
+    private BlockingGpioProvider provider;
+    private GpioController gpio;
+    private List<GpioPinDigitalOutput> pins;
+
+    @Before
+    public void setUp() {
+        provider = new BlockingGpioProvider();
+        gpio = new GpioControllerImpl(provider);
+        pins = new ArrayList<>();
+        for (int index = 0; index < PIN_COUNT; index++) {
+            pins.add(gpio.provisionDigitalOutputPin(RaspiPin.getPinByAddress(index), PinState.LOW));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        gpio.unprovisionPin(gpio.getProvisionedPins().toArray(new GpioPin[0]));
+    }
+
+    @Test
+    public void testNewPulseReplacesPendingPulse() throws Exception {
+        GpioPinDigitalOutput pin = pins.get(0);
+        Future<?> first = pin.pulse(20);
+        Future<?> second = pin.pulse(100);
+
+        assertTrue(first.isCancelled());
+        Thread.sleep(50);
+        // the first pulse must not end the second one
+        assertEquals(PinState.HIGH, pin.getState());
+        second.get(1, TimeUnit.SECONDS);
+        assertEquals(PinState.LOW, pin.getState());
+        assertTrue(GpioScheduledExecutorImpl.isIdle(pin));
+    }
+
+    @Test
+    public void testEdgeInProgressDoesNotEndNewPulse() throws Exception {
+        GpioPinDigitalOutput pin = pins.get(2);
+        provider.blockNextWrite(PinState.LOW);
+        pin.pulse(5);
+
+        // the falling edge of the first pulse has passed its generation check and is writing
+        assertTrue(provider.writing.await(1, TimeUnit.SECONDS));
+        List<Future<?>> second = new ArrayList<>();
+        Thread pulser = new Thread(() -> second.add(pin.pulse(200)));
+        pulser.start();
+        Thread.sleep(20);
+        provider.release.countDown();
+        pulser.join(1000);
+
+        // the stale edge completed before the new pulse raised the pin
+        assertEquals(PinState.HIGH, pin.getState());
+        second.get(0).get(1, TimeUnit.SECONDS);
+        assertEquals(PinState.LOW, pin.getState());
+    }
+
+    @Test
+    public void testPulseFutureWaitsForCallback() throws Exception {
+        GpioPinDigitalOutput pin = pins.get(3);
+        AtomicBoolean called = new AtomicBoolean();
+        Future<?> pulse = pin.pulse(5, () -> {
+            Thread.sleep(20);
+            called.set(true);
+            return null;
+        });
+
+        pulse.get(1, TimeUnit.SECONDS);
+        assertTrue(called.get());
+        assertEquals(PinState.LOW, pin.getState());
+        assertFalse(pulse.cancel(false));
+        assertTrue(GpioScheduledExecutorImpl.isIdle(pin));
+    }
+
+    @Test
+    public void testReplacedPulseWithCallbackIsCancelled() throws Exception {
+        GpioPinDigitalOutput pin = pins.get(4);
+        AtomicBoolean called = new AtomicBoolean();
+        Future<?> first = pin.pulse(50, () -> {
+            called.set(true);
+            return null;
+        });
+        Future<?> second = pin.pulse(5);
+
+        assertTrue(first.isCancelled());
+        second.get(1, TimeUnit.SECONDS);
+        Thread.sleep(80);
+        assertFalse(called.get());
+    }
+
+    @Test
+    public void testPulseReplacesBlink() throws Exception {
+        GpioPinDigitalOutput pin = pins.get(1);
+        Future<?> blink = pin.blink(5, 1000);
+        Thread.sleep(12);
+        pin.pulse(10).get(1, TimeUnit.SECONDS);
+
+        assertTrue(blink.isCancelled());
+        Thread.sleep(20);
+        assertEquals(PinState.LOW, pin.getState());
+        assertTrue(GpioScheduledExecutorImpl.isIdle(pin));
+    }
+
+    @Test
+    public void testConcurrentPulsesOnManyPins() throws Exception {
+        final int threads = 8;
+        final int iterations = 1000;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int iteration = 0; iteration < iterations; iteration++) {
+                    GpioPinDigitalOutput pin = pins.get(random.nextInt(PIN_COUNT));
+                    if (random.nextInt(10) == 0) {
+                        pin.blink(1, 3);
+                    } else {
+                        pin.pulse(random.nextInt(1, 4));
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // only the last pulse or blink of each pin survives; all of them end in the LOW state
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        for (GpioPinDigitalOutput pin : pins) {
+            while (!GpioScheduledExecutorImpl.isIdle(pin) && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertTrue("pin " + pin.getName() + " still has pending tasks", GpioScheduledExecutorImpl.isIdle(pin));
+            assertEquals("pin " + pin.getName(), PinState.LOW, pin.getState());
+        }
+    }
+
+    // simulated provider that can hold a single write until released
+    private static class BlockingGpioProvider extends SimulatedGpioProvider {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicBoolean armed = new AtomicBoolean();
+        private volatile PinState blockedState;
+
+        void blockNextWrite(PinState state) {
+            blockedState = state;
+            armed.set(true);
+        }
+
+        @Override
+        public void setState(Pin pin, PinState state) {
+            if (state == blockedState && armed.compareAndSet(true, false)) {
+                writing.countDown();
+                try {
+                    release.await(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            super.setState(pin, state);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.pi4j.io.gpio.impl;
+
+/*-
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioSoftPwmEngineTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link GpioSoftPwmEngine}.
+ */
+public class GpioSoftPwmEngineTest {
+
+    private BulkRecordingGpioProvider provider;
+    private GpioController gpio;
+    private GpioPort port;
+    private GpioSoftPwmEngine engine;
+
+    @Before
+    public void setUp() {
+        provider = new BulkRecordingGpioProvider();
+        gpio = new GpioControllerImpl(provider);
+        port = gpio.provisionDigitalOutputPort(RaspiPin.GPIO_00, RaspiPin.GPIO_01, RaspiPin.GPIO_02, RaspiPin.GPIO_03);
+        engine = new GpioSoftPwmEngine(100, 2000, port);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        engine.stop();
+        if (!gpio.getProvisionedPins().isEmpty()) {
+            gpio.unprovisionPin(gpio.getProvisionedPins().toArray(new GpioPin[0]));
+        }
+    }
+
+    @Test
+    public void testWritesPerPeriodScaleWithDistinctValues() throws Exception {
+        engine.setPwm(port.getPin(0), 25);
+        engine.setPwm(port.getPin(1), 50);
+        engine.setPwm(port.getPin(2), 50);
+        engine.setPwm(port.getPin(3), 100);
+        assertEquals(50, engine.getPwm(port.getPin(2)));
+
+        provider.setRecording(true);
+        engine.start();
+        Thread.sleep(50);
+        engine.stop();
+        provider.setRecording(false);
+
+        // every period starts with one write setting all active channels and then clears
+        // channel 0 at 25% and channels 1 and 2 together at 50%; channel 3 is never cleared
+        int periods = 0;
+        List<SimulatedGpioProvider.Transition> timeline = provider.getTimeline();
+        for (SimulatedGpioProvider.Transition transition : timeline) {
+            if (transition.getPin() == RaspiPin.GPIO_00 && transition.getState() == PinState.HIGH) {
+                periods++;
+            }
+        }
+        assertTrue(periods > 5);
+
+        // the final write of stop() sets all channels LOW
+        int writes = provider.bulkWrites.get() - 1;
+        assertTrue("writes=" + writes + ", periods=" + periods, writes >= 3 * periods - 2 && writes <= 3 * periods);
+        assertEquals(0, port.read());
+        assertTrue(engine.getJitterStatistics().getCount() >= 3 * (periods - 1));
+    }
+
+    @Test
+    public void testStaticLevelsAreWrittenOnce() throws Exception {
+        engine.setPwm(port.getPin(0), 100);
+        engine.start();
+        Thread.sleep(20);
+        assertEquals(0b0001, port.read());
+        int writes = provider.bulkWrites.get();
+
+        // no switching within the period, so the engine waits for the next value change
+        Thread.sleep(20);
+        assertEquals(writes, provider.bulkWrites.get());
+
+        engine.setPwm(port.getPin(1), 100);
+        Thread.sleep(20);
+        assertEquals(0b0011, port.read());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testValueOutOfRange() {
+        engine.setPwm(port.getPin(0), 101);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPinNotInEngine() {
+        GpioPinDigitalOutput pin = gpio.provisionDigitalOutputPin(RaspiPin.GPIO_04);
+        engine.setPwm(pin, 50);
+    }
+
+    private static class BulkRecordingGpioProvider extends SimulatedGpioProvider {
+        final AtomicInteger bulkWrites = new AtomicInteger();
+
+        @Override
+        public void setState(Pin[] pins, int mask, int values) {
+            bulkWrites.incrementAndGet();
+            super.setState(pins, mask, values);
+        }
+    }
+}
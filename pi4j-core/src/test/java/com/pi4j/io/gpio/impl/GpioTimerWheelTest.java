@@ -0,0 +1,173 @@
+package com.pi4j.io.gpio.impl;
+
+/*-
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioTimerWheelTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioJitterStatistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for the {@link GpioTimerWheel} used for pulse and blink timing.
+ */
+public class GpioTimerWheelTest {
+
+    private GpioTimerWheel wheel;
+
+    @Before
+    public void setUp() {
+        // small wheel so that the tests also cover tasks spanning several rounds
+        wheel = new GpioTimerWheel("test-timer", TimeUnit.MICROSECONDS.toNanos(100), 16, TimeUnit.MICROSECONDS.toNanos(100));
+    }
+
+    @After
+    public void tearDown() {
+        wheel.shutdown();
+    }
+
+    @Test
+    public void testTasksRunInDeadlineOrderNotBeforeDeadline() throws Exception {
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch done = new CountDownLatch(4);
+        final long start = System.nanoTime();
+        final long[] delays = { 30, 5, 20, 12 };
+        final long[] late = new long[delays.length];
+        for (int index = 0; index < delays.length; index++) {
+            final int task = index;
+            wheel.schedule(() -> {
+                late[task] = System.nanoTime() - (start + TimeUnit.MILLISECONDS.toNanos(delays[task]));
+                order.add(task);
+                done.countDown();
+            }, delays[index], TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(1, 3, 2, 0), order);
+        for (long lateness : late) {
+            assertTrue("task ran " + lateness + "ns early", lateness >= 0);
+        }
+        assertEquals(4, wheel.getJitterStatistics().getCount());
+    }
+
+    @Test
+    public void testCancelledTaskDoesNotRun() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        GpioTimerWheel.Timeout cancelled = wheel.schedule(runs::incrementAndGet, 10, TimeUnit.MILLISECONDS);
+        GpioTimerWheel.Timeout marker = wheel.schedule(() -> { }, 20, TimeUnit.MILLISECONDS);
+
+        assertTrue(cancelled.cancel(false));
+        assertTrue(cancelled.isCancelled());
+        assertTrue(cancelled.isDone());
+        marker.get(2, TimeUnit.SECONDS);
+
+        assertEquals(0, runs.get());
+        assertFalse(cancelled.cancel(false));
+        assertFalse(marker.cancel(false));
+    }
+
+    @Test
+    public void testFixedRateTaskRunsUntilCancelled() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        final CountDownLatch fiveRuns = new CountDownLatch(5);
+        GpioTimerWheel.Timeout periodic = wheel.scheduleAtFixedRate(() -> {
+            runs.incrementAndGet();
+            fiveRuns.countDown();
+        }, 2, 2, TimeUnit.MILLISECONDS);
+
+        assertTrue(fiveRuns.await(2, TimeUnit.SECONDS));
+        assertTrue(periodic.isPeriodic());
+        assertFalse(periodic.isDone());
+        assertTrue(periodic.cancel(true));
+
+        // at most one execution may already be in progress when cancelling
+        int count = runs.get();
+        Thread.sleep(20);
+        assertTrue(runs.get() <= count + 1);
+    }
+
+    @Test
+    public void testLateFixedRateTaskKeepsRunning() throws Exception {
+        // with 512 buckets a task re-inserted behind the current bucket would wait ~51ms for a round
+        GpioTimerWheel large = new GpioTimerWheel("test-timer-large", TimeUnit.MICROSECONDS.toNanos(100), 512, TimeUnit.MICROSECONDS.toNanos(100));
+        try {
+            final AtomicInteger runs = new AtomicInteger();
+            GpioTimerWheel.Timeout periodic = large.scheduleAtFixedRate(() -> {
+                // the first run overruns several periods, so the next deadlines are already past
+                if (runs.incrementAndGet() == 1) {
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }, 1, 1, TimeUnit.MILLISECONDS);
+
+            Thread.sleep(100);
+            periodic.cancel(false);
+            assertTrue("runs: " + runs.get(), runs.get() >= 50);
+        } finally {
+            large.shutdown();
+        }
+    }
+
+    @Test
+    public void testTaskBeyondOneWheelRound() throws Exception {
+        // 16 buckets of 100us is one round every 1.6ms
+        long start = System.nanoTime();
+        wheel.schedule(() -> { }, 25, TimeUnit.MILLISECONDS).get(2, TimeUnit.SECONDS);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(25));
+    }
+
+    @Test
+    public void testJitterStatistics() throws Exception {
+        for (int index = 0; index < 10; index++) {
+            wheel.schedule(() -> { }, 1, TimeUnit.MILLISECONDS).get(2, TimeUnit.SECONDS);
+        }
+        GpioJitterStatistics statistics = wheel.getJitterStatistics();
+        assertEquals(10, statistics.getCount());
+        assertTrue(statistics.getMaxNanos() >= statistics.getMeanNanos());
+        assertTrue(statistics.getLastNanos() <= statistics.getMaxNanos());
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testScheduleAfterShutdown() {
+        wheel.shutdown();
+        wheel.schedule(() -> { }, 1, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,137 @@
+package com.pi4j.io.gpio.impl;
+
+/*-
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioWaveformPlayerTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link GpioWaveform} playback on pins and ports, verified with the timeline
+ * recorded by the {@link SimulatedGpioProvider}.
+ */
+public class GpioWaveformPlayerTest {
+
+    private static final long US = TimeUnit.MICROSECONDS.toNanos(1);
+
+    private SimulatedGpioProvider provider;
+    private GpioController gpio;
+
+    @Before
+    public void setUp() {
+        provider = new SimulatedGpioProvider();
+        gpio = new GpioControllerImpl(provider);
+    }
+
+    @After
+    public void tearDown() {
+        if (!gpio.getProvisionedPins().isEmpty()) {
+            gpio.unprovisionPin(gpio.getProvisionedPins().toArray(new GpioPin[0]));
+        }
+    }
+
+    @Test
+    public void testPinPulseTrainTimeline() throws Exception {
+        GpioPinDigitalOutput pin = gpio.provisionDigitalOutputPin(RaspiPin.GPIO_00, PinState.LOW);
+        provider.setRecording(true);
+
+        long before = System.nanoTime();
+        GpioJitterStatistics statistics = pin.play(GpioWaveform.pulseTrain(5, 1000, 500)).get(5, TimeUnit.SECONDS);
+        provider.setRecording(false);
+
+        List<SimulatedGpioProvider.Transition> timeline = provider.getTimeline();
+        assertEquals(10, timeline.size());
+        assertEquals(10, statistics.getCount());
+
+        // segments start at absolute offsets from the start of the playback
+        for (int index = 0; index < timeline.size(); index++) {
+            SimulatedGpioProvider.Transition transition = timeline.get(index);
+            assertSame(RaspiPin.GPIO_00, transition.getPin());
+            assertEquals((index % 2 == 0) ? PinState.HIGH : PinState.LOW, transition.getState());
+            long offset = (index / 2) * 1500 * US + ((index % 2 == 0) ? 0 : 1000 * US);
+            assertTrue("segment " + index + " started early", transition.getTimestamp() - before >= offset);
+        }
+        assertEquals(PinState.LOW, pin.getState());
+    }
+
+    @Test
+    public void testPortWaveform() throws Exception {
+        GpioPort port = gpio.provisionDigitalOutputPort(RaspiPin.GPIO_00, RaspiPin.GPIO_01, RaspiPin.GPIO_02);
+        provider.setRecording(true);
+
+        GpioWaveform waveform = new GpioWaveform(new int[] { 0b101, 0b010, 0b111 }, new int[] { 200, 200, 200 }, 2);
+        assertEquals(1200, waveform.getTotalMicros());
+        GpioJitterStatistics statistics = port.play(waveform).get(5, TimeUnit.SECONDS);
+
+        // each segment writes all three port pins
+        assertEquals(6, statistics.getCount());
+        assertEquals(18, provider.getTimeline().size());
+        assertEquals(0b111, port.read());
+    }
+
+    @Test
+    public void testCancelStopsPlayback() throws Exception {
+        GpioPinDigitalOutput pin = gpio.provisionDigitalOutputPin(RaspiPin.GPIO_00, PinState.LOW);
+        provider.setRecording(true);
+
+        Future<GpioJitterStatistics> future = pin.play(GpioWaveform.pulseTrain(10000, 1000, 1000));
+        Thread.sleep(20);
+        assertTrue(future.cancel(true));
+        try {
+            future.get();
+            fail("cancelled playback must not complete");
+        } catch (CancellationException e) {
+            // expected
+        }
+
+        // the player stops after the current segment
+        Thread.sleep(10);
+        int recorded = provider.getTimeline().size();
+        Thread.sleep(20);
+        assertEquals(recorded, provider.getTimeline().size());
+        assertTrue(recorded < 100);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSegmentCountMismatch() {
+        new GpioWaveform(new int[] { 1, 0 }, new int[] { 10 });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroDurationSegment() {
+        new GpioWaveform(new int[] { 1, 0 }, new int[] { 10, 0 });
+    }
+}
@@ -0,0 +1,151 @@
+package com.pi4j.io.gpio.trigger.test;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioFastTriggerTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.pi4j.io.gpio.GpioController;
+import com.pi4j.io.gpio.GpioPinDigitalInput;
+import com.pi4j.io.gpio.GpioPinDigitalOutput;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.test.MockGpioFactory;
+import com.pi4j.io.gpio.test.MockGpioProvider;
+import com.pi4j.io.gpio.test.MockPin;
+import com.pi4j.io.gpio.trigger.GpioInverseSyncStateTrigger;
+import com.pi4j.io.gpio.trigger.GpioSetStateTrigger;
+import com.pi4j.io.gpio.trigger.GpioSyncStateTrigger;
+import com.pi4j.io.gpio.trigger.GpioToggleStateTrigger;
+
+/**
+ * Fast triggers are evaluated on the thread delivering the provider pin event, so the mock
+ * provider has already updated the output pin when setMockState() returns.
+ */
+public class GpioFastTriggerTests {
+
+    private static MockGpioProvider provider;
+    private static GpioController gpio;
+    private static GpioPinDigitalInput inputPin;
+    private static GpioPinDigitalOutput outputPin;
+
+    @Before
+    public void setup() {
+        // create a mock gpio provider and controller
+        provider = MockGpioFactory.getMockProvider();
+        gpio = MockGpioFactory.getInstance();
+
+        // provision pins for testing
+        inputPin = gpio.provisionDigitalInputPin(MockPin.DIGITAL_INPUT_PIN,  "digitalInputPin");
+        outputPin = gpio.provisionDigitalOutputPin(MockPin.DIGITAL_OUTPUT_PIN,  "digitalOutputPin");
+    }
+
+    @After
+    public void teardown() {
+        // remove triggers
+        inputPin.removeAllTriggers();
+    }
+
+    @Test
+    public void testFastSyncTrigger() {
+        GpioSyncStateTrigger trigger = new GpioSyncStateTrigger(outputPin);
+        trigger.setFast(true);
+        inputPin.addTrigger(trigger);
+
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH);
+        assertEquals(PinState.HIGH, outputPin.getState());
+
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW);
+        assertEquals(PinState.LOW, outputPin.getState());
+    }
+
+    @Test
+    public void testFastInverseSyncTrigger() {
+        GpioInverseSyncStateTrigger trigger = new GpioInverseSyncStateTrigger(outputPin);
+        trigger.setFast(true);
+        inputPin.addTrigger(trigger);
+
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH);
+        assertEquals(PinState.LOW, outputPin.getState());
+
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW);
+        assertEquals(PinState.HIGH, outputPin.getState());
+    }
+
+    @Test
+    public void testFastSetAndToggleTriggers() {
+        GpioSetStateTrigger set = new GpioSetStateTrigger(PinState.LOW, outputPin, PinState.HIGH);
+        GpioToggleStateTrigger toggle = new GpioToggleStateTrigger(PinState.HIGH, outputPin);
+        set.setFast(true);
+        toggle.setFast(true);
+        inputPin.addTrigger(set, toggle);
+
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW);
+        assertEquals(PinState.HIGH, outputPin.getState());
+
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH);
+        assertEquals(PinState.LOW, outputPin.getState());
+
+        // trigger states added after the trigger was compiled are honored
+        toggle.addPinState(PinState.LOW);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW);
+        assertEquals(PinState.LOW, outputPin.getState());
+    }
+
+    @Test
+    public void testRemovedTriggerStateIsRecompiled() {
+        GpioSetStateTrigger trigger = new GpioSetStateTrigger(PinState.HIGH, outputPin, PinState.HIGH);
+        trigger.setFast(true);
+        inputPin.addTrigger(trigger);
+        outputPin.setState(PinState.LOW);
+
+        trigger.removePinState(PinState.HIGH);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH);
+        assertEquals(PinState.LOW, outputPin.getState());
+
+        trigger.addPinState(PinState.HIGH);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH);
+        assertEquals(PinState.HIGH, outputPin.getState());
+    }
+
+    @Test
+    public void testRemoveFastTrigger() {
+        GpioSyncStateTrigger trigger = new GpioSyncStateTrigger(outputPin);
+        trigger.setFast(true);
+        inputPin.addTrigger(trigger);
+        assertTrue(inputPin.getTriggers().contains(trigger));
+
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW);
+        inputPin.removeTrigger(trigger);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH);
+        assertEquals(PinState.LOW, outputPin.getState());
+    }
+}
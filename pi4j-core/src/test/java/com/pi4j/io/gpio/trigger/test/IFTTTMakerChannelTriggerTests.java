@@ -0,0 +1,237 @@
+package com.pi4j.io.gpio.trigger.test;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  IFTTTMakerChannelTriggerTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.pi4j.io.gpio.GpioController;
+import com.pi4j.io.gpio.GpioPinDigitalInput;
+import com.pi4j.io.gpio.PinPullResistance;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.test.MockGpioFactory;
+import com.pi4j.io.gpio.test.MockPin;
+import com.pi4j.io.gpio.trigger.IFTTTMakerChannelTrigger;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Exercises the asynchronous IFTTT trigger against a local HTTP stub standing in for the
+ * Maker Channel service.
+ */
+public class IFTTTMakerChannelTriggerTests {
+
+    private static GpioController gpio;
+    private static GpioPinDigitalInput inputPin;
+
+    private HttpServer server;
+    private final List<String> paths = new CopyOnWriteArrayList<>();
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresBeforeSuccess = new AtomicInteger();
+    private volatile int failureStatus = 500;
+    private volatile CountDownLatch release = new CountDownLatch(0);
+
+    @Before
+    public void setup() throws IOException {
+        gpio = MockGpioFactory.getInstance();
+        inputPin = gpio.provisionDigitalInputPin(MockPin.DIGITAL_INPUT_PIN,  "digitalInputPin", PinPullResistance.OFF);
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    @After
+    public void teardown() {
+        release.countDown();
+        server.stop(0);
+        gpio.unprovisionPin(inputPin);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            paths.add(exchange.getRequestURI().getPath());
+            bodies.add(URLDecoder.decode(new String(in.readAllBytes(), StandardCharsets.UTF_8), StandardCharsets.UTF_8));
+            release.await(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int status = failuresBeforeSuccess.getAndDecrement() > 0 ? failureStatus : 200;
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    private IFTTTMakerChannelTrigger createTrigger() {
+        IFTTTMakerChannelTrigger trigger = new IFTTTMakerChannelTrigger("KEY", "EVENT");
+        trigger.setUrlFormat("http://127.0.0.1:" + server.getAddress().getPort() + "/trigger/%s/with/key/%s");
+        trigger.setRetryPolicy(3, 10);
+        return trigger;
+    }
+
+    @Test
+    public void testPostsFormEncodedEvent() throws InterruptedException {
+        IFTTTMakerChannelTrigger trigger = createTrigger();
+        trigger.invoke(inputPin, PinState.HIGH);
+
+        assertTrue(trigger.flush(5, TimeUnit.SECONDS));
+        assertEquals(1, trigger.getSentCount());
+        assertEquals(0, trigger.getFailedCount());
+        assertEquals("/trigger/EVENT/with/key/KEY", paths.get(0));
+        assertTrue(bodies.get(0).startsWith("value1=digitalInputPin&value2=1&value3={"));
+    }
+
+    @Test
+    public void testInvokeDoesNotWaitForResponse() throws InterruptedException {
+        release = new CountDownLatch(1);
+        IFTTTMakerChannelTrigger trigger = createTrigger();
+
+        long start = System.nanoTime();
+        trigger.invoke(inputPin, PinState.HIGH);
+        trigger.invoke(inputPin, PinState.LOW);
+        long elapsed = System.nanoTime() - start;
+
+        // the stub holds the first request until released
+        assertTrue("invoke blocked for " + elapsed + "ns", elapsed < TimeUnit.SECONDS.toNanos(2));
+        assertFalse(trigger.flush(100, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        assertTrue(trigger.flush(5, TimeUnit.SECONDS));
+        assertEquals(2, trigger.getSentCount());
+    }
+
+    @Test
+    public void testListenerCanAbortAndOverride() throws InterruptedException {
+        IFTTTMakerChannelTrigger trigger = createTrigger();
+        trigger.setTriggerListener(event -> {
+            event.setValue1("custom");
+            return event.getState().isHigh();
+        });
+
+        trigger.invoke(inputPin, PinState.LOW);
+        trigger.invoke(inputPin, PinState.HIGH);
+
+        assertTrue(trigger.flush(5, TimeUnit.SECONDS));
+        assertEquals(1, trigger.getSentCount());
+        assertEquals(1, bodies.size());
+        assertTrue(bodies.get(0).startsWith("value1=custom&value2=1&"));
+    }
+
+    @Test
+    public void testRetriesServerErrors() throws InterruptedException {
+        failuresBeforeSuccess.set(2);
+        IFTTTMakerChannelTrigger trigger = createTrigger();
+        trigger.invoke(inputPin, PinState.HIGH);
+
+        assertTrue(trigger.flush(5, TimeUnit.SECONDS));
+        assertEquals(1, trigger.getSentCount());
+        assertEquals(2, trigger.getRetryCount());
+        assertEquals(0, trigger.getFailedCount());
+        assertEquals(3, bodies.size());
+    }
+
+    @Test
+    public void testGivesUpAfterMaxRetries() throws InterruptedException {
+        failuresBeforeSuccess.set(Integer.MAX_VALUE);
+        IFTTTMakerChannelTrigger trigger = createTrigger();
+        trigger.invoke(inputPin, PinState.HIGH);
+
+        assertTrue(trigger.flush(5, TimeUnit.SECONDS));
+        assertEquals(0, trigger.getSentCount());
+        assertEquals(3, trigger.getRetryCount());
+        assertEquals(1, trigger.getFailedCount());
+    }
+
+    @Test
+    public void testClientErrorsAreNotRetried() throws InterruptedException {
+        failureStatus = 401;
+        failuresBeforeSuccess.set(1);
+        IFTTTMakerChannelTrigger trigger = createTrigger();
+        trigger.invoke(inputPin, PinState.HIGH);
+
+        assertTrue(trigger.flush(5, TimeUnit.SECONDS));
+        assertEquals(0, trigger.getRetryCount());
+        assertEquals(1, trigger.getFailedCount());
+        assertEquals(1, bodies.size());
+    }
+
+    @Test
+    public void testCoalescesBurst() throws InterruptedException {
+        release = new CountDownLatch(1);
+        IFTTTMakerChannelTrigger trigger = createTrigger();
+        trigger.setCoalesceWindow(10, TimeUnit.SECONDS);
+
+        // the first trigger goes straight out; the rest merge into one queued request
+        trigger.invoke(inputPin, PinState.HIGH);
+        trigger.invoke(inputPin, PinState.LOW);
+        trigger.invoke(inputPin, PinState.HIGH);
+        trigger.invoke(inputPin, PinState.LOW);
+        assertEquals(1, trigger.getPendingCount());
+        assertEquals(2, trigger.getCoalescedCount());
+
+        release.countDown();
+        assertTrue(trigger.flush(5, TimeUnit.SECONDS));
+        assertEquals(2, trigger.getSentCount());
+        assertEquals(2, bodies.size());
+        assertTrue(bodies.get(1).contains("&value2=0&"));
+    }
+
+    @Test
+    public void testBoundedQueueDropsOldest() throws InterruptedException {
+        release = new CountDownLatch(1);
+        IFTTTMakerChannelTrigger trigger = createTrigger();
+        trigger.setQueueCapacity(2);
+
+        trigger.invoke(inputPin, PinState.HIGH);
+        trigger.invoke(inputPin, PinState.LOW);
+        trigger.invoke(inputPin, PinState.LOW);
+        trigger.invoke(inputPin, PinState.LOW);
+        trigger.invoke(inputPin, PinState.HIGH);
+        assertEquals(2, trigger.getPendingCount());
+        assertEquals(2, trigger.getDroppedCount());
+
+        release.countDown();
+        assertTrue(trigger.flush(5, TimeUnit.SECONDS));
+        assertEquals(3, trigger.getSentCount());
+        assertTrue(bodies.get(2).contains("&value2=1&"));
+    }
+}
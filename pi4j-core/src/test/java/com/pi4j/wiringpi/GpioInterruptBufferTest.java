@@ -0,0 +1,193 @@
+package com.pi4j.wiringpi;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioInterruptBufferTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for the {@link GpioInterruptBuffer}.
+ */
+public class GpioInterruptBufferTest {
+
+    private final List<Integer> pins = new ArrayList<>();
+    private final List<Boolean> states = new ArrayList<>();
+    private final List<Long> timestamps = new ArrayList<>();
+
+    private void handle(int pin, boolean state, long timestamp) {
+        pins.add(pin);
+        states.add(state);
+        timestamps.add(timestamp);
+    }
+
+    @Test
+    public void testCapacityRoundedToPowerOfTwo() {
+        assertEquals(8, new GpioInterruptBuffer(5, GpioInterruptBuffer.OverflowPolicy.BLOCK).getCapacity());
+        assertEquals(8, new GpioInterruptBuffer(8, GpioInterruptBuffer.OverflowPolicy.BLOCK).getCapacity());
+    }
+
+    @Test
+    public void testFifoOrder() {
+        GpioInterruptBuffer buffer = new GpioInterruptBuffer(4, GpioInterruptBuffer.OverflowPolicy.BLOCK);
+        for (int round = 0; round < 3; round++) {
+            assertTrue(buffer.offer(1, true, 100L));
+            assertTrue(buffer.offer(2, false, 200L));
+            assertTrue(buffer.offer(3, true, 300L));
+            assertEquals(3, buffer.size());
+            while (buffer.poll(this::handle));
+            assertTrue(buffer.isEmpty());
+        }
+        assertEquals(9, pins.size());
+        assertEquals(Integer.valueOf(1), pins.get(6));
+        assertEquals(Integer.valueOf(2), pins.get(7));
+        assertEquals(Boolean.FALSE, states.get(7));
+        assertEquals(Long.valueOf(300L), timestamps.get(8));
+        assertFalse(buffer.poll(this::handle));
+    }
+
+    @Test
+    public void testDropNewest() {
+        GpioInterruptBuffer buffer = new GpioInterruptBuffer(2, GpioInterruptBuffer.OverflowPolicy.DROP_NEWEST);
+        assertTrue(buffer.offer(1, true, 1L));
+        assertTrue(buffer.offer(2, true, 2L));
+        assertFalse(buffer.offer(3, true, 3L));
+        assertEquals(1, buffer.getOverflowCount());
+        assertEquals(1, buffer.getDroppedCount());
+
+        while (buffer.poll(this::handle));
+        assertEquals(2, pins.size());
+        assertEquals(Integer.valueOf(1), pins.get(0));
+        assertEquals(Integer.valueOf(2), pins.get(1));
+    }
+
+    @Test
+    public void testDropOldest() {
+        GpioInterruptBuffer buffer = new GpioInterruptBuffer(2, GpioInterruptBuffer.OverflowPolicy.DROP_OLDEST);
+        assertTrue(buffer.offer(1, true, 1L));
+        assertTrue(buffer.offer(2, true, 2L));
+        assertTrue(buffer.offer(3, true, 3L));
+        assertEquals(1, buffer.getOverflowCount());
+        assertEquals(1, buffer.getDroppedCount());
+
+        while (buffer.poll(this::handle));
+        assertEquals(2, pins.size());
+        assertEquals(Integer.valueOf(2), pins.get(0));
+        assertEquals(Integer.valueOf(3), pins.get(1));
+    }
+
+    @Test
+    public void testClear() {
+        GpioInterruptBuffer buffer = new GpioInterruptBuffer(4, GpioInterruptBuffer.OverflowPolicy.BLOCK);
+        buffer.offer(1, true, 1L);
+        buffer.offer(2, false, 2L);
+        assertEquals(2, buffer.clear());
+        assertTrue(buffer.isEmpty());
+        assertEquals(0, buffer.getDroppedCount());
+
+        // the cleared slots are available again
+        for (int pin = 0; pin < 4; pin++) {
+            assertTrue(buffer.offer(pin, true, pin));
+        }
+        assertTrue(buffer.poll(this::handle));
+        assertEquals(Integer.valueOf(0), pins.get(0));
+    }
+
+    @Test
+    public void testBlockWaitsForConsumer() throws InterruptedException {
+        final GpioInterruptBuffer buffer = new GpioInterruptBuffer(2, GpioInterruptBuffer.OverflowPolicy.BLOCK);
+        buffer.offer(1, true, 1L);
+        buffer.offer(2, true, 2L);
+
+        Thread producer = new Thread(() -> buffer.offer(3, true, 3L));
+        producer.start();
+        producer.join(100);
+        assertTrue(producer.isAlive());
+
+        // free a slot; the blocked producer completes
+        assertTrue(buffer.poll(this::handle));
+        producer.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse(producer.isAlive());
+        assertEquals(1, buffer.getOverflowCount());
+        assertEquals(0, buffer.getDroppedCount());
+
+        while (buffer.poll(this::handle));
+        assertEquals(3, pins.size());
+        assertEquals(Integer.valueOf(3), pins.get(2));
+    }
+
+    @Test
+    public void testConcurrentProducersSingleConsumer() throws InterruptedException {
+        final int producers = 4;
+        final int eventsPerProducer = 100_000;
+        final GpioInterruptBuffer buffer = new GpioInterruptBuffer(64, GpioInterruptBuffer.OverflowPolicy.BLOCK);
+        final long[] lastTimestamp = new long[producers];
+        final long[] received = new long[1];
+
+        Thread consumer = new Thread(() -> {
+            try {
+                while (received[0] < (long) producers * eventsPerProducer) {
+                    buffer.take((pin, state, timestamp) -> {
+                        // events from each producer arrive in order
+                        assertTrue(timestamp > lastTimestamp[pin]);
+                        lastTimestamp[pin] = timestamp;
+                        received[0]++;
+                    });
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int producer = 0; producer < producers; producer++) {
+            final int pin = producer;
+            Thread thread = new Thread(() -> {
+                for (int index = 1; index <= eventsPerProducer; index++) {
+                    buffer.offer(pin, (index % 2) == 0, index);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        consumer.join(TimeUnit.SECONDS.toMillis(30));
+
+        assertFalse(consumer.isAlive());
+        assertEquals((long) producers * eventsPerProducer, received[0]);
+        assertEquals(0, buffer.getDroppedCount());
+        assertTrue(buffer.isEmpty());
+    }
+}
@@ -0,0 +1,199 @@
+package com.pi4j.wiringpi;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SysfsGpioInterruptBackendTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2024 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for the {@link SysfsGpioInterruptBackend}, using a temporary
+ * directory that mimics <code>/sys/class/gpio</code>.
+ */
+public class SysfsGpioInterruptBackendTest {
+
+    private Path gpioPath;
+    private SysfsGpioInterruptBackend backend;
+    private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+    @Before
+    public void setUp() throws IOException {
+        gpioPath = Files.createTempDirectory("gpio");
+        export(17, "0");
+        export(27, "1");
+
+        // pin numbers are offset from the sysfs GPIO numbers to verify the pin mapping
+        backend = new SysfsGpioInterruptBackend(gpioPath, TimeUnit.MILLISECONDS.toNanos(1), pin -> pin + 10);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        backend.shutdown();
+        try (Stream<Path> files = Files.walk(gpioPath)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    private void handle(int pin, boolean state, long timestamp) {
+        events.add(pin + "=" + (state ? 1 : 0));
+    }
+
+    private void export(int gpio, String value) throws IOException {
+        Files.createDirectories(gpioPath.resolve("gpio" + gpio));
+        setValue(gpio, value);
+    }
+
+    private void setValue(int gpio, String value) throws IOException {
+        Files.write(gpioPath.resolve("gpio" + gpio).resolve("value"), (value + "\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String nextEvent() throws InterruptedException {
+        return events.poll(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testStateChangesReported() throws Exception {
+        assertEquals(1, backend.enablePinStateChangeCallback(7, this::handle));
+        assertEquals(1, backend.enablePinStateChangeCallback(17, this::handle));
+        assertEquals(0, backend.enablePinStateChangeCallback(7, this::handle));
+
+        setValue(17, "1");
+        assertEquals("7=1", nextEvent());
+        setValue(27, "0");
+        assertEquals("17=0", nextEvent());
+        setValue(17, "0");
+        assertEquals("7=0", nextEvent());
+
+        // unchanged values are not reported
+        setValue(17, "0");
+        assertNull(events.poll(50, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testDisabledPinNotReported() throws Exception {
+        assertEquals(1, backend.enablePinStateChangeCallback(7, this::handle));
+        assertEquals(1, backend.enablePinStateChangeCallback(17, this::handle));
+        assertEquals(1, backend.disablePinStateChangeCallback(7));
+        assertEquals(0, backend.disablePinStateChangeCallback(7));
+
+        setValue(17, "1");
+        setValue(27, "0");
+        assertEquals("17=0", nextEvent());
+        assertNull(events.poll(50, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testPollingStopsWithLastDisabledPin() throws Exception {
+        assertEquals(1, backend.enablePinStateChangeCallback(7, this::handle));
+        assertEquals(1, backend.enablePinStateChangeCallback(17, this::handle));
+        assertTrue(isPolling());
+
+        assertEquals(1, backend.disablePinStateChangeCallback(7));
+        assertTrue(isPolling());
+        assertEquals(1, backend.disablePinStateChangeCallback(17));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (isPolling() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertFalse(isPolling());
+
+        // the next enabled pin starts polling again
+        assertEquals(1, backend.enablePinStateChangeCallback(7, this::handle));
+        assertTrue(isPolling());
+        setValue(17, "1");
+        assertEquals("7=1", nextEvent());
+    }
+
+    @Test
+    public void testRestartWaitsForStoppedPollingThread() throws Exception {
+        final CountDownLatch handling = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        assertEquals(1, backend.enablePinStateChangeCallback(7, (pin, state, timestamp) -> {
+            handling.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        setValue(17, "1");
+        assertTrue(handling.await(5, TimeUnit.SECONDS));
+
+        // the stopped polling thread is still inside its last poll
+        assertEquals(1, backend.disablePinStateChangeCallback(7));
+        Thread enabler = new Thread(() -> backend.enablePinStateChangeCallback(17, this::handle));
+        enabler.start();
+        enabler.join(50);
+        assertTrue(enabler.isAlive());
+
+        release.countDown();
+        enabler.join(5000);
+        assertFalse(enabler.isAlive());
+        setValue(27, "0");
+        assertEquals("17=0", nextEvent());
+        assertNull(events.poll(50, TimeUnit.MILLISECONDS));
+    }
+
+    private static boolean isPolling() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .anyMatch(thread -> thread.getName().equals("pi4j-gpio-interrupt-sysfs") && thread.isAlive());
+    }
+
+    @Test
+    public void testPinNotExported() {
+        assertTrue(backend.enablePinStateChangeCallback(1, this::handle) < 0);
+        assertTrue(backend.enablePinStateChangeCallback(-1, this::handle) < 0);
+    }
+
+    @Test
+    public void testTimestamps() throws Exception {
+        final long[] timestamp = new long[1];
+        backend.enablePinStateChangeCallback(7, (pin, state, time) -> {
+            timestamp[0] = time;
+            events.add("changed");
+        });
+
+        long before = System.nanoTime();
+        setValue(17, "1");
+        assertEquals("changed", nextEvent());
+        assertTrue(timestamp[0] >= before && timestamp[0] <= System.nanoTime());
+    }
+}
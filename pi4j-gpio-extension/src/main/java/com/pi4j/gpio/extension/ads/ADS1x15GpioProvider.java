@@ -35,8 +35,6 @@ import com.pi4j.io.gpio.GpioProvider;
 import com.pi4j.io.gpio.GpioProviderBase;
 import com.pi4j.io.gpio.Pin;
 import com.pi4j.io.gpio.PinMode;
-import com.pi4j.io.gpio.event.PinAnalogValueChangeEvent;
-import com.pi4j.io.gpio.event.PinListener;
 import com.pi4j.io.i2c.I2CBus;
 import com.pi4j.io.i2c.I2CDevice;
 import com.pi4j.io.i2c.I2CFactory;
@@ -526,17 +524,8 @@ public abstract class ADS1x15GpioProvider extends GpioProviderBase implements Gp
         }
 
         private void dispatchPinChangeEvent(int pinAddress, double value) {
-            // iterate over the pin listeners map
-            for (Pin pin : listeners.keySet()) {
-                // dispatch this event to the listener
-                // if a matching pin address is found
-                if (pin.getAddress() == pinAddress) {
-                    // dispatch this event to all listener handlers
-                    for (PinListener listener : listeners.get(pin)) {
-                        listener.handlePinEvent(new PinAnalogValueChangeEvent(this, pin, value));
-                    }
-                }
-            }
+            // dispatch this event to the listeners registered at the pin address
+            dispatchPinAnalogValueChangeEvent(pinAddress, value);
         }
     }
 }
@@ -28,8 +28,6 @@ package com.pi4j.gpio.extension.base;
  */
 
 import com.pi4j.io.gpio.*;
-import com.pi4j.io.gpio.event.PinAnalogValueChangeEvent;
-import com.pi4j.io.gpio.event.PinListener;
 
 import java.io.IOException;
 
@@ -409,17 +407,8 @@ public abstract class AdcGpioProviderBase extends GpioProviderBase implements Ad
         }
 
         private void dispatchPinChangeEvent(int pinAddress, double value) {
-            // iterate over the pin listeners map
-            for (Pin pin : listeners.keySet()) {
-                // dispatch this event to the listener
-                // if a matching pin address is found
-                if (pin.getAddress() == pinAddress) {
-                    // dispatch this event to all listener handlers
-                    for (PinListener listener : listeners.get(pin)) {
-                        listener.handlePinEvent(new PinAnalogValueChangeEvent(this, pin, value));
-                    }
-                }
-            }
+            // dispatch this event to the listeners registered at the pin address
+            dispatchPinAnalogValueChangeEvent(pinAddress, value);
         }
     }
 }
@@ -1,8 +1,6 @@
 package com.pi4j.gpio.extension.mcp;
 
 import com.pi4j.io.gpio.*;
-import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
-import com.pi4j.io.gpio.event.PinListener;
 import com.pi4j.io.gpio.exception.InvalidPinException;
 import com.pi4j.io.gpio.exception.UnsupportedPinPullResistanceException;
 import com.pi4j.io.i2c.I2CBus;
@@ -183,6 +181,11 @@ public class MCP23008GpioProvider extends GpioProviderBase implements GpioProvid
 
     @Override
     public void setState(Pin pin, PinState state) {
+        // skip the bus transaction if the pin already has this state
+        if (isRedundantWrite(pin, state)) {
+            return;
+        }
+
         super.setState(pin, state);
 
         try {
@@ -364,20 +367,8 @@ public class MCP23008GpioProvider extends GpioProviderBase implements GpioProvid
         }
 
         private void dispatchPinChangeEvent(int pinAddress, PinState state) {
-            // iterate over the pin listeners map
-            for (Pin pin : listeners.keySet()) {
-                // System.out.println("<<< DISPATCH >>> " + pin.getName() + " : " +
-                // state.getName());
-
-                // dispatch this event to the listener
-                // if a matching pin address is found
-                if (pin.getAddress() == pinAddress) {
-                    // dispatch this event to all listener handlers
-                    for (PinListener listener : listeners.get(pin)) {
-                        listener.handlePinEvent(new PinDigitalStateChangeEvent(this, pin, state));
-                    }
-                }
-            }
+            // dispatch this event to the listeners registered at the pin address
+            dispatchPinDigitalStateChangeEvent(pinAddress, state);
         }
     }
 }
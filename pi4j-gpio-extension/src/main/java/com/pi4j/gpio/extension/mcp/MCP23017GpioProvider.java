@@ -8,8 +8,6 @@ import com.pi4j.io.gpio.Pin;
 import com.pi4j.io.gpio.PinMode;
 import com.pi4j.io.gpio.PinPullResistance;
 import com.pi4j.io.gpio.PinState;
-import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
-import com.pi4j.io.gpio.event.PinListener;
 import com.pi4j.io.gpio.exception.InvalidPinException;
 import com.pi4j.io.gpio.exception.UnsupportedPinPullResistanceException;
 import com.pi4j.io.i2c.I2CBus;
@@ -251,6 +249,11 @@ public class MCP23017GpioProvider extends GpioProviderBase implements GpioProvid
 
     @Override
     public void setState(Pin pin, PinState state) {
+        // skip the bus transaction if the pin already has this state
+        if (isRedundantWrite(pin, state)) {
+            return;
+        }
+
         super.setState(pin, state);
 
         try {
@@ -265,6 +268,64 @@ public class MCP23017GpioProvider extends GpioProviderBase implements GpioProvid
         }
     }
 
+    @Override
+    public void setState(Pin[] pins, int mask, int values) {
+        // skip the pins that already have the requested state
+        mask = elideRedundantWrites(pins, mask, values);
+        if (mask == 0) {
+            return;
+        }
+
+        int statesA = currentStatesA;
+        int statesB = currentStatesB;
+
+        // validate all selected pins and compute the new port register values
+        for (int index = 0; index < pins.length; index++) {
+            int bit = 1 << index;
+            if ((mask & bit) == 0) {
+                continue;
+            }
+            Pin pin = pins[index];
+            validateDigitalOutput(pin);
+            boolean high = (values & bit) != 0;
+            if (pin.getAddress() < GPIO_B_OFFSET) {
+                int pinAddress = pin.getAddress() - GPIO_A_OFFSET;
+                statesA = high ? (statesA | pinAddress) : (statesA & ~pinAddress);
+            } else {
+                int pinAddress = pin.getAddress() - GPIO_B_OFFSET;
+                statesB = high ? (statesB | pinAddress) : (statesB & ~pinAddress);
+            }
+        }
+
+        try {
+            // update the changed port registers; when both changed they are written in a single
+            // transfer (sequential mode increments the register address from GPIOA to GPIOB)
+            boolean changedA = (statesA != currentStatesA);
+            boolean changedB = (statesB != currentStatesB);
+            if (changedA && changedB) {
+                device.write(REGISTER_GPIO_A, new byte[] { (byte) statesA, (byte) statesB });
+            } else if (changedA) {
+                device.write(REGISTER_GPIO_A, (byte) statesA);
+            } else if (changedB) {
+                device.write(REGISTER_GPIO_B, (byte) statesB);
+            }
+            currentStatesA = statesA;
+            currentStatesB = statesB;
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        // for digital output pins, we will echo the event feedback and cache the pin state
+        for (int index = 0; index < pins.length; index++) {
+            int bit = 1 << index;
+            if ((mask & bit) != 0) {
+                PinState state = PinState.getState((values & bit) != 0);
+                dispatchPinDigitalStateChangeEvent(pins[index], state);
+                getPinCache(pins[index]).setState(state);
+            }
+        }
+    }
+
     private void setStateA(Pin pin, PinState state) throws IOException {
         // determine pin address
         int pinAddress = pin.getAddress() - GPIO_A_OFFSET;
@@ -564,20 +625,8 @@ public class MCP23017GpioProvider extends GpioProviderBase implements GpioProvid
         }
 
         private void dispatchPinChangeEvent(int pinAddress, PinState state) {
-            // iterate over the pin listeners map
-            for (Pin pin : listeners.keySet()) {
-                // System.out.println("<<< DISPATCH >>> " + pin.getName() + " : " +
-                // state.getName());
-
-                // dispatch this event to the listener
-                // if a matching pin address is found
-                if (pin.getAddress() == pinAddress) {
-                    // dispatch this event to all listener handlers
-                    for (PinListener listener : listeners.get(pin)) {
-                        listener.handlePinEvent(new PinDigitalStateChangeEvent(this, pin, state));
-                    }
-                }
-            }
+            // dispatch this event to the listeners registered at the pin address
+            dispatchPinDigitalStateChangeEvent(pinAddress, state);
         }
     }
 }
@@ -1,8 +1,6 @@
 package com.pi4j.gpio.extension.mcp;
 
 import com.pi4j.io.gpio.*;
-import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
-import com.pi4j.io.gpio.event.PinListener;
 import com.pi4j.io.gpio.exception.InvalidPinException;
 import com.pi4j.io.gpio.exception.UnsupportedPinPullResistanceException;
 import com.pi4j.io.spi.SpiChannel;
@@ -259,6 +257,19 @@ public class MCP23S17GpioProvider extends GpioProviderBase implements GpioProvid
         spi.write(packet);
     }
 
+    protected synchronized void write(byte register, byte dataA, byte dataB) throws IOException {
+        // create packet in data buffer; with IOCON.BANK=0 and IOCON.SEQOP set (byte mode)
+        // the second data byte is written to the paired B register
+        byte packet[] = new byte[4];
+        packet[0] = (byte)(address|WRITE_FLAG);   // address byte
+        packet[1] = register;                     // register byte
+        packet[2] = dataA;                        // data byte (A register)
+        packet[3] = dataB;                        // data byte (B register)
+
+        // send data packet
+        spi.write(packet);
+    }
+
     protected synchronized int read(byte register) throws IOException {
         // create packet in data buffer
         byte packet[] = new byte[3];
@@ -366,6 +377,11 @@ public class MCP23S17GpioProvider extends GpioProviderBase implements GpioProvid
 
     @Override
     public void setState(Pin pin, PinState state) {
+        // skip the bus transaction if the pin already has this state
+        if (isRedundantWrite(pin, state)) {
+            return;
+        }
+
         super.setState(pin, state);
 
         try {
@@ -380,6 +396,64 @@ public class MCP23S17GpioProvider extends GpioProviderBase implements GpioProvid
         }
     }
 
+    @Override
+    public void setState(Pin[] pins, int mask, int values) {
+        // skip the pins that already have the requested state
+        mask = elideRedundantWrites(pins, mask, values);
+        if (mask == 0) {
+            return;
+        }
+
+        int statesA = currentStatesA;
+        int statesB = currentStatesB;
+
+        // validate all selected pins and compute the new port register values
+        for (int index = 0; index < pins.length; index++) {
+            int bit = 1 << index;
+            if ((mask & bit) == 0) {
+                continue;
+            }
+            Pin pin = pins[index];
+            validateDigitalOutput(pin);
+            boolean high = (values & bit) != 0;
+            if (pin.getAddress() < GPIO_B_OFFSET) {
+                int pinAddress = pin.getAddress() - GPIO_A_OFFSET;
+                statesA = high ? (statesA | pinAddress) : (statesA & ~pinAddress);
+            } else {
+                int pinAddress = pin.getAddress() - GPIO_B_OFFSET;
+                statesB = high ? (statesB | pinAddress) : (statesB & ~pinAddress);
+            }
+        }
+
+        try {
+            // update the changed port registers; when both changed they are written in a single
+            // transfer (byte mode toggles the register address between GPIOA and GPIOB)
+            boolean changedA = (statesA != currentStatesA);
+            boolean changedB = (statesB != currentStatesB);
+            if (changedA && changedB) {
+                write(REGISTER_GPIO_A, (byte) statesA, (byte) statesB);
+            } else if (changedA) {
+                write(REGISTER_GPIO_A, (byte) statesA);
+            } else if (changedB) {
+                write(REGISTER_GPIO_B, (byte) statesB);
+            }
+            currentStatesA = statesA;
+            currentStatesB = statesB;
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        // for digital output pins, we will echo the event feedback and cache the pin state
+        for (int index = 0; index < pins.length; index++) {
+            int bit = 1 << index;
+            if ((mask & bit) != 0) {
+                PinState state = PinState.getState((values & bit) != 0);
+                dispatchPinDigitalStateChangeEvent(pins[index], state);
+                getPinCache(pins[index]).setState(state);
+            }
+        }
+    }
+
     private void setStateA(Pin pin, PinState state) throws IOException {
         // determine pin address
         int pinAddress = pin.getAddress() - GPIO_A_OFFSET;
@@ -664,20 +738,8 @@ public class MCP23S17GpioProvider extends GpioProviderBase implements GpioProvid
         }
 
         private void dispatchPinChangeEvent(int pinAddress, PinState state) {
-            // iterate over the pin listeners map
-            for (Pin pin : listeners.keySet()) {
-                // System.out.println("<<< DISPATCH >>> " + pin.getName() + " : " +
-                // state.getName());
-
-                // dispatch this event to the listener
-                // if a matching pin address is found
-                if (pin.getAddress() == pinAddress) {
-                    // dispatch this event to all listener handlers
-                    for (PinListener listener : listeners.get(pin)) {
-                        listener.handlePinEvent(new PinDigitalStateChangeEvent(this, pin, state));
-                    }
-                }
-            }
+            // dispatch this event to the listeners registered at the pin address
+            dispatchPinDigitalStateChangeEvent(pinAddress, state);
         }
     }
 }
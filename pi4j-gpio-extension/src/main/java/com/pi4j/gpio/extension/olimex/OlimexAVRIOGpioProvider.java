@@ -6,8 +6,6 @@ import com.pi4j.io.gpio.GpioProviderBase;
 import com.pi4j.io.gpio.Pin;
 import com.pi4j.io.gpio.PinMode;
 import com.pi4j.io.gpio.PinState;
-import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
-import com.pi4j.io.gpio.event.PinListener;
 import com.pi4j.io.serial.Serial;
 import com.pi4j.io.serial.SerialDataEvent;
 import com.pi4j.io.serial.SerialDataEventListener;
@@ -114,6 +112,11 @@ public class OlimexAVRIOGpioProvider extends GpioProviderBase implements GpioPro
 
     @Override
     public void setState(Pin pin, PinState state) {
+        // skip the bus transaction if the pin already has this state
+        if (isRedundantWrite(pin, state)) {
+            return;
+        }
+
         super.setState(pin, state);
 
         // turn ON/OFF relay pins
@@ -241,19 +244,8 @@ public class OlimexAVRIOGpioProvider extends GpioProviderBase implements GpioPro
 
 
         private void dispatchPinChangeEvent(int pinAddress, PinState state) {
-            // iterate over the pin listeners map
-            for (Pin pin : listeners.keySet()) {
-                //System.out.println("<<< DISPATCH >>> " + pin.getName() + " : " + state.getName());
-
-                // dispatch this event to the listener
-                // if a matching pin address is found
-                if (pin.getAddress() == pinAddress) {
-                    // dispatch this event to all listener handlers
-                    for (PinListener listener : listeners.get(pin)) {
-                        listener.handlePinEvent(new PinDigitalStateChangeEvent(this, pin, state));
-                    }
-                }
-            }
+            // dispatch this event to the listeners registered at the pin address
+            dispatchPinDigitalStateChangeEvent(pinAddress, state);
         }
     }
 }
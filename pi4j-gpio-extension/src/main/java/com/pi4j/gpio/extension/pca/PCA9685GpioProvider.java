@@ -84,9 +84,6 @@ public class PCA9685GpioProvider extends GpioProviderBase implements GpioProvide
     protected BigDecimal frequency;
     protected int periodDurationMicros;
 
-    // custom pin cache
-    protected PCA9685GpioProviderPinCache[] cache = new PCA9685GpioProviderPinCache[16]; // support up to pin address 15 (16 pins)
-
     public PCA9685GpioProvider(int busNumber, int address) throws UnsupportedBusNumberException, IOException {
         // create I2C communications bus instance
         this(I2CFactory.getInstance(busNumber), address);
@@ -357,11 +354,13 @@ public class PCA9685GpioProvider extends GpioProviderBase implements GpioProvide
 
     @Override
     protected PCA9685GpioProviderPinCache getPinCache(Pin pin) {
-        PCA9685GpioProviderPinCache pc = cache[pin.getAddress()];
-        if(pc == null){
-            pc = cache[pin.getAddress()] = new PCA9685GpioProviderPinCache(pin);
-        }
-        return pc;
+        return (PCA9685GpioProviderPinCache) super.getPinCache(pin);
+    }
+
+    @Override
+    protected PCA9685GpioProviderPinCache createPinCache(Pin pin) {
+        // custom pin cache
+        return new PCA9685GpioProviderPinCache(pin);
     }
 
     @Override
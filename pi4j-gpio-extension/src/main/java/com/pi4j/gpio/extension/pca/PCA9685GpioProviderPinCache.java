@@ -35,8 +35,8 @@ import com.pi4j.io.gpio.Pin;
  */
 public class PCA9685GpioProviderPinCache extends GpioProviderPinCache {
 
-    private int pwmOnValue = -1;
-    private int pwmOffValue = -1;
+    private volatile int pwmOnValue = -1;
+    private volatile int pwmOffValue = -1;
 
     public PCA9685GpioProviderPinCache(Pin pin) {
         super(pin);
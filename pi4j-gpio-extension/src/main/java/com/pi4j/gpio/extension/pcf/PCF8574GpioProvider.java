@@ -29,8 +29,6 @@ package com.pi4j.gpio.extension.pcf;
 
 
 import com.pi4j.io.gpio.*;
-import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
-import com.pi4j.io.gpio.event.PinListener;
 import com.pi4j.io.i2c.I2CBus;
 import com.pi4j.io.i2c.I2CDevice;
 import com.pi4j.io.i2c.I2CFactory;
@@ -143,6 +141,11 @@ public class PCF8574GpioProvider extends GpioProviderBase implements GpioProvide
 
     @Override
     public void setState(Pin pin, PinState state) {
+        // skip the bus transaction if the pin already has this state
+        if (isRedundantWrite(pin, state)) {
+            return;
+        }
+
         super.setState(pin, state);
 
         try {
@@ -156,6 +159,47 @@ public class PCF8574GpioProvider extends GpioProviderBase implements GpioProvide
         }
     }
 
+    @Override
+    public void setState(Pin[] pins, int mask, int values) {
+        // skip the pins that already have the requested state
+        mask = elideRedundantWrites(pins, mask, values);
+        if (mask == 0) {
+            return;
+        }
+
+        // validate all selected pins before changing any pin state
+        for (int index = 0; index < pins.length; index++) {
+            if ((mask & (1 << index)) != 0) {
+                validateDigitalOutput(pins[index]);
+            }
+        }
+
+        try {
+            // set state values for all selected pin bits
+            for (int index = 0; index < pins.length; index++) {
+                int bit = 1 << index;
+                if ((mask & bit) != 0) {
+                    currentStates.set(pins[index].getAddress(), (values & bit) != 0);
+                }
+            }
+
+            // update state value for all pins in a single write
+            device.write(currentStates.isEmpty() ? 0 : currentStates.toByteArray()[0]);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        // for digital output pins, we will echo the event feedback and cache the pin state
+        for (int index = 0; index < pins.length; index++) {
+            int bit = 1 << index;
+            if ((mask & bit) != 0) {
+                PinState state = PinState.getState((values & bit) != 0);
+                dispatchPinDigitalStateChangeEvent(pins[index], state);
+                getPinCache(pins[index]).setState(state);
+            }
+        }
+    }
+
     @Override
     public PinState getState(Pin pin) {
         return super.getState(pin);
@@ -246,20 +290,8 @@ public class PCF8574GpioProvider extends GpioProviderBase implements GpioProvide
         }
 
         private void dispatchPinChangeEvent(int pinAddress, PinState state) {
-            // iterate over the pin listeners map
-            for (Pin pin : listeners.keySet()) {
-                // System.out.println("<<< DISPATCH >>> " + pin.getName() + " : " +
-                // state.getName());
-
-                // dispatch this event to the listener
-                // if a matching pin address is found
-                if (pin.getAddress() == pinAddress) {
-                    // dispatch this event to all listener handlers
-                    for (PinListener listener : listeners.get(pin)) {
-                        listener.handlePinEvent(new PinDigitalStateChangeEvent(this, pin, state));
-                    }
-                }
-            }
+            // dispatch this event to the listeners registered at the pin address
+            dispatchPinDigitalStateChangeEvent(pinAddress, state);
         }
     }
 }
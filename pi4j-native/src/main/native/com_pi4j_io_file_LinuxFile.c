@@ -36,6 +36,7 @@
 #include <errno.h>
 #include <stdint.h>
 #include <sys/mman.h>
+#include <poll.h>
 
 #include "com_pi4j_io_file_LinuxFile.h"
 
@@ -139,6 +140,59 @@ int directIOCTLStructure
 }
 
 
+/*
+ * Class:     com_pi4j_io_file_LinuxFile
+ * Method:    directRead
+ * Signature: (ILjava/nio/ByteBuffer;III)I
+ *
+ * Waits up to timeout milliseconds (forever if negative) for the file descriptor
+ * to become readable, then reads up to length bytes into the direct buffer.
+ * Returns the number of bytes read, 0 on timeout or -1 on error (see errno).
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_io_file_LinuxFile_directRead
+  (JNIEnv *env, jclass obj, jint fd, jobject data, jint dataOffset, jint length, jint timeout)
+{
+    uint8_t *dataBuffer = (uint8_t *)((*env)->GetDirectBufferAddress(env, data));
+    struct pollfd pfd;
+    int ret;
+
+    if(dataBuffer == NULL) {
+        errno = EINVAL;
+        return -1;
+    }
+
+    if(timeout >= 0) {
+        pfd.fd = fd;
+        pfd.events = POLLIN | POLLPRI;
+        pfd.revents = 0;
+
+        ret = poll(&pfd, 1, timeout);
+        if(ret < 0 && errno == EINTR) {
+            return 0;
+        }
+        if(ret <= 0) {
+            return ret;
+        }
+    }
+
+    ret = read(fd, dataBuffer + dataOffset, (size_t)length);
+    if(ret < 0 && (errno == EINTR || errno == EAGAIN)) {
+        return 0;
+    }
+    return ret;
+}
+
+/*
+ * Class:     com_pi4j_io_file_LinuxFile
+ * Method:    directClose
+ * Signature: (I)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_io_file_LinuxFile_directClose
+  (JNIEnv *env, jclass obj, jint fd)
+{
+    return close(fd);
+}
+
 /*
  * Class:       com_pi4j_io_file_LinuxFile
  * Method:      getFD
@@ -82,6 +82,22 @@ JNIEXPORT jint JNICALL Java_com_pi4j_io_file_LinuxFile_munmapDirect
 JNIEXPORT jint JNICALL Java_com_pi4j_io_file_LinuxFile_directIOCTLStructure
   (JNIEnv *env, jclass obj, jint fd, jlong command, jobject data, jint dataOffset, jobject offsetMap, jint offsetMapOffset, jint offsetCapacity);
 
+/*
+ * Class:     com_pi4j_io_file_LinuxFile
+ * Method:    directRead
+ * Signature: (ILjava/nio/ByteBuffer;III)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_io_file_LinuxFile_directRead
+  (JNIEnv *env, jclass obj, jint fd, jobject data, jint dataOffset, jint length, jint timeout);
+
+/*
+ * Class:     com_pi4j_io_file_LinuxFile
+ * Method:    directClose
+ * Signature: (I)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_io_file_LinuxFile_directClose
+  (JNIEnv *env, jclass obj, jint fd);
+
 /*
  * Class:      com_pi4j_io_file_LinuxFile
  * Method:     getFD
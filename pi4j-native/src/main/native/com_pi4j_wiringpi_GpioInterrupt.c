@@ -28,6 +28,7 @@
 #include <stdint.h>
 #include <stdarg.h>
 #include <stdlib.h>
+#include <errno.h>
 #include <poll.h>
 #include <fcntl.h>
 #include <jni.h>
@@ -35,6 +36,8 @@
 #include <pthread.h>
 #include <termios.h>
 #include <unistd.h>
+#include <time.h>
+#include <sys/epoll.h>
 #include <sys/ioctl.h>
 #include <sys/types.h>
 #include <sys/stat.h>
@@ -43,187 +46,277 @@
 #include "com_pi4j_wiringpi_GpioUtil.h"
 
 // constants
-#define GPIO_POLL_TIMEOUT    30000 // 30 seconds
 #define GPIO_RDBUF_LEN       5
 
+// maximum number of ready pins handled per epoll_wait() wake-up
+#define GPIO_MAX_EVENTS      MAX_GPIO_PINS
+
+// delay (in microseconds) before waiting again after an epoll_wait() error
+#define GPIO_MONITOR_RETRY_DELAY 100000
+
 
 // java callback variables
 jclass gpio_callback_class;
 jmethodID gpio_callback_method;
 JavaVM *gpio_callback_jvm;
 
-// monitoring thread data structure
+// monitored pin data structure
 struct gpio_monitor_data{
-   int  thread_id;
    int  pin;
    int  edgePin;
+   int  fd;
    int  lastKnownState;
    int  running;
 };
 
-// monitoring thread data structure array
+// monitored pin data structure array (guarded by gpio_monitor_lock)
 struct gpio_monitor_data gpio_monitor_data_array[MAX_GPIO_PINS];
 
-// monitoring threads array
-pthread_t gpio_monitor_threads[MAX_GPIO_PINS];
+// monitoring thread data structure
+struct gpio_monitor_thread{
+   int        epfd;
+   int        running;
+   pthread_t  thread;
+};
+
+// the single monitoring thread shared by all interrupt pins (guarded by gpio_monitor_lock)
+struct gpio_monitor_thread gpio_monitor_thread = { -1, 0 };
+
+// lock guarding the monitored pins and the monitoring thread
+pthread_mutex_t gpio_monitor_lock = PTHREAD_MUTEX_INITIALIZER;
 
 
 /**
  * --------------------------------------------------------
- * GPIO PIN MONITORING HANDLER
+ * GPIO PIN STATE
  * --------------------------------------------------------
- * This method is invoked in a new thread for each pin that
- * is being monitored.  This way multiple pins can be
- * monitored simultaneously and discretely.
+ * Read the pin state from the sysfs value file; this also
+ * acknowledges the pending edge notification on the file.
+ * Returns '0' for a HIGH state, non-zero for a LOW state
+ * (the strncmp() result against "1") or '-1' on error.
  */
-int monitorPinInterrupt(void *threadarg)
+static int readPinState(int fd)
 {
-	// obtain the monitoring data structure from the thread argument
-	struct gpio_monitor_data *monitorData;
-	monitorData = (struct gpio_monitor_data *) threadarg;
-
-	// cache a local pin value variable
-	int pin = monitorData->pin;
-	int edgePin = monitorData->edgePin;
-
-	//printf("\nNATIVE (GpioInterrupt) MONITORING PIN %d @ EDGE %d\n", pin, edgePin);
-
-    // monitoring instance variables
-	char fn[GPIO_FN_MAXLEN];
-	int fd,ret;
-	struct pollfd pfd;
 	char rdbuf[GPIO_RDBUF_LEN];
-
-	// allocate memory
 	memset(rdbuf, 0x00, GPIO_RDBUF_LEN);
-	memset(fn, 0x00, GPIO_FN_MAXLEN);
 
-	// attempt to access the pin state from the linux sysfs
-	// (each GPIO pin value is stored in file: '/sys/class/gpio/gpio#/value' )
-	getGpioPinValueFile(fn, edgePin);
-	fd=open(fn, O_RDONLY);
-	if(fd<0)
+	// seek to the fist position in the data file
+	lseek(fd, 0, SEEK_SET);
+
+	// read the data from the file into the data buffer
+	if(read(fd, rdbuf, GPIO_RDBUF_LEN-1) < 0)
 	{
-		// return error; unable to get file descriptor
-		// (this is likely because the pin has not been exported)
-		perror(fn);
-		return 2;
+		perror("read()");
+		return -1;
 	}
 
-	// set polling config structure
-	pfd.fd=fd;
-	pfd.events=POLLPRI; // High priority data may be read.
+	// only compare the first character; rdbuff may have more junk chars
+	return (strncmp(rdbuf, "1", 1) == 0) ? 0 : 1;
+}
 
-	// attempt to read the pin state from the linux sysfs
-	ret=read(fd, rdbuf, GPIO_RDBUF_LEN-1);
-	if(ret<0)
+/**
+ * --------------------------------------------------------
+ * GPIO PIN REGISTRATION
+ * --------------------------------------------------------
+ * Register the value file of a monitored pin with an epoll
+ * instance; sysfs signals edges on the value file as (high
+ * priority) POLLPRI data.  Returns '-1' on error.
+ */
+static int registerPin(int epfd, int index)
+{
+	struct epoll_event event;
+	memset(&event, 0x00, sizeof(event));
+	event.events = EPOLLPRI | EPOLLERR | EPOLLET;
+	event.data.u32 = (uint32_t)index;
+	if(epoll_ctl(epfd, EPOLL_CTL_ADD, gpio_monitor_data_array[index].fd, &event) < 0)
 	{
-		// return error; unable to read the data file
-		// (this is likely because the user has insufficient permissions)
-		perror("read()");
-		return 4;
+		perror("epoll_ctl()");
+		return -1;
+	}
+	return 0;
+}
+
+/**
+ * --------------------------------------------------------
+ * GPIO MONITORING EPOLL INSTANCE
+ * --------------------------------------------------------
+ * Create the epoll instance of the monitoring thread and
+ * register the value files of all monitored pins with it.
+ * Returns '-1' on error.  Must be called while holding
+ * gpio_monitor_lock.
+ */
+static int createMonitorEpoll(struct gpio_monitor_thread *monitorThread)
+{
+	int index;
+	monitorThread->epfd = epoll_create1(EPOLL_CLOEXEC);
+	if(monitorThread->epfd < 0)
+	{
+		perror("epoll_create1()");
+		return -1;
+	}
+	for(index = 0; index < MAX_GPIO_PINS; index++)
+	{
+		if(gpio_monitor_data_array[index].running > 0)
+			registerPin(monitorThread->epfd, index);
 	}
+	return 0;
+}
 
-	//printf("value is: %s\n", rdbuf);
+/**
+ * --------------------------------------------------------
+ * GPIO PIN MONITORING HANDLER
+ * --------------------------------------------------------
+ * This method is invoked in the monitoring thread that waits
+ * on a single epoll instance for edges on all of the
+ * monitored pins.  The thread attaches to the JVM once and
+ * performs all of the Java callbacks.  If waiting fails, the
+ * epoll instance is replaced and the monitored pins are
+ * registered again.
+ */
+void *monitorPinInterrupts(void *threadarg)
+{
+	// obtain the monitoring thread data structure from the thread argument
+	struct gpio_monitor_thread *monitorThread;
+	monitorThread = (struct gpio_monitor_thread *) threadarg;
 
-	// set the running state of the instance monitor data structure
-	monitorData->running = 1;
+	struct epoll_event events[GPIO_MAX_EVENTS];
+	struct timespec ts;
+	jlong timestamp;
+	int ready, index;
 
-	// initialize last known value and cache the value as the last known state
-	int compareLastKnown = strncmp(rdbuf, "1", 1); // only compare the first character; rdbuff may have more junk chars
-	monitorData->lastKnownState = compareLastKnown;
+	// only allow the thread to be cancelled while waiting for edges
+	pthread_setcancelstate(PTHREAD_CANCEL_DISABLE, NULL);
 
-  // get attached JVM
-  JNIEnv *env;
-  if ((*gpio_callback_jvm)->AttachCurrentThread(gpio_callback_jvm, (void **)&env, NULL) != JNI_OK)
-  {
-    perror("AttachCurrentThread()");
-    close(fd);
-    return 5;
-  }
+	// get attached JVM
+	JNIEnv *env;
+	if ((*gpio_callback_jvm)->AttachCurrentThread(gpio_callback_jvm, (void **)&env, NULL) != JNI_OK)
+	{
+		perror("AttachCurrentThread()");
+
+		// mark the thread as stopped so that the next enable call restarts it
+		pthread_mutex_lock(&gpio_monitor_lock);
+		close(monitorThread->epfd);
+		monitorThread->epfd = -1;
+		monitorThread->running = 0;
+		pthread_mutex_unlock(&gpio_monitor_lock);
+		pthread_detach(pthread_self());
+		return NULL;
+	}
 
 	// continuous thread loop
 	for(;;)
 	{
-		// clear/reset the data buffer
-		memset(rdbuf, 0x00, GPIO_RDBUF_LEN);
-
-		// seek to the fist position in the data file
-		lseek(fd, 0, SEEK_SET);
+		// wait for data to be written to any of the monitored GPIO value files
+		pthread_setcancelstate(PTHREAD_CANCEL_ENABLE, NULL);
+		ready = epoll_wait(monitorThread->epfd, events, GPIO_MAX_EVENTS, -1);
+		pthread_setcancelstate(PTHREAD_CANCEL_DISABLE, NULL);
+
+		// if the return value is less than '0' then an error was thrown;
+		// retry when interrupted by a signal, else recover the epoll instance
+		if(ready < 0)
+		{
+			if(errno == EINTR)
+				continue;
+			perror("epoll_wait()");
 
-		// wait for data to be written to the GPIO value file
-		// (timeout every 10 seconds and restart)
-		ret=poll(&pfd, 1, GPIO_POLL_TIMEOUT);
+			// replace the epoll instance and register the monitored pins again; if that
+			// fails, mark the thread as stopped so that the next enable call restarts it
+			pthread_mutex_lock(&gpio_monitor_lock);
+			close(monitorThread->epfd);
+			if(createMonitorEpoll(monitorThread) == 0)
+			{
+				pthread_mutex_unlock(&gpio_monitor_lock);
 
-		// if the return value is less than '0' then
-		// an error was thrown; bail out of the thread
-		if(ret<0)
-		{
-			perror("poll()");
-			close(fd);
-			return 6;
+				// avoid spinning if the error persists
+				usleep(GPIO_MONITOR_RETRY_DELAY);
+				continue;
+			}
+			monitorThread->running = 0;
+			pthread_mutex_unlock(&gpio_monitor_lock);
+			pthread_detach(pthread_self());
+			break;
 		}
 
-		// if the return value is equal to '0' then
-		// the polling simply timed out and we can restart
-		else if(ret==0)
-		{
-			//printf("timeout\n");
-			continue;
-		}
+		// capture the edge time as close to the wake-up as possible; CLOCK_MONOTONIC
+		// shares its time base with System.nanoTime() in the JVM on Linux
+		clock_gettime(CLOCK_MONOTONIC, &ts);
+		timestamp = ((jlong)ts.tv_sec * 1000000000LL) + ts.tv_nsec;
 
-		// if the return value is greater than '0' then
-		// a change to the GPIO data file occurred
-		else
+		for(index = 0; index < ready; index++)
 		{
-			// read the data from the file into the data buffer
-			ret=read(fd, rdbuf, GPIO_RDBUF_LEN-1);
-			if(ret<0)
+			int pin = (int)events[index].data.u32;
+			int state = -1;
+
+			// read the pin state unless the pin was disabled in the meantime
+			pthread_mutex_lock(&gpio_monitor_lock);
+			struct gpio_monitor_data *monitorData = &gpio_monitor_data_array[pin];
+			if(monitorData->running > 0)
 			{
-				// data read error
-				perror("read()");
-				continue;
-			}
+				int compareResult = readPinState(monitorData->fd);
 
-			//printf("interrupt, value is: %s\n", rdbuf);
+				// compare the data in the data buffer with the last known value state
+				// (we do this to prevent double event invocation for the same value)
+				if(compareResult >= 0 && compareResult != monitorData->lastKnownState)
+				{
+					// cache new last known state in the instance data structure
+					monitorData->lastKnownState = compareResult;
+					state = (compareResult == 0) ? 1 : 0;
+				}
+			}
+			pthread_mutex_unlock(&gpio_monitor_lock);
 
-			// compare the data in the data buffer with the last known value state
-			// (we do this to prevent double event invocation for the same value)
-			int compareResult = strncmp(rdbuf, "1", 1); // only compare the first character; rdbuff may have more junk chars
-			if(compareResult != monitorData->lastKnownState)
+			// invoke callback to java state method to notify event listeners
+			// (outside of the lock; the callback may block on a full event buffer)
+			if(state >= 0 && gpio_callback_class != NULL && gpio_callback_method != NULL)
 			{
-				// cache new last known state in the instance data structure
-				monitorData->lastKnownState = compareResult;
-
-				// ensure the callback class and method are available
-				if (gpio_callback_class != NULL && gpio_callback_method != NULL)
+				(*env)->CallStaticVoidMethod(env, gpio_callback_class, gpio_callback_method, (jint)pin, (jboolean)state, timestamp);
+				if((*env)->ExceptionCheck(env))
 				{
-					// ensure that the JVM exists
-					if(gpio_callback_jvm != NULL)
-					{
-						// invoke callback to java state method to notify event listeners
-						if(compareResult == 0)
-							(*env)->CallStaticVoidMethod(env, gpio_callback_class, gpio_callback_method, (jint)pin, (jboolean)1);
-						else
-							(*env)->CallStaticVoidMethod(env, gpio_callback_class, gpio_callback_method, (jint)pin, (jboolean)0);
-					}
+					(*env)->ExceptionDescribe(env);
+					(*env)->ExceptionClear(env);
 				}
 			}
 		}
 	}
 
 	// detach from thread
-  if ((*gpio_callback_jvm)->DetachCurrentThread(gpio_callback_jvm) != JNI_OK)
-  {
-    perror("DetachCurrentThread()");
-    close(fd);
-    return 8;
-  }
-
-	// if we reached this code (unlikely),
-	// then close the data file and exit the thread
-	close(fd);
-	return 0;
+	if ((*gpio_callback_jvm)->DetachCurrentThread(gpio_callback_jvm) != JNI_OK)
+	{
+		perror("DetachCurrentThread()");
+	}
+	return NULL;
+}
+
+/**
+ * --------------------------------------------------------
+ * GPIO MONITORING THREAD
+ * --------------------------------------------------------
+ * Get the monitoring thread; the thread and its epoll
+ * instance are created on first use and again if the thread
+ * stopped because its epoll instance could not be replaced,
+ * in which case the pins that are still monitored are
+ * registered with the new epoll instance.  Must be called
+ * while holding gpio_monitor_lock.
+ */
+static struct gpio_monitor_thread *getMonitorThread(void)
+{
+	struct gpio_monitor_thread *monitorThread = &gpio_monitor_thread;
+	if(monitorThread->running <= 0)
+	{
+		if(createMonitorEpoll(monitorThread) < 0)
+		{
+			return NULL;
+		}
+		if(pthread_create(&monitorThread->thread, NULL, monitorPinInterrupts, (void *) monitorThread) != 0)
+		{
+			perror("pthread_create()");
+			close(monitorThread->epfd);
+			monitorThread->epfd = -1;
+			return NULL;
+		}
+		monitorThread->running = 1;
+	}
+	return monitorThread;
 }
 
 /*
@@ -231,10 +324,10 @@ int monitorPinInterrupt(void *threadarg)
  * ENABLE PIN STATE CHANGES (for callback notifications)
  * --------------------------------------------------------
  * Class:     com_pi4j_wiringpi_GpioInterrupt
- * Method:    enablePinStateChangeCallback
+ * Method:    enableNativePinStateChangeCallback
  * Signature: (I)I
  */
-JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_enablePinStateChangeCallback
+JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_enableNativePinStateChangeCallback
   (JNIEnv *env, jclass class, jint pin)
 {
 	// get the index position for the requested pin number
@@ -242,45 +335,88 @@ JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_enablePinStateChange
 	int edgePin = getEdgePin(index);
 
 	// ensure that the requested pin index is valid
-	if(index >= 0 && edgePin >= 0)
+	if(index < 0 || index >= MAX_GPIO_PINS || edgePin < 0)
 	{
-		// only start this thread monitor if it has not already been started
-		if(gpio_monitor_data_array[index].running <= 0)
-		{
-            // get existing pin edge trigger
-            int edge;
-            edge = (int)Java_com_pi4j_wiringpi_GpioUtil_getEdgeDetection(env, class, pin);
-
-            // if pin edge trigger is not set to "both", then attempt to set it now
-            if(edge != com_pi4j_wiringpi_GpioUtil_EDGE_BOTH){
-                int retval;
-                retval = (int)Java_com_pi4j_wiringpi_GpioUtil_setEdgeDetection(env, class, pin, com_pi4j_wiringpi_GpioUtil_EDGE_BOTH);
-
-                // exit if pin edge trigger configuration was not successful
-                if(retval <= 0){
-                    return -2; // unable to set edge trigger
-                }
-            }
-
-			// configure the monitor instance data
-			gpio_monitor_data_array[index].thread_id = index;
-			gpio_monitor_data_array[index].pin = pin;
-			gpio_monitor_data_array[index].edgePin = edgePin;
-
-			// create monitoring instance thread
-			pthread_create(&gpio_monitor_threads[index], NULL, (void*) monitorPinInterrupt, (void *) &gpio_monitor_data_array[index]);
-
-			// return '1' when a thread was actively created and started
-			return 1;
-		}
+		// return '-1' on error; not a valid pin
+		return -1;
+	}
+
+	pthread_mutex_lock(&gpio_monitor_lock);
+
+	// only start monitoring this pin if it is not already monitored
+	// (but restart the monitoring thread if it has stopped)
+	if(gpio_monitor_data_array[index].running > 0)
+	{
+		getMonitorThread();
+		pthread_mutex_unlock(&gpio_monitor_lock);
 
 		// return '0' when no action was taken;
-		// (monitor already running)
+		// (pin already monitored)
 		return 0;
 	}
 
-	// return '-1' on error; not a valid pin
-	return -1;
+	// get existing pin edge trigger
+	int edge;
+	edge = (int)Java_com_pi4j_wiringpi_GpioUtil_getEdgeDetection(env, class, pin);
+
+	// if pin edge trigger is not set to "both", then attempt to set it now
+	if(edge != com_pi4j_wiringpi_GpioUtil_EDGE_BOTH){
+		int retval;
+		retval = (int)Java_com_pi4j_wiringpi_GpioUtil_setEdgeDetection(env, class, pin, com_pi4j_wiringpi_GpioUtil_EDGE_BOTH);
+
+		// exit if pin edge trigger configuration was not successful
+		if(retval <= 0){
+			pthread_mutex_unlock(&gpio_monitor_lock);
+			return -2; // unable to set edge trigger
+		}
+	}
+
+	// attempt to access the pin state from the linux sysfs
+	// (each GPIO pin value is stored in file: '/sys/class/gpio/gpio#/value' )
+	char fn[GPIO_FN_MAXLEN];
+	memset(fn, 0x00, GPIO_FN_MAXLEN);
+	getGpioPinValueFile(fn, edgePin);
+	int fd = open(fn, O_RDONLY | O_CLOEXEC);
+	if(fd < 0)
+	{
+		// unable to get file descriptor
+		// (this is likely because the pin has not been exported)
+		perror(fn);
+		pthread_mutex_unlock(&gpio_monitor_lock);
+		return -3;
+	}
+
+	// initialize the last known value; this also clears any pending edge notification
+	// (a read error is likely because the user has insufficient permissions)
+	int lastKnownState = readPinState(fd);
+	struct gpio_monitor_thread *monitorThread = (lastKnownState < 0) ? NULL : getMonitorThread();
+	if(monitorThread == NULL)
+	{
+		close(fd);
+		pthread_mutex_unlock(&gpio_monitor_lock);
+		return -3;
+	}
+
+	// configure the monitor instance data
+	gpio_monitor_data_array[index].pin = pin;
+	gpio_monitor_data_array[index].edgePin = edgePin;
+	gpio_monitor_data_array[index].fd = fd;
+	gpio_monitor_data_array[index].lastKnownState = lastKnownState;
+
+	// register the value file with the monitoring thread's epoll instance
+	if(registerPin(monitorThread->epfd, index) < 0)
+	{
+		close(fd);
+		gpio_monitor_data_array[index].fd = -1;
+		pthread_mutex_unlock(&gpio_monitor_lock);
+		return -3;
+	}
+	gpio_monitor_data_array[index].running = 1;
+
+	pthread_mutex_unlock(&gpio_monitor_lock);
+
+	// return '1' when the pin monitoring was actively started
+	return 1;
 }
 
 /*
@@ -288,41 +424,50 @@ JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_enablePinStateChange
  * DISABLE PIN STATE CHANGES (for callback notifications)
  * --------------------------------------------------------
  * Class:     com_pi4j_wiringpi_GpioInterrupt
- * Method:    disablePinStateChangeCallback
+ * Method:    disableNativePinStateChangeCallback
  * Signature: (I)I
  */
-JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_disablePinStateChangeCallback
+JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_disableNativePinStateChangeCallback
   (JNIEnv *env, jclass class, jint pin)
 {
 	// get the index position for the requested pin number
 	int index = pin;
 
 	// ensure that the requested pin index is valid
-	if(index >= 0)
+	if(index < 0 || index >= MAX_GPIO_PINS)
 	{
-		// kill the monitoring thread
-		if(gpio_monitor_data_array[index].running > 0)
-		{
-            // remove existing pin edge trigger
-            Java_com_pi4j_wiringpi_GpioUtil_setEdgeDetection(env, class, pin, com_pi4j_wiringpi_GpioUtil_EDGE_NONE);
+		// return '-1' on error; not a valid pin
+		return -1;
+	}
 
-			// cancel monitoring thread
-			pthread_cancel(gpio_monitor_threads[index]);
+	pthread_mutex_lock(&gpio_monitor_lock);
 
-            // reset running flag
-            gpio_monitor_data_array[index].running = 0;
+	// stop monitoring the pin
+	if(gpio_monitor_data_array[index].running > 0)
+	{
+		// remove existing pin edge trigger
+		Java_com_pi4j_wiringpi_GpioUtil_setEdgeDetection(env, class, pin, com_pi4j_wiringpi_GpioUtil_EDGE_NONE);
 
-			// return '1' when a thread was actively killed
-			return 1;
-		}
+		// unregister the value file from the monitoring thread's epoll instance
+		if(gpio_monitor_thread.epfd >= 0)
+			epoll_ctl(gpio_monitor_thread.epfd, EPOLL_CTL_DEL, gpio_monitor_data_array[index].fd, NULL);
+		close(gpio_monitor_data_array[index].fd);
 
-		// return '0' when no action was taken
-		// (monitor is not currently active/running)
-		return 0;
+		// reset running flag
+		gpio_monitor_data_array[index].fd = -1;
+		gpio_monitor_data_array[index].running = 0;
+
+		pthread_mutex_unlock(&gpio_monitor_lock);
+
+		// return '1' when the pin monitoring was actively stopped
+		return 1;
 	}
 
-	// return '-1' on error; not a valid pin
-	return -1;
+	pthread_mutex_unlock(&gpio_monitor_lock);
+
+	// return '0' when no action was taken
+	// (pin is not currently monitored)
+	return 0;
 }
 
 
@@ -369,7 +514,7 @@ jint GpioInterrupt_JNI_OnLoad(JavaVM *jvm)
     }
 
     // lookup and cache the static method ID for the 'pinStateChangeCallback' callback
-    gpio_callback_method = (*env)->GetStaticMethodID(env, cls, "pinStateChangeCallback", "(IZ)V");
+    gpio_callback_method = (*env)->GetStaticMethodID(env, cls, "pinStateChangeCallback", "(IZJ)V");
     if (gpio_callback_method == NULL)
     {
     	// callback method could not be found in attached java class
@@ -386,16 +531,31 @@ jint GpioInterrupt_JNI_OnLoad(JavaVM *jvm)
  * --------------------------------------------------------
  * JNI LIBRARY UNLOADED
  * --------------------------------------------------------
- * stop all monitoring threads and clean up references
+ * stop the monitoring thread and clean up references
  */
 void GpioInterrupt_JNI_OnUnload(JavaVM *jvm)
 {
-	// kill all running monitor threads
+	// kill the running monitor thread
 	int index = 0;
+	if(gpio_monitor_thread.running > 0)
+	{
+		pthread_cancel(gpio_monitor_thread.thread);
+		gpio_monitor_thread.running = 0;
+	}
+	if(gpio_monitor_thread.epfd >= 0)
+	{
+		close(gpio_monitor_thread.epfd);
+		gpio_monitor_thread.epfd = -1;
+	}
+
+	// close all monitored value files
 	for(index = 0; index < MAX_GPIO_PINS; index++)
 	{
 		if(gpio_monitor_data_array[index].running > 0)
-			pthread_cancel(gpio_monitor_threads[index]);
+		{
+			close(gpio_monitor_data_array[index].fd);
+			gpio_monitor_data_array[index].running = 0;
+		}
 	}
 
 	// destroy cached java references
@@ -35,18 +35,18 @@ extern "C" {
 #endif
 /*
  * Class:     com_pi4j_wiringpi_GpioInterrupt
- * Method:    enablePinStateChangeCallback
+ * Method:    enableNativePinStateChangeCallback
  * Signature: (I)I
  */
-JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_enablePinStateChangeCallback
+JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_enableNativePinStateChangeCallback
   (JNIEnv *, jclass, jint);
 
 /*
  * Class:     com_pi4j_wiringpi_GpioInterrupt
- * Method:    disablePinStateChangeCallback
+ * Method:    disableNativePinStateChangeCallback
  * Signature: (I)I
  */
-JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_disablePinStateChangeCallback
+JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_disableNativePinStateChangeCallback
   (JNIEnv *, jclass, jint);
 
 